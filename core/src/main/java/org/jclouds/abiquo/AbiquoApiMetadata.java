@@ -20,8 +20,28 @@
 package org.jclouds.abiquo;
 
 import static org.jclouds.Constants.PROPERTY_MAX_REDIRECTS;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_BACKOFF;
 import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_EXPECTED_DURATIONS;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_JITTER;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_MAX_DELAY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_TIMEOUT_TICK;
+import static org.jclouds.abiquo.reference.AbiquoConstants.COMPUTE_RESOURCES_REFRESH_INTERVAL;
 import static org.jclouds.abiquo.reference.AbiquoConstants.CREDENTIAL_IS_TOKEN;
+import static org.jclouds.abiquo.reference.AbiquoConstants.GZIP_COMPRESSION;
+import static org.jclouds.abiquo.reference.AbiquoConstants.GZIP_PAYLOAD_THRESHOLD;
+import static org.jclouds.abiquo.reference.AbiquoConstants.NODE_CONVERSION_CONCURRENCY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PAGING_PAGE_SIZE;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PAGING_PREFETCH;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PARENT_CACHE_MAX_ENTRIES;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PARENT_CACHE_TTL;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PLACEMENT_CACHE_TTL;
+import static org.jclouds.abiquo.reference.AbiquoConstants.REQUEST_COALESCING;
+import static org.jclouds.abiquo.reference.AbiquoConstants.RESPONSE_CACHE_MAX_ENTRIES;
+import static org.jclouds.abiquo.reference.AbiquoConstants.SESSION_AUTHENTICATION;
+import static org.jclouds.abiquo.reference.AbiquoConstants.TEARDOWN_CONCURRENCY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.WIRE_FORMAT;
+import static org.jclouds.abiquo.reference.AbiquoConstants.XML_PARSER_WARM_UP;
 
 import java.net.URI;
 import java.util.Properties;
@@ -70,10 +90,42 @@ public class AbiquoApiMetadata extends BaseRestApiMetadata
         Properties properties = BaseRestApiMetadata.defaultProperties();
         // By default redirects will be handled in the domain objects
         properties.setProperty(PROPERTY_MAX_REDIRECTS, "0");
-        // The default polling delay between AsyncTask monitor requests
+        // The default polling policy for AsyncTask monitor requests
         properties.setProperty(ASYNC_TASK_MONITOR_DELAY, "5000");
+        properties.setProperty(ASYNC_TASK_MONITOR_MAX_DELAY, "30000");
+        properties.setProperty(ASYNC_TASK_MONITOR_BACKOFF, "1.5");
+        properties.setProperty(ASYNC_TASK_MONITOR_JITTER, "0.2");
+        properties.setProperty(ASYNC_TASK_MONITOR_EXPECTED_DURATIONS, "");
+        properties.setProperty(ASYNC_TASK_MONITOR_TIMEOUT_TICK, "100");
         // By default the provided credential is not a token
         properties.setProperty(CREDENTIAL_IS_TOKEN, "false");
+        // By default the credentials are sent in every request
+        properties.setProperty(SESSION_AUTHENTICATION, "false");
+        // The default page size and prefetch depth of paginated listings
+        properties.setProperty(PAGING_PAGE_SIZE, "100");
+        properties.setProperty(PAGING_PREFETCH, "1");
+        // Parent navigation responses are not cached by default
+        properties.setProperty(RESPONSE_CACHE_MAX_ENTRIES, "0");
+        // Parent resources are not cached by default
+        properties.setProperty(PARENT_CACHE_TTL, "0");
+        properties.setProperty(PARENT_CACHE_MAX_ENTRIES, "1000");
+        // Identical concurrent read requests are sent only once
+        properties.setProperty(REQUEST_COALESCING, "true");
+        // JAXB contexts are created the first time each type is used
+        properties.setProperty(XML_PARSER_WARM_UP, "false");
+        // Transport objects are exchanged in XML by default
+        properties.setProperty(WIRE_FORMAT, "xml");
+        // Neither responses nor request payloads are compressed by default
+        properties.setProperty(GZIP_COMPRESSION, "false");
+        properties.setProperty(GZIP_PAYLOAD_THRESHOLD, "0");
+        // Up to 10 virtual machines are converted to nodes concurrently when listing nodes
+        properties.setProperty(NODE_CONVERSION_CONCURRENCY, "10");
+        // Up to 10 undeploy and delete requests are sent concurrently to each datacenter
+        properties.setProperty(TEARDOWN_CONCURRENCY, "10");
+        // Compatible virtual datacenters and their available resources are not cached by default
+        properties.setProperty(PLACEMENT_CACHE_TTL, "0");
+        // Templates and datacenters are reloaded in the background every minute
+        properties.setProperty(COMPUTE_RESOURCES_REFRESH_INTERVAL, "60000");
         return properties;
     }
 
@@ -24,8 +24,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.net.URI;
-import java.util.Arrays;
+import java.util.List;
 
 import javax.inject.Singleton;
 
@@ -38,8 +39,10 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.abiquo.model.rest.RESTLink;
 import com.abiquo.model.transport.SingleResourceTransportDto;
-import com.google.common.base.Predicates;
-import com.google.common.collect.Iterables;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 /**
  * Binds the given object to the path..
@@ -49,6 +52,35 @@ import com.google.common.collect.Iterables;
 @Singleton
 public class BindToPath implements Binder
 {
+    /**
+     * The value of the {@link EndpointLink} annotation of each parameter of the api methods, or
+     * <code>null</code> if the parameter is not annotated. It is computed once per method to
+     * avoid inspecting the parameter annotations in each request.
+     */
+    @VisibleForTesting
+    static final LoadingCache<Method, String[]> ENDPOINT_LINKS = CacheBuilder.newBuilder().build(
+        new CacheLoader<Method, String[]>()
+        {
+            @Override
+            public String[] load(final Method method)
+            {
+                Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+                String[] links = new String[parameterAnnotations.length];
+                for (int i = 0; i < parameterAnnotations.length; i++)
+                {
+                    for (Annotation annotation : parameterAnnotations[i])
+                    {
+                        if (annotation instanceof EndpointLink)
+                        {
+                            links[i] = ((EndpointLink) annotation).value();
+                            break;
+                        }
+                    }
+                }
+                return links;
+            }
+        });
+
     @Override
     public <R extends HttpRequest> R bindToRequest(final R request, final Object input)
     {
@@ -85,12 +117,20 @@ public class BindToPath implements Binder
     static RESTLink getLinkToUse(final GeneratedHttpRequest< ? > request,
         final SingleResourceTransportDto payload)
     {
-        int argIndex = request.getArgs().indexOf(payload);
-        Annotation[] annotations = request.getJavaMethod().getParameterAnnotations()[argIndex];
+        String[] links = ENDPOINT_LINKS.getUnchecked(request.getJavaMethod());
+        List<Object> args = request.getArgs();
 
-        EndpointLink linkName =
-            (EndpointLink) Iterables.find(Arrays.asList(annotations),
-                Predicates.instanceOf(EndpointLink.class), null);
+        // Find the annotated parameter that holds the payload, comparing by identity to avoid
+        // calling equals on the transport objects
+        String linkName = null;
+        for (int i = 0; i < args.size() && i < links.length; i++)
+        {
+            if (args.get(i) == payload && links[i] != null)
+            {
+                linkName = links[i];
+                break;
+            }
+        }
 
         if (linkName == null)
         {
@@ -98,7 +138,7 @@ public class BindToPath implements Binder
                 "Expected a EndpointLink annotation but not found in the parameter");
         }
 
-        return checkNotNull(payload.searchLink(linkName.value()),
+        return checkNotNull(payload.searchLink(linkName),
             "No link was found in object with rel: " + linkName);
     }
 
@@ -131,29 +171,17 @@ public class BindToPath implements Binder
     {
         String endpoint = request.getEndpoint().toString();
 
-        int query = endpoint.indexOf('?');
-        int matrix = endpoint.indexOf(';');
-
-        if (query == -1 && matrix == -1)
-        {
-            // No parameters
-            return "";
-        }
-        else if (query != -1 && matrix != -1)
-        {
-            // Both parameter types
-            return endpoint.substring(query < matrix ? query : matrix);
-        }
-        else if (query != -1)
-        {
-            // Only request parameters
-            return endpoint.substring(query);
-        }
-        else
+        // The parameters start with the first query or matrix parameter separator
+        for (int i = 0; i < endpoint.length(); i++)
         {
-            // Only matrix parameters
-            return endpoint.substring(matrix);
+            char c = endpoint.charAt(i);
+            if (c == '?' || c == ';')
+            {
+                return endpoint.substring(i);
+            }
         }
 
+        // No parameters
+        return "";
     }
 }
@@ -0,0 +1,65 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.utils.ModifyRequest;
+import org.jclouds.rest.Binder;
+
+/**
+ * Binds the validators of a cached response to the conditional request headers.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class BindValidatorsToHeaders implements Binder
+{
+    @Override
+    public <R extends HttpRequest> R bindToRequest(final R request, final Object input)
+    {
+        checkArgument(checkNotNull(input, "input") instanceof CachedResponse,
+            "this binder is only valid for CachedResponse objects");
+
+        CachedResponse cached = (CachedResponse) input;
+        R updatedRequest = request;
+
+        if (cached.getETag() != null)
+        {
+            updatedRequest =
+                ModifyRequest.replaceHeader(updatedRequest, HttpHeaders.IF_NONE_MATCH,
+                    cached.getETag());
+        }
+        if (cached.getLastModified() != null)
+        {
+            updatedRequest =
+                ModifyRequest.replaceHeader(updatedRequest, HttpHeaders.IF_MODIFIED_SINCE,
+                    cached.getLastModified());
+        }
+
+        return updatedRequest;
+    }
+}
@@ -25,6 +25,8 @@ import org.jclouds.abiquo.compute.functions.VirtualMachineTemplateToImage;
 import org.jclouds.abiquo.compute.functions.VirtualMachineToNodeMetadata;
 import org.jclouds.abiquo.compute.options.AbiquoTemplateOptions;
 import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceAdapter;
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceStrategies;
+import org.jclouds.abiquo.compute.strategy.AbiquoCreateNodesInGroupThenAddToSet;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
@@ -34,6 +36,8 @@ import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
+import org.jclouds.compute.strategy.impl.AdaptingComputeServiceStrategies;
 import org.jclouds.domain.Location;
 import org.jclouds.location.suppliers.ImplicitLocationSupplier;
 import org.jclouds.location.suppliers.implicit.OnlyLocationOrFirstZone;
@@ -74,6 +78,11 @@ public class AbiquoComputeServiceContextModule
         }).to(DatacenterToLocation.class);
         bind(ImplicitLocationSupplier.class).to(OnlyLocationOrFirstZone.class).in(Scopes.SINGLETON);
         bind(TemplateOptions.class).to(AbiquoTemplateOptions.class);
+        bind(CreateNodesInGroupThenAddToSet.class).to(AbiquoCreateNodesInGroupThenAddToSet.class);
+        bind(
+            new TypeLiteral<AdaptingComputeServiceStrategies<VirtualMachine, VirtualMachineTemplate, VirtualMachineTemplate, Datacenter>>()
+            {
+            }).to(AbiquoComputeServiceStrategies.class);
         install(new LocationsFromComputeServiceAdapterModule<VirtualMachine, VirtualMachineTemplate, VirtualMachineTemplate, Datacenter>()
         {
         });
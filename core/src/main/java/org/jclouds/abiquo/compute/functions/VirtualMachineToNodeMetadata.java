@@ -19,25 +19,47 @@
 
 package org.jclouds.abiquo.compute.functions;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.abiquo.reference.AbiquoConstants.NODE_CONVERSION_CONCURRENCY;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.network.Nic;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
 
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineState;
 import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * Links a {@link VirtualMachine} object to a {@link NodeMetadata} one.
+ * <p>
+ * Lists of virtual machines can be converted at once with {@link #applyAll(Iterable)}. The
+ * virtual appliances and templates shared by the virtual machines are fetched and converted only
+ * once, and the nics are fetched in parallel.
  * 
  * @author Ignasi Barrera
  */
@@ -50,12 +72,19 @@ public class VirtualMachineToNodeMetadata implements Function<VirtualMachine, No
 
     private final VirtualMachineStateToNodeState virtualMachineStateToNodeState;
 
+    private final ExecutorService userExecutor;
+
+    /** The maximum number of concurrent requests performed by the bulk conversion. */
+    private final int maxConcurrency;
+
     @Inject
     public VirtualMachineToNodeMetadata(
         final VirtualMachineTemplateToImage virtualMachineTemplateToImage,
         final VirtualMachineTemplateToHardware virtualMachineTemplateToHardware,
         final VirtualMachineStateToNodeState virtualMachineStateToNodeState,
-        final DatacenterToLocation datacenterToLocation)
+        final DatacenterToLocation datacenterToLocation,
+        @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor,
+        @Named(NODE_CONVERSION_CONCURRENCY) final Integer maxConcurrency)
     {
         this.virtualMachineTemplateToImage =
             checkNotNull(virtualMachineTemplateToImage, "virtualMachineTemplateToImage");
@@ -63,37 +92,178 @@ public class VirtualMachineToNodeMetadata implements Function<VirtualMachine, No
             checkNotNull(virtualMachineTemplateToHardware, "virtualMachineTemplateToHardware");
         this.virtualMachineStateToNodeState =
             checkNotNull(virtualMachineStateToNodeState, "virtualMachineStateToNodeState");
+        this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+        checkArgument(checkNotNull(maxConcurrency, "maxConcurrency") > 0,
+            "maxConcurrency must be greater than zero");
+        this.maxConcurrency = maxConcurrency;
     }
 
+    /**
+     * Converts the given virtual machine, getting its current state from the server.
+     */
     @Override
     public NodeMetadata apply(final VirtualMachine vm)
+    {
+        VirtualMachineTemplate template = vm.getTemplate();
+        return toNodeMetadata(vm, vm.getVirtualAppliance().getName(),
+            virtualMachineTemplateToImage.apply(template),
+            virtualMachineTemplateToHardware.apply(template), vm.listAttachedNics(),
+            vm.getState());
+    }
+
+    /**
+     * Converts all the given virtual machines.
+     * <p>
+     * Each virtual appliance and template is fetched only once, and all requests are performed in
+     * parallel with a bounded concurrency. The state of each node is the one in the virtual
+     * machine object, to avoid an additional request per node, so the virtual machines must have
+     * just been listed or refreshed.
+     * 
+     * @param vms The virtual machines to convert.
+     * @return The nodes, in the same order than the given virtual machines.
+     */
+    public List<NodeMetadata> applyAll(final Iterable<VirtualMachine> vms)
+    {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<String, Future<String>> groups = Maps.newHashMap();
+        Map<String, Future<ConvertedTemplate>> templates = Maps.newHashMap();
+        List<Future<List<Nic>>> nics = Lists.newArrayList();
+
+        for (final VirtualMachine vm : vms)
+        {
+            String vappHref = href(vm, ParentLinkName.VIRTUAL_APPLIANCE);
+            if (!groups.containsKey(vappHref))
+            {
+                groups.put(vappHref, submit(permits, new Callable<String>()
+                {
+                    @Override
+                    public String call() throws Exception
+                    {
+                        return vm.getVirtualAppliance().getName();
+                    }
+                }));
+            }
+
+            String templateHref = href(vm, ParentLinkName.VIRTUAL_MACHINE_TEMPLATE);
+            if (!templates.containsKey(templateHref))
+            {
+                templates.put(templateHref, submit(permits, new Callable<ConvertedTemplate>()
+                {
+                    @Override
+                    public ConvertedTemplate call() throws Exception
+                    {
+                        VirtualMachineTemplate template = vm.getTemplate();
+                        return new ConvertedTemplate(virtualMachineTemplateToImage.apply(template),
+                            virtualMachineTemplateToHardware.apply(template));
+                    }
+                }));
+            }
+
+            nics.add(submit(permits, new Callable<List<Nic>>()
+            {
+                @Override
+                public List<Nic> call() throws Exception
+                {
+                    return vm.listAttachedNics();
+                }
+            }));
+        }
+
+        List<NodeMetadata> nodes = Lists.newArrayListWithCapacity(nics.size());
+        int i = 0;
+        for (VirtualMachine vm : vms)
+        {
+            String group = get(groups.get(href(vm, ParentLinkName.VIRTUAL_APPLIANCE)));
+            ConvertedTemplate template =
+                get(templates.get(href(vm, ParentLinkName.VIRTUAL_MACHINE_TEMPLATE)));
+
+            VirtualMachineState state = vm.unwrap().getState();
+            nodes.add(toNodeMetadata(vm, group, template.image, template.hardware,
+                get(nics.get(i++)), state != null ? state : vm.getState()));
+        }
+
+        return nodes;
+    }
+
+    private NodeMetadata toNodeMetadata(final VirtualMachine vm, final String group,
+        final Image image, final Hardware hardware, final Iterable<Nic> nics,
+        final VirtualMachineState state)
     {
         NodeMetadataBuilder builder = new NodeMetadataBuilder();
         builder.ids(vm.getId().toString());
         builder.uri(URI.create(vm.unwrap().getEditLink().getHref()));
         builder.name(vm.getName());
         builder.hostname(vm.getName()); // TODO: Abiquo does not set the hostname
-        builder.group(vm.getVirtualAppliance().getName());
+        builder.group(group);
 
         // TODO: builder.location() Only cloud admins have access to the datacenter link of the VDC
         // TODO: builder.credentials() (http://jira.abiquo.com/browse/ABICLOUDPREMIUM-3647)
 
-        VirtualMachineTemplate template = vm.getTemplate();
-        Image image = virtualMachineTemplateToImage.apply(template);
         builder.imageId(image.getId().toString());
         builder.operatingSystem(image.getOperatingSystem());
-
-        builder.hardware(virtualMachineTemplateToHardware.apply(template));
+        builder.hardware(hardware);
 
         // TODO: Add a method to NIC domain object to determine its type
         // (http://jira.abiquo.com/browse/ABIQUOJC-3)
-        builder.privateAddresses(privateIps(vm.listAttachedNics()));
+        builder.privateAddresses(privateIps(nics));
 
-        builder.state(virtualMachineStateToNodeState.apply(vm.getState()));
+        builder.state(virtualMachineStateToNodeState.apply(state));
 
         return builder.build();
     }
 
+    private <T> Future<T> submit(final Semaphore permits, final Callable<T> task)
+    {
+        try
+        {
+            permits.acquire();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ex);
+        }
+
+        return userExecutor.submit(new Callable<T>()
+        {
+            @Override
+            public T call() throws Exception
+            {
+                try
+                {
+                    return task.call();
+                }
+                finally
+                {
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    private static <T> T get(final Future<T> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            throw Throwables.propagate(ex.getCause());
+        }
+    }
+
+    private static String href(final VirtualMachine vm, final String rel)
+    {
+        RESTLink link = vm.unwrap().searchLink(rel);
+        return link == null ? null : link.getHref();
+    }
+
     private static Iterable<String> privateIps(final Iterable<Nic> nics)
     {
         return transform(nics, new Function<Nic, String>()
@@ -105,4 +275,20 @@ public class VirtualMachineToNodeMetadata implements Function<VirtualMachine, No
             }
         });
     }
+
+    /**
+     * The image and hardware of a template.
+     */
+    private static class ConvertedTemplate
+    {
+        private final Image image;
+
+        private final Hardware hardware;
+
+        public ConvertedTemplate(final Image image, final Hardware hardware)
+        {
+            this.image = image;
+            this.hardware = hardware;
+        }
+    }
 }
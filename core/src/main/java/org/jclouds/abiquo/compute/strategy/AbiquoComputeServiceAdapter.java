@@ -20,15 +20,28 @@
 package org.jclouds.abiquo.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.COMPUTE_RESOURCES_REFRESH_INTERVAL;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.compute.options.AbiquoTemplateOptions;
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceHelper.Reservation;
+import org.jclouds.abiquo.compute.strategy.VirtualDatacenterPlacement.Resources;
+import org.jclouds.abiquo.compute.suppliers.RefreshAheadSupplier;
+import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
@@ -36,23 +49,40 @@ import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
 import org.jclouds.abiquo.domain.enterprise.User;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.domain.task.AsyncTask;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent.Type;
 import org.jclouds.abiquo.features.services.AdministrationService;
 import org.jclouds.abiquo.features.services.CloudService;
 import org.jclouds.abiquo.features.services.MonitoringService;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
 import org.jclouds.abiquo.predicates.cloud.VirtualAppliancePredicates;
 import org.jclouds.abiquo.predicates.infrastructure.DatacenterPredicates;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
 import org.jclouds.compute.ComputeService;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Processor;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
 
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
 import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.TypeLiteral;
 
 /**
  * Defines the connection between the {@link AbiquoClient} implementation and the jclouds
@@ -79,10 +109,28 @@ public class AbiquoComputeServiceAdapter
 
     private AbiquoComputeServiceHelper helper;
 
+    private final ExecutorService userExecutor;
+
+    private final VirtualMachineIndex index;
+
+    private final VirtualMachineTeardown teardown;
+
+    /** The enterprise of the current user. */
+    private final Supplier<Enterprise> currentEnterprise;
+
+    /** The templates available to the current enterprise, used as images and hardware. */
+    private final Supplier<List<VirtualMachineTemplate>> templates;
+
+    /** The datacenters allowed to the current enterprise, used as locations. */
+    private final Supplier<List<Datacenter>> datacenters;
+
     @Inject
     public AbiquoComputeServiceAdapter(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         final AdministrationService adminService, final CloudService cloudService,
-        final MonitoringService monitoringService, final AbiquoComputeServiceHelper helper)
+        final MonitoringService monitoringService, final AbiquoComputeServiceHelper helper,
+        @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor,
+        final VirtualMachineIndex index, final VirtualMachineTeardown teardown,
+        @Named(COMPUTE_RESOURCES_REFRESH_INTERVAL) final Long refreshInterval)
     {
         super();
         this.context = checkNotNull(context, "context");
@@ -90,6 +138,41 @@ public class AbiquoComputeServiceAdapter
         this.cloudService = checkNotNull(cloudService, "cloudService");
         this.monitoringService = checkNotNull(monitoringService, "monitoringService");
         this.helper = checkNotNull(helper, "helper");
+        this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+        this.index = checkNotNull(index, "index");
+        this.teardown = checkNotNull(teardown, "teardown");
+        checkNotNull(refreshInterval, "refreshInterval");
+
+        // Templates and datacenters are refreshed in the background, so template resolution does
+        // not wait for the templates of all the datacenters to be listed
+        this.currentEnterprise =
+            new RefreshAheadSupplier<Enterprise>(new Supplier<Enterprise>()
+            {
+                @Override
+                public Enterprise get()
+                {
+                    return adminService.getCurrentEnterprise();
+                }
+            }, refreshInterval, userExecutor);
+        this.templates =
+            new RefreshAheadSupplier<List<VirtualMachineTemplate>>(
+                new Supplier<List<VirtualMachineTemplate>>()
+                {
+                    @Override
+                    public List<VirtualMachineTemplate> get()
+                    {
+                        return ImmutableList.copyOf(currentEnterprise.get().listTemplates());
+                    }
+                }, refreshInterval, userExecutor);
+        this.datacenters =
+            new RefreshAheadSupplier<List<Datacenter>>(new Supplier<List<Datacenter>>()
+            {
+                @Override
+                public List<Datacenter> get()
+                {
+                    return ImmutableList.copyOf(currentEnterprise.get().listAllowedDatacenters());
+                }
+            }, refreshInterval, userExecutor);
     }
 
     @Override
@@ -97,51 +180,290 @@ public class AbiquoComputeServiceAdapter
         final String tag, final String name, final Template template)
     {
         AbiquoTemplateOptions options = template.getOptions().as(AbiquoTemplateOptions.class);
+        GroupContext group = resolveGroup(tag, template, options, 1);
 
-        User user = adminService.getCurrentUser();
-        Enterprise enterprise = adminService.getCurrentEnterprise();
+        VirtualMachine vm;
+        try
+        {
+            vm = createVirtualMachine(group, name, template, options);
+        }
+        catch (RuntimeException ex)
+        {
+            release(group, 1);
+            throw ex;
+        }
+
+        VirtualMachineMonitor monitor = monitoringService.getVirtualMachineMonitor();
+        vm.deploy();
+        monitor.awaitCompletionDeploy(vm);
+
+        // TODO: Node default credentials
+        return new NodeAndInitialCredentials<VirtualMachine>(vm, vm.getId().toString(), null);
+    }
+
+    /**
+     * Creates and deploys all the nodes of a group at once.
+     * <p>
+     * The resources shared by the nodes of the group are resolved only once, and all the virtual
+     * machines are created in parallel. If the virtual appliance of the group has just been
+     * created, it is deployed with a single request; otherwise the new virtual machines are
+     * deployed in parallel. In both cases all the deploys are monitored together.
+     * <p>
+     * The failure of a node does not stop the creation of the others. Nodes that could not be
+     * created and virtual machines that could not be deployed are reported in the result, and a
+     * new virtual appliance is deleted if none of its virtual machines could be created.
+     * 
+     * @param tag The name of the group.
+     * @param names The names of the nodes to create.
+     * @param template The template of the nodes.
+     * @return The result of the creation of each node.
+     */
+    public GroupCreation createNodesWithGroupEncodedIntoName(final String tag,
+        final Iterable<String> names, final Template template)
+    {
+        final AbiquoTemplateOptions options =
+            template.getOptions().as(AbiquoTemplateOptions.class);
+        final GroupContext group = resolveGroup(tag, template, options, Iterables.size(names));
+        GroupCreation result = new GroupCreation();
+
+        Map<String, Future<VirtualMachine>> creations = Maps.newLinkedHashMap();
+        for (final String name : names)
+        {
+            creations.put(name, userExecutor.submit(new Callable<VirtualMachine>()
+            {
+                @Override
+                public VirtualMachine call() throws Exception
+                {
+                    return createVirtualMachine(group, name, template, options);
+                }
+            }));
+        }
+
+        List<VirtualMachine> created = Lists.newArrayListWithCapacity(creations.size());
+        for (Map.Entry<String, Future<VirtualMachine>> creation : creations.entrySet())
+        {
+            try
+            {
+                created.add(await(creation.getValue()));
+            }
+            catch (Exception ex)
+            {
+                logger.warn(ex, "<< could not create node %s in group %s", creation.getKey(),
+                    tag);
+                result.notCreated.put(creation.getKey(), ex);
+            }
+        }
 
-        Datacenter datacenter =
-            enterprise.findAllowedDatacenter(DatacenterPredicates.id(Integer.valueOf(template
-                .getLocation().getId())));
+        release(group, result.notCreated.size());
+
+        if (created.isEmpty())
+        {
+            if (group.newVirtualAppliance)
+            {
+                deleteQuietly(group.virtualAppliance);
+            }
+            return result;
+        }
+
+        logger.debug(">> deploying %s virtual machines in group %s", created.size(), tag);
+        List<VirtualMachine> deploying = deploy(group, created, result.notDeployed);
+        awaitDeploy(deploying, result);
+        logger.debug("<< deployed %s virtual machines in group %s", result.deployed.size(), tag);
+
+        return result;
+    }
+
+    /**
+     * Gives back the resources reserved for the given number of nodes of the group that could not
+     * be created. Nothing is given back if the resources were not reserved.
+     */
+    private void release(final GroupContext group, final int count)
+    {
+        if (group.reserved && count > 0)
+        {
+            helper.releaseResources(group.virtualDatacenter, group.resourcesPerNode.times(count));
+        }
+    }
+
+    /**
+     * Starts the deploy of the given virtual machines.
+     * 
+     * @return The virtual machines being deployed.
+     */
+    private List<VirtualMachine> deploy(final GroupContext group, final List<VirtualMachine> vms,
+        final Map<VirtualMachine, Exception> notDeployed)
+    {
+        if (group.newVirtualAppliance)
+        {
+            try
+            {
+                group.virtualAppliance.deploy();
+                return vms;
+            }
+            catch (RuntimeException ex)
+            {
+                for (VirtualMachine vm : vms)
+                {
+                    notDeployed.put(vm, ex);
+                }
+                return ImmutableList.of();
+            }
+        }
+
+        List<Future<AsyncTask>> deploys = Lists.newArrayListWithCapacity(vms.size());
+        for (final VirtualMachine vm : vms)
+        {
+            deploys.add(userExecutor.submit(new Callable<AsyncTask>()
+            {
+                @Override
+                public AsyncTask call() throws Exception
+                {
+                    return vm.deploy();
+                }
+            }));
+        }
+
+        List<VirtualMachine> deploying = Lists.newArrayListWithCapacity(vms.size());
+        for (int i = 0; i < vms.size(); i++)
+        {
+            try
+            {
+                await(deploys.get(i));
+                deploying.add(vms.get(i));
+            }
+            catch (Exception ex)
+            {
+                notDeployed.put(vms.get(i), ex);
+            }
+        }
+        return deploying;
+    }
+
+    /**
+     * Waits until the given virtual machines are deployed, and records the result of each one.
+     */
+    private void awaitDeploy(final List<VirtualMachine> vms, final GroupCreation result)
+    {
+        if (vms.isEmpty())
+        {
+            return;
+        }
+
+        List<ListenableFuture<MonitorEvent<VirtualMachine>>> events =
+            monitoringService.getVirtualMachineMonitor().monitorDeployAsync(
+                vms.toArray(new VirtualMachine[vms.size()]));
+
+        for (int i = 0; i < vms.size(); i++)
+        {
+            VirtualMachine vm = vms.get(i);
+            try
+            {
+                MonitorEvent<VirtualMachine> event = await(events.get(i));
+                if (event.getType() == Type.COMPLETED)
+                {
+                    result.deployed.add(vm);
+                }
+                else
+                {
+                    result.notDeployed.put(vm, new IllegalStateException(
+                        "virtual machine was not deployed: " + event));
+                }
+            }
+            catch (Exception ex)
+            {
+                result.notDeployed.put(vm, ex);
+            }
+        }
+    }
+
+    private void deleteQuietly(final VirtualAppliance vapp)
+    {
+        try
+        {
+            vapp.delete();
+        }
+        catch (RuntimeException ex)
+        {
+            logger.warn(ex, "<< could not delete virtual appliance %s", vapp.getName());
+        }
+    }
+
+    /**
+     * Resolves the resources shared by all the nodes of a group, creating the virtual appliance of
+     * the group if it does not exist, and reserves the resources required by the given number of
+     * nodes. The reserved resources are given back if the virtual appliance cannot be loaded or
+     * created.
+     */
+    @VisibleForTesting
+    GroupContext resolveGroup(final String tag, final Template template,
+        final AbiquoTemplateOptions options, final int count)
+    {
+        User user = adminService.getCurrentUser();
+        Enterprise enterprise = currentEnterprise.get();
+        Datacenter datacenter = findAllowedDatacenter(enterprise, template.getLocation().getId());
 
         VirtualMachineTemplate virtualMachineTemplate =
             enterprise.getTemplateInRepository(datacenter,
                 Integer.valueOf(template.getImage().getId()));
 
-        VirtualDatacenter vdc =
+        Resources resourcesPerNode =
+            Resources.of(cores(template, options), ram(template, options),
+                virtualMachineTemplate.getHdRequired());
+
+        Reservation reservation =
             helper.getOrCreateVirtualDatacenter(user, enterprise, datacenter,
-                virtualMachineTemplate, options);
+                virtualMachineTemplate, options, resourcesPerNode.times(count));
+        VirtualDatacenter vdc = reservation.virtualDatacenter;
 
         // Load the virtual appliance or create it
-        VirtualAppliance vapp = vdc.findVirtualAppliance(VirtualAppliancePredicates.name(tag));
-        if (vapp == null)
+        VirtualAppliance vapp;
+        boolean newVirtualAppliance;
+        try
+        {
+            vapp = vdc.findVirtualAppliance(VirtualAppliancePredicates.name(tag));
+            newVirtualAppliance = vapp == null;
+            if (newVirtualAppliance)
+            {
+                vapp = VirtualAppliance.builder(context, vdc).name(tag).build();
+                vapp.save();
+            }
+        }
+        catch (RuntimeException ex)
         {
-            vapp = VirtualAppliance.builder(context, vdc).name(tag).build();
-            vapp.save();
+            // None of the nodes will be created
+            if (reservation.reserved)
+            {
+                helper.releaseResources(vdc, resourcesPerNode.times(count));
+            }
+            throw ex;
         }
 
-        Integer overrideCores = options.getOverrideCores();
-        Integer overrideRam = options.getOverrideRam();
+        return new GroupContext(vdc, vapp, virtualMachineTemplate, newVirtualAppliance,
+            resourcesPerNode, reservation.reserved);
+    }
 
-        VirtualMachine vm = VirtualMachine.builder(context, vapp, virtualMachineTemplate) //
-            .name(name) //
-            .cpu(overrideCores != null ? overrideCores : totalCores(template.getHardware())) //
-            .ram(overrideRam != null ? overrideRam : template.getHardware().getRam()) //
-            .password(options.getVncPassword()) // Can be null
-            .build();
+    /**
+     * Creates a virtual machine in the virtual appliance of the group, without deploying it.
+     */
+    @VisibleForTesting
+    VirtualMachine createVirtualMachine(final GroupContext group, final String name,
+        final Template template, final AbiquoTemplateOptions options)
+    {
+        VirtualMachine vm =
+            VirtualMachine.builder(context, group.virtualAppliance, group.template) //
+                .name(name) //
+                .cpu(cores(template, options)) //
+                .ram(ram(template, options)) //
+                .password(options.getVncPassword()) // Can be null
+                .build();
 
         vm.save();
+        index.put(vm);
 
         // Once the virtual machine is created, override the default network settings if needed
         helper.configureNetwork(vm, options.getIps());
 
-        VirtualMachineMonitor monitor = monitoringService.getVirtualMachineMonitor();
-        vm.deploy();
-        monitor.awaitCompletionDeploy(vm);
-
-        // TODO: Node default credentials
-        return new NodeAndInitialCredentials<VirtualMachine>(vm, vm.getId().toString(), null);
+        return vm;
     }
 
     @Override
@@ -155,30 +477,78 @@ public class AbiquoComputeServiceAdapter
     @Override
     public Iterable<VirtualMachineTemplate> listImages()
     {
-        Enterprise enterprise = adminService.getCurrentEnterprise();
-        return enterprise.listTemplates();
+        return templates.get();
     }
 
     @Override
     public Iterable<Datacenter> listLocations()
     {
-        Enterprise enterprise = adminService.getCurrentEnterprise();
-        return enterprise.listAllowedDatacenters();
+        return datacenters.get();
     }
 
     @Override
     public VirtualMachine getNode(final String id)
     {
-        // FIXME: Try to avoid calling the cloudService.findVirtualMachine. Navigate the hierarchy
-        // instead.
-        return cloudService.findVirtualMachine(vmId(id));
+        // Fetch the virtual machine directly if it is known, to avoid searching the whole cloud
+        RESTLink edit = index.getEditLink(Integer.valueOf(id));
+        if (edit != null)
+        {
+            VirtualMachine vm = getVirtualMachine(edit);
+            if (vm != null)
+            {
+                return vm;
+            }
+            index.remove(Integer.valueOf(id));
+        }
+
+        VirtualMachine vm = cloudService.findVirtualMachine(vmId(id));
+        if (vm != null)
+        {
+            index.put(vm);
+        }
+        return vm;
     }
 
     @Override
     public void destroyNode(final String id)
     {
-        VirtualMachine vm = getNode(id);
-        vm.delete();
+        destroyNodes(ImmutableList.of(id));
+    }
+
+    /**
+     * Destroys all the given nodes at once.
+     * <p>
+     * Deployed nodes are undeployed in parallel, and each one is deleted as soon as its undeploy
+     * finishes. Whole virtual appliances are undeployed with a single request.
+     * 
+     * @param ids The ids of the nodes to destroy.
+     */
+    public void destroyNodes(final Iterable<String> ids)
+    {
+        List<VirtualMachine> vms = Lists.newArrayList();
+        for (String id : ids)
+        {
+            VirtualMachine vm = getNode(id);
+            if (vm != null)
+            {
+                vms.add(vm);
+            }
+        }
+
+        boolean deleted = false;
+        try
+        {
+            teardown.destroy(vms);
+            deleted = true;
+        }
+        finally
+        {
+            for (String id : ids)
+            {
+                index.remove(Integer.valueOf(id));
+            }
+            helper.releaseResources(vms, deleted);
+        }
     }
 
     @Override
@@ -215,7 +585,32 @@ public class AbiquoComputeServiceAdapter
     @Override
     public Iterable<VirtualMachine> listNodes()
     {
-        return cloudService.listVirtualMachines();
+        List<VirtualMachine> vms = ImmutableList.copyOf(cloudService.listVirtualMachines());
+        index.putAll(vms);
+        return vms;
+    }
+
+    /**
+     * Get the virtual machine with the given edit link.
+     * 
+     * @return The virtual machine or <code>null</code> if it does not exist.
+     */
+    private VirtualMachine getVirtualMachine(final RESTLink edit)
+    {
+        RESTLink link = new RESTLink(edit.getRel(), edit.getHref());
+        link.setType(VirtualMachineDto.BASE_MEDIA_TYPE);
+
+        ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+        HttpResponse response = utils.getAbiquoHttpClient().get(link);
+        if (response == null)
+        {
+            return null;
+        }
+
+        ParseXMLWithJAXB<VirtualMachineDto> parser =
+            new ParseXMLWithJAXB<VirtualMachineDto>(utils.getXml(),
+                TypeLiteral.get(VirtualMachineDto.class));
+        return DomainWrapper.wrap(context, VirtualMachine.class, parser.apply(response));
     }
 
     private static Predicate<VirtualMachine> vmId(final String id)
@@ -230,6 +625,50 @@ public class AbiquoComputeServiceAdapter
         };
     }
 
+    /**
+     * Finds the allowed datacenter with the given id in the cached locations, and falls back to
+     * the api if it has been allowed since the locations were loaded.
+     */
+    private Datacenter findAllowedDatacenter(final Enterprise enterprise, final String id)
+    {
+        Predicate<Datacenter> filter = DatacenterPredicates.id(Integer.valueOf(id));
+        Datacenter datacenter = Iterables.find(datacenters.get(), filter, null);
+        return datacenter != null ? datacenter : enterprise.findAllowedDatacenter(filter);
+    }
+
+    /**
+     * Waits for the given task and propagates its failure.
+     */
+    private static <T> T await(final Future<T> future) throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwables.propagateIfInstanceOf(ex.getCause(), Exception.class);
+            throw Throwables.propagate(ex.getCause());
+        }
+    }
+
+    private static int cores(final Template template, final AbiquoTemplateOptions options)
+    {
+        Integer overrideCores = options.getOverrideCores();
+        return overrideCores != null ? overrideCores : totalCores(template.getHardware());
+    }
+
+    private static int ram(final Template template, final AbiquoTemplateOptions options)
+    {
+        Integer overrideRam = options.getOverrideRam();
+        return overrideRam != null ? overrideRam : template.getHardware().getRam();
+    }
+
     private static int totalCores(final Hardware hardware)
     {
         double cores = 0;
@@ -240,4 +679,78 @@ public class AbiquoComputeServiceAdapter
         return Double.valueOf(cores).intValue();
     }
 
+    /**
+     * The result of the creation of the nodes of a group.
+     * 
+     * @author Ignasi Barrera
+     */
+    public static class GroupCreation
+    {
+        private final List<VirtualMachine> deployed = Lists.newArrayList();
+
+        private final Map<VirtualMachine, Exception> notDeployed = Maps.newLinkedHashMap();
+
+        private final Map<String, Exception> notCreated = Maps.newLinkedHashMap();
+
+        /**
+         * The virtual machines that have been created and deployed.
+         */
+        public List<VirtualMachine> getDeployed()
+        {
+            return deployed;
+        }
+
+        /**
+         * The virtual machines that have been created but could not be deployed, and the cause.
+         */
+        public Map<VirtualMachine, Exception> getNotDeployed()
+        {
+            return notDeployed;
+        }
+
+        /**
+         * The names of the nodes that could not be created, and the cause.
+         */
+        public Map<String, Exception> getNotCreated()
+        {
+            return notCreated;
+        }
+    }
+
+    /**
+     * The resources shared by all the nodes of a group.
+     * 
+     * @author Ignasi Barrera
+     */
+    @VisibleForTesting
+    static class GroupContext
+    {
+        final VirtualDatacenter virtualDatacenter;
+
+        final VirtualAppliance virtualAppliance;
+
+        final VirtualMachineTemplate template;
+
+        final boolean newVirtualAppliance;
+
+        /** The resources required by each node of the group. */
+        final Resources resourcesPerNode;
+
+        /** Boolean indicating if the resources of the nodes have been reserved. */
+        final boolean reserved;
+
+        GroupContext(final VirtualDatacenter virtualDatacenter,
+            final VirtualAppliance virtualAppliance, final VirtualMachineTemplate template,
+            final boolean newVirtualAppliance, final Resources resourcesPerNode,
+            final boolean reserved)
+        {
+            this.virtualDatacenter = virtualDatacenter;
+            this.virtualAppliance = virtualAppliance;
+            this.template = template;
+            this.newVirtualAppliance = newVirtualAppliance;
+            this.resourcesPerNode = resourcesPerNode;
+            this.reserved = reserved;
+        }
+    }
+
 }
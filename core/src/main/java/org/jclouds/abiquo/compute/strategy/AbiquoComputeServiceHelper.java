@@ -20,9 +20,7 @@
 package org.jclouds.abiquo.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.getFirst;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -33,6 +31,7 @@ import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.compute.exception.NotEnoughResourcesException;
 import org.jclouds.abiquo.compute.options.AbiquoTemplateOptions;
+import org.jclouds.abiquo.compute.strategy.VirtualDatacenterPlacement.Resources;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
@@ -42,15 +41,15 @@ import org.jclouds.abiquo.domain.exception.AbiquoException;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
 import org.jclouds.abiquo.domain.network.Ip;
 import org.jclouds.abiquo.domain.network.PrivateNetwork;
-import org.jclouds.abiquo.features.services.CloudService;
 import org.jclouds.abiquo.predicates.cloud.VirtualDatacenterPredicates;
+import org.jclouds.abiquo.predicates.cloud.VirtualMachinePredicates;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.enumerator.HypervisorType;
-import com.google.common.base.Predicate;
 
 /**
  * Helper methods to perform {@link AbiquoComputeServiceAdapter} operations.
@@ -66,53 +65,65 @@ public class AbiquoComputeServiceHelper
 
     private RestContext<AbiquoClient, AbiquoAsyncClient> context;
 
-    private CloudService cloudService;
+    private VirtualDatacenterPlacement placement;
 
     @Inject
     public AbiquoComputeServiceHelper(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
-        final CloudService cloudService)
+        final VirtualDatacenterPlacement placement)
     {
         super();
         this.context = checkNotNull(context, "context");
-        this.cloudService = checkNotNull(cloudService, "cloudService");
+        this.placement = checkNotNull(placement, "placement");
     }
 
     /**
      * Gets a virtual datacenter where the given template can be deployed.
      * <p>
-     * If no compatible virtual datacenter is found, one will be created, if possible.
+     * If no compatible virtual datacenter with enough resources to deploy the template is found,
+     * one will be created, if possible.
      * 
      * @param user The current user.
      * @param enterprise The enterprise of the current user.
      * @param datacenter The datacenter of the template.
      * @param template The template to deploy.
      * @param options The template options
-     * @return The virtual datacenter to be used to deploy the template or <code>null</code> if none
-     *         was found and a compatible one could not be created.
+     * @param required The resources required by all the virtual machines to deploy. They are
+     *            reserved in the returned virtual datacenter, if it has enough resources.
+     * @return The virtual datacenter to be used to deploy the template, and whether the required
+     *         resources have been reserved in it.
+     * @throws NotEnoughResourcesException If no virtual datacenter was found and a compatible one
+     *             could not be created.
      */
-    public VirtualDatacenter getOrCreateVirtualDatacenter(final User user,
+    public Reservation getOrCreateVirtualDatacenter(final User user,
         final Enterprise enterprise, final Datacenter datacenter,
-        final VirtualMachineTemplate template, final AbiquoTemplateOptions options)
+        final VirtualMachineTemplate template, final AbiquoTemplateOptions options,
+        final Resources required)
     {
-        Iterable<VirtualDatacenter> compatibles =
-            findCompatibleVirtualDatacenters(datacenter, template);
-
-        VirtualDatacenter vdc =
-            options.getVirtualDatacenter() == null ? getFirst(compatibles, null) : find(
-                compatibles, VirtualDatacenterPredicates.name(options.getVirtualDatacenter()));
-
-        if (vdc == null)
+        if (options.getVirtualDatacenter() == null)
         {
-            vdc =
-                createCompatibleVirtualDatacenter(user, enterprise, datacenter, template,
-                    options.getVirtualDatacenter());
-            if (vdc == null)
+            VirtualDatacenter vdc = placement.select(datacenter, template, required);
+            if (vdc != null)
             {
-                throw new NotEnoughResourcesException("There are not resources to deploy the given template");
+                return new Reservation(vdc, true);
             }
         }
+        else
+        {
+            VirtualDatacenter vdc =
+                find(findCompatibleVirtualDatacenters(datacenter, template),
+                    VirtualDatacenterPredicates.name(options.getVirtualDatacenter()));
+            return reserve(vdc, required);
+        }
+
+        Reservation reservation =
+            createCompatibleVirtualDatacenter(user, enterprise, datacenter, template,
+                options.getVirtualDatacenter(), required);
+        if (reservation == null)
+        {
+            throw new NotEnoughResourcesException("There are not resources to deploy the given template");
+        }
 
-        return vdc;
+        return reservation;
     }
 
     /**
@@ -125,17 +136,49 @@ public class AbiquoComputeServiceHelper
     public Iterable<VirtualDatacenter> findCompatibleVirtualDatacenters(
         final Datacenter datacenter, final VirtualMachineTemplate template)
     {
-        Iterable<VirtualDatacenter> vdcs =
-            cloudService.listVirtualDatacenters(VirtualDatacenterPredicates.datacenter(datacenter));
+        return placement.listCompatibleVirtualDatacenters(datacenter,
+            template.getDiskFormatType());
+    }
 
-        return filter(vdcs, new Predicate<VirtualDatacenter>()
+    /**
+     * Gives back the resources reserved for virtual machines that could not be created.
+     * 
+     * @param vdc The virtual datacenter where the resources were reserved.
+     * @param released The resources to give back.
+     */
+    public void releaseResources(final VirtualDatacenter vdc, final Resources released)
+    {
+        placement.release(vdc.getId(), released);
+    }
+
+    /**
+     * Gives back the resources used by the given virtual machines once they have been deleted.
+     * Only the resources of the virtual machines that were allocated are given back, as they are
+     * the only ones that count towards the hard limits of their virtual datacenters.
+     * <p>
+     * If the virtual machines could not be deleted, the available resources of their virtual
+     * datacenters are computed again the next time they are needed.
+     * 
+     * @param vms The virtual machines.
+     * @param deleted Boolean indicating if all the virtual machines have been deleted.
+     */
+    public void releaseResources(final Iterable<VirtualMachine> vms, final boolean deleted)
+    {
+        for (VirtualMachine vm : vms)
         {
-            @Override
-            public boolean apply(final VirtualDatacenter vdc)
+            Integer vdcId = vm.unwrap().getIdFromLink(ParentLinkName.VIRTUAL_DATACENTER);
+            if (deleted)
             {
-                return vdc.getHypervisorType().isCompatible(template.getDiskFormatType());
+                if (VirtualMachinePredicates.allocated().apply(vm))
+                {
+                    placement.release(vdcId, Resources.of(vm));
+                }
             }
-        });
+            else
+            {
+                placement.refresh(vdcId);
+            }
+        }
     }
 
     /**
@@ -161,11 +204,12 @@ public class AbiquoComputeServiceHelper
      * @param enterprise The enterprise of the current user.
      * @param datacenter The datacenter of the template.
      * @param template The template to deploy.
-     * @return
+     * @param required The resources to reserve in the new virtual datacenter.
+     * @return The new virtual datacenter or <code>null</code> if it could not be created.
      */
-    private VirtualDatacenter createCompatibleVirtualDatacenter(final User user,
+    private Reservation createCompatibleVirtualDatacenter(final User user,
         final Enterprise enterprise, final Datacenter datacenter,
-        final VirtualMachineTemplate template, final String name)
+        final VirtualMachineTemplate template, final String name, final Resources required)
     {
         PrivateNetwork defaultNetwork =
             PrivateNetwork.builder(context).name("DefaultNetwork").gateway("192.168.1.1")
@@ -175,10 +219,12 @@ public class AbiquoComputeServiceHelper
             VirtualDatacenter.builder(context, datacenter, enterprise).network(defaultNetwork)
                 .build();
 
-        // Find the first hypervisor in the datacenter compatible with the template
+        // Find the first hypervisor in the datacenter compatible with the template, skipping the
+        // ones already known to be unavailable
         for (HypervisorType type : HypervisorType.values())
         {
-            if (type.isCompatible(template.getDiskFormatType()))
+            if (type.isCompatible(template.getDiskFormatType())
+                && placement.isAvailable(datacenter, type))
             {
                 try
                 {
@@ -189,7 +235,9 @@ public class AbiquoComputeServiceHelper
 
                     logger.info("Virtual datacenter created");
 
-                    return vdc;
+                    placement.invalidate(datacenter);
+
+                    return reserve(vdc, required);
                 }
                 catch (AbiquoException ex)
                 {
@@ -197,6 +245,7 @@ public class AbiquoComputeServiceHelper
                     // available in the datacenter
                     if (ex.hasError("VDC-1"))
                     {
+                        placement.markUnavailable(datacenter, type);
                         continue;
                     }
                     else
@@ -213,4 +262,43 @@ public class AbiquoComputeServiceHelper
         return null;
     }
 
+    /**
+     * Reserves the given resources in a virtual datacenter that will be used even if it has not
+     * enough resources.
+     */
+    private Reservation reserve(final VirtualDatacenter vdc, final Resources required)
+    {
+        if (placement.reserve(vdc, required))
+        {
+            return new Reservation(vdc, true);
+        }
+
+        logger.warn("Virtual datacenter %s may not have enough resources to deploy %s",
+            vdc.getName(), required);
+
+        // Nothing has been reserved, so the cached resources are computed again instead of being
+        // given back when the virtual machines are not created or deleted
+        placement.refresh(vdc.getId());
+        return new Reservation(vdc, false);
+    }
+
+    /**
+     * The virtual datacenter where a template is deployed.
+     * 
+     * @author Ignasi Barrera
+     */
+    public static class Reservation
+    {
+        final VirtualDatacenter virtualDatacenter;
+
+        /** Boolean indicating if the required resources have been reserved. */
+        final boolean reserved;
+
+        Reservation(final VirtualDatacenter virtualDatacenter, final boolean reserved)
+        {
+            this.virtualDatacenter = checkNotNull(virtualDatacenter, "virtualDatacenter");
+            this.reserved = reserved;
+        }
+    }
+
 }
@@ -0,0 +1,87 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.compute.functions.VirtualMachineToNodeMetadata;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.compute.strategy.PrioritizeCredentialsFromTemplate;
+import org.jclouds.compute.strategy.impl.AdaptingComputeServiceStrategies;
+import org.jclouds.domain.Credentials;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Adapts the {@link AbiquoComputeServiceAdapter} to the compute service strategies, converting the
+ * listed nodes in bulk with {@link VirtualMachineToNodeMetadata#applyAll(Iterable)} instead of
+ * one by one.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoComputeServiceStrategies
+    extends
+    AdaptingComputeServiceStrategies<VirtualMachine, VirtualMachineTemplate, VirtualMachineTemplate, Datacenter>
+{
+    private final ComputeServiceAdapter<VirtualMachine, VirtualMachineTemplate, VirtualMachineTemplate, Datacenter> client;
+
+    private final VirtualMachineToNodeMetadata virtualMachineToNodeMetadata;
+
+    @Inject
+    public AbiquoComputeServiceStrategies(
+        final Map<String, Credentials> credentialStore,
+        final PrioritizeCredentialsFromTemplate prioritizeCredentialsFromTemplate,
+        final ComputeServiceAdapter<VirtualMachine, VirtualMachineTemplate, VirtualMachineTemplate, Datacenter> client,
+        final VirtualMachineToNodeMetadata virtualMachineToNodeMetadata)
+    {
+        super(credentialStore, prioritizeCredentialsFromTemplate, client,
+            virtualMachineToNodeMetadata);
+        this.client = checkNotNull(client, "client");
+        this.virtualMachineToNodeMetadata =
+            checkNotNull(virtualMachineToNodeMetadata, "virtualMachineToNodeMetadata");
+    }
+
+    @Override
+    public Iterable< ? extends ComputeMetadata> listNodes()
+    {
+        return listDetailsOnNodesMatching(NodePredicates.all());
+    }
+
+    @Override
+    public Iterable< ? extends NodeMetadata> listDetailsOnNodesMatching(
+        final Predicate<ComputeMetadata> filter)
+    {
+        // The virtual machines have just been listed, so their state is up to date
+        return filter(virtualMachineToNodeMetadata.applyAll(client.listNodes()), filter);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.abiquo.compute.functions.VirtualMachineToNodeMetadata;
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceAdapter.GroupCreation;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.compute.config.CustomizationResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
+import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.strategy.impl.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.compute.util.ComputeUtils;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Creates all the nodes of a group at once.
+ * <p>
+ * Instead of creating and deploying each node independently, the resources shared by the group
+ * are resolved once, all the virtual machines are created in parallel and they are deployed and
+ * monitored together.
+ * <p>
+ * Nodes that could not be deployed are added to the bad nodes, and the nodes that could not be
+ * created are reported as failed responses, so the other nodes of the group are still returned.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoCreateNodesInGroupThenAddToSet extends
+    CreateNodesWithGroupEncodedIntoNameThenAddToSet
+{
+    private final AbiquoComputeServiceAdapter adapter;
+
+    private final VirtualMachineToNodeMetadata virtualMachineToNodeMetadata;
+
+    private final ComputeUtils utils;
+
+    @Inject
+    protected AbiquoCreateNodesInGroupThenAddToSet(
+        final CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
+        final ListNodesStrategy listNodesStrategy,
+        final GroupNamingConvention.Factory namingConvention,
+        @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService executor,
+        final CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeFactory,
+        final AbiquoComputeServiceAdapter adapter,
+        final VirtualMachineToNodeMetadata virtualMachineToNodeMetadata, final ComputeUtils utils)
+    {
+        super(addNodeWithGroupStrategy, listNodesStrategy, namingConvention, executor,
+            customizeNodeFactory);
+        this.adapter = checkNotNull(adapter, "adapter");
+        this.virtualMachineToNodeMetadata =
+            checkNotNull(virtualMachineToNodeMetadata, "virtualMachineToNodeMetadata");
+        this.utils = checkNotNull(utils, "utils");
+    }
+
+    @Override
+    public Map< ? , Future<Void>> execute(final String group, final int count,
+        final Template template, final Set<NodeMetadata> goodNodes,
+        final Map<NodeMetadata, Exception> badNodes,
+        final Multimap<NodeMetadata, CustomizationResponse> customizationResponses)
+    {
+        Set<String> names = getNextNames(group, template, count);
+        logger.debug(">> creating %s nodes in group %s", count, group);
+
+        GroupCreation creation =
+            adapter.createNodesWithGroupEncodedIntoName(group, names, template);
+
+        // The deploy monitor has already refreshed the state of the deployed virtual machines
+        List<NodeMetadata> nodes = virtualMachineToNodeMetadata.applyAll(creation.getDeployed());
+
+        // Nodes that have been created but not deployed are reported, so they can be destroyed
+        for (Map.Entry<VirtualMachine, Exception> failure : creation.getNotDeployed().entrySet())
+        {
+            badNodes.put(virtualMachineToNodeMetadata.apply(failure.getKey()), failure.getValue());
+        }
+
+        logger.debug("<< created %s nodes in group %s", nodes.size(), group);
+
+        Map<Object, Future<Void>> responses = Maps.newLinkedHashMap();
+        responses.putAll(utils.customizeNodesAndAddToGoodMapOrPutExceptionIntoBadMap(
+            template.getOptions(), nodes, goodNodes, badNodes, customizationResponses));
+        for (Map.Entry<String, Exception> failure : creation.getNotCreated().entrySet())
+        {
+            responses.put(failure.getKey(), Futures.<Void> immediateFailedFuture(failure
+                .getValue()));
+        }
+        return responses;
+    }
+}
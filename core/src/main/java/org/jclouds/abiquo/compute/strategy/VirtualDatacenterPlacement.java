@@ -0,0 +1,494 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PLACEMENT_CACHE_TTL;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.predicates.cloud.VirtualDatacenterPredicates;
+import org.jclouds.abiquo.predicates.cloud.VirtualMachinePredicates;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.abiquo.model.enumerator.DiskFormatType;
+import com.abiquo.model.enumerator.HypervisorType;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Chooses the virtual datacenter where templates are deployed.
+ * <p>
+ * The virtual datacenters compatible with each disk format are cached per datacenter, along with
+ * the resources that are still available in each one of them, computed from its hard limits and
+ * the resources allocated by its virtual machines. Virtual machines that are not allocated are
+ * not taken into account, as they do not count towards the hard limits. Resources are reserved in
+ * the cache for each template placed in a virtual datacenter, so templates are only placed where
+ * they fit.
+ * <p>
+ * The hypervisor types that are not available in each datacenter are also remembered, so they are
+ * not tried again when creating new virtual datacenters.
+ * <p>
+ * The cache can be disabled with the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#PLACEMENT_CACHE_TTL} property. When
+ * disabled, the first compatible virtual datacenter is always chosen.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class VirtualDatacenterPlacement
+{
+    @Resource
+    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+    protected Logger logger = Logger.NULL;
+
+    private final CloudService cloudService;
+
+    /** The compatible virtual datacenters. Null if the cache is disabled. */
+    @VisibleForTesting
+    final Cache<PlacementKey, List<VirtualDatacenter>> compatibles;
+
+    /** The available resources of each virtual datacenter. Null if the cache is disabled. */
+    @VisibleForTesting
+    final Cache<Integer, Headroom> headrooms;
+
+    /** The hypervisor types not available in each datacenter. Null if the cache is disabled. */
+    @VisibleForTesting
+    final Cache<Integer, Set<HypervisorType>> unavailableHypervisors;
+
+    @Inject
+    public VirtualDatacenterPlacement(final CloudService cloudService,
+        @Named(PLACEMENT_CACHE_TTL) final Long ttl)
+    {
+        this.cloudService = checkNotNull(cloudService, "cloudService");
+        checkArgument(checkNotNull(ttl, "ttl") >= 0, "ttl must be greater or equal than zero");
+        this.compatibles =
+            ttl == 0 ? null : this.<PlacementKey, List<VirtualDatacenter>> cache(ttl);
+        this.headrooms = ttl == 0 ? null : this.<Integer, Headroom> cache(ttl);
+        this.unavailableHypervisors =
+            ttl == 0 ? null : this.<Integer, Set<HypervisorType>> cache(ttl);
+    }
+
+    /**
+     * Find the virtual datacenters of the given datacenter that are compatible with the given disk
+     * format.
+     * 
+     * @param datacenter The datacenter.
+     * @param diskFormat The disk format of the template to deploy.
+     * @return The compatible virtual datacenters.
+     */
+    public List<VirtualDatacenter> listCompatibleVirtualDatacenters(final Datacenter datacenter,
+        final DiskFormatType diskFormat)
+    {
+        checkNotNull(datacenter, "datacenter");
+        checkNotNull(diskFormat, "diskFormat");
+
+        if (compatibles == null)
+        {
+            return loadCompatibleVirtualDatacenters(datacenter, diskFormat);
+        }
+
+        return get(compatibles, new PlacementKey(datacenter.getId(), diskFormat),
+            new Callable<List<VirtualDatacenter>>()
+            {
+                @Override
+                public List<VirtualDatacenter> call() throws Exception
+                {
+                    return loadCompatibleVirtualDatacenters(datacenter, diskFormat);
+                }
+            });
+    }
+
+    /**
+     * Chooses a compatible virtual datacenter with enough available resources to deploy the given
+     * template, and reserves the required resources.
+     * 
+     * @param datacenter The datacenter of the template.
+     * @param template The template to deploy.
+     * @param required The resources required by all the virtual machines to deploy.
+     * @return The virtual datacenter where the template should be deployed or <code>null</code> if
+     *         none of the compatible virtual datacenters has enough resources.
+     */
+    public VirtualDatacenter select(final Datacenter datacenter,
+        final VirtualMachineTemplate template, final Resources required)
+    {
+        checkNotNull(template, "template");
+        for (VirtualDatacenter vdc : listCompatibleVirtualDatacenters(datacenter,
+            template.getDiskFormatType()))
+        {
+            if (reserve(vdc, required))
+            {
+                return vdc;
+            }
+            logger.debug("Virtual datacenter %s has not enough resources to deploy %s",
+                vdc.getName(), required);
+        }
+        return null;
+    }
+
+    /**
+     * Reserves the given resources in the given virtual datacenter.
+     * 
+     * @param vdc The virtual datacenter where the virtual machines will be deployed.
+     * @param required The resources required by all the virtual machines to deploy.
+     * @return Boolean indicating if the virtual datacenter had enough resources.
+     */
+    public boolean reserve(final VirtualDatacenter vdc, final Resources required)
+    {
+        checkNotNull(vdc, "vdc");
+        checkNotNull(required, "required");
+
+        if (headrooms == null)
+        {
+            return true;
+        }
+
+        Headroom headroom = get(headrooms, vdc.getId(), new Callable<Headroom>()
+        {
+            @Override
+            public Headroom call() throws Exception
+            {
+                return loadHeadroom(vdc);
+            }
+        });
+
+        return headroom.reserve(required);
+    }
+
+    /**
+     * Gives back resources that were reserved in the given virtual datacenter and are no longer
+     * used, because the virtual machines could not be created or have been deleted.
+     * 
+     * @param vdcId The id of the virtual datacenter.
+     * @param released The resources to give back.
+     */
+    public void release(final Integer vdcId, final Resources released)
+    {
+        checkNotNull(released, "released");
+        if (headrooms != null && vdcId != null)
+        {
+            Headroom headroom = headrooms.getIfPresent(vdcId);
+            if (headroom != null)
+            {
+                headroom.release(released);
+            }
+        }
+    }
+
+    /**
+     * Discards the available resources of the given virtual datacenter, so they are computed again
+     * the next time they are needed.
+     * 
+     * @param vdcId The id of the virtual datacenter.
+     */
+    public void refresh(final Integer vdcId)
+    {
+        if (headrooms != null && vdcId != null)
+        {
+            headrooms.invalidate(vdcId);
+        }
+    }
+
+    /**
+     * Removes the cached virtual datacenters of the given datacenter, so new virtual datacenters
+     * are taken into account.
+     * 
+     * @param datacenter The datacenter where a virtual datacenter has been created.
+     */
+    public void invalidate(final Datacenter datacenter)
+    {
+        checkNotNull(datacenter, "datacenter");
+        if (compatibles != null)
+        {
+            Integer datacenterId = datacenter.getId();
+            for (PlacementKey key : compatibles.asMap().keySet())
+            {
+                if (key.datacenterId.equals(datacenterId))
+                {
+                    compatibles.invalidate(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the given hypervisor type may be available in the given datacenter.
+     * 
+     * @param datacenter The datacenter.
+     * @param type The hypervisor type.
+     * @return Boolean indicating if the hypervisor type has not been found to be unavailable.
+     */
+    public boolean isAvailable(final Datacenter datacenter, final HypervisorType type)
+    {
+        if (unavailableHypervisors == null)
+        {
+            return true;
+        }
+        Set<HypervisorType> unavailable = unavailableHypervisors.getIfPresent(datacenter.getId());
+        return unavailable == null || !unavailable.contains(type);
+    }
+
+    /**
+     * Remembers that the given hypervisor type is not available in the given datacenter.
+     * 
+     * @param datacenter The datacenter.
+     * @param type The hypervisor type.
+     */
+    public void markUnavailable(final Datacenter datacenter, final HypervisorType type)
+    {
+        if (unavailableHypervisors != null)
+        {
+            get(unavailableHypervisors, datacenter.getId(), new Callable<Set<HypervisorType>>()
+            {
+                @Override
+                public Set<HypervisorType> call() throws Exception
+                {
+                    return Collections.synchronizedSet(Sets.<HypervisorType> newHashSet());
+                }
+            }).add(type);
+        }
+    }
+
+    private List<VirtualDatacenter> loadCompatibleVirtualDatacenters(final Datacenter datacenter,
+        final DiskFormatType diskFormat)
+    {
+        Iterable<VirtualDatacenter> vdcs =
+            cloudService.listVirtualDatacenters(VirtualDatacenterPredicates.datacenter(datacenter));
+
+        return ImmutableList.copyOf(filter(vdcs, new Predicate<VirtualDatacenter>()
+        {
+            @Override
+            public boolean apply(final VirtualDatacenter vdc)
+            {
+                return vdc.getHypervisorType().isCompatible(diskFormat);
+            }
+        }));
+    }
+
+    private Headroom loadHeadroom(final VirtualDatacenter vdc)
+    {
+        Headroom headroom =
+            new Headroom(limit(vdc.getCpuCountHardLimit()), limit(vdc.getRamHardLimitInMb()),
+                limit(vdc.getHdHardLimitInMb()));
+
+        for (VirtualAppliance vapp : vdc.listVirtualAppliances())
+        {
+            for (VirtualMachine vm : filter(vapp.listVirtualMachines(),
+                VirtualMachinePredicates.allocated()))
+            {
+                headroom.allocate(Resources.of(vm));
+            }
+        }
+
+        return headroom;
+    }
+
+    private <K, V> Cache<K, V> cache(final long ttl)
+    {
+        return CacheBuilder.newBuilder().expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .<K, V> build();
+    }
+
+    private static <K, V> V get(final Cache<K, V> cache, final K key, final Callable<V> loader)
+    {
+        try
+        {
+            return cache.get(key, loader);
+        }
+        catch (ExecutionException ex)
+        {
+            throw Throwables.propagate(ex.getCause());
+        }
+        catch (UncheckedExecutionException ex)
+        {
+            throw Throwables.propagate(ex.getCause());
+        }
+    }
+
+    /** A hard limit of 0 means that the resource is not limited. */
+    private static long limit(final long hardLimit)
+    {
+        return hardLimit <= 0 ? Long.MAX_VALUE : hardLimit;
+    }
+
+    /**
+     * An amount of CPU, RAM and hard disk resources.
+     */
+    public static class Resources
+    {
+        final long cpu;
+
+        /** The RAM in MB. */
+        final long ram;
+
+        /** The hard disk in MB. */
+        final long hd;
+
+        Resources(final long cpu, final long ram, final long hd)
+        {
+            this.cpu = cpu;
+            this.ram = ram;
+            this.hd = hd;
+        }
+
+        /**
+         * @param cpu The number of CPUs.
+         * @param ram The RAM in MB.
+         * @param hdInBytes The hard disk in bytes.
+         * @return The given amount of resources.
+         */
+        public static Resources of(final long cpu, final long ram, final long hdInBytes)
+        {
+            return new Resources(cpu, ram, hdInBytes / 1024 / 1024);
+        }
+
+        /**
+         * The resources allocated by the given virtual machine.
+         */
+        public static Resources of(final VirtualMachine vm)
+        {
+            return of(vm.getCpu(), vm.getRam(), vm.getHdInBytes());
+        }
+
+        /**
+         * The resources required by the given number of virtual machines like this one.
+         */
+        public Resources times(final int count)
+        {
+            return new Resources(cpu * count, ram * count, hd * count);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Resources [cpu=" + cpu + ", ram=" + ram + ", hd=" + hd + "]";
+        }
+    }
+
+    /**
+     * The resources still available in a virtual datacenter.
+     */
+    @VisibleForTesting
+    static class Headroom
+    {
+        long cpu;
+
+        long ram;
+
+        long hd;
+
+        Headroom(final long cpu, final long ram, final long hd)
+        {
+            this.cpu = cpu;
+            this.ram = ram;
+            this.hd = hd;
+        }
+
+        synchronized void allocate(final Resources resources)
+        {
+            cpu -= resources.cpu;
+            ram -= resources.ram;
+            hd -= resources.hd;
+        }
+
+        synchronized void release(final Resources resources)
+        {
+            // Unlimited resources are not decremented below the maximum value
+            cpu = add(cpu, resources.cpu);
+            ram = add(ram, resources.ram);
+            hd = add(hd, resources.hd);
+        }
+
+        synchronized boolean reserve(final Resources resources)
+        {
+            if (cpu < resources.cpu || ram < resources.ram || hd < resources.hd)
+            {
+                return false;
+            }
+            allocate(resources);
+            return true;
+        }
+
+        private static long add(final long available, final long released)
+        {
+            return available > Long.MAX_VALUE - released ? Long.MAX_VALUE : available + released;
+        }
+    }
+
+    /**
+     * The key of the compatible virtual datacenters in the cache.
+     */
+    @VisibleForTesting
+    static class PlacementKey
+    {
+        final Integer datacenterId;
+
+        final DiskFormatType diskFormat;
+
+        PlacementKey(final Integer datacenterId, final DiskFormatType diskFormat)
+        {
+            this.datacenterId = checkNotNull(datacenterId, "datacenterId");
+            this.diskFormat = checkNotNull(diskFormat, "diskFormat");
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (!(obj instanceof PlacementKey))
+            {
+                return false;
+            }
+            PlacementKey other = (PlacementKey) obj;
+            return datacenterId.equals(other.datacenterId) && diskFormat == other.diskFormat;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(datacenterId, diskFormat);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+
+import com.abiquo.model.rest.RESTLink;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+
+/**
+ * Index of the edit links of the known virtual machines, by id.
+ * <p>
+ * The index is populated with the virtual machines listed and created by the compute service, so
+ * the operations on a known node can fetch its virtual machine directly instead of searching it
+ * in the whole cloud.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class VirtualMachineIndex
+{
+    @VisibleForTesting
+    final ConcurrentMap<Integer, RESTLink> links = Maps.newConcurrentMap();
+
+    /**
+     * Adds the given virtual machine to the index.
+     * 
+     * @param vm The virtual machine to index.
+     */
+    public void put(final VirtualMachine vm)
+    {
+        RESTLink edit = checkNotNull(vm, "vm").unwrap().getEditLink();
+        if (vm.getId() != null && edit != null)
+        {
+            links.put(vm.getId(), edit);
+        }
+    }
+
+    /**
+     * Adds all the given virtual machines to the index.
+     * 
+     * @param vms The virtual machines to index.
+     */
+    public void putAll(final Iterable<VirtualMachine> vms)
+    {
+        for (VirtualMachine vm : vms)
+        {
+            put(vm);
+        }
+    }
+
+    /**
+     * Get the edit link of the virtual machine with the given id.
+     * 
+     * @param id The id of the virtual machine.
+     * @return The edit link of the virtual machine or <code>null</code> if it is not in the index.
+     */
+    public RESTLink getEditLink(final Integer id)
+    {
+        return links.get(checkNotNull(id, "id"));
+    }
+
+    /**
+     * Removes the virtual machine with the given id from the index.
+     * 
+     * @param id The id of the virtual machine.
+     */
+    public void remove(final Integer id)
+    {
+        links.remove(checkNotNull(id, "id"));
+    }
+}
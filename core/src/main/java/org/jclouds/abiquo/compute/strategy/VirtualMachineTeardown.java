@@ -0,0 +1,429 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.TEARDOWN_CONCURRENCY;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent.Type;
+import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Destroys virtual machines in bulk.
+ * <p>
+ * Deployed virtual machines are undeployed in parallel, and each one is deleted as soon as its
+ * undeploy finishes. Virtual machines locked by an operation in progress are waited for until they
+ * are unlocked, and are then undeployed or deleted depending on their state. When all the virtual
+ * machines of a virtual appliance are destroyed, the virtual appliance is undeployed with a single
+ * request. The number of concurrent undeploy and delete requests sent to each datacenter is
+ * limited.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class VirtualMachineTeardown
+{
+    @Resource
+    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+    protected Logger logger = Logger.NULL;
+
+    private final MonitoringService monitoringService;
+
+    private final ExecutorService userExecutor;
+
+    /** The maximum number of concurrent requests sent to each datacenter. */
+    private final int maxConcurrency;
+
+    /** The permits to send requests to each datacenter, indexed by the datacenter link. */
+    @VisibleForTesting
+    final ConcurrentMap<String, Semaphore> permits = Maps.newConcurrentMap();
+
+    @Inject
+    public VirtualMachineTeardown(final MonitoringService monitoringService,
+        @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor,
+        @Named(TEARDOWN_CONCURRENCY) final Integer maxConcurrency)
+    {
+        this.monitoringService = checkNotNull(monitoringService, "monitoringService");
+        this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+        checkArgument(checkNotNull(maxConcurrency, "maxConcurrency") > 0,
+            "maxConcurrency must be greater than zero");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Undeploys and deletes the given virtual machines, and blocks until all of them have been
+     * deleted.
+     * <p>
+     * All the virtual machines are processed even if some of them fail. The first failure is
+     * propagated once all of them have finished.
+     * 
+     * @param vms The virtual machines to destroy.
+     */
+    public void destroy(final Collection<VirtualMachine> vms)
+    {
+        awaitUnlocked(vms);
+
+        ListMultimap<String, VirtualMachine> byVirtualAppliance = ArrayListMultimap.create();
+        for (VirtualMachine vm : vms)
+        {
+            RESTLink link = vm.unwrap().searchLink(ParentLinkName.VIRTUAL_APPLIANCE);
+            byVirtualAppliance.put(link == null ? null : link.getHref(), vm);
+        }
+
+        List<ListenableFuture<Void>> deletions = Lists.newArrayListWithCapacity(vms.size());
+        for (String vapp : byVirtualAppliance.keySet())
+        {
+            deletions.addAll(destroyInVirtualAppliance(byVirtualAppliance.get(vapp)));
+        }
+
+        Throwable failure = null;
+        for (ListenableFuture<Void> deletion : deletions)
+        {
+            try
+            {
+                deletion.get();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(ex);
+            }
+            catch (ExecutionException ex)
+            {
+                if (failure == null)
+                {
+                    failure = ex.getCause();
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw Throwables.propagate(failure);
+        }
+    }
+
+    /**
+     * Starts the teardown of the given virtual machines, which belong to the same virtual
+     * appliance.
+     * 
+     * @return The futures that complete when each virtual machine has been deleted.
+     */
+    private List<ListenableFuture<Void>> destroyInVirtualAppliance(final List<VirtualMachine> vms)
+    {
+        List<ListenableFuture<Void>> deletions = Lists.newArrayListWithCapacity(vms.size());
+        List<VirtualMachine> deployed = Lists.newArrayList();
+        final Semaphore datacenterPermits;
+
+        try
+        {
+            datacenterPermits = permitsFor(vms.get(0));
+            for (VirtualMachine vm : vms)
+            {
+                VirtualMachineState state = state(vm);
+                switch (state)
+                {
+                    case NOT_ALLOCATED:
+                        deletions.add(delete(vm, datacenterPermits));
+                        break;
+                    case ALLOCATED:
+                    case CONFIGURED:
+                    case ON:
+                    case OFF:
+                    case PAUSED:
+                    case UNKNOWN:
+                        deployed.add(vm);
+                        break;
+                    default:
+                        // Locked virtual machines can be neither undeployed nor deleted
+                        deletions.add(Futures.<Void> immediateFailedFuture(
+                            new IllegalStateException("virtual machine " + vm.getName()
+                                + " can not be destroyed in state " + state)));
+                        break;
+                }
+            }
+
+            undeploy(deployed, datacenterPermits);
+        }
+        catch (RuntimeException ex)
+        {
+            // The virtual machines could not be undeployed
+            deletions.add(Futures.<Void> immediateFailedFuture(ex));
+            return deletions;
+        }
+
+        if (!deployed.isEmpty())
+        {
+            List<ListenableFuture<MonitorEvent<VirtualMachine>>> undeploys =
+                monitoringService.getVirtualMachineMonitor().monitorUndeployAsync(
+                    deployed.toArray(new VirtualMachine[deployed.size()]));
+
+            // Delete each virtual machine as soon as it has been undeployed
+            for (ListenableFuture<MonitorEvent<VirtualMachine>> undeploy : undeploys)
+            {
+                deletions.add(deleteWhenUndeployed(undeploy, datacenterPermits));
+            }
+        }
+
+        return deletions;
+    }
+
+    /**
+     * Waits until the given virtual machines that have an operation in progress are unlocked, so
+     * their state tells if they have to be undeployed or can be deleted.
+     */
+    private void awaitUnlocked(final Collection<VirtualMachine> vms)
+    {
+        List<VirtualMachine> locked = Lists.newArrayList();
+        for (VirtualMachine vm : vms)
+        {
+            if (state(vm) == VirtualMachineState.LOCKED)
+            {
+                locked.add(vm);
+            }
+        }
+
+        if (!locked.isEmpty())
+        {
+            logger.debug(">> waiting for %s locked virtual machines", locked.size());
+            monitoringService.awaitCompletion(new VirtualMachineUnlockMonitor(),
+                locked.toArray(new VirtualMachine[locked.size()]));
+        }
+    }
+
+    private void undeploy(final List<VirtualMachine> deployed, final Semaphore datacenterPermits)
+    {
+        if (deployed.isEmpty())
+        {
+            return;
+        }
+
+        if (deployed.size() > 1)
+        {
+            final VirtualAppliance vapp = deployed.get(0).getVirtualAppliance();
+            if (vapp.listVirtualMachines().size() == deployed.size())
+            {
+                logger.debug(">> undeploying virtual appliance %s", vapp.getName());
+                withPermit(datacenterPermits, new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        vapp.undeploy();
+                    }
+                });
+                return;
+            }
+        }
+
+        List<ListenableFuture<Void>> undeploys = Lists.newArrayListWithCapacity(deployed.size());
+        for (final VirtualMachine vm : deployed)
+        {
+            undeploys.add(submit(datacenterPermits, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    logger.debug(">> undeploying virtual machine %s", vm.getName());
+                    vm.undeploy();
+                }
+            }));
+        }
+
+        Futures.getUnchecked(Futures.allAsList(undeploys));
+    }
+
+    private ListenableFuture<Void> deleteWhenUndeployed(
+        final ListenableFuture<MonitorEvent<VirtualMachine>> undeploy,
+        final Semaphore datacenterPermits)
+    {
+        final SettableFuture<Void> deletion = SettableFuture.create();
+        Futures.addCallback(undeploy, new FutureCallback<MonitorEvent<VirtualMachine>>()
+        {
+            @Override
+            public void onSuccess(final MonitorEvent<VirtualMachine> event)
+            {
+                if (event.getType() != Type.COMPLETED)
+                {
+                    deletion.setException(new IllegalStateException(
+                        "virtual machine was not undeployed: " + event));
+                    return;
+                }
+
+                try
+                {
+                    deleteNow(event.getTarget(), datacenterPermits);
+                    deletion.set(null);
+                }
+                catch (RuntimeException ex)
+                {
+                    deletion.setException(ex);
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable t)
+            {
+                deletion.setException(t);
+            }
+        }, userExecutor);
+        return deletion;
+    }
+
+    private ListenableFuture<Void> delete(final VirtualMachine vm,
+        final Semaphore datacenterPermits)
+    {
+        // The permit is already taken by the submitted task
+        return submit(datacenterPermits, deleteTask(vm));
+    }
+
+    private void deleteNow(final VirtualMachine vm, final Semaphore datacenterPermits)
+    {
+        withPermit(datacenterPermits, deleteTask(vm));
+    }
+
+    private Runnable deleteTask(final VirtualMachine vm)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                logger.debug(">> deleting virtual machine %s", vm.getName());
+                vm.delete();
+            }
+        };
+    }
+
+    private ListenableFuture<Void> submit(final Semaphore datacenterPermits, final Runnable task)
+    {
+        final SettableFuture<Void> result = SettableFuture.create();
+        userExecutor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    withPermit(datacenterPermits, task);
+                    result.set(null);
+                }
+                catch (RuntimeException ex)
+                {
+                    result.setException(ex);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static void withPermit(final Semaphore permits, final Runnable task)
+    {
+        permits.acquireUninterruptibly();
+        try
+        {
+            task.run();
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Get the permits to send requests to the datacenter where the given virtual machine is.
+     */
+    @VisibleForTesting
+    Semaphore permitsFor(final VirtualMachine vm)
+    {
+        VirtualDatacenter vdc = vm.getVirtualDatacenter();
+        RESTLink link = vdc.unwrap().searchLink(ParentLinkName.DATACENTER);
+        String datacenter = link == null ? vdc.unwrap().getEditLink().getHref() : link.getHref();
+
+        Semaphore semaphore = permits.get(datacenter);
+        if (semaphore == null)
+        {
+            Semaphore created = new Semaphore(maxConcurrency);
+            semaphore = permits.putIfAbsent(datacenter, created);
+            if (semaphore == null)
+            {
+                semaphore = created;
+            }
+        }
+        return semaphore;
+    }
+
+    private static VirtualMachineState state(final VirtualMachine vm)
+    {
+        VirtualMachineState state = vm.unwrap().getState();
+        return state == null ? vm.getState() : state;
+    }
+
+    /**
+     * Monitors a virtual machine until it is unlocked. The state of the virtual machine is updated
+     * each time it is polled.
+     */
+    @VisibleForTesting
+    static class VirtualMachineUnlockMonitor implements Function<VirtualMachine, MonitorStatus>
+    {
+        @Override
+        public MonitorStatus apply(final VirtualMachine vm)
+        {
+            return vm.getState() == VirtualMachineState.LOCKED ? MonitorStatus.CONTINUE
+                : MonitorStatus.DONE;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.suppliers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Supplier that caches the value of another supplier and refreshes it in the background.
+ * <p>
+ * The first call blocks until the value is loaded. Once the refresh interval has elapsed, the next
+ * call returns the cached value and triggers a reload in the given executor, so callers never
+ * wait for the value to be reloaded. If the reload fails, the previous value is kept until the
+ * next reload.
+ * <p>
+ * A refresh interval of 0 disables the cache, and the value is always loaded from the delegate.
+ * 
+ * @author Ignasi Barrera
+ */
+public class RefreshAheadSupplier<T> implements Supplier<T>
+{
+    private static final String KEY = "value";
+
+    private final Supplier<T> delegate;
+
+    /** The cached value. Null if the cache is disabled. */
+    @VisibleForTesting
+    final LoadingCache<String, T> cache;
+
+    public RefreshAheadSupplier(final Supplier<T> delegate, final long refreshInterval,
+        final Executor executor)
+    {
+        this.delegate = checkNotNull(delegate, "delegate");
+        checkNotNull(executor, "executor");
+        checkArgument(refreshInterval >= 0, "refreshInterval must be greater or equal than zero");
+
+        this.cache =
+            refreshInterval == 0 ? null : CacheBuilder.newBuilder()
+                .refreshAfterWrite(refreshInterval, TimeUnit.MILLISECONDS)
+                .build(new CacheLoader<String, T>()
+                {
+                    @Override
+                    public T load(final String key) throws Exception
+                    {
+                        return delegate.get();
+                    }
+
+                    @Override
+                    public ListenableFuture<T> reload(final String key, final T oldValue)
+                        throws Exception
+                    {
+                        ListenableFutureTask<T> task =
+                            ListenableFutureTask.create(new Callable<T>()
+                            {
+                                @Override
+                                public T call() throws Exception
+                                {
+                                    return delegate.get();
+                                }
+                            });
+                        executor.execute(task);
+                        return task;
+                    }
+                });
+    }
+
+    @Override
+    public T get()
+    {
+        if (cache == null)
+        {
+            return delegate.get();
+        }
+
+        try
+        {
+            return cache.getUnchecked(KEY);
+        }
+        catch (UncheckedExecutionException ex)
+        {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+                : ex;
+        }
+    }
+
+    /**
+     * Discards the cached value, so it is loaded again in the next call.
+     */
+    public void invalidate()
+    {
+        if (cache != null)
+        {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Lazy {@link Iterable} fed by the results of asynchronous requests.
+ * <p>
+ * Each submitted future is attached a handler that transforms its result in the elements to be
+ * returned. The elements of each response are available to the consumer as soon as the response
+ * arrives, without waiting for the rest of the requests. Handlers may submit new futures to the
+ * same stream, so dependent requests can be pipelined without any barrier between phases.
+ * <p>
+ * The stream can be consumed only once. Iteration blocks while there are pending requests and no
+ * elements available, and ends when all submitted futures have been processed. The maximum time
+ * bounds the whole stream, counted from its creation, and not the wait for each element.
+ * 
+ * @author Ignasi Barrera
+ */
+public class FutureStream<T> implements Iterable<T>
+{
+    /** Marker used to wake up the consumer when there are no pending requests. */
+    private static final Object DONE = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+
+    private final Set<Future< ? >> outstanding = Collections
+        .newSetFromMap(new ConcurrentHashMap<Future< ? >, Boolean>());
+
+    private final List<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
+
+    private final AtomicInteger pending = new AtomicInteger(0);
+
+    private final AtomicBoolean consumed = new AtomicBoolean(false);
+
+    private volatile boolean cancelled = false;
+
+    private final Executor executor;
+
+    private final Long maxTime;
+
+    /** The time (in nanoseconds) when the stream times out. Only used if there is a max time. */
+    private final long deadline;
+
+    private final Logger logger;
+
+    private final String logPrefix;
+
+    /**
+     * Creates a new stream.
+     * 
+     * @param executor The executor where the response handlers will be run.
+     * @param maxTime The maximum time (in milliseconds) to wait for all the elements of the
+     *            stream, counted from now, or <code>null</code> to wait forever.
+     * @param logger The logger used to report failed requests.
+     * @param logPrefix The prefix of the log messages.
+     */
+    public FutureStream(final Executor executor, final Long maxTime, final Logger logger,
+        final String logPrefix)
+    {
+        super();
+        this.executor = checkNotNull(executor, "executor");
+        this.maxTime = maxTime;
+        this.deadline =
+            maxTime == null ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxTime);
+        this.logger = checkNotNull(logger, "logger");
+        this.logPrefix = checkNotNull(logPrefix, "logPrefix");
+    }
+
+    /**
+     * Submits a new request to the stream.
+     * 
+     * @param future The future of the request.
+     * @param handler The function that transforms the response in the elements of the stream. It
+     *            may submit new requests to this stream.
+     * @return The submitted future.
+     */
+    public <F> ListenableFuture<F> submit(final ListenableFuture<F> future,
+        final Function< ? super F, ? extends Iterable< ? extends T>> handler)
+    {
+        checkNotNull(future, "future");
+        checkNotNull(handler, "handler");
+
+        if (cancelled)
+        {
+            future.cancel(true);
+            return future;
+        }
+
+        pending.incrementAndGet();
+        outstanding.add(future);
+
+        future.addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    F response = Uninterruptibles.getUninterruptibly(future);
+                    if (!cancelled)
+                    {
+                        Iterable< ? extends T> elements = handler.apply(response);
+                        if (elements != null)
+                        {
+                            for (T element : elements)
+                            {
+                                queue.add(element);
+                            }
+                        }
+                    }
+                }
+                catch (CancellationException ex)
+                {
+                    // Cancelled futures do not contribute to the stream
+                }
+                catch (ExecutionException ex)
+                {
+                    failed(ex.getCause());
+                }
+                catch (RuntimeException ex)
+                {
+                    failed(ex);
+                }
+                finally
+                {
+                    outstanding.remove(future);
+                    if (pending.decrementAndGet() == 0)
+                    {
+                        queue.add(DONE);
+                    }
+                }
+            }
+        }, executor);
+
+        return future;
+    }
+
+    /**
+     * Cancels all outstanding requests and ends the stream.
+     * <p>
+     * Elements already received are discarded, and requests submitted after the cancellation are
+     * cancelled immediately.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        for (Future< ? > future : outstanding)
+        {
+            future.cancel(true);
+        }
+        queue.clear();
+        queue.add(DONE);
+    }
+
+    /**
+     * Consumes the stream until an element matching the given filter is found. Once found, all
+     * outstanding requests are cancelled.
+     * 
+     * @param filter The filter to apply to each element as it arrives.
+     * @return The first element that matches the filter or <code>null</code> if none is found.
+     */
+    public T find(final Predicate< ? super T> filter)
+    {
+        checkNotNull(filter, "filter");
+
+        try
+        {
+            for (T element : this)
+            {
+                if (filter.apply(element))
+                {
+                    return element;
+                }
+            }
+            return null;
+        }
+        finally
+        {
+            cancel();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the stream has been cancelled.
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Returns the number of requests that have been submitted and not yet processed.
+     */
+    public int getPending()
+    {
+        return pending.get();
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        if (!consumed.compareAndSet(false, true))
+        {
+            throw new IllegalStateException("The stream " + logPrefix
+                + " has already been consumed");
+        }
+
+        return new AbstractIterator<T>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T computeNext()
+            {
+                while (true)
+                {
+                    Object next = queue.poll();
+
+                    if (next == null)
+                    {
+                        if (cancelled)
+                        {
+                            return endOfData();
+                        }
+                        else if (pending.get() == 0)
+                        {
+                            // Elements are always queued before the pending counter is updated
+                            next = queue.poll();
+                            if (next == null)
+                            {
+                                checkFailures();
+                                return endOfData();
+                            }
+                        }
+                        else
+                        {
+                            next = take();
+                        }
+                    }
+
+                    if (cancelled)
+                    {
+                        return endOfData();
+                    }
+
+                    if (next != DONE)
+                    {
+                        return (T) next;
+                    }
+                }
+            }
+        };
+    }
+
+    private Object take()
+    {
+        try
+        {
+            if (maxTime == null)
+            {
+                return queue.take();
+            }
+
+            long remaining = deadline - System.nanoTime();
+            Object next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null)
+            {
+                cancel();
+                throw new RuntimeException(new TimeoutException(String.format(
+                    "%s: not completed after %sms (%s requests pending)", logPrefix, maxTime,
+                    pending.get())));
+            }
+            return next;
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void checkFailures()
+    {
+        if (!failures.isEmpty())
+        {
+            throw new RuntimeException(String.format("%s: %s requests failed", logPrefix,
+                failures.size()), failures.get(0));
+        }
+    }
+
+    private void failed(final Throwable cause)
+    {
+        logger.error(cause, "<< exception %s", logPrefix);
+        failures.add(cause);
+    }
+}
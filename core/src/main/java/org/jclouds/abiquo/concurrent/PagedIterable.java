@@ -0,0 +1,223 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Lazy {@link Iterable} that transparently requests the pages of a paginated listing.
+ * <p>
+ * Pages are requested on demand as the iteration advances. While a page is being consumed, up to
+ * <code>prefetch</code> following pages are requested in the background. No more requests are
+ * made once an empty page is returned, or when the consumer stops iterating.
+ * <p>
+ * A page with less elements than the page size is not considered the last one, as the server may
+ * limit the number of elements per page. The pages being prefetched are discarded, and the
+ * following page is requested right after the last returned element.
+ * <p>
+ * Each call to {@link #iterator()} starts a new iteration from the first page.
+ * 
+ * @author Ignasi Barrera
+ */
+public abstract class PagedIterable<T> implements Iterable<T>
+{
+    private final int startWith;
+
+    private final int pageSize;
+
+    private final int prefetch;
+
+    private final Long maxTime;
+
+    /**
+     * Creates a new paged iterable.
+     * 
+     * @param startWith The index of the first element to return.
+     * @param pageSize The number of elements to request in each page.
+     * @param prefetch The number of pages to request in the background.
+     * @param maxTime The maximum time (in milliseconds) to wait for each page, or
+     *            <code>null</code> to wait forever.
+     */
+    protected PagedIterable(final int startWith, final int pageSize, final int prefetch,
+        final Long maxTime)
+    {
+        super();
+        checkArgument(startWith >= 0, "startWith must be greater or equal than 0");
+        checkArgument(pageSize > 0, "pageSize must be greater than 0");
+        checkArgument(prefetch >= 0, "prefetch must be greater or equal than 0");
+        this.startWith = startWith;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Requests the page of elements starting at the given index.
+     * 
+     * @param startWith The index of the first element of the page.
+     * @param limit The maximum number of elements in the page.
+     * @return The future with the elements of the page.
+     */
+    protected abstract ListenableFuture< ? extends Collection< ? extends T>> fetch(int startWith,
+        int limit);
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public int getPrefetch()
+    {
+        return prefetch;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new AbstractIterator<T>()
+        {
+            private final LinkedList<PageRequest<T>> inFlight = Lists.newLinkedList();
+
+            private Iterator< ? extends T> current = Collections.<T> emptyList().iterator();
+
+            private int nextIndex = startWith;
+
+            private boolean lastPage = false;
+
+            @Override
+            protected T computeNext()
+            {
+                while (!current.hasNext())
+                {
+                    if (lastPage)
+                    {
+                        return endOfData();
+                    }
+
+                    if (inFlight.isEmpty())
+                    {
+                        requestNextPage();
+                    }
+
+                    PageRequest<T> request = inFlight.removeFirst();
+                    Collection< ? extends T> page = await(request.page);
+
+                    if (page == null || page.isEmpty())
+                    {
+                        // Last page reached
+                        lastPage = true;
+                        cancel(inFlight);
+                        continue;
+                    }
+
+                    if (page.size() < pageSize)
+                    {
+                        // The prefetched pages start at the wrong index if the server returned
+                        // less elements than requested, so continue after the last one
+                        cancel(inFlight);
+                        nextIndex = request.startWith + page.size();
+                    }
+                    else
+                    {
+                        while (inFlight.size() < prefetch)
+                        {
+                            requestNextPage();
+                        }
+                    }
+
+                    current = page.iterator();
+                }
+
+                return current.next();
+            }
+
+            private void requestNextPage()
+            {
+                inFlight.addLast(new PageRequest<T>(nextIndex, fetch(nextIndex, pageSize)));
+                nextIndex += pageSize;
+            }
+
+            private Collection< ? extends T> await(
+                final Future< ? extends Collection< ? extends T>> page)
+            {
+                try
+                {
+                    return maxTime == null ? Uninterruptibles.getUninterruptibly(page)
+                        : Uninterruptibles.getUninterruptibly(page, maxTime,
+                            TimeUnit.MILLISECONDS);
+                }
+                catch (ExecutionException ex)
+                {
+                    cancel(inFlight);
+                    throw Throwables.propagate(ex.getCause());
+                }
+                catch (TimeoutException ex)
+                {
+                    cancel(inFlight);
+                    page.cancel(true);
+                    throw Throwables.propagate(ex);
+                }
+            }
+        };
+    }
+
+    private static void cancel(final Collection< ? extends PageRequest< ? >> requests)
+    {
+        for (PageRequest< ? > request : requests)
+        {
+            request.page.cancel(true);
+        }
+        requests.clear();
+    }
+
+    /**
+     * A requested page and the index of its first element.
+     * 
+     * @author Ignasi Barrera
+     */
+    private static class PageRequest<T>
+    {
+        private final int startWith;
+
+        private final ListenableFuture< ? extends Collection< ? extends T>> page;
+
+        public PageRequest(final int startWith,
+            final ListenableFuture< ? extends Collection< ? extends T>> page)
+        {
+            this.startWith = startWith;
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.config;
+
+import org.jclouds.abiquo.http.internal.AbiquoJavaUrlHttpCommandExecutorService;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+
+import com.google.inject.Scopes;
+
+/**
+ * Configures the http executor used to connect to the Abiquo api, which decompresses the gzip
+ * encoded responses.
+ * <p>
+ * This module is not installed by default, so the http driver configured by the user is
+ * respected. Add it to the modules of the context to enable the gzip compression of the responses.
+ * 
+ * @author Ignasi Barrera
+ */
+@ConfiguresHttpCommandExecutorService
+public class AbiquoJavaUrlHttpCommandExecutorServiceModule extends
+    JavaUrlHttpCommandExecutorServiceModule
+{
+    @Override
+    protected void bindClient()
+    {
+        bind(HttpCommandExecutorService.class).to(AbiquoJavaUrlHttpCommandExecutorService.class)
+            .in(Scopes.SINGLETON);
+    }
+}
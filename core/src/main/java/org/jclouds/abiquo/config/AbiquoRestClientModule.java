@@ -20,6 +20,8 @@
 package org.jclouds.abiquo.config;
 
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.abiquo.reference.AbiquoConstants.WIRE_FORMAT;
+import static org.jclouds.abiquo.xml.internal.AbiquoJSONParser.JSON_WIRE_FORMAT;
 
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -45,14 +47,18 @@ import org.jclouds.abiquo.features.TaskAsyncClient;
 import org.jclouds.abiquo.features.TaskClient;
 import org.jclouds.abiquo.features.VirtualMachineTemplateAsyncClient;
 import org.jclouds.abiquo.features.VirtualMachineTemplateClient;
+import org.jclouds.abiquo.handlers.AbiquoClientErrorRetryHandler;
 import org.jclouds.abiquo.handlers.AbiquoErrorHandler;
 import org.jclouds.abiquo.rest.internal.AbiquoHttpAsyncClient;
 import org.jclouds.abiquo.rest.internal.AbiquoHttpClient;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
 import org.jclouds.abiquo.suppliers.GetCurrentEnterprise;
 import org.jclouds.abiquo.suppliers.GetCurrentUser;
+import org.jclouds.abiquo.xml.internal.AbiquoJAXBParser;
+import org.jclouds.abiquo.xml.internal.AbiquoJSONParser;
 import org.jclouds.collect.Memoized;
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
@@ -62,9 +68,11 @@ import org.jclouds.rest.Utils;
 import org.jclouds.rest.config.BinderUtils;
 import org.jclouds.rest.config.RestClientModule;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.xml.XMLParser;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
 import com.google.inject.Provides;
 
 /**
@@ -112,6 +120,8 @@ public class AbiquoRestClientModule extends RestClientModule<AbiquoClient, Abiqu
     {
         super.configure();
         bind(Utils.class).to(ExtendedUtils.class);
+        // Create the parser with the context, so it can warm up in the background if configured
+        bind(AbiquoJAXBParser.class).asEagerSingleton();
     }
 
     @Override
@@ -122,6 +132,22 @@ public class AbiquoRestClientModule extends RestClientModule<AbiquoClient, Abiqu
         bind(HttpErrorHandler.class).annotatedWith(ServerError.class).to(AbiquoErrorHandler.class);
     }
 
+    @Override
+    protected void bindRetryHandlers()
+    {
+        bind(HttpRetryHandler.class).annotatedWith(ClientError.class).to(
+            AbiquoClientErrorRetryHandler.class);
+    }
+
+    @Provides
+    @Singleton
+    public XMLParser provideParser(@Named(WIRE_FORMAT) final String wireFormat,
+        final Injector injector)
+    {
+        return JSON_WIRE_FORMAT.equalsIgnoreCase(wireFormat) ? injector
+            .getInstance(AbiquoJSONParser.class) : injector.getInstance(AbiquoJAXBParser.class);
+    }
+
     @Provides
     @Singleton
     @Memoized
@@ -24,13 +24,19 @@ import static com.google.common.collect.Iterables.transform;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.exception.WrapperException;
 import org.jclouds.abiquo.domain.task.AsyncTask;
 import org.jclouds.abiquo.reference.ValidationErrors;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.abiquo.rest.internal.ParentCache;
+import org.jclouds.abiquo.rest.internal.RequestCoalescer;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.rest.RESTLink;
@@ -39,6 +45,7 @@ import com.abiquo.model.transport.SingleResourceTransportDto;
 import com.abiquo.model.transport.WrapperDto;
 import com.abiquo.server.core.task.TaskDto;
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 
 /**
@@ -49,6 +56,13 @@ import com.google.common.collect.Lists;
  */
 public abstract class DomainWrapper<T extends SingleResourceTransportDto>
 {
+    /**
+     * The constructors used to create the wrapper instances, indexed by wrapper class and wrapped
+     * object class. Each constructor is looked up only once.
+     */
+    private static final ConcurrentMap<Class< ? >, ConcurrentMap<Class< ? >, Constructor< ? >>> CONSTRUCTORS =
+        new ConcurrentHashMap<Class< ? >, ConcurrentMap<Class< ? >, Constructor< ? >>>();
+
     /** The rest context. */
     protected RestContext<AbiquoClient, AbiquoAsyncClient> context;
 
@@ -82,6 +96,53 @@ public abstract class DomainWrapper<T extends SingleResourceTransportDto>
         return target.getIdFromLink(parentLinkRel);
     }
 
+    /**
+     * Gets the parent resource in the given link from the {@link ParentCache}, and uses the given
+     * loader to retrieve it if it is not cached. Concurrent loads of the same parent are coalesced
+     * by the {@link RequestCoalescer}.
+     * 
+     * @param parentLinkRel The link to the parent resource.
+     * @param type The type of the parent resource.
+     * @param loader The loader used to retrieve the parent resource.
+     * @return The parent resource.
+     */
+    protected <P> P getParent(final String parentLinkRel, final Class<P> type,
+        final Supplier<P> loader)
+    {
+        RESTLink link = target.searchLink(parentLinkRel);
+        if (link == null)
+        {
+            return loader.get();
+        }
+
+        final String href = link.getHref();
+        final ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+        return utils.getParentCache().get(href, type, new Supplier<P>()
+        {
+            @Override
+            public P get()
+            {
+                return utils.getRequestCoalescer().get(href, type, loader);
+            }
+        });
+    }
+
+    /**
+     * Removes the wrapped object from the caches used when navigating to parent resources. Must be
+     * called once the object has been updated or deleted, so concurrent readers cannot cache it
+     * again with its old values.
+     */
+    protected void invalidateCachedParent()
+    {
+        RESTLink link = target.getEditLink();
+        if (link != null)
+        {
+            ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+            utils.getParentCache().invalidate(link.getHref());
+            utils.getResponseCache().invalidate(link.getHref());
+        }
+    }
+
     /**
      * Wraps an object in the given wrapper class.
      */
@@ -96,13 +157,7 @@ public abstract class DomainWrapper<T extends SingleResourceTransportDto>
 
         try
         {
-            Constructor<W> cons =
-                wrapperClass.getDeclaredConstructor(RestContext.class, target.getClass());
-            if (!cons.isAccessible())
-            {
-                cons.setAccessible(true);
-            }
-            return cons.newInstance(context, target);
+            return constructor(wrapperClass, target.getClass()).newInstance(context, target);
         }
         catch (Exception ex)
         {
@@ -122,14 +177,38 @@ public abstract class DomainWrapper<T extends SingleResourceTransportDto>
             return null;
         }
 
-        return Lists.newLinkedList(transform(targets, new Function<T, W>()
+        List<W> wrapped = newListFor(targets);
+        for (T target : targets)
+        {
+            wrapped.add(wrap(context, wrapperClass, target));
+        }
+
+        return wrapped;
+    }
+
+    /**
+     * Returns a lazy view of the given collection of objects wrapped in the given wrapper class.
+     * <p>
+     * Objects are wrapped each time the view is iterated, so this should be used only when the
+     * result is going to be iterated once.
+     */
+    public static <T extends SingleResourceTransportDto, W extends DomainWrapper<T>> Iterable<W> wrapLazily(
+        final RestContext<AbiquoClient, AbiquoAsyncClient> context, final Class<W> wrapperClass,
+        final Iterable<T> targets)
+    {
+        if (targets == null)
+        {
+            return null;
+        }
+
+        return transform(targets, new Function<T, W>()
         {
             @Override
             public W apply(final T input)
             {
                 return wrap(context, wrapperClass, input);
             }
-        }));
+        });
     }
 
     /**
@@ -138,14 +217,57 @@ public abstract class DomainWrapper<T extends SingleResourceTransportDto>
     public static <T extends SingleResourceTransportDto, W extends DomainWrapper<T>> List<T> unwrap(
         final Iterable<W> targets)
     {
-        return Lists.newLinkedList(transform(targets, new Function<W, T>()
+        List<T> unwrapped = newListFor(targets);
+        for (W target : targets)
         {
-            @Override
-            public T apply(final W input)
+            unwrapped.add(target.unwrap());
+        }
+
+        return unwrapped;
+    }
+
+    /**
+     * Creates a list with enough capacity to hold the elements of the given collection.
+     */
+    private static <E> List<E> newListFor(final Iterable< ? > elements)
+    {
+        return elements instanceof Collection ? Lists.<E> newArrayListWithCapacity(((Collection< ? >) elements)
+            .size()) : Lists.<E> newArrayList();
+    }
+
+    /**
+     * Gets the constructor used to wrap objects of the given class in the given wrapper class.
+     * <p>
+     * Constructors are looked up and made accessible only the first time they are used.
+     */
+    @SuppressWarnings("unchecked")
+    private static <W> Constructor<W> constructor(final Class<W> wrapperClass,
+        final Class< ? > targetClass) throws NoSuchMethodException
+    {
+        ConcurrentMap<Class< ? >, Constructor< ? >> constructors = CONSTRUCTORS.get(wrapperClass);
+        if (constructors == null)
+        {
+            constructors = new ConcurrentHashMap<Class< ? >, Constructor< ? >>(4);
+            ConcurrentMap<Class< ? >, Constructor< ? >> existing =
+                CONSTRUCTORS.putIfAbsent(wrapperClass, constructors);
+            if (existing != null)
+            {
+                constructors = existing;
+            }
+        }
+
+        Constructor< ? > cons = constructors.get(targetClass);
+        if (cons == null)
+        {
+            cons = wrapperClass.getDeclaredConstructor(RestContext.class, targetClass);
+            if (!cons.isAccessible())
             {
-                return input.unwrap();
+                cons.setAccessible(true);
             }
-        }));
+            constructors.putIfAbsent(targetClass, cons);
+        }
+
+        return (Constructor<W>) cons;
     }
 
     /**
@@ -177,7 +299,7 @@ public abstract class DomainWrapper<T extends SingleResourceTransportDto>
     public static <T extends SingleResourceTransportDto> Iterable<T> join(
         final Iterable< ? extends WrapperDto<T>> collection)
     {
-        List<T> dtos = Lists.newLinkedList();
+        List<T> dtos = Lists.newArrayList();
         for (WrapperDto<T> wrapper : collection)
         {
             dtos.addAll(wrapper.getCollection());
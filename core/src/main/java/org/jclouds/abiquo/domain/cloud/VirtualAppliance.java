@@ -43,6 +43,7 @@ import com.abiquo.server.core.cloud.VirtualMachineTaskDto;
 import com.abiquo.server.core.cloud.VirtualMachinesDto;
 import com.abiquo.server.core.enterprise.EnterpriseDto;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
@@ -77,6 +78,7 @@ public class VirtualAppliance extends DomainWrapper<VirtualApplianceDto>
     public void delete()
     {
         context.getApi().getCloudClient().deleteVirtualAppliance(target);
+        invalidateCachedParent();
         target = null;
     }
 
@@ -96,6 +98,7 @@ public class VirtualAppliance extends DomainWrapper<VirtualApplianceDto>
     public void update()
     {
         target = context.getApi().getCloudClient().updateVirtualAppliance(target);
+        invalidateCachedParent();
     }
 
     // Parent access
@@ -111,9 +114,19 @@ public class VirtualAppliance extends DomainWrapper<VirtualApplianceDto>
      */
     public VirtualDatacenter getVirtualDatacenter()
     {
-        Integer virtualDatacenterId = target.getIdFromLink(ParentLinkName.VIRTUAL_DATACENTER);
+        final Integer virtualDatacenterId =
+            target.getIdFromLink(ParentLinkName.VIRTUAL_DATACENTER);
         VirtualDatacenterDto dto =
-            context.getApi().getCloudClient().getVirtualDatacenter(virtualDatacenterId);
+            getParent(ParentLinkName.VIRTUAL_DATACENTER, VirtualDatacenterDto.class,
+                new Supplier<VirtualDatacenterDto>()
+                {
+                    @Override
+                    public VirtualDatacenterDto get()
+                    {
+                        return context.getApi().getCloudClient()
+                            .getVirtualDatacenter(virtualDatacenterId);
+                    }
+                });
         virtualDatacenter = wrap(context, VirtualDatacenter.class, dto);
         return virtualDatacenter;
     }
@@ -129,8 +142,16 @@ public class VirtualAppliance extends DomainWrapper<VirtualApplianceDto>
      */
     public Enterprise getEnterprise()
     {
-        Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
-        EnterpriseDto dto = context.getApi().getEnterpriseClient().getEnterprise(enterpriseId);
+        final Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
+        EnterpriseDto dto =
+            getParent(ParentLinkName.ENTERPRISE, EnterpriseDto.class, new Supplier<EnterpriseDto>()
+            {
+                @Override
+                public EnterpriseDto get()
+                {
+                    return context.getApi().getEnterpriseClient().getEnterprise(enterpriseId);
+                }
+            });
         return wrap(context, Enterprise.class, dto);
     }
 
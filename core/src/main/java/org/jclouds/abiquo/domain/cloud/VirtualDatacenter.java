@@ -21,6 +21,7 @@ package org.jclouds.abiquo.domain.cloud;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
+import static org.jclouds.abiquo.predicates.QueryPredicate.optionsOf;
 
 import java.util.List;
 
@@ -102,6 +103,7 @@ public class VirtualDatacenter extends DomainWithLimitsWrapper<VirtualDatacenter
     public void delete()
     {
         context.getApi().getCloudClient().deleteVirtualDatacenter(target);
+        invalidateCachedParent();
         target = null;
     }
 
@@ -131,6 +133,7 @@ public class VirtualDatacenter extends DomainWithLimitsWrapper<VirtualDatacenter
     public void update()
     {
         target = context.getApi().getCloudClient().updateVirtualDatacenter(target);
+        invalidateCachedParent();
     }
 
     // Parent access
@@ -460,22 +463,28 @@ public class VirtualDatacenter extends DomainWithLimitsWrapper<VirtualDatacenter
      */
     public List<Ip> listAvailablePublicIps()
     {
-        IpOptions options = IpOptions.builder().build();
-
-        IpsPoolManagementDto ips =
-            context.getApi().getCloudClient().listAvailablePublicIps(target, options);
-
-        return wrap(context, Ip.class, ips.getCollection());
+        return listAvailablePublicIps(IpOptions.builder().build());
     }
 
     public List<Ip> listAvailablePublicIps(final Predicate<Ip> filter)
     {
-        return Lists.newLinkedList(filter(listAvailablePublicIps(), filter));
+        // Apply the filter in the server side if the predicate supports it
+        IpOptions options = optionsOf(filter, IpOptions.class);
+        return Lists.newLinkedList(filter(
+            options == null ? listAvailablePublicIps() : listAvailablePublicIps(options), filter));
     }
 
     public Ip findAvailablePublicIp(final Predicate<Ip> filter)
     {
-        return Iterables.getFirst(filter(listAvailablePublicIps(), filter), null);
+        return Iterables.getFirst(listAvailablePublicIps(filter), null);
+    }
+
+    private List<Ip> listAvailablePublicIps(final IpOptions options)
+    {
+        IpsPoolManagementDto ips =
+            context.getApi().getCloudClient().listAvailablePublicIps(target, options);
+
+        return wrap(context, Ip.class, ips.getCollection());
     }
 
     /**
@@ -486,22 +495,28 @@ public class VirtualDatacenter extends DomainWithLimitsWrapper<VirtualDatacenter
      */
     public List<Ip> listPurchasedPublicIps()
     {
-        IpOptions options = IpOptions.builder().build();
-
-        IpsPoolManagementDto ips =
-            context.getApi().getCloudClient().listPurchasedPublicIps(target, options);
-
-        return wrap(context, Ip.class, ips.getCollection());
+        return listPurchasedPublicIps(IpOptions.builder().build());
     }
 
     public List<Ip> listPurchasedPublicIps(final Predicate<Ip> filter)
     {
-        return Lists.newLinkedList(filter(listPurchasedPublicIps(), filter));
+        // Apply the filter in the server side if the predicate supports it
+        IpOptions options = optionsOf(filter, IpOptions.class);
+        return Lists.newLinkedList(filter(
+            options == null ? listPurchasedPublicIps() : listPurchasedPublicIps(options), filter));
     }
 
     public Ip findPurchasedPublicIp(final Predicate<Ip> filter)
     {
-        return Iterables.getFirst(filter(listPurchasedPublicIps(), filter), null);
+        return Iterables.getFirst(listPurchasedPublicIps(filter), null);
+    }
+
+    private List<Ip> listPurchasedPublicIps(final IpOptions options)
+    {
+        IpsPoolManagementDto ips =
+            context.getApi().getCloudClient().listPurchasedPublicIps(target, options);
+
+        return wrap(context, Ip.class, ips.getCollection());
     }
 
     public void purchasePublicIp(final Ip ip)
@@ -38,8 +38,6 @@ import org.jclouds.abiquo.domain.task.AsyncTask;
 import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
-import org.jclouds.http.HttpResponse;
-import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.rest.RESTLink;
@@ -61,11 +59,11 @@ import com.abiquo.server.core.infrastructure.storage.VolumesManagementDto;
 import com.abiquo.server.core.task.TasksDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import com.google.common.primitives.Longs;
-import com.google.inject.TypeLiteral;
 
 /**
  * Adds high level functionality to {@link VirtualMachineDto}.
@@ -233,18 +231,22 @@ public class VirtualMachine extends DomainWrapper<VirtualMachineDto>
      */
     public VirtualAppliance getVirtualAppliance()
     {
-        RESTLink link =
+        final RESTLink link =
             checkNotNull(target.searchLink(ParentLinkName.VIRTUAL_APPLIANCE),
                 ValidationErrors.MISSING_REQUIRED_LINK + " " + ParentLinkName.VIRTUAL_APPLIANCE);
 
-        ExtendedUtils utils = (ExtendedUtils) context.getUtils();
-        HttpResponse response = utils.getAbiquoHttpClient().get(link);
-
-        ParseXMLWithJAXB<VirtualApplianceDto> parser =
-            new ParseXMLWithJAXB<VirtualApplianceDto>(utils.getXml(),
-                TypeLiteral.get(VirtualApplianceDto.class));
-
-        return wrap(context, VirtualAppliance.class, parser.apply(response));
+        final ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+        VirtualApplianceDto parent =
+            getParent(ParentLinkName.VIRTUAL_APPLIANCE, VirtualApplianceDto.class,
+                new Supplier<VirtualApplianceDto>()
+                {
+                    @Override
+                    public VirtualApplianceDto get()
+                    {
+                        return utils.getResponseCache().get(link, VirtualApplianceDto.class);
+                    }
+                });
+        return wrap(context, VirtualAppliance.class, parent);
     }
 
     /**
@@ -258,9 +260,19 @@ public class VirtualMachine extends DomainWrapper<VirtualMachineDto>
      */
     public VirtualDatacenter getVirtualDatacenter()
     {
-        Integer virtualDatacenterId = target.getIdFromLink(ParentLinkName.VIRTUAL_DATACENTER);
+        final Integer virtualDatacenterId =
+            target.getIdFromLink(ParentLinkName.VIRTUAL_DATACENTER);
         VirtualDatacenterDto dto =
-            context.getApi().getCloudClient().getVirtualDatacenter(virtualDatacenterId);
+            getParent(ParentLinkName.VIRTUAL_DATACENTER, VirtualDatacenterDto.class,
+                new Supplier<VirtualDatacenterDto>()
+                {
+                    @Override
+                    public VirtualDatacenterDto get()
+                    {
+                        return context.getApi().getCloudClient()
+                            .getVirtualDatacenter(virtualDatacenterId);
+                    }
+                });
         return wrap(context, VirtualDatacenter.class, dto);
     }
 
@@ -275,8 +287,16 @@ public class VirtualMachine extends DomainWrapper<VirtualMachineDto>
      */
     public Enterprise getEnterprise()
     {
-        Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
-        EnterpriseDto dto = context.getApi().getEnterpriseClient().getEnterprise(enterpriseId);
+        final Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
+        EnterpriseDto dto =
+            getParent(ParentLinkName.ENTERPRISE, EnterpriseDto.class, new Supplier<EnterpriseDto>()
+            {
+                @Override
+                public EnterpriseDto get()
+                {
+                    return context.getApi().getEnterpriseClient().getEnterprise(enterpriseId);
+                }
+            });
         return wrap(context, Enterprise.class, dto);
     }
 
@@ -288,7 +308,16 @@ public class VirtualMachine extends DomainWrapper<VirtualMachineDto>
     public VirtualMachineTemplate getTemplate()
     {
         VirtualMachineTemplateDto dto =
-            context.getApi().getCloudClient().getVirtualMachineTemplate(target);
+            getParent(ParentLinkName.VIRTUAL_MACHINE_TEMPLATE, VirtualMachineTemplateDto.class,
+                new Supplier<VirtualMachineTemplateDto>()
+                {
+                    @Override
+                    public VirtualMachineTemplateDto get()
+                    {
+                        return context.getApi().getCloudClient()
+                            .getVirtualMachineTemplate(target);
+                    }
+                });
         return wrap(context, VirtualMachineTemplate.class, dto);
     }
 
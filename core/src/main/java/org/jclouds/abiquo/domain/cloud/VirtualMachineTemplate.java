@@ -58,6 +58,7 @@ public class VirtualMachineTemplate extends DomainWrapper<VirtualMachineTemplate
     public void delete()
     {
         context.getApi().getVirtualMachineTemplateClient().deleteVirtualMachineTemplate(target);
+        invalidateCachedParent();
         target = null;
     }
 
@@ -65,6 +66,7 @@ public class VirtualMachineTemplate extends DomainWrapper<VirtualMachineTemplate
     {
         target =
             context.getApi().getVirtualMachineTemplateClient().updateVirtualMachineTemplate(target);
+        invalidateCachedParent();
     }
 
     // Children access
@@ -38,6 +38,7 @@ import org.jclouds.abiquo.domain.network.ExternalNetwork;
 import org.jclouds.abiquo.domain.network.Network;
 import org.jclouds.abiquo.reference.annotations.EnterpriseEdition;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.abiquo.rest.internal.RequestCoalescer;
 import org.jclouds.abiquo.strategy.enterprise.ListVirtualMachineTemplates;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseXMLWithJAXB;
@@ -61,6 +62,7 @@ import com.abiquo.server.core.infrastructure.DatacentersDto;
 import com.abiquo.server.core.infrastructure.MachinesDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworksDto;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.inject.TypeLiteral;
@@ -100,6 +102,7 @@ public class Enterprise extends DomainWithLimitsWrapper<EnterpriseDto>
     public void delete()
     {
         context.getApi().getEnterpriseClient().deleteEnterprise(target);
+        invalidateCachedParent();
         target = null;
     }
 
@@ -127,6 +130,7 @@ public class Enterprise extends DomainWithLimitsWrapper<EnterpriseDto>
     public void update()
     {
         target = context.getApi().getEnterpriseClient().updateEnterprise(target);
+        invalidateCachedParent();
     }
 
     // Children access
@@ -439,8 +443,18 @@ public class Enterprise extends DomainWithLimitsWrapper<EnterpriseDto>
 
     public List<Datacenter> listAllowedDatacenters()
     {
+        RequestCoalescer coalescer = ((ExtendedUtils) context.getUtils()).getRequestCoalescer();
         DatacentersDto datacenters =
-            context.getApi().getEnterpriseClient().listAllowedDatacenters(target.getId());
+            coalescer.get(coalescer.uri("/admin/datacenters?idEnterprise=" + target.getId()),
+                DatacentersDto.class, new Supplier<DatacentersDto>()
+                {
+                    @Override
+                    public DatacentersDto get()
+                    {
+                        return context.getApi().getEnterpriseClient()
+                            .listAllowedDatacenters(target.getId());
+                    }
+                });
         return wrap(context, Datacenter.class, datacenters.getCollection());
     }
 
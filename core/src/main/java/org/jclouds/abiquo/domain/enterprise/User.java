@@ -37,11 +37,13 @@ import org.jclouds.abiquo.strategy.cloud.ListVirtualDatacenters;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.enterprise.EnterpriseDto;
 import com.abiquo.server.core.enterprise.RoleDto;
 import com.abiquo.server.core.enterprise.UserDto;
 import com.abiquo.server.core.infrastructure.MachinesDto;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
@@ -187,9 +189,17 @@ public class User extends DomainWrapper<UserDto>
      */
     public Enterprise getEnterprise()
     {
-        Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
-        return wrap(context, Enterprise.class, context.getApi().getEnterpriseClient()
-            .getEnterprise(enterpriseId));
+        final Integer enterpriseId = target.getIdFromLink(ParentLinkName.ENTERPRISE);
+        EnterpriseDto dto =
+            getParent(ParentLinkName.ENTERPRISE, EnterpriseDto.class, new Supplier<EnterpriseDto>()
+            {
+                @Override
+                public EnterpriseDto get()
+                {
+                    return context.getApi().getEnterpriseClient().getEnterprise(enterpriseId);
+                }
+            });
+        return wrap(context, Enterprise.class, dto);
     }
 
     // Children access
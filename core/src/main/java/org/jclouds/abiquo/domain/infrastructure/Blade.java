@@ -26,8 +26,6 @@ import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
-import org.jclouds.http.HttpResponse;
-import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.rest.RESTLink;
@@ -35,7 +33,6 @@ import com.abiquo.server.core.infrastructure.BladeLocatorLedDto;
 import com.abiquo.server.core.infrastructure.LogicServerDto;
 import com.abiquo.server.core.infrastructure.MachineDto;
 import com.abiquo.server.core.infrastructure.UcsRackDto;
-import com.google.inject.TypeLiteral;
 
 /**
  * Adds high level functionality to a {@link MachineDto} managed in a UCS rack. This resource allows
@@ -75,12 +72,8 @@ public class Blade extends AbstractPhysicalMachine
                 ValidationErrors.MISSING_REQUIRED_LINK + " " + ParentLinkName.RACK);
 
         ExtendedUtils utils = (ExtendedUtils) context.getUtils();
-        HttpResponse response = utils.getAbiquoHttpClient().get(link);
-
-        ParseXMLWithJAXB<UcsRackDto> parser =
-            new ParseXMLWithJAXB<UcsRackDto>(utils.getXml(), TypeLiteral.get(UcsRackDto.class));
-
-        return wrap(context, ManagedRack.class, parser.apply(response));
+        UcsRackDto parent = utils.getResponseCache().get(link, UcsRackDto.class);
+        return wrap(context, ManagedRack.class, parent);
     }
 
     /**
@@ -33,8 +33,6 @@ import org.jclouds.abiquo.predicates.infrastructure.DatastorePredicates;
 import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
-import org.jclouds.http.HttpResponse;
-import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.enumerator.HypervisorType;
@@ -48,7 +46,6 @@ import com.abiquo.server.core.infrastructure.RackDto;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.inject.TypeLiteral;
 
 /**
  * Adds high level functionality to {@link MachineDto}. This resource allows you to manage physical
@@ -117,12 +114,7 @@ public class Machine extends AbstractPhysicalMachine
                 ValidationErrors.MISSING_REQUIRED_LINK + " " + ParentLinkName.RACK);
 
         ExtendedUtils utils = (ExtendedUtils) context.getUtils();
-        HttpResponse response = utils.getAbiquoHttpClient().get(link);
-
-        ParseXMLWithJAXB<RackDto> parser =
-            new ParseXMLWithJAXB<RackDto>(utils.getXml(), TypeLiteral.get(RackDto.class));
-
-        return wrap(context, Rack.class, parser.apply(response));
+        return wrap(context, Rack.class, utils.getResponseCache().get(link, RackDto.class));
     }
 
     // Children access
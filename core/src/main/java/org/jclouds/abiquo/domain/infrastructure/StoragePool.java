@@ -30,15 +30,12 @@ import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.reference.annotations.EnterpriseEdition;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.abiquo.rest.internal.ExtendedUtils;
-import org.jclouds.http.HttpResponse;
-import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.rest.RestContext;
 
 import com.abiquo.model.rest.RESTLink;
 import com.abiquo.server.core.infrastructure.storage.StorageDeviceDto;
 import com.abiquo.server.core.infrastructure.storage.StoragePoolDto;
 import com.abiquo.server.core.infrastructure.storage.TierDto;
-import com.google.inject.TypeLiteral;
 
 /**
  * Adds high level functionality to {@link StoragePoolDto}. The Storage Pool Resource allows you to
@@ -157,13 +154,8 @@ public class StoragePool extends DomainWrapper<StoragePoolDto>
                 ValidationErrors.MISSING_REQUIRED_LINK + " " + ParentLinkName.STORAGE_DEVICE);
 
         ExtendedUtils utils = (ExtendedUtils) context.getUtils();
-        HttpResponse response = utils.getAbiquoHttpClient().get(link);
-
-        ParseXMLWithJAXB<StorageDeviceDto> parser =
-            new ParseXMLWithJAXB<StorageDeviceDto>(utils.getXml(),
-                TypeLiteral.get(StorageDeviceDto.class));
-
-        return wrap(context, StorageDevice.class, parser.apply(response));
+        StorageDeviceDto parent = utils.getResponseCache().get(link, StorageDeviceDto.class);
+        return wrap(context, StorageDevice.class, parent);
     }
 
     // Children access
@@ -180,12 +172,7 @@ public class StoragePool extends DomainWrapper<StoragePoolDto>
                 ValidationErrors.MISSING_REQUIRED_LINK + " " + ParentLinkName.TIER);
 
         ExtendedUtils utils = (ExtendedUtils) context.getUtils();
-        HttpResponse response = utils.getAbiquoHttpClient().get(link);
-
-        ParseXMLWithJAXB<TierDto> parser =
-            new ParseXMLWithJAXB<TierDto>(utils.getXml(), TypeLiteral.get(TierDto.class));
-
-        return wrap(context, Tier.class, parser.apply(response));
+        return wrap(context, Tier.class, utils.getResponseCache().get(link, TierDto.class));
     }
 
     // Builder
@@ -71,7 +71,7 @@ public abstract class Network extends DomainWrapper<VLANNetworkDto>
 
     public Ip findIp(final Predicate<Ip> filter)
     {
-        return Iterables.getFirst(filter(listIps(), filter), null);
+        return Iterables.getFirst(listIps(filter), null);
     }
 
     public List<Ip> listAvailableIps()
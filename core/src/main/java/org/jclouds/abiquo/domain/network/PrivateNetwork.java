@@ -19,6 +19,9 @@
 
 package org.jclouds.abiquo.domain.network;
 
+import static com.google.common.collect.Iterables.filter;
+import static org.jclouds.abiquo.predicates.QueryPredicate.optionsOf;
+
 import java.util.List;
 
 import org.jclouds.abiquo.AbiquoAsyncClient;
@@ -30,6 +33,8 @@ import org.jclouds.rest.RestContext;
 import com.abiquo.model.enumerator.NetworkType;
 import com.abiquo.server.core.infrastructure.network.IpsPoolManagementDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworkDto;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
 
 /**
  * Adds high level functionality to private {@link VLANNetworkDto}.
@@ -107,6 +112,21 @@ public class PrivateNetwork extends Network
         return wrap(context, Ip.class, nics.getCollection());
     }
 
+    // Override to apply the filter in the server side if the predicate supports it
+    @Override
+    public List<Ip> listIps(final Predicate<Ip> filter)
+    {
+        IpOptions options = optionsOf(filter, IpOptions.class);
+        if (options == null)
+        {
+            return super.listIps(filter);
+        }
+
+        IpsPoolManagementDto nics =
+            context.getApi().getCloudClient().listPrivateNetworkIps(target, options);
+        return Lists.newLinkedList(filter(wrap(context, Ip.class, nics.getCollection()), filter));
+    }
+
     // Override to apply the filter in the server side
     @Override
     public List<Ip> listAvailableIps()
@@ -22,6 +22,8 @@ package org.jclouds.abiquo.domain.options;
 import org.jclouds.abiquo.domain.options.search.FilterOptions;
 import org.jclouds.abiquo.domain.options.search.reference.OrderBy;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
 
@@ -43,6 +45,51 @@ public abstract class QueryOptions
         return map;
     }
 
+    /**
+     * Gets the index of the first element to return, or <code>null</code> if not set.
+     */
+    public Integer getStartWith()
+    {
+        return getIntOption("startwith");
+    }
+
+    /**
+     * Gets the maximum number of elements to return, or <code>null</code> if not set.
+     */
+    public Integer getLimit()
+    {
+        return getIntOption("limit");
+    }
+
+    /**
+     * Creates a copy of the current options to request the given page of results.
+     * 
+     * @param startWith The index of the first element of the page.
+     * @param limit The maximum number of elements of the page.
+     * @return A copy of the current options with the given pagination parameters.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends QueryOptions> T withPage(final int startWith, final int limit)
+    {
+        try
+        {
+            QueryOptions options = (QueryOptions) clone();
+            options.map.replaceValues("startwith", ImmutableList.of(String.valueOf(startWith)));
+            options.map.replaceValues("limit", ImmutableList.of(String.valueOf(limit)));
+            return (T) options;
+        }
+        catch (CloneNotSupportedException ex)
+        {
+            throw new IllegalStateException("Could not copy options of type " + getClass(), ex);
+        }
+    }
+
+    private Integer getIntOption(final String name)
+    {
+        String value = Iterables.getFirst(map.get(name), null);
+        return value == null ? null : Integer.valueOf(value);
+    }
+
     public static class QueryOptionsBuilder<T extends QueryOptionsBuilder<T>>
     {
         protected Integer startWith;
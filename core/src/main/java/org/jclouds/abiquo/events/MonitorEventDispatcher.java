@@ -0,0 +1,156 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.events;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.events.handlers.AbstractEventHandler;
+import org.jclouds.abiquo.events.handlers.BlockingEventHandler;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.EventBus;
+
+/**
+ * Dispatches monitor events to the registered handlers.
+ * <p>
+ * {@link BlockingEventHandler}s are indexed by the objects they are waiting for, and each event is
+ * delivered only to the handlers interested in its target, so the cost of dispatching an event
+ * does not depend on the number of registered handlers. The rest of the handlers are registered
+ * in the {@link EventBus} and receive all the events.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class MonitorEventDispatcher
+{
+    /** The event bus used to dispatch the events to the handlers without targets. */
+    @VisibleForTesting
+    final EventBus eventBus;
+
+    /** The handlers interested in each target. */
+    @VisibleForTesting
+    final ConcurrentMap<Object, Set<BlockingEventHandler< ? >>> handlersByTarget;
+
+    /** The targets each indexed handler was registered with. */
+    @VisibleForTesting
+    final Map<BlockingEventHandler< ? >, Set< ? >> targetsByHandler;
+
+    @Inject
+    public MonitorEventDispatcher(final EventBus eventBus)
+    {
+        this.eventBus = checkNotNull(eventBus, "eventBus");
+        this.handlersByTarget = Maps.newConcurrentMap();
+        this.targetsByHandler = Maps.newIdentityHashMap();
+    }
+
+    /**
+     * Registers the given event handler.
+     * 
+     * @param handler The event handler to register.
+     */
+    public synchronized void register(final AbstractEventHandler< ? > handler)
+    {
+        checkNotNull(handler, "handler");
+
+        if (!(handler instanceof BlockingEventHandler))
+        {
+            eventBus.register(handler);
+            return;
+        }
+
+        // Keep a copy of the targets, since the handler removes them while handling events
+        BlockingEventHandler< ? > blockingHandler = (BlockingEventHandler< ? >) handler;
+        Set< ? > registered = ImmutableSet.copyOf(blockingHandler.getTargets());
+        targetsByHandler.put(blockingHandler, registered);
+
+        for (Object target : registered)
+        {
+            Set<BlockingEventHandler< ? >> handlers = handlersByTarget.get(target);
+            if (handlers == null)
+            {
+                handlers = new CopyOnWriteArraySet<BlockingEventHandler< ? >>();
+                handlersByTarget.put(target, handlers);
+            }
+            handlers.add(blockingHandler);
+        }
+    }
+
+    /**
+     * Unregisters the given event handler.
+     * 
+     * @param handler The event handler to unregister.
+     */
+    public synchronized void unregister(final AbstractEventHandler< ? > handler)
+    {
+        checkNotNull(handler, "handler");
+        Set< ? > registered = targetsByHandler.remove(handler);
+
+        if (registered == null)
+        {
+            eventBus.unregister(handler);
+            return;
+        }
+
+        for (Object target : registered)
+        {
+            Set<BlockingEventHandler< ? >> handlers = handlersByTarget.get(target);
+            if (handlers != null)
+            {
+                handlers.remove(handler);
+                if (handlers.isEmpty())
+                {
+                    handlersByTarget.remove(target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches the given event to the handlers interested in its target, and to the handlers
+     * that receive all the events.
+     * 
+     * @param event The event to dispatch.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void post(final MonitorEvent< ? > event)
+    {
+        Set<BlockingEventHandler< ? >> handlers = handlersByTarget.get(event.getTarget());
+        if (handlers != null)
+        {
+            for (BlockingEventHandler handler : handlers)
+            {
+                handler.handle(event);
+            }
+        }
+
+        eventBus.post(event);
+    }
+}
@@ -22,7 +22,9 @@ package org.jclouds.abiquo.events.handlers;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 
 import org.jclouds.abiquo.events.monitor.MonitorEvent;
@@ -30,7 +32,7 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 
 /**
@@ -53,10 +55,10 @@ public class BlockingEventHandler<T> extends AbstractEventHandler<T>
     /**
      * The objects being locked.
      * <p>
-     * This class handles events in a thread safe way. Otherwise this collections should be
-     * synchronised.
+     * A concurrent set is used so events for different objects can be handled concurrently and
+     * checking if an event must be handled does not depend on the number of locked objects.
      */
-    protected List<T> lockedObjects;
+    protected Set<T> lockedObjects;
 
     public BlockingEventHandler(final T... lockedObjects)
     {
@@ -69,21 +71,32 @@ public class BlockingEventHandler<T> extends AbstractEventHandler<T>
         checkArgument(checkNotNull(lockedObjects, "lockedObjects").length > 0,
             "must provide at least one object");
         this.logger = checkNotNull(logger, "logger");
-        this.lockedObjects = Lists.newArrayList(lockedObjects);
+        this.lockedObjects = Sets.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+        this.lockedObjects.addAll(Arrays.asList(lockedObjects));
         this.logger.debug("created BlockingEventHandler locking %s objects", lockedObjects.length);
     }
 
     @Override
     protected boolean handles(final MonitorEvent<T> event)
     {
-        logger.debug("checking if %s event on %s must be handled by %s", event.getType(),
-            event.getTarget(), this);
         boolean handles = lockedObjects.contains(event.getTarget());
-        logger.debug("%s event on %s must %sbe handled", event.getType(), event.getTarget(),
-            handles ? "" : "not ");
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("%s event on %s must %sbe handled by %s", event.getType(),
+                event.getTarget(), handles ? "" : "not ", this);
+        }
         return handles;
     }
 
+    /**
+     * Gets the objects whose events must be handled by the current handler, so events can be
+     * routed directly to it.
+     */
+    public Set<T> getTargets()
+    {
+        return lockedObjects;
+    }
+
     /**
      * Handles the dispatched event in a thread safe way.
      * <p>
@@ -145,7 +158,11 @@ public class BlockingEventHandler<T> extends AbstractEventHandler<T>
     protected void release(final T target)
     {
         logger.debug("releasing %s", target);
-        lockedObjects.remove(target);
+        if (!lockedObjects.remove(target))
+        {
+            // The object has already been released by a previous event
+            return;
+        }
 
         // The completeSignal might be null if the events have been consumed
         // before acquiring the lock
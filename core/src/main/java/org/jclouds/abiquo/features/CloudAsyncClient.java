@@ -19,6 +19,8 @@
 
 package org.jclouds.abiquo.features;
 
+import java.util.Iterator;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -48,12 +50,15 @@ import org.jclouds.abiquo.domain.cloud.options.VolumeOptions;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
 import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.abiquo.functions.ParseIpStream;
 import org.jclouds.abiquo.functions.ReturnTaskReferenceOrNull;
+import org.jclouds.abiquo.functions.cloud.ParseVirtualMachineStream;
 import org.jclouds.abiquo.functions.cloud.ReturnMovedVolume;
 import org.jclouds.abiquo.functions.enterprise.ParseEnterpriseId;
 import org.jclouds.abiquo.functions.infrastructure.ParseDatacenterId;
 import org.jclouds.abiquo.http.filters.AbiquoAuthentication;
 import org.jclouds.abiquo.http.filters.AppendApiVersionToMediaType;
+import org.jclouds.abiquo.http.filters.GzipCompression;
 import org.jclouds.abiquo.reference.annotations.EnterpriseEdition;
 import org.jclouds.abiquo.rest.annotations.EndpointLink;
 import org.jclouds.rest.annotations.BinderParam;
@@ -104,7 +109,8 @@ import com.google.common.util.concurrent.ListenableFuture;
  * @author Ignasi Barrera
  * @author Francesc Montserrat
  */
-@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class})
+@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class,
+    GzipCompression.class})
 @Path("/cloud")
 public interface CloudAsyncClient
 {
@@ -312,6 +318,16 @@ public interface CloudAsyncClient
         @EndpointLink("ips") @BinderParam(BindToPath.class) VLANNetworkDto network,
         @BinderParam(AppendOptionsToPath.class) IpOptions options);
 
+    /**
+     * @see CloudClient#streamPrivateNetworkIps(VLANNetworkDto, IpOptions)
+     */
+    @GET
+    @Consumes(IpsPoolManagementDto.BASE_MEDIA_TYPE)
+    @ResponseParser(ParseIpStream.class)
+    ListenableFuture<Iterator<IpPoolManagementDto>> streamPrivateNetworkIps(
+        @EndpointLink("ips") @BinderParam(BindToPath.class) VLANNetworkDto network,
+        @BinderParam(AppendOptionsToPath.class) IpOptions options);
+
     /*********************** Attached Nic ***********************/
 
     /**
@@ -434,6 +450,15 @@ public interface CloudAsyncClient
     ListenableFuture<VirtualMachinesDto> listVirtualMachines(
         @EndpointLink("virtualmachines") @BinderParam(BindToPath.class) VirtualApplianceDto virtualAppliance);
 
+    /**
+     * @see CloudClient#streamVirtualMachines(VirtualApplianceDto)
+     */
+    @GET
+    @Consumes(VirtualMachinesDto.BASE_MEDIA_TYPE)
+    @ResponseParser(ParseVirtualMachineStream.class)
+    ListenableFuture<Iterator<VirtualMachineDto>> streamVirtualMachines(
+        @EndpointLink("virtualmachines") @BinderParam(BindToPath.class) VirtualApplianceDto virtualAppliance);
+
     /**
      * @see CloudClient#getVirtualMachine(VirtualApplianceDto, Integer)
      */
@@ -19,6 +19,7 @@
 
 package org.jclouds.abiquo.features;
 
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.abiquo.domain.cloud.options.VirtualApplianceOptions;
@@ -246,6 +247,17 @@ public interface CloudClient
      */
     IpsPoolManagementDto listPrivateNetworkIps(VLANNetworkDto network, IpOptions options);
 
+    /**
+     * Stream the ips of a private network, parsing them one at a time while the response is read.
+     * 
+     * @param network The private network.
+     * @param options Filtering options.
+     * @return The ips of the private network. The iterator must be closed if it is not
+     *         completely consumed.
+     */
+    Iterator<IpPoolManagementDto> streamPrivateNetworkIps(VLANNetworkDto network,
+        IpOptions options);
+
     /*********************** Attached Nic ***********************/
 
     /**
@@ -363,6 +375,16 @@ public interface CloudClient
      */
     VirtualMachinesDto listVirtualMachines(VirtualApplianceDto virtualAppliance);
 
+    /**
+     * Stream the virtual machines of a virtual appliance, parsing them one at a time while the
+     * response is read.
+     * 
+     * @param virtualAppliance The virtual appliance.
+     * @return The virtual machines of the virtual appliance. The iterator must be closed if it is
+     *         not completely consumed.
+     */
+    Iterator<VirtualMachineDto> streamVirtualMachines(VirtualApplianceDto virtualAppliance);
+
     /**
      * Get the given virtual machine from the given virtual machine.
      * 
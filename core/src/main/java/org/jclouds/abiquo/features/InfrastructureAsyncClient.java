@@ -19,6 +19,8 @@
 
 package org.jclouds.abiquo.features;
 
+import java.util.Iterator;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -44,11 +46,14 @@ import org.jclouds.abiquo.domain.network.options.IpOptions;
 import org.jclouds.abiquo.domain.network.options.NetworkOptions;
 import org.jclouds.abiquo.domain.options.QueryOptions;
 import org.jclouds.abiquo.domain.options.search.FilterOptions;
+import org.jclouds.abiquo.functions.ParseIpStream;
 import org.jclouds.abiquo.functions.ReturnAbiquoExceptionOnNotFoundOr4xx;
 import org.jclouds.abiquo.functions.ReturnFalseIfNotAvailable;
 import org.jclouds.abiquo.functions.infrastructure.ParseDatacenterId;
+import org.jclouds.abiquo.functions.infrastructure.ParseMachineStream;
 import org.jclouds.abiquo.http.filters.AbiquoAuthentication;
 import org.jclouds.abiquo.http.filters.AppendApiVersionToMediaType;
+import org.jclouds.abiquo.http.filters.GzipCompression;
 import org.jclouds.abiquo.reference.annotations.EnterpriseEdition;
 import org.jclouds.abiquo.rest.annotations.EndpointLink;
 import org.jclouds.http.functions.ReturnStringIf2xx;
@@ -83,6 +88,7 @@ import com.abiquo.server.core.infrastructure.RemoteServiceDto;
 import com.abiquo.server.core.infrastructure.RemoteServicesDto;
 import com.abiquo.server.core.infrastructure.UcsRackDto;
 import com.abiquo.server.core.infrastructure.UcsRacksDto;
+import com.abiquo.server.core.infrastructure.network.IpPoolManagementDto;
 import com.abiquo.server.core.infrastructure.network.IpsPoolManagementDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworkDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworksDto;
@@ -104,7 +110,8 @@ import com.google.common.util.concurrent.ListenableFuture;
  * @author Ignasi Barrera
  * @author Francesc Montserrat
  */
-@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class})
+@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class,
+    GzipCompression.class})
 @Path("/admin")
 public interface InfrastructureAsyncClient
 {
@@ -575,6 +582,15 @@ public interface InfrastructureAsyncClient
     ListenableFuture<MachinesDto> listMachines(
         @EndpointLink("machines") @BinderParam(BindToPath.class) RackDto rack);
 
+    /**
+     * @see InfrastructureClient#streamMachines(RackDto)
+     */
+    @GET
+    @Consumes(MachinesDto.BASE_MEDIA_TYPE)
+    @ResponseParser(ParseMachineStream.class)
+    ListenableFuture<Iterator<MachineDto>> streamMachines(
+        @EndpointLink("machines") @BinderParam(BindToPath.class) RackDto rack);
+
     /**
      * @see InfrastructureClient#createMachine(RackDto, MachineDto)
      */
@@ -956,4 +972,14 @@ public interface InfrastructureAsyncClient
     ListenableFuture<IpsPoolManagementDto> listNetworkIps(
         @EndpointLink("ips") @BinderParam(BindToPath.class) VLANNetworkDto network,
         @BinderParam(AppendOptionsToPath.class) IpOptions options);
+
+    /**
+     * @see InfrastructureClient#streamNetworkIps(VLANNetworkDto, IpOptions)
+     */
+    @GET
+    @Consumes(IpsPoolManagementDto.BASE_MEDIA_TYPE)
+    @ResponseParser(ParseIpStream.class)
+    ListenableFuture<Iterator<IpPoolManagementDto>> streamNetworkIps(
+        @EndpointLink("ips") @BinderParam(BindToPath.class) VLANNetworkDto network,
+        @BinderParam(AppendOptionsToPath.class) IpOptions options);
 }
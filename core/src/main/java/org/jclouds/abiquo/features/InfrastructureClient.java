@@ -19,6 +19,7 @@
 
 package org.jclouds.abiquo.features;
 
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.abiquo.domain.infrastructure.options.DatacenterOptions;
@@ -52,6 +53,7 @@ import com.abiquo.server.core.infrastructure.RemoteServiceDto;
 import com.abiquo.server.core.infrastructure.RemoteServicesDto;
 import com.abiquo.server.core.infrastructure.UcsRackDto;
 import com.abiquo.server.core.infrastructure.UcsRacksDto;
+import com.abiquo.server.core.infrastructure.network.IpPoolManagementDto;
 import com.abiquo.server.core.infrastructure.network.IpsPoolManagementDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworkDto;
 import com.abiquo.server.core.infrastructure.network.VLANNetworksDto;
@@ -593,6 +595,16 @@ public interface InfrastructureClient
      */
     MachinesDto listMachines(RackDto rack);
 
+    /**
+     * Stream the physical machines of a rack, parsing them one at a time while the response is
+     * read.
+     * 
+     * @param rack The rack.
+     * @return The physical machines of the rack. The iterator must be closed if it is not
+     *         completely consumed.
+     */
+    Iterator<MachineDto> streamMachines(RackDto rack);
+
     /**
      * Power off a physical machine in a UCS rack.
      * 
@@ -881,4 +893,14 @@ public interface InfrastructureClient
      * @return The list of ips for the network.
      */
     IpsPoolManagementDto listNetworkIps(VLANNetworkDto network, IpOptions options);
+
+    /**
+     * Stream the ips of a network, parsing them one at a time while the response is read.
+     * 
+     * @param network The network.
+     * @param options Filtering options.
+     * @return The ips of the network. The iterator must be closed if it is not completely
+     *         consumed.
+     */
+    Iterator<IpPoolManagementDto> streamNetworkIps(VLANNetworkDto network, IpOptions options);
 }
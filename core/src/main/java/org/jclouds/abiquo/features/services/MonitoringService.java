@@ -19,16 +19,21 @@
 
 package org.jclouds.abiquo.features.services;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.abiquo.events.handlers.AbstractEventHandler;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
 import org.jclouds.abiquo.internal.BaseMonitoringService;
 import org.jclouds.abiquo.monitor.AsyncTaskMonitor;
+import org.jclouds.abiquo.monitor.MonitorFutures;
 import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.abiquo.monitor.PollingPolicy;
 import org.jclouds.abiquo.monitor.VirtualApplianceMonitor;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.ImplementedBy;
 
 /**
@@ -65,6 +70,20 @@ public interface MonitoringService
     public <T> void awaitCompletion(final Long maxWait, final TimeUnit timeUnit,
         final Function<T, MonitorStatus> completeCondition, final T... objects);
 
+    /**
+     * Monitor the given objects using the given complete condition and polling policy.
+     * 
+     * @param pollingPolicy The policy used to decide how often the objects are polled.
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param objects The objects to monitor.
+     */
+    public <T> void awaitCompletion(final PollingPolicy pollingPolicy, final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects);
+
     /**
      * Monitor the given objects using the given complete condition.
      * 
@@ -86,6 +105,69 @@ public interface MonitoringService
     public <T> void monitor(final Long maxWait, final TimeUnit timeUnit,
         final Function<T, MonitorStatus> completeCondition, final T... objects);
 
+    /**
+     * Monitor the given objects using the given complete condition and polling policy.
+     * 
+     * @param pollingPolicy The policy used to decide how often the objects are polled.
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param objects The objects to monitor.
+     */
+    public <T> void monitor(final PollingPolicy pollingPolicy, final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects);
+
+    /*************** Asynchronous monitoring methods ***************/
+
+    /**
+     * Monitor the given objects using the given complete condition without blocking the caller.
+     * 
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param objects The objects to monitor.
+     * @return The futures that will hold the result of the monitor for each object, in the same
+     *         order than the given objects.
+     * @see MonitorFutures
+     */
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(
+        final Function<T, MonitorStatus> completeCondition, final T... objects);
+
+    /**
+     * Monitor the given objects using the given complete condition without blocking the caller.
+     * 
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param objects The objects to monitor.
+     * @return The futures that will hold the result of the monitor for each object, in the same
+     *         order than the given objects.
+     * @see MonitorFutures
+     */
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects);
+
+    /**
+     * Monitor the given objects using the given complete condition and polling policy without
+     * blocking the caller.
+     * 
+     * @param pollingPolicy The policy used to decide how often the objects are polled.
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param objects The objects to monitor.
+     * @return The futures that will hold the result of the monitor for each object, in the same
+     *         order than the given objects.
+     * @see MonitorFutures
+     */
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(
+        final PollingPolicy pollingPolicy, final Long maxWait, final TimeUnit timeUnit,
+        final Function<T, MonitorStatus> completeCondition, final T... objects);
+
     /*************** Handler registration methods ***************/
 
     /**
@@ -35,11 +35,18 @@ import org.jclouds.abiquo.domain.network.PrivateNetwork;
 import org.jclouds.abiquo.domain.network.options.IpOptions;
 import org.jclouds.abiquo.domain.options.search.FilterOptions;
 import org.jclouds.abiquo.internal.BaseSearchService;
+import org.jclouds.abiquo.reference.AbiquoConstants;
 
 import com.google.inject.ImplementedBy;
 
 /**
  * Provides high level Abiquo search, filter and pagination operations.
+ * <p>
+ * The <code>page*</code> methods return lazy iterables that transparently request all the pages
+ * of the results as they are consumed. The page size is taken from the <code>limit</code> of the
+ * given options, or from the {@link AbiquoConstants#PAGING_PAGE_SIZE} property if not set, and
+ * the following pages are requested in the background as configured in the
+ * {@link AbiquoConstants#PAGING_PREFETCH} property.
  * 
  * @author Ignasi Barrera
  * @author Francesc Montserrat
@@ -56,6 +63,13 @@ public interface SearchService
      */
     Iterable<Enterprise> searchEnterprises(final EnterpriseOptions options);
 
+    /**
+     * Get all the filtered enterprises, requesting the pages as they are consumed.
+     * 
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Enterprise> pageEnterprises(final EnterpriseOptions options);
+
     /**
      * Get the list of filtered enterprises for a datacenter.
      * 
@@ -69,6 +83,16 @@ public interface SearchService
     Iterable<Enterprise> searchEnterprisesUsingDatacenter(final Datacenter datacenter,
         final EnterpriseOptions options);
 
+    /**
+     * Get all the filtered enterprises for a datacenter, requesting the pages as they are
+     * consumed.
+     * 
+     * @param datacenter The given datacenter.
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Enterprise> pageEnterprisesUsingDatacenter(final Datacenter datacenter,
+        final EnterpriseOptions options);
+
     /*********************** Volume ***********************/
 
     /**
@@ -80,6 +104,16 @@ public interface SearchService
     Iterable<Volume> searchVolumes(final VirtualDatacenter virtualDatacenter,
         final VolumeOptions options);
 
+    /**
+     * Get all the filtered volumes for a virtual datacenter, requesting the pages as they are
+     * consumed.
+     * 
+     * @param virtualDatacenter The given virtual datacenter.
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Volume> pageVolumes(final VirtualDatacenter virtualDatacenter,
+        final VolumeOptions options);
+
     /*********************** Storage Pool ***********************/
 
     /**
@@ -101,6 +135,14 @@ public interface SearchService
      */
     Iterable<Ip> searchPrivateIps(final PrivateNetwork network, final IpOptions options);
 
+    /**
+     * Get all the filtered ips for a private network, requesting the pages as they are consumed.
+     * 
+     * @param network The given private network.
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Ip> pagePrivateIps(final PrivateNetwork network, final IpOptions options);
+
     /*********************** Public IPs ***********************/
 
     /**
@@ -112,6 +154,16 @@ public interface SearchService
     Iterable<Ip> searchPublicIpsToPurchase(final VirtualDatacenter virtualDatacenter,
         final IpOptions options);
 
+    /**
+     * Get all the filtered public ips to purchase by a virtual datacenter, requesting the pages
+     * as they are consumed.
+     * 
+     * @param virtualDatacenter The given virtual datacenter.
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Ip> pagePublicIpsToPurchase(final VirtualDatacenter virtualDatacenter,
+        final IpOptions options);
+
     /**
      * Get the list of filtered purchased public ips by a virtual datacenter.
      * 
@@ -121,6 +173,16 @@ public interface SearchService
     Iterable<Ip> searchPurchasedPublicIps(final VirtualDatacenter virtualDatacenter,
         final IpOptions options);
 
+    /**
+     * Get all the filtered purchased public ips by a virtual datacenter, requesting the pages as
+     * they are consumed.
+     * 
+     * @param virtualDatacenter The given virtual datacenter.
+     * @param options The set of filtering options of the search.
+     */
+    Iterable<Ip> pagePurchasedPublicIps(final VirtualDatacenter virtualDatacenter,
+        final IpOptions options);
+
     /*********************** Logic Server ***********************/
 
     /**
@@ -38,7 +38,7 @@ import com.google.common.base.Function;
 public class AppendApiVersionToAbiquoMimeType implements Function<String, String>
 {
     /** The prefix for Abiquo custom media types. */
-    private static final String ABIQUO_MIME_TYPE_PREFIX = "application/vnd.abiquo.";
+    public static final String ABIQUO_MIME_TYPE_PREFIX = "application/vnd.abiquo.";
 
     /** The version to append to media types without version. */
     protected String apiVersion;
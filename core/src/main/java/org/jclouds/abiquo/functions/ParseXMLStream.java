@@ -0,0 +1,342 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.beans.Introspector;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.jclouds.abiquo.xml.internal.AbiquoJAXBParser;
+import org.jclouds.abiquo.xml.internal.AbiquoJSONParser;
+import org.jclouds.http.HttpResponse;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.io.Closeables;
+
+/**
+ * Parses the elements of a collection response one at a time, while they are read from the
+ * response stream.
+ * <p>
+ * The returned iterator unmarshals each element when it is requested, so only the element being
+ * consumed is kept in memory instead of the whole collection. The response stream is closed when
+ * the iterator is exhausted or fails. Callers that stop iterating before the end must close the
+ * iterator to release the connection.
+ * <p>
+ * Responses in the JSON wire format are streamed the same way, reading the elements of the
+ * collection array one at a time.
+ * 
+ * @author Ignasi Barrera
+ */
+public abstract class ParseXMLStream<T> implements Function<HttpResponse, Iterator<T>>
+{
+    private final AbiquoJAXBParser xml;
+
+    private final AbiquoJSONParser json;
+
+    private final Class<T> elementType;
+
+    private final String elementName;
+
+    private final XMLInputFactory factory;
+
+    protected ParseXMLStream(final AbiquoJAXBParser xml, final AbiquoJSONParser json,
+        final Class<T> elementType)
+    {
+        this.xml = checkNotNull(xml, "xml");
+        this.json = checkNotNull(json, "json");
+        this.elementType = checkNotNull(elementType, "elementType");
+        this.elementName = elementName(elementType);
+        this.factory = XMLInputFactory.newInstance();
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    @Override
+    public Iterator<T> apply(final HttpResponse from)
+    {
+        if (from.getPayload() == null)
+        {
+            return Iterators.emptyIterator();
+        }
+
+        InputStream input = from.getPayload().getInput();
+        if (isJSON(from))
+        {
+            try
+            {
+                JsonParser parser = json.getMapper().getJsonFactory().createJsonParser(input);
+                return new JsonElementIterator(input, parser);
+            }
+            catch (IOException ex)
+            {
+                Closeables.closeQuietly(input);
+                throw Throwables.propagate(ex);
+            }
+        }
+
+        try
+        {
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            Unmarshaller unmarshaller = xml.getContext(elementType).createUnmarshaller();
+            return new ElementIterator(input, reader, unmarshaller);
+        }
+        catch (XMLStreamException ex)
+        {
+            Closeables.closeQuietly(input);
+            throw Throwables.propagate(ex);
+        }
+        catch (JAXBException ex)
+        {
+            Closeables.closeQuietly(input);
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    private static boolean isJSON(final HttpResponse from)
+    {
+        String contentType = from.getPayload().getContentMetadata().getContentType();
+        return contentType != null && contentType.contains("json");
+    }
+
+    private static String elementName(final Class< ? > type)
+    {
+        XmlRootElement root = type.getAnnotation(XmlRootElement.class);
+        return root == null || "##default".equals(root.name()) ? Introspector.decapitalize(type
+            .getSimpleName()) : root.name();
+    }
+
+    /**
+     * Iterates the elements of the collection, unmarshalling them on demand.
+     * 
+     * @author Ignasi Barrera
+     */
+    private class ElementIterator extends AbstractIterator<T> implements Closeable
+    {
+        private final InputStream input;
+
+        private final XMLStreamReader reader;
+
+        private final Unmarshaller unmarshaller;
+
+        private boolean inCollection = false;
+
+        public ElementIterator(final InputStream input, final XMLStreamReader reader,
+            final Unmarshaller unmarshaller)
+        {
+            this.input = input;
+            this.reader = reader;
+            this.unmarshaller = unmarshaller;
+        }
+
+        @Override
+        protected T computeNext()
+        {
+            try
+            {
+                // The unmarshaller leaves the reader in the event that follows the parsed element,
+                // so the current event must be processed before advancing
+                while (true)
+                {
+                    int event = reader.getEventType();
+                    if (event == XMLStreamConstants.END_DOCUMENT)
+                    {
+                        close();
+                        return endOfData();
+                    }
+
+                    if (event == XMLStreamConstants.START_ELEMENT)
+                    {
+                        if (!inCollection)
+                        {
+                            // The root element of the collection
+                            inCollection = true;
+                        }
+                        else if (elementName.equals(reader.getLocalName()))
+                        {
+                            return unmarshaller.unmarshal(reader, elementType).getValue();
+                        }
+                        else
+                        {
+                            // Links and other attributes of the collection
+                            skipElement();
+                        }
+                    }
+
+                    reader.next();
+                }
+            }
+            catch (XMLStreamException ex)
+            {
+                close();
+                throw Throwables.propagate(ex);
+            }
+            catch (JAXBException ex)
+            {
+                close();
+                throw Throwables.propagate(ex);
+            }
+        }
+
+        private void skipElement() throws XMLStreamException
+        {
+            int depth = 1;
+            while (depth > 0)
+            {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT)
+                {
+                    depth++;
+                }
+                else if (event == XMLStreamConstants.END_ELEMENT)
+                {
+                    depth--;
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                reader.close();
+            }
+            catch (XMLStreamException ex)
+            {
+                // Ignore, the input stream is closed anyway
+            }
+            finally
+            {
+                Closeables.closeQuietly(input);
+            }
+        }
+    }
+
+    /**
+     * Iterates the elements of the collection array of a JSON document, reading them on demand.
+     * 
+     * @author Ignasi Barrera
+     */
+    private class JsonElementIterator extends AbstractIterator<T> implements Closeable
+    {
+        private final InputStream input;
+
+        private final JsonParser parser;
+
+        private boolean inCollection = false;
+
+        public JsonElementIterator(final InputStream input, final JsonParser parser)
+        {
+            this.input = input;
+            this.parser = parser;
+        }
+
+        @Override
+        protected T computeNext()
+        {
+            try
+            {
+                if (!inCollection && !moveToCollection())
+                {
+                    close();
+                    return endOfData();
+                }
+
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY)
+                {
+                    close();
+                    return endOfData();
+                }
+
+                return json.getMapper().readValue(parser, elementType);
+            }
+            catch (IOException ex)
+            {
+                close();
+                throw Throwables.propagate(ex);
+            }
+        }
+
+        /**
+         * Moves the parser to the beginning of the collection array, skipping the links and other
+         * attributes of the collection.
+         */
+        private boolean moveToCollection() throws IOException
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                return false;
+            }
+
+            JsonToken token = parser.nextToken();
+            while (token == JsonToken.FIELD_NAME)
+            {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY
+                    && (elementName.equals(name) || "collection".equals(name)))
+                {
+                    inCollection = true;
+                    return true;
+                }
+
+                parser.skipChildren();
+                token = parser.nextToken();
+            }
+
+            return false;
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                parser.close();
+            }
+            catch (IOException ex)
+            {
+                // Ignore, the input stream is closed anyway
+            }
+            finally
+            {
+                Closeables.closeQuietly(input);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.functions;
+
+import javax.inject.Singleton;
+import javax.ws.rs.core.Response.Status;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.rest.functions.ReturnNullOnNotFoundOr404;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+
+/**
+ * Return the response on 304 response codes when performing conditional requests.
+ * <p>
+ * Not found resources return <code>null</code>, and any other exception is propagated.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class ReturnResponseOnNotModified implements Function<Exception, Object>
+{
+    private final ReturnNullOnNotFoundOr404 returnNullOnNotFound = new ReturnNullOnNotFoundOr404();
+
+    @Override
+    public Object apply(final Exception from)
+    {
+        Throwable exception =
+            Iterables.find(Throwables.getCausalChain(from), isNotModifiedException(), null);
+
+        if (exception != null)
+        {
+            return ((HttpResponseException) exception).getResponse();
+        }
+
+        return returnNullOnNotFound.apply(from);
+    }
+
+    private static Predicate<Throwable> isNotModifiedException()
+    {
+        return new Predicate<Throwable>()
+        {
+            @Override
+            public boolean apply(final Throwable input)
+            {
+                if (input instanceof HttpResponseException)
+                {
+                    HttpResponse response = ((HttpResponseException) input).getResponse();
+                    return response != null
+                        && response.getStatusCode() == Status.NOT_MODIFIED.getStatusCode();
+                }
+
+                return false;
+            }
+        };
+    }
+}
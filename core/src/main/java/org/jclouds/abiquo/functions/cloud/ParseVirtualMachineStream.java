@@ -0,0 +1,44 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.functions.cloud;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.functions.ParseXMLStream;
+import org.jclouds.abiquo.xml.internal.AbiquoJAXBParser;
+import org.jclouds.abiquo.xml.internal.AbiquoJSONParser;
+
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+
+/**
+ * Parses the virtual machines in a collection response one at a time.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class ParseVirtualMachineStream extends ParseXMLStream<VirtualMachineDto>
+{
+    @Inject
+    public ParseVirtualMachineStream(final AbiquoJAXBParser xml, final AbiquoJSONParser json)
+    {
+        super(xml, json, VirtualMachineDto.class);
+    }
+}
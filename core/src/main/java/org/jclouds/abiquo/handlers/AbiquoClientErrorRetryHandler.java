@@ -0,0 +1,76 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.handlers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.http.filters.AbiquoAuthentication;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpRetryHandler;
+import org.jclouds.logging.Logger;
+
+/**
+ * Logs in again and retries the requests rejected because the session token has expired.
+ * <p>
+ * Requests are retried only once, so invalid credentials are reported by the
+ * {@link AbiquoErrorHandler} as usual.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoClientErrorRetryHandler implements HttpRetryHandler
+{
+    @Resource
+    protected Logger logger = Logger.NULL;
+
+    private final AbiquoAuthentication authentication;
+
+    @Inject
+    AbiquoClientErrorRetryHandler(final AbiquoAuthentication authentication)
+    {
+        this.authentication = checkNotNull(authentication, "authentication");
+    }
+
+    @Override
+    public boolean shouldRetryRequest(final HttpCommand command, final HttpResponse response)
+    {
+        if (response.getStatusCode() != 401 || !command.isReplayable())
+        {
+            return false;
+        }
+
+        if (!authentication.invalidateSession(command.getCurrentRequest())
+            || command.incrementFailureCount() > 1)
+        {
+            return false;
+        }
+
+        logger.debug("Session expired, logging in again to retry %s",
+            command.getCurrentRequest().getRequestLine());
+        releasePayload(response);
+        return true;
+    }
+}
@@ -84,6 +84,11 @@ public class AbiquoErrorHandler implements HttpErrorHandler
                     // exception parser to return the moved entity.
                     exception = new HttpResponseException(command, response, defaultMessage);
                     break;
+                case 304:
+                    // Not modified resources are handled with the ReturnResponseOnNotModified
+                    // exception parser to let the caller use its cached representation.
+                    exception = new HttpResponseException(command, response, defaultMessage);
+                    break;
                 default:
                     exception = getExceptionToPropagate(command, response, defaultMessage);
                     break;
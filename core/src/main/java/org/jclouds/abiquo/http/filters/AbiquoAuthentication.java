@@ -20,27 +20,54 @@
 package org.jclouds.abiquo.http.filters;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.getFirst;
 import static org.jclouds.abiquo.reference.AbiquoConstants.CREDENTIAL_IS_TOKEN;
+import static org.jclouds.abiquo.reference.AbiquoConstants.SESSION_AUTHENTICATION;
+import static org.jclouds.http.HttpUtils.releasePayload;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.ws.rs.core.HttpHeaders;
 
+import org.jclouds.Constants;
+import org.jclouds.abiquo.http.internal.SameThreadJavaUrlHttpClient;
 import org.jclouds.crypto.CryptoStreams;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.utils.ModifyRequest;
+import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.annotations.Credential;
 import org.jclouds.rest.annotations.Identity;
+import org.jclouds.util.Strings2;
 
+import com.abiquo.server.core.enterprise.UserDto;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMultimap;
 
 /**
  * Authenticates using Basic Authentication or a generated token from previous API sessions.
+ * <p>
+ * When session authentication is enabled, Basic Authentication is only used to log in, and the
+ * session token returned by the server is used to authenticate all requests until it expires.
+ * This avoids the server having to verify the credentials on each request.
+ * <p>
+ * Filters run in the io worker threads, so the login is sent in the calling thread with the
+ * {@link SameThreadJavaUrlHttpClient}. Sending it through the io worker threads would deadlock
+ * when all of them are waiting for the session to be renewed. This means that session
+ * authentication always logs in with the java.net driver, even if another driver module is
+ * installed, and that only the settings of the java.net driver apply to the login request. The
+ * client is only created when session authentication is enabled.
  * 
  * @author Ignasi Barrera
  */
@@ -50,20 +77,39 @@ public class AbiquoAuthentication implements HttpRequestFilter
     /** The name of the authentication token. */
     public static final String AUTH_TOKEN_NAME = "auth";
 
+    /** The path of the login resource, relative to the api endpoint. */
+    public static final String LOGIN_PATH = "/login";
+
     protected String identity;
 
     protected String credential;
 
     protected boolean credentialIsToken;
 
+    protected boolean sessionAuthentication;
+
+    private final String endpoint;
+
+    private final Provider<SameThreadJavaUrlHttpClient> http;
+
+    /** The token of the current session. Null if there is no active session. */
+    @VisibleForTesting
+    final AtomicReference<String> sessionToken = new AtomicReference<String>();
+
     @Inject
     public AbiquoAuthentication(@Identity final String identity,
         @Credential final String credential,
-        @Named(CREDENTIAL_IS_TOKEN) final String credentialIsToken)
+        @Named(CREDENTIAL_IS_TOKEN) final String credentialIsToken,
+        @Named(SESSION_AUTHENTICATION) final String sessionAuthentication,
+        @Named(Constants.PROPERTY_ENDPOINT) final String endpoint,
+        final Provider<SameThreadJavaUrlHttpClient> http)
     {
         this.identity = checkNotNull(identity, "identity");
         this.credential = checkNotNull(credential, "credential");
         this.credentialIsToken = Boolean.valueOf(credentialIsToken);
+        this.sessionAuthentication = Boolean.valueOf(sessionAuthentication);
+        this.endpoint = checkNotNull(endpoint, "endpoint");
+        this.http = checkNotNull(http, "http");
     }
 
     @Override
@@ -71,10 +117,18 @@ public class AbiquoAuthentication implements HttpRequestFilter
     {
         try
         {
-            String header =
-                credentialIsToken ? tokenAuth(credential) : basicAuth(identity, credential);
-            return ModifyRequest.replaceHeader(request, credentialIsToken ? HttpHeaders.COOKIE
-                : HttpHeaders.AUTHORIZATION, header);
+            if (credentialIsToken)
+            {
+                return ModifyRequest.replaceHeader(request, HttpHeaders.COOKIE,
+                    tokenAuth(credential));
+            }
+            if (sessionAuthentication)
+            {
+                return ModifyRequest.replaceHeader(request, HttpHeaders.COOKIE,
+                    tokenAuth(getSessionToken()));
+            }
+            return ModifyRequest.replaceHeader(request, HttpHeaders.AUTHORIZATION,
+                basicAuth(identity, credential));
         }
         catch (UnsupportedEncodingException ex)
         {
@@ -82,6 +136,144 @@ public class AbiquoAuthentication implements HttpRequestFilter
         }
     }
 
+    /**
+     * Invalidates the session used by the given request, so the next request logs in again.
+     * 
+     * @param request The request that has been rejected by the server.
+     * @return Boolean indicating if the request was authenticated with a session token and can be
+     *         retried with a new one.
+     */
+    public boolean invalidateSession(final HttpRequest request)
+    {
+        if (!sessionAuthentication || credentialIsToken)
+        {
+            return false;
+        }
+
+        String cookie = getFirst(request.getHeaders().get(HttpHeaders.COOKIE), null);
+        if (cookie == null || !cookie.startsWith(AUTH_TOKEN_NAME + "="))
+        {
+            return false;
+        }
+
+        // Only invalidate the session if it has not already been renewed by a concurrent request
+        String token = sessionToken.get();
+        if (token != null && cookie.equals(tokenAuth(token)))
+        {
+            sessionToken.compareAndSet(token, null);
+        }
+        return true;
+    }
+
+    public boolean isSessionAuthentication()
+    {
+        return sessionAuthentication && !credentialIsToken;
+    }
+
+    private String getSessionToken() throws UnsupportedEncodingException
+    {
+        String token = sessionToken.get();
+        if (token == null)
+        {
+            synchronized (sessionToken)
+            {
+                token = sessionToken.get();
+                if (token == null)
+                {
+                    token = login();
+                    sessionToken.set(token);
+                }
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Logs in using Basic Authentication and returns the session token set by the server.
+     */
+    private String login() throws UnsupportedEncodingException
+    {
+        HttpRequest login =
+            HttpRequest
+                .builder()
+                .method("GET")
+                .endpoint(URI.create(endpoint + LOGIN_PATH))
+                .headers(
+                    ImmutableMultimap.of(HttpHeaders.AUTHORIZATION,
+                        basicAuth(identity, credential), HttpHeaders.ACCEPT,
+                        UserDto.BASE_MEDIA_TYPE)).build();
+
+        HttpResponse response = http.get().execute(login);
+        try
+        {
+            int status = response.getStatusCode();
+            if (status < 200 || status >= 300)
+            {
+                String message = errorMessage(login, response);
+                HttpResponseException ex = new HttpResponseException(message, null, response);
+                if (status == 401 || status == 403)
+                {
+                    throw new AuthorizationException(message, ex);
+                }
+                throw ex;
+            }
+
+            String token = sessionTokenFrom(response);
+            if (token == null)
+            {
+                throw new AuthorizationException("The login response did not contain the "
+                    + AUTH_TOKEN_NAME + " cookie");
+            }
+            return token;
+        }
+        finally
+        {
+            releasePayload(response);
+        }
+    }
+
+    /**
+     * Builds the message of a failed login with the status line and the content of the response.
+     */
+    private static String errorMessage(final HttpRequest request, final HttpResponse response)
+    {
+        String message =
+            String.format("%s -> %s", request.getRequestLine(), response.getStatusLine());
+        if (response.getPayload() != null)
+        {
+            try
+            {
+                String content = Strings2.toStringAndClose(response.getPayload().getInput());
+                if (!content.isEmpty())
+                {
+                    message += ": " + content;
+                }
+            }
+            catch (IOException ex)
+            {
+                // The status line already describes the error
+            }
+        }
+        return message;
+    }
+
+    @VisibleForTesting
+    static String sessionTokenFrom(final HttpResponse response)
+    {
+        for (Map.Entry<String, String> header : response.getHeaders().entries())
+        {
+            if (header.getKey().equalsIgnoreCase(HttpHeaders.SET_COOKIE)
+                && header.getValue().startsWith(AUTH_TOKEN_NAME + "="))
+            {
+                String cookie = header.getValue();
+                int end = cookie.indexOf(';');
+                return cookie.substring(AUTH_TOKEN_NAME.length() + 1, end < 0 ? cookie.length()
+                    : end);
+            }
+        }
+        return null;
+    }
+
     @VisibleForTesting
     static String basicAuth(final String user, final String password)
         throws UnsupportedEncodingException
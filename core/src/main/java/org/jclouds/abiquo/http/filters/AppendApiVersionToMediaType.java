@@ -19,9 +19,15 @@
 
 package org.jclouds.abiquo.http.filters;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.functions.AppendApiVersionToAbiquoMimeType.ABIQUO_MIME_TYPE_PREFIX;
+import static org.jclouds.abiquo.reference.AbiquoConstants.WIRE_FORMAT;
+import static org.jclouds.abiquo.xml.internal.AbiquoJSONParser.JSON_WIRE_FORMAT;
+
 import java.util.Collection;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.abiquo.functions.AppendApiVersionToAbiquoMimeType;
@@ -31,26 +37,34 @@ import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.utils.ModifyRequest;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.collect.Iterables;
 import com.google.common.net.HttpHeaders;
 
 /**
  * Appends the api version to the Abiquo mime types to ensure the input and output of api calls will
  * be in the desired format.
+ * <p>
+ * When the JSON wire format is configured, the XML Abiquo mime types are also changed to their
+ * JSON equivalents.
  * 
  * @author Ignasi Barrera
  */
 @Singleton
 public class AppendApiVersionToMediaType implements HttpRequestFilter
 {
-    /** The function used to append the version to media types. */
-    private AppendApiVersionToAbiquoMimeType versionAppender;
+    /** The function used to append the version and set the wire format to media types. */
+    private Function<String, String> mediaTypeFormatter;
 
     @Inject
-    public AppendApiVersionToMediaType(final AppendApiVersionToAbiquoMimeType versionAppender)
+    public AppendApiVersionToMediaType(final AppendApiVersionToAbiquoMimeType versionAppender,
+        @Named(WIRE_FORMAT) final String wireFormat)
     {
         super();
-        this.versionAppender = versionAppender;
+        this.mediaTypeFormatter =
+            JSON_WIRE_FORMAT.equalsIgnoreCase(checkNotNull(wireFormat, "wireFormat")) ? Functions
+                .compose(versionAppender, new XMLToJSONMediaType()) : versionAppender;
     }
 
     @Override
@@ -65,7 +79,7 @@ public class AppendApiVersionToMediaType implements HttpRequestFilter
     {
         Collection<String> accept = request.getHeaders().get(HttpHeaders.ACCEPT);
         return accept.isEmpty() ? request : ModifyRequest.replaceHeader(request,
-            HttpHeaders.ACCEPT, Iterables.transform(accept, versionAppender));
+            HttpHeaders.ACCEPT, Iterables.transform(accept, mediaTypeFormatter));
     }
 
     @VisibleForTesting
@@ -74,10 +88,24 @@ public class AppendApiVersionToMediaType implements HttpRequestFilter
         if (request.getPayload() != null)
         {
             String contentTypeWithVersion =
-                versionAppender.apply(request.getPayload().getContentMetadata().getContentType());
+                mediaTypeFormatter.apply(request.getPayload().getContentMetadata()
+                    .getContentType());
             request.getPayload().getContentMetadata().setContentType(contentTypeWithVersion);
         }
 
         return request;
     }
+
+    /**
+     * Changes the XML Abiquo media types to their JSON equivalents.
+     */
+    private static class XMLToJSONMediaType implements Function<String, String>
+    {
+        @Override
+        public String apply(final String input)
+        {
+            return input != null && input.startsWith(ABIQUO_MIME_TYPE_PREFIX) ? input.replace(
+                "+xml", "+json") : input;
+        }
+    }
 }
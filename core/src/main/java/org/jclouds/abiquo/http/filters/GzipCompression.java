@@ -0,0 +1,139 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.http.filters;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.GZIP_COMPRESSION;
+import static org.jclouds.abiquo.reference.AbiquoConstants.GZIP_PAYLOAD_THRESHOLD;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.jclouds.abiquo.http.internal.AbiquoJavaUrlHttpCommandExecutorService;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.utils.ModifyRequest;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * Enables the gzip compression of the api responses, and optionally compresses the large request
+ * payloads.
+ * <p>
+ * Compressed responses are decompressed while they are read, before they reach the parsers, by
+ * the {@link AbiquoJavaUrlHttpCommandExecutorService}. Responses are only requested in gzip format
+ * when that executor is configured, since other http drivers would give the compressed content to
+ * the parsers.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class GzipCompression implements HttpRequestFilter
+{
+    /** The name of the gzip content encoding. */
+    public static final String GZIP = "gzip";
+
+    /** Indicates if the responses must be requested in gzip format. */
+    @VisibleForTesting
+    final boolean acceptGzip;
+
+    /** The size (in bytes) from which the request payloads are compressed. */
+    @VisibleForTesting
+    final long payloadThreshold;
+
+    @Inject
+    public GzipCompression(@Named(GZIP_COMPRESSION) final boolean acceptGzip,
+        @Named(GZIP_PAYLOAD_THRESHOLD) final long payloadThreshold,
+        final HttpCommandExecutorService executor)
+    {
+        super();
+        checkNotNull(executor, "executor");
+        this.acceptGzip =
+            acceptGzip && executor instanceof AbiquoJavaUrlHttpCommandExecutorService;
+        this.payloadThreshold = payloadThreshold;
+    }
+
+    @Override
+    public HttpRequest filter(final HttpRequest request) throws HttpException
+    {
+        HttpRequest filtered =
+            acceptGzip ? ModifyRequest.replaceHeader(request, HttpHeaders.ACCEPT_ENCODING, GZIP)
+                : request;
+        return compressPayload(filtered);
+    }
+
+    @VisibleForTesting
+    HttpRequest compressPayload(final HttpRequest request)
+    {
+        Payload payload = request.getPayload();
+        if (payloadThreshold <= 0 || payload == null || !payload.isRepeatable())
+        {
+            return request;
+        }
+
+        ContentMetadata metadata = payload.getContentMetadata();
+        Long length = metadata.getContentLength();
+        if (length == null || length < payloadThreshold || metadata.getContentEncoding() != null)
+        {
+            return request;
+        }
+
+        Payload compressed = Payloads.newByteArrayPayload(gzip(payload));
+        compressed.getContentMetadata().setContentType(metadata.getContentType());
+        compressed.getContentMetadata().setContentEncoding(GZIP);
+        request.setPayload(compressed);
+        return request;
+    }
+
+    private static byte[] gzip(final Payload payload)
+    {
+        InputStream input = payload.getInput();
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GZIPOutputStream output = new GZIPOutputStream(bytes);
+            ByteStreams.copy(input, output);
+            output.close();
+            return bytes.toByteArray();
+        }
+        catch (IOException ex)
+        {
+            throw new HttpException("Could not compress the request payload", ex);
+        }
+        finally
+        {
+            Closeables.closeQuietly(input);
+        }
+    }
+}
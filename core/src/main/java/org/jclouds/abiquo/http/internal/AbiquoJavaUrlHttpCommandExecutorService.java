@@ -0,0 +1,197 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.http.internal;
+
+import static org.jclouds.abiquo.http.filters.GzipCompression.GZIP;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.Status;
+
+import org.jclouds.Constants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+
+/**
+ * Decompresses the gzip encoded responses while they are read, so the error handlers and the
+ * response parsers always get the plain content.
+ * <p>
+ * This executor is not configured by default. It must be enabled by adding the
+ * {@link org.jclouds.abiquo.config.AbiquoJavaUrlHttpCommandExecutorServiceModule} to the modules
+ * of the context, along with the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#GZIP_COMPRESSION} property.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoJavaUrlHttpCommandExecutorService extends JavaUrlHttpCommandExecutorService
+{
+    @Inject
+    public AbiquoJavaUrlHttpCommandExecutorService(final HttpUtils utils,
+        @Named(Constants.PROPERTY_IO_WORKER_THREADS) final ExecutorService ioWorkerExecutor,
+        final DelegatingRetryHandler retryHandler, final IOExceptionRetryHandler ioRetryHandler,
+        final DelegatingErrorHandler errorHandler, final HttpWire wire,
+        @Named("untrusted") final HostnameVerifier verifier,
+        @Named("untrusted") final Supplier<SSLContext> untrustedSSLContextProvider)
+        throws SecurityException, NoSuchFieldException
+    {
+        super(utils, ioWorkerExecutor, retryHandler, ioRetryHandler, errorHandler, wire, verifier,
+            untrustedSSLContextProvider);
+    }
+
+    @Override
+    protected HttpResponse invoke(final HttpURLConnection connection) throws IOException,
+        InterruptedException
+    {
+        return decompress(super.invoke(connection));
+    }
+
+    @VisibleForTesting
+    static HttpResponse decompress(final HttpResponse response) throws IOException
+    {
+        Payload payload = response.getPayload();
+        if (payload == null || !isGzip(response) || !hasBody(response))
+        {
+            return response;
+        }
+
+        ContentMetadata metadata = payload.getContentMetadata();
+        Long length = metadata.getContentLength();
+        if (length != null && length == 0)
+        {
+            // Nothing to decompress, and the gzip stream would fail to read the header
+            return response;
+        }
+
+        Payload decompressed =
+            Payloads.newInputStreamPayload(new LazyGZIPInputStream(payload.getInput()));
+        // The length of the decompressed content is unknown
+        decompressed.getContentMetadata().setContentType(metadata.getContentType());
+        response.setPayload(decompressed);
+        return response;
+    }
+
+    private static boolean hasBody(final HttpResponse response)
+    {
+        int status = response.getStatusCode();
+        return status != Status.NO_CONTENT.getStatusCode()
+            && status != Status.NOT_MODIFIED.getStatusCode();
+    }
+
+    private static boolean isGzip(final HttpResponse response)
+    {
+        String encoding = response.getPayload().getContentMetadata().getContentEncoding();
+        if (encoding == null)
+        {
+            encoding = response.getFirstHeaderOrNull(HttpHeaders.CONTENT_ENCODING);
+        }
+        return encoding != null && encoding.trim().equalsIgnoreCase(GZIP);
+    }
+
+    /**
+     * Creates the gzip stream when the content is first read, so empty bodies of unknown length
+     * are not decompressed and do not fail when the response is received.
+     */
+    @VisibleForTesting
+    static class LazyGZIPInputStream extends InputStream
+    {
+        private final InputStream compressed;
+
+        private InputStream delegate;
+
+        LazyGZIPInputStream(final InputStream compressed)
+        {
+            this.compressed = compressed;
+        }
+
+        private InputStream delegate() throws IOException
+        {
+            if (delegate == null)
+            {
+                PushbackInputStream input = new PushbackInputStream(compressed);
+                int first = input.read();
+                if (first == -1)
+                {
+                    // Empty body: there is no gzip header to read
+                    delegate = input;
+                }
+                else
+                {
+                    input.unread(first);
+                    delegate = new GZIPInputStream(input);
+                }
+            }
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return delegate().read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException
+        {
+            return delegate().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return delegate == null ? 0 : delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (delegate == null)
+            {
+                compressed.close();
+            }
+            else
+            {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.http.internal;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Sends requests in the calling thread, without going through the io worker threads.
+ * <p>
+ * This is used to send the requests that must be performed while other requests are being
+ * processed by the io worker threads, such as the login performed by the authentication filter.
+ * Sending them through the io worker threads could exhaust the pool and deadlock. Requests are not
+ * filtered, retried nor handled by the error handlers, and the caller must release the payload of
+ * the response.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class SameThreadJavaUrlHttpClient extends JavaUrlHttpCommandExecutorService
+{
+    @Inject
+    public SameThreadJavaUrlHttpClient(final HttpUtils utils,
+        final DelegatingRetryHandler retryHandler, final IOExceptionRetryHandler ioRetryHandler,
+        final DelegatingErrorHandler errorHandler, final HttpWire wire,
+        @Named("untrusted") final HostnameVerifier verifier,
+        @Named("untrusted") final Supplier<SSLContext> untrustedSSLContextProvider)
+        throws SecurityException, NoSuchFieldException
+    {
+        super(utils, MoreExecutors.sameThreadExecutor(), retryHandler, ioRetryHandler,
+            errorHandler, wire, verifier, untrustedSSLContextProvider);
+    }
+
+    /**
+     * Sends the given request in the calling thread.
+     * 
+     * @param request The request to send.
+     * @return The response of the server.
+     */
+    public HttpResponse execute(final HttpRequest request)
+    {
+        try
+        {
+            HttpURLConnection connection = convert(request);
+            return invoke(connection);
+        }
+        catch (IOException ex)
+        {
+            throw new HttpException(ex);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new HttpException(ex);
+        }
+    }
+}
@@ -178,7 +178,8 @@ public class BaseAdministrationService implements AdministrationService
     @Override
     public Machine findMachine(final Predicate<Machine> filter)
     {
-        return Iterables.getFirst(listMachines(filter), null);
+        // Stop listing as soon as the first matching machine is returned
+        return listMachines.executeStreaming().find(filter);
     }
 
     /*********************** Enterprise ***********************/
@@ -36,6 +36,8 @@ import org.jclouds.abiquo.domain.cloud.options.VirtualDatacenterOptions;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
 import org.jclouds.abiquo.features.services.CloudService;
 import org.jclouds.abiquo.reference.ValidationErrors;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.abiquo.rest.internal.RequestCoalescer;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualAppliances;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualDatacenters;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualMachines;
@@ -44,6 +46,7 @@ import org.jclouds.rest.RestContext;
 import com.abiquo.server.core.cloud.VirtualDatacenterDto;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Iterables;
 
 /**
@@ -111,8 +114,18 @@ public class BaseCloudService implements CloudService
     @Override
     public VirtualDatacenter getVirtualDatacenter(final Integer virtualDatacenterId)
     {
+        RequestCoalescer coalescer = ((ExtendedUtils) context.getUtils()).getRequestCoalescer();
         VirtualDatacenterDto virtualDatacenter =
-            context.getApi().getCloudClient().getVirtualDatacenter(virtualDatacenterId);
+            coalescer.get(coalescer.uri("/cloud/virtualdatacenters/" + virtualDatacenterId),
+                VirtualDatacenterDto.class, new Supplier<VirtualDatacenterDto>()
+                {
+                    @Override
+                    public VirtualDatacenterDto get()
+                    {
+                        return context.getApi().getCloudClient()
+                            .getVirtualDatacenter(virtualDatacenterId);
+                    }
+                });
         return wrap(context, VirtualDatacenter.class, virtualDatacenter);
     }
 
@@ -146,7 +159,8 @@ public class BaseCloudService implements CloudService
     @Override
     public VirtualAppliance findVirtualAppliance(final Predicate<VirtualAppliance> filter)
     {
-        return Iterables.getFirst(listVirtualAppliances(filter), null);
+        // Stop listing as soon as the first matching virtual appliance is returned
+        return listVirtualAppliances.executeStreaming().find(filter);
     }
 
     /*********************** Virtual Machine ********************** */
@@ -166,6 +180,7 @@ public class BaseCloudService implements CloudService
     @Override
     public VirtualMachine findVirtualMachine(final Predicate<VirtualMachine> filter)
     {
-        return Iterables.getFirst(listVirtualMachines(filter), null);
+        // Stop listing as soon as the first matching virtual machine is returned
+        return listVirtualMachines.executeStreaming().find(filter);
     }
 }
@@ -19,13 +19,23 @@
 
 package org.jclouds.abiquo.internal;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
-import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -33,22 +43,33 @@ import javax.inject.Singleton;
 
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.events.MonitorEventDispatcher;
 import org.jclouds.abiquo.events.handlers.AbstractEventHandler;
 import org.jclouds.abiquo.events.handlers.BlockingEventHandler;
 import org.jclouds.abiquo.events.monitor.CompletedEvent;
 import org.jclouds.abiquo.events.monitor.FailedEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
 import org.jclouds.abiquo.events.monitor.TimeoutEvent;
 import org.jclouds.abiquo.features.services.MonitoringService;
 import org.jclouds.abiquo.monitor.AsyncTaskMonitor;
+import org.jclouds.abiquo.monitor.GroupRefresher;
+import org.jclouds.abiquo.monitor.MonitorFutures;
 import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.abiquo.monitor.PollingPolicy;
 import org.jclouds.abiquo.monitor.VirtualApplianceMonitor;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
+import org.jclouds.abiquo.monitor.internal.TimeoutWheel;
+import org.jclouds.abiquo.monitor.internal.TimeoutWheel.Timeout;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
-import com.google.common.eventbus.EventBus;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
 
 /**
@@ -67,17 +88,22 @@ public class BaseMonitoringService implements MonitoringService
     @VisibleForTesting
     protected ScheduledExecutorService scheduler;
 
+    /** The default policy used to decide how often the monitored objects are polled. */
     @VisibleForTesting
-    protected Long pollingDelay;
+    protected PollingPolicy pollingPolicy;
+
+    /** The timer used to fire the timeouts of all the monitors. */
+    @VisibleForTesting
+    protected TimeoutWheel timeouts;
 
     /**
-     * The event bus used to dispatch monitoring events.
+     * The dispatcher used to route monitoring events to the handlers interested in them.
      * <p>
      * A sync bus is used by default, to prevent deadlocks when using the
      * {@link BlockingEventHandler}.
      */
     @VisibleForTesting
-    protected EventBus eventBus;
+    protected MonitorEventDispatcher dispatcher;
 
     @Resource
     private Logger logger = Logger.NULL;
@@ -85,12 +111,14 @@ public class BaseMonitoringService implements MonitoringService
     @Inject
     public BaseMonitoringService(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
-        @Named(ASYNC_TASK_MONITOR_DELAY) final Long pollingDelay, final EventBus eventBus)
+        final PollingPolicy pollingPolicy, final TimeoutWheel timeouts,
+        final MonitorEventDispatcher dispatcher)
     {
         this.context = checkNotNull(context, "context");
         this.scheduler = checkNotNull(scheduler, "scheduler");
-        this.pollingDelay = checkNotNull(pollingDelay, "pollingDelay");
-        this.eventBus = checkNotNull(eventBus, "eventBus");
+        this.pollingPolicy = checkNotNull(pollingPolicy, "pollingPolicy");
+        this.timeouts = checkNotNull(timeouts, "timeouts");
+        this.dispatcher = checkNotNull(dispatcher, "dispatcher");
     }
 
     /*************** Generic monitoring methods ***************/
@@ -105,18 +133,56 @@ public class BaseMonitoringService implements MonitoringService
     @Override
     public <T> void awaitCompletion(final Long maxWait, final TimeUnit timeUnit,
         final Function<T, MonitorStatus> completeCondition, final T... objects)
+    {
+        awaitCompletion(pollingPolicy, maxWait, timeUnit, completeCondition, objects);
+    }
+
+    @Override
+    public <T> void awaitCompletion(final PollingPolicy pollingPolicy, final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects)
+    {
+        awaitCompletion(pollingPolicy, maxWait, timeUnit, completeCondition,
+            (GroupRefresher<T>) null, objects);
+    }
+
+    /**
+     * Monitor the given objects using the given complete condition, refreshing them in groups
+     * with the given refresher.
+     * 
+     * @param pollingPolicy The policy used to decide how often the objects are polled.
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param refresher The refresher used to group the objects, or <code>null</code> to let the
+     *            complete condition poll each object.
+     * @param objects The objects to monitor.
+     */
+    protected <T> void awaitCompletion(final PollingPolicy pollingPolicy, final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final GroupRefresher<T> refresher, final T... objects)
     {
         checkNotNull(completeCondition, "completeCondition");
 
         if (objects != null && objects.length > 0)
         {
-            BlockingEventHandler<T> blockingHandler = new BlockingEventHandler<T>(logger, objects);
-            register(blockingHandler);
+            List<ListenableFuture<MonitorEvent<T>>> futures =
+                monitor(pollingPolicy, maxWait, timeUnit, completeCondition, refresher, objects);
 
-            monitor(maxWait, timeUnit, completeCondition, objects);
-            blockingHandler.lock();
-
-            unregister(blockingHandler);
+            try
+            {
+                MonitorFutures.allOf(futures).get();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(ex);
+            }
+            catch (ExecutionException ex)
+            {
+                throw Throwables.propagate(ex.getCause());
+            }
         }
     }
 
@@ -130,34 +196,96 @@ public class BaseMonitoringService implements MonitoringService
     public <T> void monitor(final Long maxWait, final TimeUnit timeUnit,
         final Function<T, MonitorStatus> completeCondition, final T... objects)
     {
+        monitor(pollingPolicy, maxWait, timeUnit, completeCondition, objects);
+    }
+
+    @Override
+    public <T> void monitor(final PollingPolicy pollingPolicy, final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects)
+    {
+        monitor(pollingPolicy, maxWait, timeUnit, completeCondition, (GroupRefresher<T>) null,
+            objects);
+    }
+
+    @Override
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(
+        final Function<T, MonitorStatus> completeCondition, final T... objects)
+    {
+        return monitorAsync(null, null, completeCondition, objects);
+    }
+
+    @Override
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(final Long maxWait,
+        final TimeUnit timeUnit, final Function<T, MonitorStatus> completeCondition,
+        final T... objects)
+    {
+        return monitorAsync(pollingPolicy, maxWait, timeUnit, completeCondition, objects);
+    }
+
+    @Override
+    public <T> List<ListenableFuture<MonitorEvent<T>>> monitorAsync(
+        final PollingPolicy pollingPolicy, final Long maxWait, final TimeUnit timeUnit,
+        final Function<T, MonitorStatus> completeCondition, final T... objects)
+    {
+        return monitor(pollingPolicy, maxWait, timeUnit, completeCondition,
+            (GroupRefresher<T>) null, objects);
+    }
+
+    /**
+     * Monitor the given objects using the given complete condition, refreshing them in groups
+     * with the given refresher.
+     * <p>
+     * All the objects are monitored by a single job, that refreshes each group once per polling
+     * interval.
+     * 
+     * @param pollingPolicy The policy used to decide how often the objects are polled.
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param completeCondition The function that will be used to decide if the asynchronous
+     *            operations have finished.
+     * @param refresher The refresher used to group the objects, or <code>null</code> to let the
+     *            complete condition poll each object.
+     * @param objects The objects to monitor.
+     * @return The futures that will hold the result of the monitor for each object, in the same
+     *         order than the given objects.
+     */
+    protected <T> List<ListenableFuture<MonitorEvent<T>>> monitor(
+        final PollingPolicy pollingPolicy, final Long maxWait, final TimeUnit timeUnit,
+        final Function<T, MonitorStatus> completeCondition, final GroupRefresher<T> refresher,
+        final T... objects)
+    {
+        checkNotNull(pollingPolicy, "pollingPolicy");
         checkNotNull(completeCondition, "completeCondition");
         if (maxWait != null)
         {
             checkNotNull(timeUnit, "timeUnit");
         }
 
-        if (objects != null && objects.length > 0)
+        if (objects == null || objects.length == 0)
         {
-            for (T object : objects)
-            {
-                AsyncMonitor<T> monitor = new AsyncMonitor<T>(object, completeCondition);
-                monitor.startMonitoring(maxWait);
-            }
+            return Collections.emptyList();
         }
+
+        AsyncMonitor<T> monitor =
+            new AsyncMonitor<T>(Arrays.asList(objects), completeCondition, refresher,
+                pollingPolicy);
+        monitor.startMonitoring(maxWait == null ? null : timeUnit.toMillis(maxWait));
+        return monitor.getFutures();
     }
 
     @Override
     public <T extends AbstractEventHandler< ? >> void register(final T handler)
     {
         logger.debug("registering event handler %s", handler);
-        eventBus.register(handler);
+        dispatcher.register(handler);
     }
 
     @Override
     public <T extends AbstractEventHandler< ? >> void unregister(final T handler)
     {
         logger.debug("unregistering event handler %s", handler);
-        eventBus.unregister(handler);
+        dispatcher.unregister(handler);
     }
 
     /*************** Delegating monitors ***************/
@@ -187,6 +315,12 @@ public class BaseMonitoringService implements MonitoringService
 
     /**
      * Performs the periodical monitoring tasks.
+     * <p>
+     * A single job monitors all the given objects. When a {@link GroupRefresher} is provided, the
+     * objects are refreshed in groups, so each group only costs one request per execution.
+     * <p>
+     * The timeout is tracked by the shared {@link TimeoutWheel}, that fires the timeout events of
+     * all the pending objects at once, without waiting for the next polling execution.
      * 
      * @author Ignasi Barrera
      * @param <T> The type of the object being monitored.
@@ -194,12 +328,30 @@ public class BaseMonitoringService implements MonitoringService
     @VisibleForTesting
     class AsyncMonitor<T> implements Runnable
     {
-        /** The object being monitored. */
-        private T monitoredObject;
+        /**
+         * The objects that are still being monitored. Objects may be finished concurrently by the
+         * monitoring job and by the timeout.
+         */
+        private Queue<MonitoredObject<T>> monitoredObjects;
+
+        /** The futures that hold the result of each monitored object. */
+        private List<ListenableFuture<MonitorEvent<T>>> futures;
 
-        /** The function used to monitor the target object. */
+        /** The function used to monitor the target objects. */
         private Function<T, MonitorStatus> completeCondition;
 
+        /** The refresher used to refresh the objects in groups. May be null. */
+        private GroupRefresher<T> refresher;
+
+        /** The policy used to decide when the objects are polled again. */
+        private PollingPolicy pollingPolicy;
+
+        /** The number of times the objects have been polled. */
+        private int polls;
+
+        /** Flag indicating that the monitor has been stopped and must not be scheduled again. */
+        private boolean stopped;
+
         /**
          * The future representing the monitoring job. Needed to be able to cancel it when monitor
          * finishes.
@@ -209,12 +361,34 @@ public class BaseMonitoringService implements MonitoringService
         /** The timeout for this monitor. */
         private Long timeout;
 
+        /** The handle of the timeout in the timeout wheel. */
+        private Timeout timeoutHandle;
+
         public AsyncMonitor(final T monitoredObject,
             final Function<T, MonitorStatus> completeCondition)
+        {
+            this(Collections.singletonList(checkNotNull(monitoredObject, "monitoredObject")),
+                completeCondition, null, BaseMonitoringService.this.pollingPolicy);
+        }
+
+        public AsyncMonitor(final Collection<T> monitoredObjects,
+            final Function<T, MonitorStatus> completeCondition, final GroupRefresher<T> refresher,
+            final PollingPolicy pollingPolicy)
         {
             super();
-            this.monitoredObject = checkNotNull(monitoredObject, "monitoredObject");
+            checkArgument(!checkNotNull(monitoredObjects, "monitoredObjects").isEmpty(),
+                "must provide at least one object");
+            this.monitoredObjects = new ConcurrentLinkedQueue<MonitoredObject<T>>();
+            this.futures = Lists.newArrayListWithCapacity(monitoredObjects.size());
+            for (T monitoredObject : monitoredObjects)
+            {
+                MonitoredObject<T> monitored = new MonitoredObject<T>(monitoredObject);
+                this.monitoredObjects.add(monitored);
+                this.futures.add(monitored.result);
+            }
             this.completeCondition = checkNotNull(completeCondition, "completeCondition");
+            this.refresher = refresher;
+            this.pollingPolicy = checkNotNull(pollingPolicy, "pollingPolicy");
         }
 
         /**
@@ -224,19 +398,48 @@ public class BaseMonitoringService implements MonitoringService
          */
         public void startMonitoring(final Long maxWait)
         {
-            future =
-                scheduler.scheduleWithFixedDelay(this, 0L, pollingDelay, TimeUnit.MILLISECONDS);
             timeout = maxWait == null ? null : System.currentTimeMillis() + maxWait;
-            logger.debug("started monitor job for %s with %s timeout", monitoredObject,
-                timeout == null ? "no" : String.valueOf(timeout));
+            if (maxWait != null)
+            {
+                timeoutHandle = timeouts.newTimeout(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        expire();
+                    }
+                }, maxWait, TimeUnit.MILLISECONDS);
+            }
+            schedule(0L);
+            logger.debug("started monitor job for %s objects with %s timeout",
+                monitoredObjects.size(), timeout == null ? "no" : String.valueOf(timeout));
+        }
+
+        /**
+         * Schedules the next execution of the monitoring job, unless it has been stopped.
+         * 
+         * @param delay The delay in milliseconds.
+         */
+        private synchronized void schedule(final long delay)
+        {
+            if (!stopped)
+            {
+                future = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
         }
 
         /**
          * Stops the monitoring job, if running.
          */
-        public void stopMonitoring()
+        public synchronized void stopMonitoring()
         {
-            logger.debug("stopping monitor job for %s", monitoredObject);
+            logger.debug("stopping monitor job for %s", getMonitoredObjects());
+            stopped = true;
+
+            if (timeoutHandle != null)
+            {
+                timeoutHandle.cancel();
+            }
 
             try
             {
@@ -249,7 +452,7 @@ public class BaseMonitoringService implements MonitoringService
             }
             catch (Exception ex)
             {
-                logger.warn(ex, "failed to stop monitor job for %s", monitoredObject);
+                logger.warn(ex, "failed to stop monitor job for %s", getMonitoredObjects());
             }
         }
 
@@ -271,41 +474,222 @@ public class BaseMonitoringService implements MonitoringService
                 // If the thread as already been interrupted, just stop monitoring the task and
                 // return
                 stopMonitoring();
+                cancelPending();
                 return;
             }
 
-            MonitorStatus status = completeCondition.apply(monitoredObject);
-            logger.debug("monitored object %s status %s", monitoredObject, status.name());
+            try
+            {
+                poll();
+            }
+            catch (RuntimeException ex)
+            {
+                // Do not leave the callers waiting forever if the complete condition fails
+                logger.error(ex, "failed to monitor %s", getMonitoredObjects());
+                stopMonitoring();
+                for (MonitoredObject<T> monitored : monitoredObjects)
+                {
+                    if (monitored.finish())
+                    {
+                        monitored.result.setException(ex);
+                    }
+                }
+                monitoredObjects.clear();
+                return;
+            }
+
+            if (monitoredObjects.isEmpty())
+            {
+                stopMonitoring();
+            }
+            else
+            {
+                long delay = pollingPolicy.getDelay(++polls);
+                logger.debug("polling %s objects again in %s ms", monitoredObjects.size(), delay);
+                schedule(delay);
+            }
+        }
+
+        /**
+         * Evaluates the current status of the monitored objects and publishes the events of the
+         * ones that have finished.
+         */
+        private void poll()
+        {
+            Map<T, T> refreshed = refresh();
+            boolean timedOut = isTimeout();
+
+            Iterator<MonitoredObject<T>> it = monitoredObjects.iterator();
+            while (it.hasNext())
+            {
+                MonitoredObject<T> monitored = it.next();
+                T monitoredObject = monitored.target;
+
+                if (monitored.isFinished())
+                {
+                    // The timeout has already been published
+                    it.remove();
+                    continue;
+                }
+
+                if (monitored.result.isCancelled())
+                {
+                    logger.debug("monitor for object %s has been cancelled", monitoredObject);
+                    it.remove();
+                    continue;
+                }
+
+                T current = refreshed.containsKey(monitoredObject) ? refreshed.get(monitoredObject)
+                    : monitoredObject;
+
+                MonitorStatus status = completeCondition.apply(current);
+                logger.debug("monitored object %s status %s", monitoredObject, status.name());
+
+                switch (status)
+                {
+                    case DONE:
+                        it.remove();
+                        logger.debug("publishing COMPLETED event");
+                        publish(monitored, new CompletedEvent<T>(monitoredObject));
+                        break;
+                    case FAILED:
+                        it.remove();
+                        logger.debug("publishing FAILED event");
+                        publish(monitored, new FailedEvent<T>(monitoredObject));
+                        break;
+                    case CONTINUE:
+                    default:
+                        if (timedOut)
+                        {
+                            it.remove();
+                            publishTimeout(monitored);
+                        }
+                        break;
+                }
+            }
+        }
 
-            switch (status)
+        /**
+         * Publishes the timeout event of all the objects that are still being monitored and stops
+         * the monitoring job.
+         * <p>
+         * Called by the {@link TimeoutWheel} when the timeout of the monitor expires.
+         */
+        private void expire()
+        {
+            logger.debug("monitor for %s timed out", getMonitoredObjects());
+            stopMonitoring();
+            Iterator<MonitoredObject<T>> it = monitoredObjects.iterator();
+            while (it.hasNext())
             {
-                case DONE:
-                    stopMonitoring();
-                    logger.debug("publishing COMPLETED event");
-                    eventBus.post(new CompletedEvent<T>(monitoredObject));
-                    break;
-                case FAILED:
-                    stopMonitoring();
-                    logger.debug("publishing FAILED event");
-                    eventBus.post(new FailedEvent<T>(monitoredObject));
-                    break;
-                case CONTINUE:
-                default:
-                    if (isTimeout())
+                MonitoredObject<T> monitored = it.next();
+                it.remove();
+                publishTimeout(monitored);
+            }
+        }
+
+        private void publishTimeout(final MonitoredObject<T> monitored)
+        {
+            logger.warn("monitor for object %s timed out. Shutting down monitor.",
+                monitored.target);
+            logger.debug("publishing TIMEOUT event");
+            publish(monitored, new TimeoutEvent<T>(monitored.target));
+        }
+
+        /**
+         * Dispatches the event to the registered handlers and completes the future of the
+         * monitored object, unless it has already been finished.
+         */
+        private void publish(final MonitoredObject<T> monitored, final MonitorEvent<T> event)
+        {
+            if (monitored.finish())
+            {
+                dispatcher.post(event);
+                monitored.result.set(event);
+            }
+        }
+
+        /**
+         * Cancels the futures of the objects that are still being monitored.
+         */
+        private void cancelPending()
+        {
+            for (MonitoredObject<T> monitored : monitoredObjects)
+            {
+                if (monitored.finish())
+                {
+                    monitored.result.cancel(false);
+                }
+            }
+            monitoredObjects.clear();
+        }
+
+        /**
+         * Refreshes the monitored objects in groups, if a refresher has been configured.
+         * <p>
+         * Groups that can not be refreshed are evaluated directly by the complete condition.
+         */
+        private Map<T, T> refresh()
+        {
+            Map<T, T> refreshed = Maps.newHashMap();
+            if (refresher == null)
+            {
+                return refreshed;
+            }
+
+            Map<Object, List<T>> groups = Maps.newLinkedHashMap();
+            for (MonitoredObject<T> monitored : monitoredObjects)
+            {
+                if (monitored.isFinished())
+                {
+                    continue;
+                }
+
+                Object group = refresher.groupOf(monitored.target);
+                if (group != null)
+                {
+                    List<T> members = groups.get(group);
+                    if (members == null)
                     {
-                        logger.warn("monitor for object %s timed out. Shutting down monitor.",
-                            monitoredObject);
-                        stopMonitoring();
-                        logger.debug("publishing TIMEOUT event");
-                        eventBus.post(new TimeoutEvent<T>(monitoredObject));
+                        members = Lists.newArrayList();
+                        groups.put(group, members);
                     }
-                    break;
+                    members.add(monitored.target);
+                }
+            }
+
+            for (Map.Entry<Object, List<T>> group : groups.entrySet())
+            {
+                try
+                {
+                    refreshed.putAll(refresher.refresh(group.getKey(), group.getValue()));
+                }
+                catch (Exception ex)
+                {
+                    logger.warn(ex, "failed to refresh monitored objects in group %s",
+                        group.getKey());
+                }
             }
+
+            return refreshed;
+        }
+
+        public List<T> getMonitoredObjects()
+        {
+            List<T> objects = Lists.newArrayListWithCapacity(monitoredObjects.size());
+            for (MonitoredObject<T> monitored : monitoredObjects)
+            {
+                if (!monitored.isFinished())
+                {
+                    objects.add(monitored.target);
+                }
+            }
+            return objects;
         }
 
-        public T getMonitoredObject()
+        public List<ListenableFuture<MonitorEvent<T>>> getFutures()
         {
-            return monitoredObject;
+            return futures;
         }
 
         public Function<T, MonitorStatus> getCompleteCondition()
@@ -313,6 +697,16 @@ public class BaseMonitoringService implements MonitoringService
             return completeCondition;
         }
 
+        public GroupRefresher<T> getRefresher()
+        {
+            return refresher;
+        }
+
+        public PollingPolicy getPollingPolicy()
+        {
+            return pollingPolicy;
+        }
+
         public Future< ? > getFuture()
         {
             return future;
@@ -322,6 +716,45 @@ public class BaseMonitoringService implements MonitoringService
         {
             return timeout;
         }
+
+        public Timeout getTimeoutHandle()
+        {
+            return timeoutHandle;
+        }
     }
 
+    /**
+     * An object being monitored and the future that will hold the result of its monitor.
+     * 
+     * @param <T> The type of the object being monitored.
+     */
+    private static class MonitoredObject<T>
+    {
+        private final T target;
+
+        private final SettableFuture<MonitorEvent<T>> result = SettableFuture.create();
+
+        /** Flag used to make sure only one event is published for the object. */
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+
+        public MonitoredObject(final T target)
+        {
+            this.target = target;
+        }
+
+        /**
+         * Marks the object as finished.
+         * 
+         * @return Boolean indicating if the object has been finished by this call.
+         */
+        public boolean finish()
+        {
+            return finished.compareAndSet(false, true);
+        }
+
+        public boolean isFinished()
+        {
+            return finished.get();
+        }
+    }
 }
@@ -21,14 +21,20 @@ package org.jclouds.abiquo.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PAGING_PAGE_SIZE;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PAGING_PREFETCH;
 
 import java.util.List;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.concurrent.PagedIterable;
+import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.Volume;
 import org.jclouds.abiquo.domain.cloud.options.VolumeOptions;
@@ -43,16 +49,22 @@ import org.jclouds.abiquo.domain.infrastructure.options.StoragePoolOptions;
 import org.jclouds.abiquo.domain.network.Ip;
 import org.jclouds.abiquo.domain.network.PrivateNetwork;
 import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.abiquo.domain.options.QueryOptions;
 import org.jclouds.abiquo.domain.options.search.FilterOptions;
 import org.jclouds.abiquo.features.services.SearchService;
 import org.jclouds.rest.RestContext;
 
+import com.abiquo.model.transport.SingleResourceTransportDto;
+import com.abiquo.model.transport.WrapperDto;
 import com.abiquo.server.core.enterprise.EnterpriseDto;
 import com.abiquo.server.core.infrastructure.LogicServerDto;
 import com.abiquo.server.core.infrastructure.network.IpPoolManagementDto;
 import com.abiquo.server.core.infrastructure.storage.StoragePoolDto;
 import com.abiquo.server.core.infrastructure.storage.VolumeManagementDto;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * Provides high level Abiquo search, filter and pagination operations.
@@ -66,10 +78,24 @@ public class BaseSearchService implements SearchService
     @VisibleForTesting
     protected RestContext<AbiquoClient, AbiquoAsyncClient> context;
 
+    @VisibleForTesting
+    protected final Integer pageSize;
+
+    @VisibleForTesting
+    protected final Integer prefetch;
+
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
+    protected Long maxTime;
+
     @Inject
-    protected BaseSearchService(final RestContext<AbiquoClient, AbiquoAsyncClient> context)
+    protected BaseSearchService(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
+        @Named(PAGING_PAGE_SIZE) final Integer pageSize,
+        @Named(PAGING_PREFETCH) final Integer prefetch)
     {
         this.context = checkNotNull(context, "context");
+        this.pageSize = checkNotNull(pageSize, "pageSize");
+        this.prefetch = checkNotNull(prefetch, "prefetch");
     }
 
     /*********************** Enterprise ***********************/
@@ -83,6 +109,21 @@ public class BaseSearchService implements SearchService
         return wrap(context, Enterprise.class, enterprises);
     }
 
+    @Override
+    public Iterable<Enterprise> pageEnterprises(final EnterpriseOptions options)
+    {
+        return paginate(Enterprise.class, options,
+            new Function<EnterpriseOptions, ListenableFuture< ? extends WrapperDto<EnterpriseDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<EnterpriseDto>> apply(
+                    final EnterpriseOptions page)
+                {
+                    return context.getAsyncApi().getEnterpriseClient().listEnterprises(page);
+                }
+            });
+    }
+
     @Override
     public Iterable<Enterprise> searchEnterprisesUsingDatacenter(final Datacenter datacenter,
         final EnterpriseOptions options)
@@ -94,6 +135,23 @@ public class BaseSearchService implements SearchService
         return wrap(context, Enterprise.class, enterprises);
     }
 
+    @Override
+    public Iterable<Enterprise> pageEnterprisesUsingDatacenter(final Datacenter datacenter,
+        final EnterpriseOptions options)
+    {
+        return paginate(Enterprise.class, options,
+            new Function<EnterpriseOptions, ListenableFuture< ? extends WrapperDto<EnterpriseDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<EnterpriseDto>> apply(
+                    final EnterpriseOptions page)
+                {
+                    return context.getAsyncApi().getEnterpriseClient()
+                        .listEnterprises(datacenter.unwrap(), page);
+                }
+            });
+    }
+
     /*********************** Volume ********************** */
 
     @Override
@@ -107,6 +165,23 @@ public class BaseSearchService implements SearchService
         return wrap(context, Volume.class, volumes);
     }
 
+    @Override
+    public Iterable<Volume> pageVolumes(final VirtualDatacenter virtualDatacenter,
+        final VolumeOptions options)
+    {
+        return paginate(Volume.class, options,
+            new Function<VolumeOptions, ListenableFuture< ? extends WrapperDto<VolumeManagementDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<VolumeManagementDto>> apply(
+                    final VolumeOptions page)
+                {
+                    return context.getAsyncApi().getCloudClient()
+                        .listVolumes(virtualDatacenter.unwrap(), page);
+                }
+            });
+    }
+
     /*********************** Storage Pool ***********************/
 
     @Override
@@ -132,6 +207,22 @@ public class BaseSearchService implements SearchService
         return wrap(context, Ip.class, ips);
     }
 
+    @Override
+    public Iterable<Ip> pagePrivateIps(final PrivateNetwork network, final IpOptions options)
+    {
+        return paginate(Ip.class, options,
+            new Function<IpOptions, ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>> apply(
+                    final IpOptions page)
+                {
+                    return context.getAsyncApi().getCloudClient()
+                        .listPrivateNetworkIps(network.unwrap(), page);
+                }
+            });
+    }
+
     @Override
     public Iterable<Ip> searchPublicIpsToPurchase(final VirtualDatacenter virtualDatacenter,
         final IpOptions options)
@@ -143,6 +234,23 @@ public class BaseSearchService implements SearchService
         return wrap(context, Ip.class, ips);
     }
 
+    @Override
+    public Iterable<Ip> pagePublicIpsToPurchase(final VirtualDatacenter virtualDatacenter,
+        final IpOptions options)
+    {
+        return paginate(Ip.class, options,
+            new Function<IpOptions, ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>> apply(
+                    final IpOptions page)
+                {
+                    return context.getAsyncApi().getCloudClient()
+                        .listAvailablePublicIps(virtualDatacenter.unwrap(), page);
+                }
+            });
+    }
+
     @Override
     public Iterable<Ip> searchPurchasedPublicIps(final VirtualDatacenter virtualDatacenter,
         final IpOptions options)
@@ -154,6 +262,23 @@ public class BaseSearchService implements SearchService
         return wrap(context, Ip.class, ips);
     }
 
+    @Override
+    public Iterable<Ip> pagePurchasedPublicIps(final VirtualDatacenter virtualDatacenter,
+        final IpOptions options)
+    {
+        return paginate(Ip.class, options,
+            new Function<IpOptions, ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>>>()
+            {
+                @Override
+                public ListenableFuture< ? extends WrapperDto<IpPoolManagementDto>> apply(
+                    final IpOptions page)
+                {
+                    return context.getAsyncApi().getCloudClient()
+                        .listPurchasedPublicIps(virtualDatacenter.unwrap(), page);
+                }
+            });
+    }
+
     @Override
     public Iterable<LogicServer> searchServiceProfiles(final ManagedRack rack,
         final FilterOptions options)
@@ -176,4 +301,38 @@ public class BaseSearchService implements SearchService
         return wrap(context, LogicServer.class, profiles);
     }
 
+    /*********************** Pagination ***********************/
+
+    /**
+     * Builds a lazy iterable that requests the pages of a listing with the given request
+     * function, using the page size of the given options or the default one.
+     */
+    private <T extends SingleResourceTransportDto, W extends DomainWrapper<T>, O extends QueryOptions> Iterable<W> paginate(
+        final Class<W> wrapperClass, final O options,
+        final Function<O, ListenableFuture< ? extends WrapperDto<T>>> request)
+    {
+        checkNotNull(options, "options");
+        checkNotNull(request, "request");
+
+        int startWith = options.getStartWith() == null ? 0 : options.getStartWith();
+        int limit = options.getLimit() == null ? pageSize : options.getLimit();
+
+        return new PagedIterable<W>(startWith, limit, prefetch, maxTime)
+        {
+            @Override
+            protected ListenableFuture<List<W>> fetch(final int startWith, final int limit)
+            {
+                O page = options.withPage(startWith, limit);
+                return Futures.transform(request.apply(page),
+                    new Function<WrapperDto<T>, List<W>>()
+                    {
+                        @Override
+                        public List<W> apply(final WrapperDto<T> input)
+                        {
+                            return wrap(context, wrapperClass, input.getCollection());
+                        }
+                    });
+            }
+        };
+    }
 }
@@ -0,0 +1,59 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Refreshes groups of monitored objects with a single request.
+ * <p>
+ * When a monitor is given a refresher, the monitored objects are grouped by the key returned by
+ * {@link #groupOf(Object)} and each group is refreshed once per polling interval, instead of
+ * letting the complete condition poll each object on its own.
+ * 
+ * @author Ignasi Barrera
+ * @param <T> The type of the monitored objects.
+ */
+public interface GroupRefresher<T>
+{
+    /**
+     * Gets the key of the group the given object belongs to.
+     * 
+     * @param object The monitored object.
+     * @return The key of the group or <code>null</code> if the object can not be refreshed
+     *         together with other objects.
+     */
+    Object groupOf(T object);
+
+    /**
+     * Refreshes all the objects in the given group.
+     * <p>
+     * The returned map contains, for each refreshed object, the view that must be given to the
+     * complete condition. That view must not perform any additional request to get the current
+     * status of the object. Objects that are not present in the returned map will be evaluated
+     * directly by the complete condition.
+     * 
+     * @param group The key of the group to refresh.
+     * @param objects The objects in the group.
+     * @return The refreshed views of the objects.
+     */
+    Map<T, T> refresh(Object group, Collection<T> objects);
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor;
+
+import java.util.List;
+
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent.Type;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Utilities to combine the futures returned by the asynchronous monitoring methods.
+ * 
+ * @author Ignasi Barrera
+ */
+public class MonitorFutures
+{
+    /**
+     * Combines the given futures into a single one that completes when all the monitors have
+     * finished.
+     * 
+     * @param futures The futures to combine.
+     * @return A future with the events of all the monitors, in the same order than the given
+     *         futures.
+     */
+    public static <T> ListenableFuture<List<MonitorEvent<T>>> allOf(
+        final Iterable< ? extends ListenableFuture<MonitorEvent<T>>> futures)
+    {
+        return Futures.allAsList(futures);
+    }
+
+    /**
+     * Combines the given futures into a single one that completes when all the monitors have
+     * finished, and fails if any of the monitors did not complete successfully.
+     * 
+     * @param futures The futures to combine.
+     * @return A future with the monitored objects, in the same order than the given futures.
+     */
+    public static <T> ListenableFuture<List<T>> allCompleted(
+        final Iterable< ? extends ListenableFuture<MonitorEvent<T>>> futures)
+    {
+        return Futures.transform(allOf(futures), new Function<List<MonitorEvent<T>>, List<T>>()
+        {
+            @Override
+            public List<T> apply(final List<MonitorEvent<T>> events)
+            {
+                List<T> targets = Lists.newArrayListWithCapacity(events.size());
+                for (MonitorEvent<T> event : events)
+                {
+                    if (event.getType() != Type.COMPLETED)
+                    {
+                        throw new IllegalStateException("monitor did not complete: " + event);
+                    }
+                    targets.add(event.getTarget());
+                }
+                return targets;
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor;
+
+import org.jclouds.abiquo.monitor.internal.BackoffPollingPolicy;
+
+/**
+ * Factory methods for the most common {@link PollingPolicy} implementations.
+ * 
+ * @author Ignasi Barrera
+ */
+public class PollingPolicies
+{
+    /**
+     * Polls the monitored objects with a fixed delay.
+     * 
+     * @param delay The delay between polls in milliseconds.
+     */
+    public static PollingPolicy fixedDelay(final long delay)
+    {
+        return new BackoffPollingPolicy(delay, delay, 1.0, 0.0);
+    }
+
+    /**
+     * Polls the monitored objects with an exponentially increasing delay.
+     * 
+     * @param minDelay The initial delay between polls in milliseconds.
+     * @param maxDelay The maximum delay between polls in milliseconds.
+     * @param multiplier The factor used to increase the delay after each poll.
+     * @param jitter The maximum fraction of the delay that is randomly added or removed.
+     */
+    public static PollingPolicy backoff(final long minDelay, final long maxDelay,
+        final double multiplier, final double jitter)
+    {
+        return new BackoffPollingPolicy(minDelay, maxDelay, multiplier, jitter);
+    }
+}
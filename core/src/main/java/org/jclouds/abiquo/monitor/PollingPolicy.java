@@ -0,0 +1,50 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor;
+
+import org.jclouds.abiquo.monitor.internal.BackoffPollingPolicy;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Decides how often the monitored objects are polled.
+ * 
+ * @author Ignasi Barrera
+ * @see PollingPolicies
+ */
+@ImplementedBy(BackoffPollingPolicy.class)
+public interface PollingPolicy
+{
+    /**
+     * Gets the delay to wait before polling the monitored objects again.
+     * 
+     * @param poll The number of times the monitored objects have already been polled.
+     * @return The delay in milliseconds.
+     */
+    long getDelay(int poll);
+
+    /**
+     * Gets a policy adapted to monitor operations that are expected to take the given time.
+     * 
+     * @param expectedDuration The expected duration of the operation in milliseconds.
+     * @return The adapted policy.
+     */
+    PollingPolicy withExpectedDuration(long expectedDuration);
+}
@@ -19,13 +19,16 @@
 
 package org.jclouds.abiquo.monitor;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
 import org.jclouds.abiquo.features.services.MonitoringService;
 import org.jclouds.abiquo.monitor.internal.BaseVirtualMachineMonitor;
 
 import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.ImplementedBy;
 
 /**
@@ -141,4 +144,67 @@ public interface VirtualMachineMonitor extends MonitoringService
      */
     public void monitorState(final Long maxWait, final TimeUnit timeUnit,
         VirtualMachineState state, final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until all deploys finish.
+     * 
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorDeployAsync(
+        final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until all deploys finish.
+     * 
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorDeployAsync(
+        final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until all undeploys finish.
+     * 
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorUndeployAsync(
+        final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until all undeploys finish.
+     * 
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorUndeployAsync(
+        final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until they are in the given
+     * state.
+     * 
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorStateAsync(
+        VirtualMachineState state, final VirtualMachine... vms);
+
+    /**
+     * Monitor the given {@link VirtualMachine}s without blocking until they are in the given
+     * state.
+     * 
+     * @param maxWait The maximum time to wait.
+     * @param timeUnit The time unit for the maxWait parameter.
+     * @param vms The {@link VirtualMachine}s to monitor.
+     * @return The futures that will hold the result of the monitor for each virtual machine.
+     */
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorStateAsync(
+        final Long maxWait, final TimeUnit timeUnit, VirtualMachineState state,
+        final VirtualMachine... vms);
 }
@@ -0,0 +1,132 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.AbiquoAsyncClient;
+import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.domain.task.AsyncTask;
+import org.jclouds.abiquo.monitor.GroupRefresher;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.rest.RestContext;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.task.TaskDto;
+import com.abiquo.server.core.task.TasksDto;
+import com.google.common.collect.Maps;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Refreshes all the monitored {@link AsyncTask}s that belong to the same owner with a single
+ * request.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AsyncTaskGroupRefresher implements GroupRefresher<AsyncTask>
+{
+    private final RestContext<AbiquoClient, AbiquoAsyncClient> context;
+
+    @Inject
+    public AsyncTaskGroupRefresher(final RestContext<AbiquoClient, AbiquoAsyncClient> context)
+    {
+        this.context = checkNotNull(context, "context");
+    }
+
+    @Override
+    public Object groupOf(final AsyncTask task)
+    {
+        // The tasks of an owner are listed in the parent resource of the task
+        RESTLink link = task.unwrap().searchLink("self");
+        if (link == null)
+        {
+            return null;
+        }
+
+        String href = link.getHref();
+        int index = href.lastIndexOf('/');
+        return index <= 0 ? null : href.substring(0, index);
+    }
+
+    @Override
+    public Map<AsyncTask, AsyncTask> refresh(final Object group, final Collection<AsyncTask> tasks)
+    {
+        RESTLink link = new RESTLink("tasks", group.toString());
+        link.setType(TasksDto.BASE_MEDIA_TYPE);
+
+        ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+        HttpResponse response = utils.getAbiquoHttpClient().get(link);
+
+        Map<AsyncTask, AsyncTask> refreshed = Maps.newHashMap();
+        if (response == null)
+        {
+            return refreshed;
+        }
+
+        ParseXMLWithJAXB<TasksDto> parser =
+            new ParseXMLWithJAXB<TasksDto>(utils.getXml(), TypeLiteral.get(TasksDto.class));
+
+        Map<String, TaskDto> current = Maps.newHashMap();
+        for (TaskDto dto : parser.apply(response).getCollection())
+        {
+            current.put(dto.getTaskId(), dto);
+        }
+
+        for (AsyncTask task : tasks)
+        {
+            TaskDto dto = current.get(task.getTaskId());
+            if (dto != null)
+            {
+                task.unwrap().setState(dto.getState());
+                task.unwrap().setJobs(dto.getJobs());
+                refreshed.put(task, new RefreshedAsyncTask(context, task.unwrap()));
+            }
+        }
+
+        return refreshed;
+    }
+
+    /**
+     * A view of an {@link AsyncTask} that does not need to be refreshed from the server.
+     */
+    private static class RefreshedAsyncTask extends AsyncTask
+    {
+        public RefreshedAsyncTask(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
+            final TaskDto target)
+        {
+            super(context, target);
+        }
+
+        @Override
+        public void refresh()
+        {
+            // Already refreshed by the group refresher
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_BACKOFF;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_JITTER;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_MAX_DELAY;
+
+import java.util.Random;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.monitor.PollingPolicy;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Polling policy that increases exponentially the delay between polls, up to a maximum value.
+ * <p>
+ * A random jitter is applied to each delay to prevent concurrent monitors from polling at the
+ * same time.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class BackoffPollingPolicy implements PollingPolicy
+{
+    /** The fraction of the expected duration of an operation used as the initial delay. */
+    private static final long EXPECTED_DURATION_FRACTION = 10L;
+
+    private static final Random RANDOM = new Random();
+
+    @VisibleForTesting
+    final long minDelay;
+
+    @VisibleForTesting
+    final long maxDelay;
+
+    @VisibleForTesting
+    final double multiplier;
+
+    @VisibleForTesting
+    final double jitter;
+
+    @Inject
+    public BackoffPollingPolicy(@Named(ASYNC_TASK_MONITOR_DELAY) final Long minDelay,
+        @Named(ASYNC_TASK_MONITOR_MAX_DELAY) final Long maxDelay,
+        @Named(ASYNC_TASK_MONITOR_BACKOFF) final Double multiplier,
+        @Named(ASYNC_TASK_MONITOR_JITTER) final Double jitter)
+    {
+        checkArgument(minDelay >= 0, "minDelay must be greater or equal than zero");
+        checkArgument(maxDelay >= minDelay, "maxDelay must be greater or equal than minDelay");
+        checkArgument(multiplier >= 1.0, "multiplier must be greater or equal than one");
+        checkArgument(jitter >= 0.0 && jitter < 1.0, "jitter must be between 0 and 1");
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public long getDelay(final int poll)
+    {
+        double delay = minDelay * Math.pow(multiplier, Math.max(poll - 1, 0));
+        delay = Math.min(delay, maxDelay);
+
+        if (jitter > 0.0)
+        {
+            delay += delay * jitter * (2 * RANDOM.nextDouble() - 1);
+        }
+
+        return Math.round(delay);
+    }
+
+    @Override
+    public PollingPolicy withExpectedDuration(final long expectedDuration)
+    {
+        long initialDelay = expectedDuration / EXPECTED_DURATION_FRACTION;
+        initialDelay = Math.max(minDelay, Math.min(maxDelay, initialDelay));
+        return new BackoffPollingPolicy(initialDelay, maxDelay, multiplier, jitter);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BackoffPollingPolicy [minDelay=" + minDelay + ", maxDelay=" + maxDelay
+            + ", multiplier=" + multiplier + ", jitter=" + jitter + "]";
+    }
+}
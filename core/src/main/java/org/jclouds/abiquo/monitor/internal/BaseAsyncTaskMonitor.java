@@ -21,8 +21,9 @@ package org.jclouds.abiquo.monitor.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
-import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_EXPECTED_DURATIONS;
 
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -33,13 +34,17 @@ import javax.inject.Singleton;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.task.AsyncTask;
+import org.jclouds.abiquo.events.MonitorEventDispatcher;
 import org.jclouds.abiquo.internal.BaseMonitoringService;
 import org.jclouds.abiquo.monitor.AsyncTaskMonitor;
+import org.jclouds.abiquo.monitor.PollingPolicy;
 import org.jclouds.abiquo.monitor.functions.AsyncTaskStatusMonitor;
 import org.jclouds.rest.RestContext;
 
+import com.abiquo.server.core.task.enums.TaskType;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.eventbus.EventBus;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
 
 /**
  * Default monitor for {@link AsyncTask} objects.
@@ -53,39 +58,93 @@ public class BaseAsyncTaskMonitor extends BaseMonitoringService implements Async
     @VisibleForTesting
     protected AsyncTaskStatusMonitor taskMonitor;
 
+    @VisibleForTesting
+    protected AsyncTaskGroupRefresher refresher;
+
+    /** The expected duration (in ms) of each type of task. */
+    @VisibleForTesting
+    protected Map<TaskType, Long> expectedDurations;
+
     @Inject
     public BaseAsyncTaskMonitor(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
-        @Named(ASYNC_TASK_MONITOR_DELAY) final Long pollingDelay, final EventBus eventBus,
-        final AsyncTaskStatusMonitor monitor)
+        final PollingPolicy pollingPolicy, final TimeoutWheel timeouts,
+        final MonitorEventDispatcher dispatcher,
+        final AsyncTaskStatusMonitor monitor, final AsyncTaskGroupRefresher refresher,
+        @Named(ASYNC_TASK_MONITOR_EXPECTED_DURATIONS) final String expectedDurations)
     {
-        super(context, scheduler, pollingDelay, eventBus);
+        super(context, scheduler, pollingPolicy, timeouts, dispatcher);
         this.taskMonitor = checkNotNull(monitor, "monitor");
+        this.refresher = checkNotNull(refresher, "refresher");
+        this.expectedDurations =
+            parseExpectedDurations(checkNotNull(expectedDurations, "expectedDurations"));
     }
 
     @Override
     public void awaitCompletion(final AsyncTask... tasks)
     {
-        awaitCompletion(taskMonitor, tasks);
+        awaitCompletion(pollingPolicy(tasks), null, null, taskMonitor, refresher, tasks);
     }
 
     @Override
     public void monitor(final AsyncTask... tasks)
     {
-        monitor(taskMonitor, tasks);
+        monitor(pollingPolicy(tasks), null, null, taskMonitor, refresher, tasks);
     }
 
     @Override
     public void awaitCompletion(final Long maxWait, final TimeUnit timeUnit,
         final AsyncTask... tasks)
     {
-        awaitCompletion(maxWait, timeUnit, taskMonitor, tasks);
+        awaitCompletion(pollingPolicy(tasks), maxWait, timeUnit, taskMonitor, refresher, tasks);
     }
 
     @Override
     public void monitor(final Long maxWait, final TimeUnit timeUnit, final AsyncTask... tasks)
     {
-        monitor(maxWait, timeUnit, taskMonitor, tasks);
+        monitor(pollingPolicy(tasks), maxWait, timeUnit, taskMonitor, refresher, tasks);
+    }
+
+    /**
+     * Gets the polling policy for the given tasks, adapted to the shortest expected duration of
+     * their types.
+     */
+    @VisibleForTesting
+    PollingPolicy pollingPolicy(final AsyncTask... tasks)
+    {
+        Long shortest = null;
+        if (tasks != null)
+        {
+            for (AsyncTask task : tasks)
+            {
+                Long expected = expectedDurations.get(task.getType());
+                if (expected != null && (shortest == null || expected < shortest))
+                {
+                    shortest = expected;
+                }
+            }
+        }
+
+        return shortest == null ? pollingPolicy : pollingPolicy.withExpectedDuration(shortest);
     }
 
+    /**
+     * Parses the expected durations in the <code>TYPE=duration</code> format.
+     */
+    @VisibleForTesting
+    static Map<TaskType, Long> parseExpectedDurations(final String expectedDurations)
+    {
+        Map<TaskType, Long> durations = Maps.newEnumMap(TaskType.class);
+        Map<String, String> values =
+            Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator("=")
+                .split(expectedDurations);
+
+        for (Map.Entry<String, String> entry : values.entrySet())
+        {
+            durations.put(TaskType.valueOf(entry.getKey().trim()),
+                Long.valueOf(entry.getValue().trim()));
+        }
+
+        return durations;
+    }
 }
@@ -21,7 +21,6 @@ package org.jclouds.abiquo.monitor.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
-import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
 
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -33,14 +32,15 @@ import javax.inject.Singleton;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.events.MonitorEventDispatcher;
 import org.jclouds.abiquo.internal.BaseMonitoringService;
+import org.jclouds.abiquo.monitor.PollingPolicy;
 import org.jclouds.abiquo.monitor.VirtualApplianceMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualApplianceDeployMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualApplianceUndeployMonitor;
 import org.jclouds.rest.RestContext;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.eventbus.EventBus;
 
 /**
  * Default monitor for {@link VirtualAppliance} objects.
@@ -60,11 +60,12 @@ public class BaseVirtualApplianceMonitor extends BaseMonitoringService implement
     @Inject
     public BaseVirtualApplianceMonitor(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
-        @Named(ASYNC_TASK_MONITOR_DELAY) final Long pollingDelay, final EventBus eventBus,
+        final PollingPolicy pollingPolicy, final TimeoutWheel timeouts,
+        final MonitorEventDispatcher dispatcher,
         final VirtualApplianceDeployMonitor deployMonitor,
         final VirtualApplianceUndeployMonitor undeployMonitor)
     {
-        super(context, scheduler, pollingDelay, eventBus);
+        super(context, scheduler, pollingPolicy, timeouts, dispatcher);
         this.deployMonitor = checkNotNull(deployMonitor, "deployMonitor");
         this.undeployMonitor = checkNotNull(undeployMonitor, "undeployMonitor");
     }
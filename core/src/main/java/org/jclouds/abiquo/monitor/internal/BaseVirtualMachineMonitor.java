@@ -21,8 +21,8 @@ package org.jclouds.abiquo.monitor.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
-import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
 
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -33,7 +33,10 @@ import javax.inject.Singleton;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.MonitorEventDispatcher;
 import org.jclouds.abiquo.internal.BaseMonitoringService;
+import org.jclouds.abiquo.monitor.PollingPolicy;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualMachineDeployMonitor;
 import org.jclouds.abiquo.monitor.functions.VirtualMachineStateMonitor;
@@ -42,7 +45,7 @@ import org.jclouds.rest.RestContext;
 
 import com.abiquo.server.core.cloud.VirtualMachineState;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * Default monitor for {@link VirtualMachine} objects.
@@ -59,93 +62,147 @@ public class BaseVirtualMachineMonitor extends BaseMonitoringService implements
     @VisibleForTesting
     protected VirtualMachineUndeployMonitor undeployMonitor;
 
+    @VisibleForTesting
+    protected VirtualMachineGroupRefresher refresher;
+
     @Inject
     public BaseVirtualMachineMonitor(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
-        @Named(ASYNC_TASK_MONITOR_DELAY) final Long pollingDelay, final EventBus eventBus,
+        final PollingPolicy pollingPolicy, final TimeoutWheel timeouts,
+        final MonitorEventDispatcher dispatcher,
         final VirtualMachineDeployMonitor deployMonitor,
-        final VirtualMachineUndeployMonitor undeployMonitor)
+        final VirtualMachineUndeployMonitor undeployMonitor,
+        final VirtualMachineGroupRefresher refresher)
     {
-        super(context, scheduler, pollingDelay, eventBus);
+        super(context, scheduler, pollingPolicy, timeouts, dispatcher);
         this.deployMonitor = checkNotNull(deployMonitor, "deployMonitor");
         this.undeployMonitor = checkNotNull(undeployMonitor, "undeployMonitor");
+        this.refresher = checkNotNull(refresher, "refresher");
     }
 
     @Override
     public void awaitCompletionDeploy(final VirtualMachine... vms)
     {
-        awaitCompletion(deployMonitor, vms);
+        awaitCompletion(pollingPolicy, null, null, deployMonitor, refresher, vms);
     }
 
     @Override
     public void monitorDeploy(final VirtualMachine... vms)
     {
-        monitor(deployMonitor, vms);
+        monitor(pollingPolicy, null, null, deployMonitor, refresher, vms);
     }
 
     @Override
     public void awaitCompletionDeploy(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachine... vms)
     {
-        awaitCompletion(maxWait, timeUnit, deployMonitor, vms);
+        awaitCompletion(pollingPolicy, maxWait, timeUnit, deployMonitor, refresher, vms);
     }
 
     @Override
     public void monitorDeploy(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachine... vms)
     {
-        monitor(maxWait, timeUnit, deployMonitor, vms);
+        monitor(pollingPolicy, maxWait, timeUnit, deployMonitor, refresher, vms);
     }
 
     @Override
     public void awaitCompletionUndeploy(final VirtualMachine... vms)
     {
-        awaitCompletion(undeployMonitor, vms);
+        awaitCompletion(pollingPolicy, null, null, undeployMonitor, refresher, vms);
     }
 
     @Override
     public void monitorUndeploy(final VirtualMachine... vms)
     {
-        monitor(undeployMonitor, vms);
+        monitor(pollingPolicy, null, null, undeployMonitor, refresher, vms);
     }
 
     @Override
     public void awaitCompletionUndeploy(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachine... vms)
     {
-        awaitCompletion(maxWait, timeUnit, undeployMonitor, vms);
+        awaitCompletion(pollingPolicy, maxWait, timeUnit, undeployMonitor, refresher, vms);
     }
 
     @Override
     public void monitorUndeploy(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachine... vms)
     {
-        monitor(maxWait, timeUnit, undeployMonitor, vms);
+        monitor(pollingPolicy, maxWait, timeUnit, undeployMonitor, refresher, vms);
     }
 
     @Override
     public void awaitState(final VirtualMachineState state, final VirtualMachine... vms)
     {
-        awaitCompletion(new VirtualMachineStateMonitor(state), vms);
+        awaitCompletion(pollingPolicy, null, null, new VirtualMachineStateMonitor(state), refresher,
+            vms);
     }
 
     @Override
     public void monitorState(final VirtualMachineState state, final VirtualMachine... vms)
     {
-        monitor(new VirtualMachineStateMonitor(state), vms);
+        monitor(pollingPolicy, null, null, new VirtualMachineStateMonitor(state), refresher, vms);
     }
 
     @Override
     public void awaitState(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachineState state, final VirtualMachine... vms)
     {
-        awaitCompletion(maxWait, timeUnit, new VirtualMachineStateMonitor(state), vms);
+        awaitCompletion(pollingPolicy, maxWait, timeUnit, new VirtualMachineStateMonitor(state),
+            refresher, vms);
     }
 
     @Override
     public void monitorState(final Long maxWait, final TimeUnit timeUnit,
         final VirtualMachineState state, final VirtualMachine... vms)
     {
-        monitor(maxWait, timeUnit, new VirtualMachineStateMonitor(state), vms);
+        monitor(pollingPolicy, maxWait, timeUnit, new VirtualMachineStateMonitor(state),
+            refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorDeployAsync(
+        final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, null, null, deployMonitor, refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorDeployAsync(
+        final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, maxWait, timeUnit, deployMonitor, refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorUndeployAsync(
+        final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, null, null, undeployMonitor, refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorUndeployAsync(
+        final Long maxWait, final TimeUnit timeUnit, final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, maxWait, timeUnit, undeployMonitor, refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorStateAsync(
+        final VirtualMachineState state, final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, null, null, new VirtualMachineStateMonitor(state),
+            refresher, vms);
+    }
+
+    @Override
+    public List<ListenableFuture<MonitorEvent<VirtualMachine>>> monitorStateAsync(
+        final Long maxWait, final TimeUnit timeUnit, final VirtualMachineState state,
+        final VirtualMachine... vms)
+    {
+        return monitor(pollingPolicy, maxWait, timeUnit, new VirtualMachineStateMonitor(state),
+            refresher, vms);
     }
 }
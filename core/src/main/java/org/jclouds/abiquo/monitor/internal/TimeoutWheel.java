@@ -0,0 +1,265 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_TIMEOUT_TICK;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Hashed timer wheel used to fire the timeouts of the monitors.
+ * <p>
+ * All timeouts share a single periodic job that only runs while there are pending timeouts.
+ * Each timeout is stored in the bucket of the tick when it expires, so adding and cancelling a
+ * timeout are constant time operations, and each tick only visits the timeouts of one bucket.
+ * The timeouts are fired with the precision of the tick duration.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class TimeoutWheel
+{
+    /** The number of buckets in the wheel. */
+    @VisibleForTesting
+    static final int WHEEL_SIZE = 512;
+
+    @Resource
+    private Logger logger = Logger.NULL;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Ticker ticker;
+
+    /** The duration of each tick, in milliseconds. */
+    @VisibleForTesting
+    final long tickDuration;
+
+    private final List<Set<Timeout>> buckets;
+
+    /** The number of pending timeouts. */
+    @VisibleForTesting
+    int pending;
+
+    /** The number of ticks processed since the wheel was started. */
+    private long ticks;
+
+    /** The time when the wheel was started, in nanoseconds. */
+    private long startTime;
+
+    /** Flag indicating that the periodic job is running. */
+    private boolean running;
+
+    /** The periodic job that advances the wheel. */
+    private Future< ? > job;
+
+    @Inject
+    public TimeoutWheel(@Named(PROPERTY_SCHEDULER_THREADS) final ScheduledExecutorService scheduler,
+        @Named(ASYNC_TASK_MONITOR_TIMEOUT_TICK) final Long tickDuration)
+    {
+        this(scheduler, tickDuration, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    TimeoutWheel(final ScheduledExecutorService scheduler, final long tickDuration,
+        final Ticker ticker)
+    {
+        checkArgument(tickDuration > 0, "tickDuration must be greater than zero");
+        this.scheduler = checkNotNull(scheduler, "scheduler");
+        this.ticker = checkNotNull(ticker, "ticker");
+        this.tickDuration = tickDuration;
+        this.buckets = Lists.newArrayListWithCapacity(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++)
+        {
+            Set<Timeout> bucket = Sets.newHashSet();
+            buckets.add(bucket);
+        }
+    }
+
+    /**
+     * Schedules the given task to be run once the given delay has elapsed.
+     * 
+     * @param task The task to run when the timeout expires.
+     * @param delay The delay.
+     * @param timeUnit The time unit for the delay parameter.
+     * @return The timeout, that can be used to cancel the task.
+     */
+    public synchronized Timeout newTimeout(final Runnable task, final long delay,
+        final TimeUnit timeUnit)
+    {
+        checkNotNull(task, "task");
+        checkNotNull(timeUnit, "timeUnit");
+        checkArgument(delay >= 0, "delay must be greater or equal than zero");
+
+        if (!running)
+        {
+            start();
+        }
+
+        long deadline = elapsed() + timeUnit.toMillis(delay);
+        long deadlineTick = Math.max(ticks + 1, (deadline + tickDuration - 1) / tickDuration);
+
+        Timeout timeout = new Timeout(task, deadlineTick);
+        bucket(deadlineTick).add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel up to the current time and runs the tasks of the expired timeouts.
+     */
+    @VisibleForTesting
+    void tick()
+    {
+        List<Timeout> expired = Lists.newArrayList();
+
+        synchronized (this)
+        {
+            long currentTick = elapsed() / tickDuration;
+            while (ticks < currentTick)
+            {
+                ticks++;
+                Iterator<Timeout> it = bucket(ticks).iterator();
+                while (it.hasNext())
+                {
+                    Timeout timeout = it.next();
+                    if (timeout.deadlineTick <= ticks)
+                    {
+                        it.remove();
+                        expired.add(timeout);
+                        pending--;
+                    }
+                }
+            }
+
+            if (pending == 0)
+            {
+                stop();
+            }
+        }
+
+        // Run the tasks outside the lock, so they can schedule or cancel other timeouts
+        for (Timeout timeout : expired)
+        {
+            try
+            {
+                timeout.task.run();
+            }
+            catch (RuntimeException ex)
+            {
+                logger.warn(ex, "failed to run timeout task %s", timeout.task);
+            }
+        }
+    }
+
+    private synchronized boolean cancel(final Timeout timeout)
+    {
+        if (bucket(timeout.deadlineTick).remove(timeout))
+        {
+            pending--;
+            return true;
+        }
+        return false;
+    }
+
+    private void start()
+    {
+        logger.debug("starting monitor timeout wheel");
+        startTime = ticker.read();
+        ticks = 0;
+        running = true;
+        job = scheduler.scheduleWithFixedDelay(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                tick();
+            }
+        }, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    private void stop()
+    {
+        logger.debug("stopping monitor timeout wheel");
+        running = false;
+        if (job != null)
+        {
+            job.cancel(false);
+            job = null;
+        }
+    }
+
+    private long elapsed()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(ticker.read() - startTime);
+    }
+
+    private Set<Timeout> bucket(final long tick)
+    {
+        return buckets.get((int) (tick % WHEEL_SIZE));
+    }
+
+    /**
+     * A task scheduled in the wheel.
+     * 
+     * @author Ignasi Barrera
+     */
+    public class Timeout
+    {
+        private final Runnable task;
+
+        private final long deadlineTick;
+
+        private Timeout(final Runnable task, final long deadlineTick)
+        {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancels the timeout, if it has not expired yet.
+         * 
+         * @return Boolean indicating if the timeout has been cancelled.
+         */
+        public boolean cancel()
+        {
+            return TimeoutWheel.this.cancel(this);
+        }
+    }
+}
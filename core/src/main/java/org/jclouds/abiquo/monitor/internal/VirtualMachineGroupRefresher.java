@@ -0,0 +1,130 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.AbiquoAsyncClient;
+import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.monitor.GroupRefresher;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.rest.RestContext;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.abiquo.server.core.cloud.VirtualMachinesDto;
+import com.google.common.collect.Maps;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Refreshes the state of all the monitored {@link VirtualMachine}s in the same virtual appliance
+ * with a single request.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class VirtualMachineGroupRefresher implements GroupRefresher<VirtualMachine>
+{
+    private final RestContext<AbiquoClient, AbiquoAsyncClient> context;
+
+    @Inject
+    public VirtualMachineGroupRefresher(final RestContext<AbiquoClient, AbiquoAsyncClient> context)
+    {
+        this.context = checkNotNull(context, "context");
+    }
+
+    @Override
+    public Object groupOf(final VirtualMachine vm)
+    {
+        RESTLink link = vm.unwrap().searchLink(ParentLinkName.VIRTUAL_APPLIANCE);
+        return link == null ? null : link.getHref();
+    }
+
+    @Override
+    public Map<VirtualMachine, VirtualMachine> refresh(final Object group,
+        final Collection<VirtualMachine> vms)
+    {
+        RESTLink link = new RESTLink("virtualmachines", group + "/virtualmachines");
+        link.setType(VirtualMachinesDto.BASE_MEDIA_TYPE);
+
+        ExtendedUtils utils = (ExtendedUtils) context.getUtils();
+        HttpResponse response = utils.getAbiquoHttpClient().get(link);
+
+        Map<VirtualMachine, VirtualMachine> refreshed = Maps.newHashMap();
+        if (response == null)
+        {
+            return refreshed;
+        }
+
+        ParseXMLWithJAXB<VirtualMachinesDto> parser =
+            new ParseXMLWithJAXB<VirtualMachinesDto>(utils.getXml(),
+                TypeLiteral.get(VirtualMachinesDto.class));
+
+        Map<Integer, VirtualMachineDto> current = Maps.newHashMap();
+        for (VirtualMachineDto dto : parser.apply(response).getCollection())
+        {
+            current.put(dto.getId(), dto);
+        }
+
+        for (VirtualMachine vm : vms)
+        {
+            VirtualMachineDto dto = current.get(vm.getId());
+            if (dto != null)
+            {
+                VirtualMachineState state = dto.getState();
+                vm.unwrap().setState(state);
+                vm.unwrap().setIdState(state.id());
+                refreshed.put(vm, new RefreshedVirtualMachine(context, vm.unwrap()));
+            }
+        }
+
+        return refreshed;
+    }
+
+    /**
+     * A view of a {@link VirtualMachine} that returns the last refreshed state instead of getting
+     * it from the server.
+     */
+    private static class RefreshedVirtualMachine extends VirtualMachine
+    {
+        public RefreshedVirtualMachine(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
+            final VirtualMachineDto target)
+        {
+            super(context, target);
+        }
+
+        @Override
+        public VirtualMachineState getState()
+        {
+            return target.getState();
+        }
+    }
+}
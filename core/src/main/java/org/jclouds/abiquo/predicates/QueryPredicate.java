@@ -0,0 +1,86 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.predicates;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.abiquo.domain.options.QueryOptions;
+
+import com.google.common.base.Predicate;
+
+/**
+ * A {@link Predicate} that can also be evaluated in the server side.
+ * <p>
+ * The query options make the server return a superset of the elements that match the predicate,
+ * so the listing strategies can request only those elements and then apply the predicate in the
+ * client side to the (smaller) returned list.
+ * 
+ * @author Ignasi Barrera
+ */
+public class QueryPredicate<T> implements Predicate<T>
+{
+    private final Predicate<T> predicate;
+
+    private final QueryOptions options;
+
+    public QueryPredicate(final Predicate<T> predicate, final QueryOptions options)
+    {
+        super();
+        this.predicate = checkNotNull(predicate, "predicate");
+        this.options = checkNotNull(options, "options");
+    }
+
+    @Override
+    public boolean apply(final T input)
+    {
+        return predicate.apply(input);
+    }
+
+    /**
+     * Gets the query options used to evaluate the predicate in the server side.
+     */
+    public QueryOptions getOptions()
+    {
+        return options;
+    }
+
+    /**
+     * Gets the query options of the given predicate if it can be evaluated in the server side
+     * with options of the given type.
+     * 
+     * @param predicate The predicate to check.
+     * @param optionsType The type of the query options supported by the listing.
+     * @return The query options or <code>null</code> if the predicate must be evaluated in the
+     *         client side.
+     */
+    public static <O extends QueryOptions> O optionsOf(final Predicate< ? > predicate,
+        final Class<O> optionsType)
+    {
+        if (predicate instanceof QueryPredicate)
+        {
+            QueryOptions options = ((QueryPredicate< ? >) predicate).getOptions();
+            if (optionsType.isInstance(options))
+            {
+                return optionsType.cast(options);
+            }
+        }
+        return null;
+    }
+}
@@ -26,7 +26,9 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.options.VirtualDatacenterOptions;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.predicates.QueryPredicate;
 import org.jclouds.abiquo.reference.ValidationErrors;
 import org.jclouds.abiquo.reference.rest.ParentLinkName;
 
@@ -85,7 +87,7 @@ public class VirtualDatacenterPredicates
                     }
                 }));
 
-        return new Predicate<VirtualDatacenter>()
+        Predicate<VirtualDatacenter> predicate = new Predicate<VirtualDatacenter>()
         {
             @Override
             public boolean apply(final VirtualDatacenter virtualDatacenter)
@@ -100,5 +102,9 @@ public class VirtualDatacenterPredicates
                 return ids.contains(datacenterId);
             }
         };
+
+        // The API only supports filtering by a single datacenter
+        return ids.size() != 1 ? predicate : new QueryPredicate<VirtualDatacenter>(predicate,
+            VirtualDatacenterOptions.builder().datacenterId(ids.get(0)).build());
     }
 }
@@ -63,4 +63,18 @@ public class VirtualMachinePredicates
             }
         };
     }
+
+    public static Predicate<VirtualMachine> allocated()
+    {
+        return new Predicate<VirtualMachine>()
+        {
+            @Override
+            public boolean apply(final VirtualMachine virtualMachine)
+            {
+                // Use the state of the virtual machine as it was loaded to avoid an API call. A
+                // virtual machine without state is considered to be allocated
+                return virtualMachine.unwrap().getState() != VirtualMachineState.NOT_ALLOCATED;
+            }
+        };
+    }
 }
@@ -24,6 +24,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Arrays;
 
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.enterprise.options.EnterpriseOptions;
+import org.jclouds.abiquo.predicates.QueryPredicate;
 
 import com.google.common.base.Predicate;
 
@@ -38,7 +40,7 @@ public class EnterprisePredicates
     {
         checkNotNull(names, "names must be defined");
 
-        return new Predicate<Enterprise>()
+        Predicate<Enterprise> predicate = new Predicate<Enterprise>()
         {
             @Override
             public boolean apply(final Enterprise enterprise)
@@ -46,5 +48,9 @@ public class EnterprisePredicates
                 return Arrays.asList(names).contains(enterprise.getName());
             }
         };
+
+        // The server filters by partial name, so the predicate is still applied to the results
+        return names.length != 1 ? predicate : new QueryPredicate<Enterprise>(predicate,
+            EnterpriseOptions.builder().filter(names[0]).build());
     }
 }
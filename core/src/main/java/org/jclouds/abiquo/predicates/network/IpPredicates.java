@@ -25,6 +25,8 @@ import java.util.Arrays;
 
 import org.jclouds.abiquo.domain.network.Ip;
 import org.jclouds.abiquo.domain.network.Network;
+import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.abiquo.predicates.QueryPredicate;
 
 import com.google.common.base.Predicate;
 
@@ -53,7 +55,7 @@ public class IpPredicates
     {
         checkNotNull(addresses, "addresses must be defined");
 
-        return new Predicate<Ip>()
+        Predicate<Ip> predicate = new Predicate<Ip>()
         {
             @Override
             public boolean apply(final Ip address)
@@ -61,17 +63,21 @@ public class IpPredicates
                 return Arrays.asList(addresses).contains(address.getIp());
             }
         };
+
+        // The server filters by partial match, so the predicate is still applied to the results
+        return addresses.length != 1 ? predicate : new QueryPredicate<Ip>(predicate, IpOptions
+            .builder().has(addresses[0]).build());
     }
 
     public static Predicate<Ip> available()
     {
-        return new Predicate<Ip>()
+        return new QueryPredicate<Ip>(new Predicate<Ip>()
         {
             @Override
             public boolean apply(final Ip address)
             {
                 return address.getAvailable();
             }
-        };
+        }, IpOptions.builder().free(true).build());
     }
 }
@@ -20,6 +20,7 @@
 package org.jclouds.abiquo.reference;
 
 import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.features.services.SearchService;
 
 /**
  * Global constants used in the Abiquo provider.
@@ -36,10 +37,184 @@ public interface AbiquoConstants
     public static final String CREDENTIAL_IS_TOKEN = "abiquo.credential-is-token";
 
     /**
-     * The delay (in ms) used between requests by the {@link MonitoringService} when monitoring
-     * asynchronous task state.
+     * Boolean property indicating if the provided credentials must only be used to log in, and
+     * the session token returned by the server used to authenticate the rest of the requests. The
+     * session is renewed automatically when it expires.
+     * <p>
+     * The login is always sent with the java.net driver, in the thread that needs the session, so
+     * the settings of other driver modules do not apply to it.
+     * <p>
+     * Default value: false
+     */
+    public static final String SESSION_AUTHENTICATION = "abiquo.session-authentication";
+
+    /**
+     * The initial delay (in ms) used between requests by the {@link MonitoringService} when
+     * monitoring asynchronous task state.
      * <p>
      * Default value: 5000 ms
      */
     public static final String ASYNC_TASK_MONITOR_DELAY = "abiquo.monitor-delay";
+
+    /**
+     * The maximum delay (in ms) used between requests by the {@link MonitoringService} when
+     * monitoring asynchronous task state.
+     * <p>
+     * Default value: 30000 ms
+     */
+    public static final String ASYNC_TASK_MONITOR_MAX_DELAY = "abiquo.monitor-max-delay";
+
+    /**
+     * The factor used to increase the delay between requests each time the monitored objects are
+     * polled. Use 1 to poll with a fixed delay.
+     * <p>
+     * Default value: 1.5
+     */
+    public static final String ASYNC_TASK_MONITOR_BACKOFF = "abiquo.monitor-backoff";
+
+    /**
+     * The maximum fraction of the delay between requests that is randomly added or removed to
+     * spread the requests of concurrent monitors.
+     * <p>
+     * Default value: 0.2
+     */
+    public static final String ASYNC_TASK_MONITOR_JITTER = "abiquo.monitor-jitter";
+
+    /**
+     * The expected duration (in ms) of each type of asynchronous task, used as a hint to adapt the
+     * delay between requests. The value is a comma separated list of <code>TYPE=duration</code>
+     * pairs, where the type is one of the <code>TaskType</code> values.
+     * <p>
+     * Default value: empty
+     */
+    public static final String ASYNC_TASK_MONITOR_EXPECTED_DURATIONS =
+        "abiquo.monitor-expected-durations";
+
+    /**
+     * The duration (in ms) of each tick of the timer used by the {@link MonitoringService} to
+     * detect the monitors that have reached their timeout. Timeouts are fired with this
+     * precision.
+     * <p>
+     * Default value: 100 ms
+     */
+    public static final String ASYNC_TASK_MONITOR_TIMEOUT_TICK = "abiquo.monitor-timeout-tick";
+
+    /**
+     * The maximum number of responses kept in the cache used when navigating to the parent
+     * resources. Cached responses are revalidated with conditional requests, and the already
+     * parsed objects are returned when the resource has not been modified. Use 0 to disable the
+     * cache.
+     * <p>
+     * Default value: 0
+     */
+    public static final String RESPONSE_CACHE_MAX_ENTRIES = "abiquo.response-cache.max-entries";
+
+    /**
+     * The time (in ms) the parent resources are cached when navigating from a domain object to its
+     * parents. Use 0 to disable the cache.
+     * <p>
+     * Default value: 0
+     */
+    public static final String PARENT_CACHE_TTL = "abiquo.parent-cache.ttl";
+
+    /**
+     * The maximum number of parent resources kept in the cache.
+     * <p>
+     * Default value: 1000
+     */
+    public static final String PARENT_CACHE_MAX_ENTRIES = "abiquo.parent-cache.max-entries";
+
+    /**
+     * Boolean property indicating if identical read requests performed concurrently must be
+     * coalesced into a single request to the server.
+     * <p>
+     * Default value: true
+     */
+    public static final String REQUEST_COALESCING = "abiquo.request-coalescing";
+
+    /**
+     * Boolean property indicating if the JAXB contexts of all the transport objects used by the
+     * api clients must be created in the background when the context is created, instead of when
+     * each one is first used.
+     * <p>
+     * Default value: false
+     */
+    public static final String XML_PARSER_WARM_UP = "abiquo.xml-parser.warm-up";
+
+    /**
+     * The format used to exchange the transport objects with the api. Accepted values are
+     * <code>xml</code> and <code>json</code>.
+     * <p>
+     * Default value: xml
+     */
+    public static final String WIRE_FORMAT = "abiquo.wire-format";
+
+    /**
+     * Boolean property indicating if the responses of the api must be requested in gzip format.
+     * Compressed responses are decompressed while they are parsed. It requires the
+     * {@link org.jclouds.abiquo.config.AbiquoJavaUrlHttpCommandExecutorServiceModule} to be added
+     * to the modules of the context, and is ignored otherwise.
+     * <p>
+     * Default value: false
+     */
+    public static final String GZIP_COMPRESSION = "abiquo.gzip-compression";
+
+    /**
+     * The size (in bytes) from which the request payloads are sent in gzip format. Use 0 to
+     * disable the compression of the request payloads.
+     * <p>
+     * Default value: 0
+     */
+    public static final String GZIP_PAYLOAD_THRESHOLD = "abiquo.gzip-compression.payload-threshold";
+
+    /**
+     * The number of elements requested in each page by the paginated listings of the
+     * {@link SearchService}, when not set in the query options.
+     * <p>
+     * Default value: 100
+     */
+    public static final String PAGING_PAGE_SIZE = "abiquo.paging.page-size";
+
+    /**
+     * The number of pages requested in the background by the paginated listings of the
+     * {@link SearchService} while the current page is being consumed.
+     * <p>
+     * Default value: 1
+     */
+    public static final String PAGING_PREFETCH = "abiquo.paging.prefetch";
+
+    /**
+     * The maximum number of concurrent requests performed when converting a list of virtual
+     * machines to nodes.
+     * <p>
+     * Default value: 10
+     */
+    public static final String NODE_CONVERSION_CONCURRENCY =
+        "abiquo.compute.node-conversion-concurrency";
+
+    /**
+     * The maximum number of concurrent undeploy and delete requests sent to each datacenter when
+     * destroying nodes.
+     * <p>
+     * Default value: 10
+     */
+    public static final String TEARDOWN_CONCURRENCY = "abiquo.compute.teardown-concurrency";
+
+    /**
+     * The time (in ms) the virtual datacenters compatible with each template and their available
+     * resources are cached when choosing where to deploy the nodes. Use 0 to disable the cache.
+     * <p>
+     * Default value: 0
+     */
+    public static final String PLACEMENT_CACHE_TTL = "abiquo.compute.placement-cache.ttl";
+
+    /**
+     * The interval (in ms) after which the templates, datacenters and current enterprise used by
+     * the compute service are reloaded. Cached values are returned while they are reloaded in the
+     * background. Use 0 to disable the cache.
+     * <p>
+     * Default value: 60000 ms
+     */
+    public static final String COMPUTE_RESOURCES_REFRESH_INTERVAL =
+        "abiquo.compute.resources-refresh-interval";
 }
@@ -22,8 +22,12 @@ package org.jclouds.abiquo.rest.internal;
 import javax.ws.rs.GET;
 
 import org.jclouds.abiquo.binders.BindLinkToPathAndAcceptHeader;
+import org.jclouds.abiquo.binders.BindValidatorsToHeaders;
+import org.jclouds.abiquo.functions.ReturnResponseOnNotModified;
 import org.jclouds.abiquo.http.filters.AbiquoAuthentication;
 import org.jclouds.abiquo.http.filters.AppendApiVersionToMediaType;
+import org.jclouds.abiquo.http.filters.GzipCompression;
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.ExceptionParser;
@@ -38,7 +42,8 @@ import com.google.common.util.concurrent.ListenableFuture;
  * 
  * @author Ignasi Barrera
  */
-@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class})
+@RequestFilters({AbiquoAuthentication.class, AppendApiVersionToMediaType.class,
+    GzipCompression.class})
 public interface AbiquoHttpAsyncClient
 {
     /**
@@ -48,4 +53,13 @@ public interface AbiquoHttpAsyncClient
     @ExceptionParser(ReturnNullOnNotFoundOr404.class)
     public ListenableFuture<HttpResponse> get(
         @BinderParam(BindLinkToPathAndAcceptHeader.class) final RESTLink link);
+
+    /**
+     * @see AbiquoHttpClient#getIfModified(RESTLink, CachedResponse)
+     */
+    @GET
+    @ExceptionParser(ReturnResponseOnNotModified.class)
+    public ListenableFuture<HttpResponse> getIfModified(
+        @BinderParam(BindLinkToPathAndAcceptHeader.class) final RESTLink link,
+        @BinderParam(BindValidatorsToHeaders.class) final CachedResponse cached);
 }
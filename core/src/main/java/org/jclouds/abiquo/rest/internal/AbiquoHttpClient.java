@@ -21,6 +21,7 @@ package org.jclouds.abiquo.rest.internal;
 
 import java.util.concurrent.TimeUnit;
 
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
 import org.jclouds.concurrent.Timeout;
 import org.jclouds.http.HttpResponse;
 
@@ -41,4 +42,13 @@ public interface AbiquoHttpClient
      * @return The response.
      */
     public HttpResponse get(final RESTLink link);
+
+    /**
+     * Perform a conditional GET request to the given link.
+     * 
+     * @param link The link to get.
+     * @param cached The cached response with the validators of the cached representation.
+     * @return The response. If the resource has not been modified, the 304 response is returned.
+     */
+    public HttpResponse getIfModified(final RESTLink link, final CachedResponse cached);
 }
@@ -55,6 +55,12 @@ public class ExtendedUtils extends UtilsImpl implements Utils
 
     private AbiquoHttpAsyncClient abiquoHttpAsyncClient;
 
+    private ResponseCache responseCache;
+
+    private ParentCache parentCache;
+
+    private RequestCoalescer requestCoalescer;
+
     @Inject
     public ExtendedUtils(final Injector injector, final Json json, final XMLParser xml,
         final HttpClient simpleClient, final HttpAsyncClient simpleAsyncClient,
@@ -63,12 +69,16 @@ public class ExtendedUtils extends UtilsImpl implements Utils
         @Named(Constants.PROPERTY_IO_WORKER_THREADS) final ExecutorService ioThreads,
         final EventBus eventBus, final Map<String, Credentials> credentialStore,
         final LoggerFactory loggerFactory, final AbiquoHttpClient abiquoHttpClient,
-        final AbiquoHttpAsyncClient abiquoHttpAsyncClient)
+        final AbiquoHttpAsyncClient abiquoHttpAsyncClient, final ResponseCache responseCache,
+        final ParentCache parentCache, final RequestCoalescer requestCoalescer)
     {
         super(injector, json, xml, simpleClient, simpleAsyncClient, encryption, date, userThreads,
             ioThreads, eventBus, credentialStore, loggerFactory);
         this.abiquoHttpClient = checkNotNull(abiquoHttpClient, "abiquoHttpClient");
         this.abiquoHttpAsyncClient = checkNotNull(abiquoHttpAsyncClient, "abiquoHttpAsyncClient");
+        this.responseCache = checkNotNull(responseCache, "responseCache");
+        this.parentCache = checkNotNull(parentCache, "parentCache");
+        this.requestCoalescer = checkNotNull(requestCoalescer, "requestCoalescer");
     }
 
     public AbiquoHttpClient getAbiquoHttpClient()
@@ -81,4 +91,19 @@ public class ExtendedUtils extends UtilsImpl implements Utils
         return abiquoHttpAsyncClient;
     }
 
+    public ResponseCache getResponseCache()
+    {
+        return responseCache;
+    }
+
+    public ParentCache getParentCache()
+    {
+        return parentCache;
+    }
+
+    public RequestCoalescer getRequestCoalescer()
+    {
+        return requestCoalescer;
+    }
+
 }
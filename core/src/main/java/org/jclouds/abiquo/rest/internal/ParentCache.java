@@ -0,0 +1,162 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PARENT_CACHE_MAX_ENTRIES;
+import static org.jclouds.abiquo.reference.AbiquoConstants.PARENT_CACHE_TTL;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.xml.XMLParser;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache for the parent resources returned when navigating from a domain object to its parents.
+ * <p>
+ * Parent resources are indexed by the href of the link used to retrieve them, so all the domain
+ * objects that share a parent do not request it again while it has not expired. Parents are cached
+ * serialized, and each caller gets its own copy of the object. Entries are removed when the
+ * resource is updated or deleted through the domain objects.
+ * <p>
+ * The cache is disabled by default, and can be enabled with the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#PARENT_CACHE_TTL} property.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class ParentCache
+{
+    private final XMLParser xml;
+
+    /** The cached parents. Null if the cache is disabled. */
+    @VisibleForTesting
+    final Cache<String, CachedParent> cache;
+
+    @Inject
+    public ParentCache(final XMLParser xml, @Named(PARENT_CACHE_TTL) final Long ttl,
+        @Named(PARENT_CACHE_MAX_ENTRIES) final Integer maxEntries)
+    {
+        checkArgument(ttl >= 0, "ttl must be greater or equal than zero");
+        checkArgument(maxEntries > 0, "maxEntries must be greater than zero");
+        this.xml = checkNotNull(xml, "xml");
+        this.cache =
+            ttl == 0 ? null : CacheBuilder.newBuilder().expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .maximumSize(maxEntries).<String, CachedParent> build();
+    }
+
+    /**
+     * Get the parent in the given href, loading it with the given loader if it is not cached.
+     * 
+     * @param href The href of the parent resource.
+     * @param type The type of the parent resource.
+     * @param loader The loader used to retrieve the parent if it is not cached.
+     * @return The parent resource or <code>null</code> if it does not exist.
+     */
+    public <T> T get(final String href, final Class<T> type, final Supplier<T> loader)
+    {
+        checkNotNull(type, "type");
+        checkNotNull(loader, "loader");
+
+        if (cache == null || href == null)
+        {
+            return loader.get();
+        }
+
+        try
+        {
+            CachedParent cached = cache.getIfPresent(href);
+            if (cached != null && cached.type == type)
+            {
+                return xml.fromXML(cached.document, type);
+            }
+
+            T parent = loader.get();
+            if (parent != null)
+            {
+                cache.put(href, new CachedParent(type, xml.toXML(parent)));
+            }
+            return parent;
+        }
+        catch (IOException ex)
+        {
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    /**
+     * Removes the resource in the given href from the cache.
+     * 
+     * @param href The href of the resource that has changed.
+     */
+    public void invalidate(final String href)
+    {
+        if (cache != null && href != null)
+        {
+            cache.invalidate(href);
+        }
+    }
+
+    /**
+     * Removes all the cached resources.
+     */
+    public void invalidateAll()
+    {
+        if (cache != null)
+        {
+            cache.invalidateAll();
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+    /**
+     * A cached parent serialized with the {@link XMLParser}.
+     * 
+     * @author Ignasi Barrera
+     */
+    @VisibleForTesting
+    static class CachedParent
+    {
+        final Class< ? > type;
+
+        final String document;
+
+        CachedParent(final Class< ? > type, final String document)
+        {
+            this.type = type;
+            this.document = document;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.REQUEST_COALESCING;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.location.Provider;
+import org.jclouds.xml.XMLParser;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Coalesces identical concurrent read requests.
+ * <p>
+ * Requests are identified by their absolute URI and the type of the expected response. When a
+ * request is performed while an identical one is still in flight, it is not sent to the server:
+ * the caller waits for the in-flight request and gets a copy of the same result (or the same
+ * exception). Requests are only coalesced while they are in flight; results are not cached once
+ * they complete.
+ * <p>
+ * Each caller of {@link #submit(String, Class, Supplier)} gets its own future, so cancelling it
+ * does not cancel the request for the other callers.
+ * <p>
+ * Coalescing can be disabled with the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#REQUEST_COALESCING} property.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class RequestCoalescer
+{
+    /** The requests in flight, indexed by their URI and response type. */
+    @VisibleForTesting
+    final ConcurrentMap<String, ListenableFuture< ? >> inFlight = Maps.newConcurrentMap();
+
+    private final Supplier<URI> endpoint;
+
+    private final XMLParser xml;
+
+    private final boolean enabled;
+
+    /** The number of requests sent to the server. */
+    private final AtomicLong issued = new AtomicLong();
+
+    /** The number of requests that waited for an identical in-flight request. */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @Inject
+    public RequestCoalescer(@Provider final Supplier<URI> endpoint, final XMLParser xml,
+        @Named(REQUEST_COALESCING) final Boolean enabled)
+    {
+        this.endpoint = checkNotNull(endpoint, "endpoint");
+        this.xml = checkNotNull(xml, "xml");
+        this.enabled = checkNotNull(enabled, "enabled");
+    }
+
+    /**
+     * Builds the absolute URI of the given API path, as the API clients build it. This allows
+     * coalescing the requests made with the API clients with the requests made to the links
+     * returned by the server.
+     * 
+     * @param path The path relative to the API endpoint, including the query string if any.
+     * @return The absolute URI of the request.
+     */
+    public String uri(final String path)
+    {
+        checkNotNull(path, "path");
+        String base = endpoint.get().toString();
+        // Endpoints may be configured with a trailing slash, but the links do not have a double one
+        if (base.endsWith("/") && path.startsWith("/"))
+        {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base + path;
+    }
+
+    /**
+     * Performs the given request in the calling thread, or waits for an identical one if it is
+     * already in flight.
+     * 
+     * @param uri The absolute URI of the request.
+     * @param type The type of the expected response.
+     * @param request The request to perform if no identical one is in flight.
+     * @return The result of the request.
+     */
+    public <T> T get(final String uri, final Class<T> type, final Supplier<T> request)
+    {
+        checkNotNull(uri, "uri");
+        checkNotNull(type, "type");
+        checkNotNull(request, "request");
+
+        if (!enabled)
+        {
+            issued.incrementAndGet();
+            return request.get();
+        }
+
+        String key = key(uri, type);
+        SettableFuture<T> result = SettableFuture.create();
+        ListenableFuture<T> existing = putIfAbsent(key, result);
+        if (existing != null)
+        {
+            coalesced.incrementAndGet();
+            return copy(await(existing), type);
+        }
+
+        issued.incrementAndGet();
+        try
+        {
+            T response = request.get();
+            result.set(response);
+            return response;
+        }
+        catch (RuntimeException ex)
+        {
+            result.setException(ex);
+            throw ex;
+        }
+        catch (Error er)
+        {
+            result.setException(er);
+            throw er;
+        }
+        finally
+        {
+            inFlight.remove(key, result);
+        }
+    }
+
+    /**
+     * Submits the given asynchronous request, or waits for an identical one if it is already in
+     * flight.
+     * 
+     * @param uri The absolute URI of the request.
+     * @param type The type of the expected response.
+     * @param request The request to submit if no identical one is in flight.
+     * @return The future result of the request. Cancelling it does not cancel the request.
+     */
+    public <T> ListenableFuture<T> submit(final String uri, final Class<T> type,
+        final Supplier<ListenableFuture<T>> request)
+    {
+        checkNotNull(uri, "uri");
+        checkNotNull(type, "type");
+        checkNotNull(request, "request");
+
+        if (!enabled)
+        {
+            issued.incrementAndGet();
+            return request.get();
+        }
+
+        final String key = key(uri, type);
+        final SettableFuture<T> result = SettableFuture.create();
+        ListenableFuture<T> existing = putIfAbsent(key, result);
+        if (existing != null)
+        {
+            coalesced.incrementAndGet();
+            return view(existing, type, true);
+        }
+
+        issued.incrementAndGet();
+        final ListenableFuture<T> response;
+        try
+        {
+            response = request.get();
+        }
+        catch (RuntimeException ex)
+        {
+            inFlight.remove(key, result);
+            result.setException(ex);
+            throw ex;
+        }
+
+        response.addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                inFlight.remove(key, result);
+                try
+                {
+                    result.set(Uninterruptibles.getUninterruptibly(response));
+                }
+                catch (ExecutionException ex)
+                {
+                    result.setException(ex.getCause());
+                }
+                catch (RuntimeException ex)
+                {
+                    // The request has been cancelled
+                    result.setException(ex);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+
+        return view(result, type, false);
+    }
+
+    /**
+     * Get the number of requests that have been sent to the server.
+     */
+    public long getIssuedCount()
+    {
+        return issued.get();
+    }
+
+    /**
+     * Get the number of requests that have not been sent to the server because an identical one
+     * was already in flight.
+     */
+    public long getCoalescedCount()
+    {
+        return coalesced.get();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ListenableFuture<T> putIfAbsent(final String key, final SettableFuture<T> result)
+    {
+        return (ListenableFuture<T>) inFlight.putIfAbsent(key, result);
+    }
+
+    /**
+     * Returns a future that completes with the given one, but can be cancelled without cancelling
+     * it.
+     */
+    private <T> ListenableFuture<T> view(final ListenableFuture<T> future, final Class<T> type,
+        final boolean copy)
+    {
+        final SettableFuture<T> view = SettableFuture.create();
+        future.addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    T response = Uninterruptibles.getUninterruptibly(future);
+                    view.set(copy ? copy(response, type) : response);
+                }
+                catch (ExecutionException ex)
+                {
+                    view.setException(ex.getCause());
+                }
+                catch (RuntimeException ex)
+                {
+                    view.setException(ex);
+                }
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return view;
+    }
+
+    /**
+     * Copies the response of a coalesced request, so callers do not share the same object.
+     */
+    private <T> T copy(final T response, final Class<T> type)
+    {
+        if (response == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return xml.fromXML(xml.toXML(response), type);
+        }
+        catch (IOException ex)
+        {
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    private static <T> T await(final ListenableFuture<T> future)
+    {
+        try
+        {
+            return Uninterruptibles.getUninterruptibly(future);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static String key(final String uri, final Class< ? > type)
+    {
+        return uri + " " + type.getName();
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.RESPONSE_CACHE_MAX_ENTRIES;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.Status;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.util.Strings2;
+import org.jclouds.xml.XMLParser;
+
+import com.abiquo.model.rest.RESTLink;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Cache for the responses of the {@link AbiquoHttpClient#get(RESTLink)} requests.
+ * <p>
+ * Responses are cached by link href and media type, together with their <code>ETag</code> and
+ * <code>Last-Modified</code> validators. Cached entries are always revalidated with a conditional
+ * request, and the cached body is parsed again if the server responds with a
+ * <code>304 Not Modified</code>, so each caller gets its own copy of the object. Responses without
+ * validators are not cached.
+ * <p>
+ * The cache is disabled by default, and can be enabled with the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#RESPONSE_CACHE_MAX_ENTRIES} property.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class ResponseCache
+{
+    private final AbiquoHttpClient http;
+
+    private final XMLParser xml;
+
+    /** The cached responses. Null if the cache is disabled. */
+    @VisibleForTesting
+    final Cache<String, CachedResponse> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Inject
+    public ResponseCache(final AbiquoHttpClient http, final XMLParser xml,
+        @Named(RESPONSE_CACHE_MAX_ENTRIES) final Integer maxEntries)
+    {
+        checkArgument(maxEntries >= 0, "maxEntries must be greater or equal than zero");
+        this.http = checkNotNull(http, "http");
+        this.xml = checkNotNull(xml, "xml");
+        this.cache =
+            maxEntries == 0 ? null : CacheBuilder.newBuilder().maximumSize(maxEntries)
+                .<String, CachedResponse> build();
+    }
+
+    /**
+     * Get the object in the given link.
+     * <p>
+     * If the cache is enabled and the object has not been modified since the last request, it is
+     * read from the cached body and the response is not transferred again.
+     * 
+     * @param link The link to get.
+     * @param type The type of the object.
+     * @return The object or <code>null</code> if it does not exist.
+     */
+    public <T> T get(final RESTLink link, final Class<T> type)
+    {
+        checkNotNull(link, "link");
+        checkNotNull(type, "type");
+
+        if (cache == null)
+        {
+            return parse(http.get(link), type);
+        }
+
+        String key = keyOf(link);
+        CachedResponse cached = cache.getIfPresent(key);
+        HttpResponse response = cached == null ? http.get(link) : http.getIfModified(link, cached);
+
+        if (response == null)
+        {
+            cache.invalidate(key);
+            return null;
+        }
+
+        if (cached != null && response.getStatusCode() == Status.NOT_MODIFIED.getStatusCode())
+        {
+            hits.incrementAndGet();
+            return parse(cached.body, type);
+        }
+
+        misses.incrementAndGet();
+        String body = read(response);
+        T object = parse(body, type);
+        String etag = response.getFirstHeaderOrNull(HttpHeaders.ETAG);
+        String lastModified = response.getFirstHeaderOrNull(HttpHeaders.LAST_MODIFIED);
+
+        if (object != null && (etag != null || lastModified != null))
+        {
+            cache.put(key, new CachedResponse(body, etag, lastModified));
+        }
+        else
+        {
+            cache.invalidate(key);
+        }
+
+        return object;
+    }
+
+    /**
+     * Removes from the cache all the responses of the given href.
+     * 
+     * @param href The href of the resource that has changed.
+     */
+    public void invalidate(final String href)
+    {
+        if (cache != null && href != null)
+        {
+            Iterator<String> keys = cache.asMap().keySet().iterator();
+            while (keys.hasNext())
+            {
+                if (keys.next().startsWith(href + " "))
+                {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached responses.
+     */
+    public void invalidateAll()
+    {
+        if (cache != null)
+        {
+            cache.invalidateAll();
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return cache != null;
+    }
+
+    /**
+     * The number of requests served with a cached object.
+     */
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    /**
+     * The number of requests that had to parse the response.
+     */
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    private <T> T parse(final HttpResponse response, final Class<T> type)
+    {
+        if (response == null)
+        {
+            return null;
+        }
+
+        ParseXMLWithJAXB<T> parser = new ParseXMLWithJAXB<T>(xml, TypeLiteral.get(type));
+        return parser.apply(response);
+    }
+
+    private <T> T parse(final String body, final Class<T> type)
+    {
+        if (body == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return xml.fromXML(body, type);
+        }
+        catch (IOException ex)
+        {
+            throw Throwables.propagate(ex);
+        }
+    }
+
+    private static String read(final HttpResponse response)
+    {
+        if (response.getPayload() == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return Strings2.toStringAndClose(response.getPayload().getInput());
+        }
+        catch (IOException ex)
+        {
+            throw Throwables.propagate(ex);
+        }
+        finally
+        {
+            response.getPayload().release();
+        }
+    }
+
+    private static String keyOf(final RESTLink link)
+    {
+        return link.getHref() + " " + link.getType();
+    }
+
+    /**
+     * A cached response body and its validators.
+     * 
+     * @author Ignasi Barrera
+     */
+    public static class CachedResponse
+    {
+        private final String body;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        public CachedResponse(final String body, final String etag, final String lastModified)
+        {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getBody()
+        {
+            return body;
+        }
+
+        public String getETag()
+        {
+            return etag;
+        }
+
+        public String getLastModified()
+        {
+            return lastModified;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.jclouds.abiquo.strategy.cloud;
 
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.abiquo.strategy.cloud.internal.ListVirtualAppliancesImpl;
@@ -33,5 +34,9 @@ import com.google.inject.ImplementedBy;
 @ImplementedBy(ListVirtualAppliancesImpl.class)
 public interface ListVirtualAppliances extends ListRootEntities<VirtualAppliance>
 {
-
+    /**
+     * Lists the virtual appliances returning them as soon as the response of each virtual
+     * datacenter arrives. The returned stream is lazy and can be consumed only once.
+     */
+    FutureStream<VirtualAppliance> executeStreaming();
 }
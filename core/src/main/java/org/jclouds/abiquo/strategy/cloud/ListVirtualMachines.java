@@ -19,6 +19,7 @@
 
 package org.jclouds.abiquo.strategy.cloud;
 
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.abiquo.strategy.cloud.internal.ListVirtualMachinesImpl;
@@ -33,5 +34,12 @@ import com.google.inject.ImplementedBy;
 @ImplementedBy(ListVirtualMachinesImpl.class)
 public interface ListVirtualMachines extends ListRootEntities<VirtualMachine>
 {
-
+    /**
+     * Lists the virtual machines pipelining the requests.
+     * <p>
+     * The virtual machines of each virtual appliance are requested as soon as the virtual
+     * appliances of its virtual datacenter are returned, and are available to the caller as soon
+     * as they arrive. The returned stream is lazy and can be consumed only once.
+     */
+    FutureStream<VirtualMachine> executeStreaming();
 }
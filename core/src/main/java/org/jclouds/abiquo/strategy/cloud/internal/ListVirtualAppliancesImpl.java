@@ -22,6 +22,7 @@ package org.jclouds.abiquo.strategy.cloud.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrapLazily;
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
 
 import java.util.concurrent.ExecutorService;
@@ -34,6 +35,7 @@ import javax.inject.Singleton;
 import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
@@ -97,6 +99,29 @@ public class ListVirtualAppliancesImpl implements ListVirtualAppliances
         return filter(execute(), selector);
     }
 
+    @Override
+    public FutureStream<VirtualAppliance> executeStreaming()
+    {
+        FutureStream<VirtualAppliance> vapps =
+            new FutureStream<VirtualAppliance>(userExecutor, maxTime, logger,
+                "getting virtual appliances");
+
+        for (VirtualDatacenter vdc : listVirtualDatacenters.execute())
+        {
+            vapps.submit(context.getAsyncApi().getCloudClient().listVirtualAppliances(vdc.unwrap()),
+                new Function<VirtualAppliancesDto, Iterable<VirtualAppliance>>()
+                {
+                    @Override
+                    public Iterable<VirtualAppliance> apply(final VirtualAppliancesDto input)
+                    {
+                        return wrapLazily(context, VirtualAppliance.class, input.getCollection());
+                    }
+                });
+        }
+
+        return vapps;
+    }
+
     private Iterable<VirtualApplianceDto> listConcurrentVirtualAppliances(
         final Iterable<VirtualDatacenter> vdcs)
     {
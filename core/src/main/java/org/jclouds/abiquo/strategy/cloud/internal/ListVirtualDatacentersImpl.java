@@ -22,6 +22,7 @@ package org.jclouds.abiquo.strategy.cloud.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.predicates.QueryPredicate.optionsOf;
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
 
 import java.util.List;
@@ -38,6 +39,8 @@ import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.options.VirtualDatacenterOptions;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.abiquo.rest.internal.RequestCoalescer;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualDatacenters;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
@@ -46,7 +49,9 @@ import com.abiquo.server.core.cloud.VirtualDatacenterDto;
 import com.abiquo.server.core.cloud.VirtualDatacentersDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Inject;
 
 /**
@@ -90,7 +95,9 @@ public class ListVirtualDatacentersImpl implements ListVirtualDatacenters
     @Override
     public Iterable<VirtualDatacenter> execute(final Predicate<VirtualDatacenter> selector)
     {
-        return filter(execute(), selector);
+        // Let the server filter the results if the selector supports it
+        VirtualDatacenterOptions options = optionsOf(selector, VirtualDatacenterOptions.class);
+        return filter(options == null ? execute() : execute(options), selector);
     }
 
     @Override
@@ -118,13 +125,25 @@ public class ListVirtualDatacentersImpl implements ListVirtualDatacenters
 
     private Iterable<VirtualDatacenter> listConcurrentVirtualDatacenters(final List<Integer> ids)
     {
+        final RequestCoalescer coalescer =
+            ((ExtendedUtils) context.getUtils()).getRequestCoalescer();
         Iterable<VirtualDatacenterDto> vdcs =
             transformParallel(ids, new Function<Integer, Future< ? extends VirtualDatacenterDto>>()
             {
                 @Override
                 public Future<VirtualDatacenterDto> apply(final Integer input)
                 {
-                    return context.getAsyncApi().getCloudClient().getVirtualDatacenter(input);
+                    return coalescer.submit(coalescer.uri("/cloud/virtualdatacenters/" + input),
+                        VirtualDatacenterDto.class,
+                        new Supplier<ListenableFuture<VirtualDatacenterDto>>()
+                        {
+                            @Override
+                            public ListenableFuture<VirtualDatacenterDto> get()
+                            {
+                                return context.getAsyncApi().getCloudClient()
+                                    .getVirtualDatacenter(input);
+                            }
+                        });
                 }
             }, userExecutor, maxTime, logger, "getting virtual datacenters");
 
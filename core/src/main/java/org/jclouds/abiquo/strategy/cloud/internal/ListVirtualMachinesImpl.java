@@ -22,8 +22,10 @@ package org.jclouds.abiquo.strategy.cloud.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrapLazily;
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
 
+import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -34,14 +36,19 @@ import javax.inject.Singleton;
 import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.DomainWrapper;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualAppliances;
+import org.jclouds.abiquo.strategy.cloud.ListVirtualDatacenters;
 import org.jclouds.abiquo.strategy.cloud.ListVirtualMachines;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
 
+import com.abiquo.server.core.cloud.VirtualApplianceDto;
+import com.abiquo.server.core.cloud.VirtualAppliancesDto;
 import com.abiquo.server.core.cloud.VirtualMachineDto;
 import com.abiquo.server.core.cloud.VirtualMachinesDto;
 import com.google.common.base.Function;
@@ -62,6 +69,8 @@ public class ListVirtualMachinesImpl implements ListVirtualMachines
 
     protected final ListVirtualAppliances listVirtualAppliances;
 
+    protected final ListVirtualDatacenters listVirtualDatacenters;
+
     @Resource
     protected Logger logger = Logger.NULL;
 
@@ -69,14 +78,27 @@ public class ListVirtualMachinesImpl implements ListVirtualMachines
     @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
     protected Long maxTime;
 
+    private final Function<VirtualMachinesDto, Iterable<VirtualMachine>> wrapVirtualMachines =
+        new Function<VirtualMachinesDto, Iterable<VirtualMachine>>()
+        {
+            @Override
+            public Iterable<VirtualMachine> apply(final VirtualMachinesDto input)
+            {
+                return wrapLazily(context, VirtualMachine.class, input.getCollection());
+            }
+        };
+
     @Inject
     ListVirtualMachinesImpl(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor,
-        final ListVirtualAppliances listVirtualAppliances)
+        final ListVirtualAppliances listVirtualAppliances,
+        final ListVirtualDatacenters listVirtualDatacenters)
     {
         super();
         this.context = checkNotNull(context, "context");
         this.listVirtualAppliances = checkNotNull(listVirtualAppliances, "listVirtualAppliances");
+        this.listVirtualDatacenters =
+            checkNotNull(listVirtualDatacenters, "listVirtualDatacenters");
         this.userExecutor = checkNotNull(userExecutor, "userExecutor");
     }
 
@@ -96,6 +118,35 @@ public class ListVirtualMachinesImpl implements ListVirtualMachines
         return filter(execute(), selector);
     }
 
+    @Override
+    public FutureStream<VirtualMachine> executeStreaming()
+    {
+        // Request the virtual machines of each virtual appliance as soon as it is returned
+        final FutureStream<VirtualMachine> vms =
+            new FutureStream<VirtualMachine>(userExecutor, maxTime, logger,
+                "getting virtual machines");
+
+        for (VirtualDatacenter vdc : listVirtualDatacenters.execute())
+        {
+            vms.submit(context.getAsyncApi().getCloudClient().listVirtualAppliances(vdc.unwrap()),
+                new Function<VirtualAppliancesDto, Iterable<VirtualMachine>>()
+                {
+                    @Override
+                    public Iterable<VirtualMachine> apply(final VirtualAppliancesDto input)
+                    {
+                        for (VirtualApplianceDto vapp : input.getCollection())
+                        {
+                            vms.submit(context.getAsyncApi().getCloudClient()
+                                .listVirtualMachines(vapp), wrapVirtualMachines);
+                        }
+                        return Collections.emptyList();
+                    }
+                });
+        }
+
+        return vms;
+    }
+
     private Iterable<VirtualMachineDto> listConcurrentVirtualMachines(
         final Iterable<VirtualAppliance> vapps)
     {
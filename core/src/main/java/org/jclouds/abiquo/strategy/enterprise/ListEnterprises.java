@@ -20,6 +20,7 @@
 package org.jclouds.abiquo.strategy.enterprise;
 
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.enterprise.options.EnterpriseOptions;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.abiquo.strategy.enterprise.internal.ListEnterprisesImpl;
 
@@ -33,5 +34,5 @@ import com.google.inject.ImplementedBy;
 @ImplementedBy(ListEnterprisesImpl.class)
 public interface ListEnterprises extends ListRootEntities<Enterprise>
 {
-
+    Iterable<Enterprise> execute(EnterpriseOptions options);
 }
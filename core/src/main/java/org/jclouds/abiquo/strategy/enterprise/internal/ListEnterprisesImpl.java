@@ -21,12 +21,14 @@ package org.jclouds.abiquo.strategy.enterprise.internal;
 
 import static com.google.common.collect.Iterables.filter;
 import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.predicates.QueryPredicate.optionsOf;
 
 import javax.inject.Singleton;
 
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
 import org.jclouds.abiquo.domain.enterprise.Enterprise;
+import org.jclouds.abiquo.domain.enterprise.options.EnterpriseOptions;
 import org.jclouds.abiquo.strategy.enterprise.ListEnterprises;
 import org.jclouds.rest.RestContext;
 
@@ -61,10 +63,19 @@ public class ListEnterprisesImpl implements ListEnterprises
         return wrap(context, Enterprise.class, result.getCollection());
     }
 
+    @Override
+    public Iterable<Enterprise> execute(final EnterpriseOptions options)
+    {
+        EnterprisesDto result = context.getApi().getEnterpriseClient().listEnterprises(options);
+        return wrap(context, Enterprise.class, result.getCollection());
+    }
+
     @Override
     public Iterable<Enterprise> execute(final Predicate<Enterprise> selector)
     {
-        return filter(execute(), selector);
+        // Let the server filter the results if the selector supports it
+        EnterpriseOptions options = optionsOf(selector, EnterpriseOptions.class);
+        return filter(options == null ? execute() : execute(options), selector);
     }
 
 }
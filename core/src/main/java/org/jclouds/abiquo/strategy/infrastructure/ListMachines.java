@@ -19,10 +19,12 @@
 
 package org.jclouds.abiquo.strategy.infrastructure;
 
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.infrastructure.Machine;
 import org.jclouds.abiquo.strategy.ListRootEntities;
 import org.jclouds.abiquo.strategy.infrastructure.internal.ListMachinesImpl;
 
+import com.google.common.base.Predicate;
 import com.google.inject.ImplementedBy;
 
 /**
@@ -33,5 +35,20 @@ import com.google.inject.ImplementedBy;
 @ImplementedBy(ListMachinesImpl.class)
 public interface ListMachines extends ListRootEntities<Machine>
 {
+    /**
+     * Lists the machines pipelining the requests.
+     * <p>
+     * The machines of each rack are requested as soon as the racks of its datacenter are
+     * returned, and are available to the caller as soon as they arrive. The returned iterable is
+     * lazy and can be consumed only once. The request timeout bounds the whole listing, as in the
+     * other parallel listings, and not the wait for each machine.
+     */
+    FutureStream<Machine> executeStreaming();
 
+    /**
+     * Lists the machines matching the given selector pipelining the requests.
+     * 
+     * @see #executeStreaming()
+     */
+    Iterable<Machine> executeStreaming(Predicate<Machine> selector);
 }
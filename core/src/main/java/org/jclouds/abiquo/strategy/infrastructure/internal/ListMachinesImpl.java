@@ -21,11 +21,10 @@ package org.jclouds.abiquo.strategy.infrastructure.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.filter;
-import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
-import static org.jclouds.concurrent.FutureIterables.transformParallel;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrapLazily;
 
+import java.util.Collections;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -34,7 +33,7 @@ import javax.inject.Singleton;
 import org.jclouds.Constants;
 import org.jclouds.abiquo.AbiquoAsyncClient;
 import org.jclouds.abiquo.AbiquoClient;
-import org.jclouds.abiquo.domain.DomainWrapper;
+import org.jclouds.abiquo.concurrent.FutureStream;
 import org.jclouds.abiquo.domain.infrastructure.Datacenter;
 import org.jclouds.abiquo.domain.infrastructure.Machine;
 import org.jclouds.abiquo.strategy.infrastructure.ListDatacenters;
@@ -42,12 +41,12 @@ import org.jclouds.abiquo.strategy.infrastructure.ListMachines;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.RestContext;
 
-import com.abiquo.server.core.infrastructure.MachineDto;
 import com.abiquo.server.core.infrastructure.MachinesDto;
 import com.abiquo.server.core.infrastructure.RackDto;
 import com.abiquo.server.core.infrastructure.RacksDto;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 
 /**
@@ -71,6 +70,16 @@ public class ListMachinesImpl implements ListMachines
     @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
     protected Long maxTime;
 
+    private final Function<MachinesDto, Iterable<Machine>> wrapMachines =
+        new Function<MachinesDto, Iterable<Machine>>()
+        {
+            @Override
+            public Iterable<Machine> apply(final MachinesDto input)
+            {
+                return wrapLazily(context, Machine.class, input.getCollection());
+            }
+        };
+
     @Inject
     ListMachinesImpl(final RestContext<AbiquoClient, AbiquoAsyncClient> context,
         @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor,
@@ -85,12 +94,7 @@ public class ListMachinesImpl implements ListMachines
     @Override
     public Iterable<Machine> execute()
     {
-        // Find machines in concurrent requests
-        Iterable<Datacenter> datacenters = listDatacenters.execute();
-        Iterable<RackDto> racks = listConcurrentRacks(datacenters);
-        Iterable<MachineDto> machines = listConcurrentMachines(racks);
-
-        return wrap(context, Machine.class, machines);
+        return Lists.newArrayList(executeStreaming());
     }
 
     @Override
@@ -99,35 +103,38 @@ public class ListMachinesImpl implements ListMachines
         return filter(execute(), selector);
     }
 
-    private Iterable<RackDto> listConcurrentRacks(final Iterable<Datacenter> datacenters)
+    @Override
+    public FutureStream<Machine> executeStreaming()
     {
-        Iterable<RacksDto> racks =
-            transformParallel(datacenters, new Function<Datacenter, Future< ? extends RacksDto>>()
-            {
-                @Override
-                public Future<RacksDto> apply(final Datacenter input)
+        // Find machines in concurrent requests, without waiting for all racks to be listed
+        final FutureStream<Machine> machines =
+            new FutureStream<Machine>(userExecutor, maxTime, logger, "getting machines");
+
+        for (Datacenter datacenter : listDatacenters.execute())
+        {
+            machines.submit(
+                context.getAsyncApi().getInfrastructureClient().listRacks(datacenter.unwrap()),
+                new Function<RacksDto, Iterable<Machine>>()
                 {
-                    return context.getAsyncApi().getInfrastructureClient()
-                        .listRacks(input.unwrap());
-                }
-            }, userExecutor, maxTime, logger, "getting racks");
-
-        return DomainWrapper.join(racks);
+                    @Override
+                    public Iterable<Machine> apply(final RacksDto input)
+                    {
+                        for (RackDto rack : input.getCollection())
+                        {
+                            machines.submit(context.getAsyncApi().getInfrastructureClient()
+                                .listMachines(rack), wrapMachines);
+                        }
+                        return Collections.emptyList();
+                    }
+                });
+        }
+
+        return machines;
     }
 
-    private Iterable<MachineDto> listConcurrentMachines(final Iterable<RackDto> racks)
+    @Override
+    public Iterable<Machine> executeStreaming(final Predicate<Machine> selector)
     {
-        Iterable<MachinesDto> machines =
-            transformParallel(racks, new Function<RackDto, Future< ? extends MachinesDto>>()
-            {
-                @Override
-                public Future<MachinesDto> apply(final RackDto input)
-                {
-                    return context.getAsyncApi().getInfrastructureClient().listMachines(input);
-                }
-            }, userExecutor, maxTime, logger, "getting machines");
-
-        return DomainWrapper.join(machines);
+        return filter(executeStreaming(), selector);
     }
-
 }
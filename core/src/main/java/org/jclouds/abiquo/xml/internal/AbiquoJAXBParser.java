@@ -0,0 +1,282 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.xml.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.abiquo.reference.AbiquoConstants.XML_PARSER_WARM_UP;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.jclouds.Constants;
+import org.jclouds.abiquo.config.AbiquoRestClientModule;
+import org.jclouds.abiquo.rest.internal.AbiquoHttpAsyncClient;
+import org.jclouds.logging.Logger;
+import org.jclouds.xml.XMLParser;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * JAXB parser that reuses the JAXB contexts, marshallers and unmarshallers of each transport
+ * object type.
+ * <p>
+ * Creating a JAXB context is expensive, so contexts are created only once per type and shared by
+ * all threads. Marshallers and unmarshallers are not thread safe, so they are pooled and each one
+ * is used by a single thread at a time.
+ * <p>
+ * The contexts of all the transport objects used by the api clients can be created in the
+ * background when the context is created, by enabling the
+ * {@link org.jclouds.abiquo.reference.AbiquoConstants#XML_PARSER_WARM_UP} property.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoJAXBParser implements XMLParser
+{
+    @Resource
+    protected Logger logger = Logger.NULL;
+
+    /** The JAXB contexts of each type. */
+    @VisibleForTesting
+    final ConcurrentMap<Class< ? >, JAXBContext> contexts = Maps.newConcurrentMap();
+
+    /** The unmarshallers of each type that are not being used. */
+    @VisibleForTesting
+    final ConcurrentMap<Class< ? >, Queue<Unmarshaller>> unmarshallers = Maps.newConcurrentMap();
+
+    /** The marshallers of each type that are not being used. */
+    @VisibleForTesting
+    final ConcurrentMap<Class< ? >, Queue<Marshaller>> marshallers = Maps.newConcurrentMap();
+
+    private final boolean prettyPrint;
+
+    @Inject
+    public AbiquoJAXBParser(
+        @Named(Constants.PROPERTY_PRETTY_PRINT_PAYLOADS) final String prettyPrint,
+        @Named(XML_PARSER_WARM_UP) final String warmUp,
+        @Named(Constants.PROPERTY_USER_THREADS) final ExecutorService userExecutor)
+    {
+        this.prettyPrint = Boolean.valueOf(prettyPrint);
+        if (Boolean.valueOf(warmUp))
+        {
+            checkNotNull(userExecutor, "userExecutor").submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    warmUp(transportTypes(Iterables.concat(
+                        AbiquoRestClientModule.DELEGATE_MAP.values(),
+                        ImmutableSet.<Class< ? >> of(AbiquoHttpAsyncClient.class))));
+                }
+            });
+        }
+    }
+
+    @Override
+    public String toXML(final Object src) throws IOException
+    {
+        return toXML(src, src.getClass());
+    }
+
+    @Override
+    public <T> String toXML(final Object src, final Class<T> type) throws IOException
+    {
+        try
+        {
+            Marshaller marshaller = borrowMarshaller(type);
+            StringWriter writer = new StringWriter();
+            marshaller.marshal(src, writer);
+
+            // Marshallers that have failed are discarded
+            pool(marshallers, type).offer(marshaller);
+            return writer.toString();
+        }
+        catch (JAXBException ex)
+        {
+            throw new IOException("Could not marshall object", ex);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T fromXML(final String xml, final Class<T> type) throws IOException
+    {
+        try
+        {
+            Unmarshaller unmarshaller = borrowUnmarshaller(type);
+            T result = (T) unmarshaller.unmarshal(new StringReader(xml));
+
+            // Unmarshallers that have failed are discarded
+            pool(unmarshallers, type).offer(unmarshaller);
+            return result;
+        }
+        catch (Exception ex)
+        {
+            throw new IOException("Could not unmarshall document", ex);
+        }
+    }
+
+    /**
+     * Creates the JAXB contexts of the given types, if they do not exist yet.
+     * 
+     * @param types The types to warm up.
+     */
+    public void warmUp(final Iterable<Class< ? >> types)
+    {
+        long start = System.currentTimeMillis();
+        for (Class< ? > type : types)
+        {
+            try
+            {
+                getContext(type);
+            }
+            catch (JAXBException ex)
+            {
+                logger.warn(ex, "Could not create the JAXB context for %s", type.getName());
+            }
+        }
+        logger.debug("Created the JAXB contexts of %s types in %s ms", contexts.size(),
+            System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Get the transport object types returned or accepted by the methods of the given api
+     * clients.
+     * 
+     * @param clients The api clients.
+     * @return The transport object types used by the given clients.
+     */
+    @VisibleForTesting
+    static Set<Class< ? >> transportTypes(final Iterable<Class< ? >> clients)
+    {
+        Set<Class< ? >> types = Sets.newLinkedHashSet();
+        for (Class< ? > client : clients)
+        {
+            for (Method method : client.getMethods())
+            {
+                Type returnType = method.getGenericReturnType();
+                if (returnType instanceof ParameterizedType)
+                {
+                    for (Type arg : ((ParameterizedType) returnType).getActualTypeArguments())
+                    {
+                        addIfTransportType(types, arg);
+                    }
+                }
+                for (Class< ? > param : method.getParameterTypes())
+                {
+                    addIfTransportType(types, param);
+                }
+            }
+        }
+        return types;
+    }
+
+    private static void addIfTransportType(final Set<Class< ? >> types, final Type type)
+    {
+        if (type instanceof Class && ((Class< ? >) type).isAnnotationPresent(XmlRootElement.class))
+        {
+            types.add((Class< ? >) type);
+        }
+    }
+
+    /**
+     * Get the JAXB context for the given type, creating it if it does not exist yet.
+     * 
+     * @param type The type to get the context for.
+     * @return The JAXB context for the given type.
+     * @throws JAXBException If the context cannot be created.
+     */
+    public JAXBContext getContext(final Class< ? > type) throws JAXBException
+    {
+        JAXBContext context = contexts.get(type);
+        if (context == null)
+        {
+            // Concurrent callers may create the same context, but only one will be kept
+            JAXBContext created = JAXBContext.newInstance(type);
+            context = contexts.putIfAbsent(type, created);
+            if (context == null)
+            {
+                context = created;
+            }
+        }
+        return context;
+    }
+
+    private Unmarshaller borrowUnmarshaller(final Class< ? > type) throws JAXBException
+    {
+        Queue<Unmarshaller> pool = pool(unmarshallers, type);
+        Unmarshaller unmarshaller = pool.poll();
+        return unmarshaller != null ? unmarshaller : getContext(type).createUnmarshaller();
+    }
+
+    private Marshaller borrowMarshaller(final Class< ? > type) throws JAXBException
+    {
+        Queue<Marshaller> pool = pool(marshallers, type);
+        Marshaller marshaller = pool.poll();
+        if (marshaller == null)
+        {
+            marshaller = getContext(type).createMarshaller();
+            if (prettyPrint)
+            {
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            }
+        }
+        return marshaller;
+    }
+
+    private static <T> Queue<T> pool(final ConcurrentMap<Class< ? >, Queue<T>> pools,
+        final Class< ? > type)
+    {
+        Queue<T> pool = pools.get(type);
+        if (pool == null)
+        {
+            Queue<T> created = new ConcurrentLinkedQueue<T>();
+            pool = pools.putIfAbsent(type, created);
+            if (pool == null)
+            {
+                pool = created;
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.xml.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
+import org.jclouds.xml.XMLParser;
+
+/**
+ * Parser used when the JSON wire format is configured.
+ * <p>
+ * Transport objects are serialized to JSON using their JAXB annotations, the same way the Abiquo
+ * API does. Documents that are not JSON, such as the XML error responses returned by some
+ * components, are parsed with the {@link AbiquoJAXBParser}.
+ * 
+ * @author Ignasi Barrera
+ */
+@Singleton
+public class AbiquoJSONParser implements XMLParser
+{
+    /** The value of the wire format property that enables this parser. */
+    public static final String JSON_WIRE_FORMAT = "json";
+
+    private final AbiquoJAXBParser xml;
+
+    private final ObjectMapper mapper;
+
+    @Inject
+    public AbiquoJSONParser(final AbiquoJAXBParser xml)
+    {
+        this.xml = checkNotNull(xml, "xml");
+        this.mapper = new ObjectMapper();
+        this.mapper.setAnnotationIntrospector(new JaxbAnnotationIntrospector());
+        this.mapper.setSerializationInclusion(JsonSerialize.Inclusion.NON_NULL);
+        this.mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public String toXML(final Object src) throws IOException
+    {
+        return toXML(src, src.getClass());
+    }
+
+    @Override
+    public <T> String toXML(final Object src, final Class<T> type) throws IOException
+    {
+        return mapper.writerWithType(type).writeValueAsString(src);
+    }
+
+    @Override
+    public <T> T fromXML(final String document, final Class<T> type) throws IOException
+    {
+        if (isXML(document))
+        {
+            return xml.fromXML(document, type);
+        }
+
+        try
+        {
+            return mapper.readValue(document, type);
+        }
+        catch (Exception ex)
+        {
+            throw new IOException("Could not unmarshall document", ex);
+        }
+    }
+
+    /**
+     * Get the object mapper used to read and write JSON documents.
+     */
+    public ObjectMapper getMapper()
+    {
+        return mapper;
+    }
+
+    private static boolean isXML(final String document)
+    {
+        return document.trim().startsWith("<");
+    }
+}
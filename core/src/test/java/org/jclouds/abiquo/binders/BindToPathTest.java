@@ -20,6 +20,7 @@
 package org.jclouds.abiquo.binders;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 import java.lang.reflect.Method;
 import java.net.URI;
@@ -172,6 +173,36 @@ public class BindToPathTest
             "GET http://linkuri?param=value;matrix=value2 HTTP/1.1");
     }
 
+    public void testBindSameObjectInSeveralParameters() throws SecurityException,
+        NoSuchMethodException
+    {
+        TestDto dto = new TestDto();
+        Method withSeveralParameters =
+            TestEndpointLink.class.getMethod("withSeveralParameters", TestDto.class,
+                TestDto.class);
+        GeneratedHttpRequest<TestEndpointLink> request =
+            GeneratedHttpRequest.<TestEndpointLink> requestBuilder()
+                .declaring(TestEndpointLink.class).javaMethod(withSeveralParameters)
+                .args(ImmutableList.<Object> of(dto, dto)).method(HttpMethod.GET)
+                .endpoint(URI.create("http://localhost")).build();
+
+        BindToPath binder = new BindToPath();
+        GeneratedHttpRequest<TestEndpointLink> newRequest = binder.bindToRequest(request, dto);
+        assertEquals(newRequest.getRequestLine(), "GET http://linkuri HTTP/1.1");
+    }
+
+    public void testEndpointLinksAreComputedOncePerMethod() throws SecurityException,
+        NoSuchMethodException
+    {
+        Method withSeveralParameters =
+            TestEndpointLink.class.getMethod("withSeveralParameters", TestDto.class,
+                TestDto.class);
+
+        String[] links = BindToPath.ENDPOINT_LINKS.getUnchecked(withSeveralParameters);
+        assertEquals(links, new String[] {null, "edit"});
+        assertSame(BindToPath.ENDPOINT_LINKS.getUnchecked(withSeveralParameters), links);
+    }
+
     static interface TestEndpointLink
     {
         @GET
@@ -182,6 +213,9 @@ public class BindToPathTest
 
         @GET
         void withoutEndpointLink(TestDto dto);
+
+        @GET
+        void withSeveralParameters(TestDto first, @EndpointLink("edit") TestDto second);
     }
 
     static class TestDto extends SingleResourceTransportDto
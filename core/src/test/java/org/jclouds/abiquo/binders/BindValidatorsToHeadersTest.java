@@ -0,0 +1,77 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.binders;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
+import org.jclouds.http.HttpRequest;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link BindValidatorsToHeaders} binder.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class BindValidatorsToHeadersTest
+{
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testInvalidNullInput()
+    {
+        new BindValidatorsToHeaders().bindToRequest(request(), null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidTypeInput()
+    {
+        new BindValidatorsToHeaders().bindToRequest(request(), new Object());
+    }
+
+    public void testBindValidators()
+    {
+        CachedResponse cached =
+            new CachedResponse("<rack/>", "\"1\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+        HttpRequest request = new BindValidatorsToHeaders().bindToRequest(request(), cached);
+
+        assertEquals(request.getFirstHeaderOrNull(HttpHeaders.IF_NONE_MATCH), "\"1\"");
+        assertEquals(request.getFirstHeaderOrNull(HttpHeaders.IF_MODIFIED_SINCE),
+            "Wed, 21 Oct 2015 07:28:00 GMT");
+    }
+
+    public void testBindOnlyExistingValidators()
+    {
+        CachedResponse cached = new CachedResponse("<rack/>", "\"1\"", null);
+        HttpRequest request = new BindValidatorsToHeaders().bindToRequest(request(), cached);
+
+        assertEquals(request.getFirstHeaderOrNull(HttpHeaders.IF_NONE_MATCH), "\"1\"");
+        assertNull(request.getFirstHeaderOrNull(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    private static HttpRequest request()
+    {
+        return HttpRequest.builder().method("GET").endpoint(URI.create("http://localhost")).build();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.config;
+
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceStrategies;
+import org.jclouds.abiquo.compute.strategy.AbiquoCreateNodesInGroupThenAddToSet;
+import org.jclouds.abiquo.internal.BaseInjectionTest;
+import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link AbiquoComputeServiceContextModule} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class AbiquoComputeServiceContextModuleTest extends BaseInjectionTest
+{
+    public void testCreateNodesInGroupStrategyIsBound()
+    {
+        assertEquals(injector.getInstance(CreateNodesInGroupThenAddToSet.class).getClass(),
+            AbiquoCreateNodesInGroupThenAddToSet.class);
+    }
+
+    public void testListNodesStrategyConvertsNodesInBulk()
+    {
+        assertEquals(injector.getInstance(ListNodesStrategy.class).getClass(),
+            AbiquoComputeServiceStrategies.class);
+    }
+}
@@ -28,12 +28,16 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
 import org.jclouds.abiquo.domain.cloud.VirtualMachine;
 import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
 import org.jclouds.abiquo.domain.network.Nic;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeState;
@@ -46,6 +50,8 @@ import com.abiquo.server.core.cloud.VirtualMachineDto;
 import com.abiquo.server.core.cloud.VirtualMachineState;
 import com.abiquo.server.core.infrastructure.network.NicDto;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Unit tests for the {@link VirtualMachineToNodeMetadata} class.
@@ -68,7 +74,9 @@ public class VirtualMachineToNodeMetadataTest
             new VirtualMachineToNodeMetadata(templateToImage(),
                 templateToHardware(),
                 stateToNodeState(),
-                datacenterToLocation());
+                datacenterToLocation(),
+                MoreExecutors.sameThreadExecutor(),
+                10);
 
         vm = new VirtualMachineDto();
         vm.setName("VM");
@@ -105,6 +113,76 @@ public class VirtualMachineToNodeMetadataTest
         assertEquals(node.getPrivateAddresses().iterator().next(), nic.getIp());
     }
 
+    public void testApplyAllFetchesSharedParentsOnce()
+    {
+        AtomicInteger vappRequests = new AtomicInteger();
+        AtomicInteger templateRequests = new AtomicInteger();
+        AtomicInteger nicRequests = new AtomicInteger();
+
+        VirtualAppliance vapp1 = EasyMock.createMock(VirtualAppliance.class);
+        VirtualAppliance vapp2 = EasyMock.createMock(VirtualAppliance.class);
+        expect(vapp1.getName()).andReturn("VAPP1");
+        expect(vapp2.getName()).andReturn("VAPP2");
+        replay(vapp1, vapp2);
+
+        List<VirtualMachine> vms = Lists.newArrayList();
+        for (int i = 0; i < 10; i++)
+        {
+            VirtualAppliance vapp = i % 2 == 0 ? vapp1 : vapp2;
+            vms.add(countingVirtualMachine(i, vapp, vappRequests, templateRequests, nicRequests));
+        }
+
+        VirtualMachineToNodeMetadata bulkFunction =
+            new VirtualMachineToNodeMetadata(sharedTemplateToImage(),
+                templateToHardware(),
+                sharedStateToNodeState(),
+                datacenterToLocation(),
+                MoreExecutors.sameThreadExecutor(),
+                3);
+
+        List<NodeMetadata> nodes = bulkFunction.applyAll(vms);
+
+        verify(vapp1, vapp2);
+        assertEquals(vappRequests.get(), 2);
+        assertEquals(templateRequests.get(), 1);
+        assertEquals(nicRequests.get(), vms.size());
+
+        assertEquals(nodes.size(), vms.size());
+        for (int i = 0; i < nodes.size(); i++)
+        {
+            assertEquals(nodes.get(i).getId(), String.valueOf(i));
+            assertEquals(nodes.get(i).getGroup(), i % 2 == 0 ? "VAPP1" : "VAPP2");
+            assertEquals(nodes.get(i).getImageId(), "1");
+        }
+    }
+
+    public void testApplyGetsTheCurrentState()
+    {
+        // The state of a virtual machine that has just been deployed is outdated
+        vm.setState(VirtualMachineState.NOT_ALLOCATED);
+
+        VirtualMachineStateToNodeState stateToNodeState =
+            EasyMock.createMock(VirtualMachineStateToNodeState.class);
+        expect(stateToNodeState.apply(VirtualMachineState.ON)).andReturn(NodeState.RUNNING);
+        replay(stateToNodeState);
+
+        VirtualMachineToNodeMetadata stateFunction =
+            new VirtualMachineToNodeMetadata(templateToImage(),
+                templateToHardware(),
+                stateToNodeState,
+                datacenterToLocation(),
+                MoreExecutors.sameThreadExecutor(),
+                10);
+
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine mockVm = mockVirtualMachine(vapp);
+
+        NodeMetadata node = stateFunction.apply(mockVm);
+
+        verify(mockVm, stateToNodeState);
+        assertEquals(node.getState(), NodeState.RUNNING);
+    }
+
     private VirtualMachineTemplateToImage templateToImage()
     {
         VirtualMachineTemplateToImage templateToImage =
@@ -141,6 +219,85 @@ public class VirtualMachineToNodeMetadataTest
         return stateToNodeState;
     }
 
+    private VirtualMachineTemplateToImage sharedTemplateToImage()
+    {
+        VirtualMachineTemplateToImage templateToImage =
+            EasyMock.createMock(VirtualMachineTemplateToImage.class);
+        Image image = EasyMock.createMock(Image.class);
+
+        expect(image.getId()).andStubReturn("1");
+        expect(image.getOperatingSystem()).andStubReturn(null);
+        expect(templateToImage.apply(anyObject(VirtualMachineTemplate.class))).andReturn(image);
+
+        replay(image);
+        replay(templateToImage);
+
+        return templateToImage;
+    }
+
+    private VirtualMachineStateToNodeState sharedStateToNodeState()
+    {
+        VirtualMachineStateToNodeState stateToNodeState =
+            EasyMock.createMock(VirtualMachineStateToNodeState.class);
+        expect(stateToNodeState.apply(anyObject(VirtualMachineState.class))).andStubReturn(
+            NodeState.RUNNING);
+        replay(stateToNodeState);
+        return stateToNodeState;
+    }
+
+    @SuppressWarnings("unchecked")
+    private VirtualMachine countingVirtualMachine(final int id, final VirtualAppliance vapp,
+        final AtomicInteger vappRequests, final AtomicInteger templateRequests,
+        final AtomicInteger nicRequests)
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setName("VM" + id);
+        dto.setId(id);
+        dto.setState(VirtualMachineState.ON);
+        dto.addLink(new RESTLink("edit", "http://foo/bar/" + id));
+        dto.addLink(new RESTLink(ParentLinkName.VIRTUAL_APPLIANCE, "http://foo/vapp/" + id % 2));
+        dto.addLink(new RESTLink(ParentLinkName.VIRTUAL_MACHINE_TEMPLATE, "http://foo/template"));
+
+        final Nic mockNic = wrap(EasyMock.createMock(RestContext.class), Nic.class, nic);
+        VirtualMachine mockVm = EasyMock.createMock(VirtualMachine.class);
+
+        expect(mockVm.getId()).andStubReturn(dto.getId());
+        expect(mockVm.getName()).andStubReturn(dto.getName());
+        expect(mockVm.unwrap()).andStubReturn(dto);
+        expect(mockVm.getVirtualAppliance()).andStubAnswer(new IAnswer<VirtualAppliance>()
+        {
+            @Override
+            public VirtualAppliance answer() throws Throwable
+            {
+                vappRequests.incrementAndGet();
+                return vapp;
+            }
+        });
+        expect(mockVm.getTemplate()).andStubAnswer(new IAnswer<VirtualMachineTemplate>()
+        {
+            @Override
+            public VirtualMachineTemplate answer() throws Throwable
+            {
+                templateRequests.incrementAndGet();
+                return null;
+            }
+        });
+        expect(mockVm.listAttachedNics()).andStubAnswer(new IAnswer<List<Nic>>()
+        {
+            @Override
+            public List<Nic> answer() throws Throwable
+            {
+                nicRequests.incrementAndGet();
+                return ImmutableList.<Nic> of(mockNic);
+            }
+        });
+
+        // The state must be read from the listed object
+        replay(mockVm);
+
+        return mockVm;
+    }
+
     @SuppressWarnings("unchecked")
     private VirtualMachine mockVirtualMachine(final VirtualAppliance vapp)
     {
@@ -152,11 +309,11 @@ public class VirtualMachineToNodeMetadataTest
         expect(mockVm.getId()).andReturn(vm.getId());
         expect(mockVm.getName()).andReturn(vm.getName());
         expect(mockVm.getName()).andReturn(vm.getName());
-        expect(mockVm.unwrap()).andReturn(vm);
+        expect(mockVm.unwrap()).andReturn(vm).anyTimes();
         expect(mockVm.getTemplate()).andReturn(null);
-        expect(mockVm.getState()).andReturn(vm.getState());
         expect(mockVm.listAttachedNics()).andReturn(ImmutableList.<Nic> of(mockNic));
         expect(mockVm.getVirtualAppliance()).andReturn(vapp);
+        expect(mockVm.getState()).andReturn(VirtualMachineState.ON);
         expect(vapp.getName()).andReturn("VAPP");
 
         replay(mockVm);
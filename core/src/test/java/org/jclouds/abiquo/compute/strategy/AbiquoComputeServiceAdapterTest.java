@@ -0,0 +1,430 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoAsyncClient;
+import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.compute.options.AbiquoTemplateOptions;
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceAdapter.GroupContext;
+import org.jclouds.abiquo.compute.strategy.AbiquoComputeServiceAdapter.GroupCreation;
+import org.jclouds.abiquo.compute.strategy.VirtualDatacenterPlacement.Resources;
+import org.jclouds.abiquo.domain.DomainWrapper;
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.task.AsyncTask;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent.Type;
+import org.jclouds.abiquo.features.services.AdministrationService;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
+import org.jclouds.abiquo.rest.internal.AbiquoHttpClient;
+import org.jclouds.abiquo.rest.internal.ExtendedUtils;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.RestContext;
+import org.jclouds.xml.XMLParser;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link AbiquoComputeServiceAdapter} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class AbiquoComputeServiceAdapterTest
+{
+    private static final XMLParser XML = new JAXBParser("false");
+
+    public void testCreateNodesInNewVirtualApplianceDeploysTheVirtualAppliance()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        expect(vapp.deploy()).andReturn(new AsyncTask[] {});
+        VirtualMachine vm1 = EasyMock.createMock(VirtualMachine.class);
+        VirtualMachine vm2 = EasyMock.createMock(VirtualMachine.class);
+        replay(vapp, vm1, vm2);
+
+        MonitoringService monitoringService = mockMonitoringService(Type.COMPLETED, vm1, vm2);
+
+        GroupCreation result =
+            adapter(monitoringService, vapp, true, ImmutableMap.of("node-1", vm1, "node-2", vm2))
+                .createNodesWithGroupEncodedIntoName("group", names(), template());
+
+        assertEquals(result.getDeployed(), ImmutableList.of(vm1, vm2));
+        assertTrue(result.getNotDeployed().isEmpty());
+        assertTrue(result.getNotCreated().isEmpty());
+        verify(vapp, vm1, vm2, monitoringService);
+    }
+
+    public void testCreateNodesInExistingVirtualApplianceDeploysEachVirtualMachine()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm1 = EasyMock.createMock(VirtualMachine.class);
+        VirtualMachine vm2 = EasyMock.createMock(VirtualMachine.class);
+        expect(vm1.deploy()).andReturn(null);
+        expect(vm2.deploy()).andReturn(null);
+        replay(vapp, vm1, vm2);
+
+        MonitoringService monitoringService = mockMonitoringService(Type.COMPLETED, vm1, vm2);
+
+        GroupCreation result =
+            adapter(monitoringService, vapp, false, ImmutableMap.of("node-1", vm1, "node-2", vm2))
+                .createNodesWithGroupEncodedIntoName("group", names(), template());
+
+        assertEquals(result.getDeployed(), ImmutableList.of(vm1, vm2));
+        assertTrue(result.getNotDeployed().isEmpty());
+        assertTrue(result.getNotCreated().isEmpty());
+        verify(vapp, vm1, vm2, monitoringService);
+    }
+
+    public void testReportNodesThatCouldNotBeCreated()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm1 = EasyMock.createMock(VirtualMachine.class);
+        expect(vm1.deploy()).andReturn(null);
+        replay(vapp, vm1);
+
+        MonitoringService monitoringService = mockMonitoringService(Type.COMPLETED, vm1);
+        Capture<Resources> released = new Capture<Resources>();
+        AbiquoComputeServiceHelper helper = mockHelper(released);
+
+        GroupCreation result =
+            adapter(monitoringService, helper, vapp, false, ImmutableMap.of("node-1", vm1))
+                .createNodesWithGroupEncodedIntoName("group", names(), template());
+
+        assertEquals(result.getDeployed(), ImmutableList.of(vm1));
+        assertTrue(result.getNotDeployed().isEmpty());
+        assertEquals(result.getNotCreated().keySet(), ImmutableSet.of("node-2"));
+        // The resources reserved for the node that could not be created are given back
+        assertEquals(released.getValue().cpu, 2L);
+        verify(vapp, vm1, monitoringService, helper);
+    }
+
+    public void testReportNodesThatCouldNotBeDeployed()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm1 = EasyMock.createMock(VirtualMachine.class);
+        VirtualMachine vm2 = EasyMock.createMock(VirtualMachine.class);
+        expect(vm1.deploy()).andReturn(null);
+        expect(vm2.deploy()).andThrow(new IllegalStateException("deploy failed"));
+        replay(vapp, vm1, vm2);
+
+        MonitoringService monitoringService = mockMonitoringService(Type.COMPLETED, vm1);
+
+        GroupCreation result =
+            adapter(monitoringService, vapp, false, ImmutableMap.of("node-1", vm1, "node-2", vm2))
+                .createNodesWithGroupEncodedIntoName("group", names(), template());
+
+        assertEquals(result.getDeployed(), ImmutableList.of(vm1));
+        assertEquals(result.getNotDeployed().keySet(), ImmutableSet.of(vm2));
+        assertTrue(result.getNotCreated().isEmpty());
+        verify(vapp, vm1, vm2, monitoringService);
+    }
+
+    public void testReportNodesWithFailedDeployTasks()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        expect(vapp.deploy()).andReturn(new AsyncTask[] {});
+        VirtualMachine vm1 = EasyMock.createMock(VirtualMachine.class);
+        replay(vapp, vm1);
+
+        MonitoringService monitoringService = mockMonitoringService(Type.FAILED, vm1);
+
+        GroupCreation result =
+            adapter(monitoringService, vapp, true, ImmutableMap.of("node-1", vm1))
+                .createNodesWithGroupEncodedIntoName("group", ImmutableList.of("node-1"),
+                    template());
+
+        assertTrue(result.getDeployed().isEmpty());
+        assertEquals(result.getNotDeployed().keySet(), ImmutableSet.of(vm1));
+        verify(vapp, vm1, monitoringService);
+    }
+
+    public void testDeleteNewVirtualApplianceIfNoNodeIsCreated()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        vapp.delete();
+        replay(vapp);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        replay(monitoringService);
+        Capture<Resources> released = new Capture<Resources>();
+        AbiquoComputeServiceHelper helper = mockHelper(released);
+
+        GroupCreation result =
+            adapter(monitoringService, helper, vapp, true,
+                ImmutableMap.<String, VirtualMachine> of()).createNodesWithGroupEncodedIntoName(
+                "group", names(), template());
+
+        assertTrue(result.getDeployed().isEmpty());
+        assertEquals(result.getNotCreated().size(), 2);
+        assertEquals(released.getValue().cpu, 4L);
+        verify(vapp, monitoringService, helper);
+    }
+
+    public void testDoNotReleaseResourcesThatWereNotReserved()
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        vapp.delete();
+        replay(vapp);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        replay(monitoringService);
+        // No resources are released if they were not reserved
+        AbiquoComputeServiceHelper helper = EasyMock.createMock(AbiquoComputeServiceHelper.class);
+        replay(helper);
+
+        GroupCreation result =
+            adapter(monitoringService, helper, vapp, true, false,
+                ImmutableMap.<String, VirtualMachine> of()).createNodesWithGroupEncodedIntoName(
+                "group", names(), template());
+
+        assertEquals(result.getNotCreated().size(), 2);
+        verify(vapp, monitoringService, helper);
+    }
+
+    private static List<String> names()
+    {
+        return ImmutableList.of("node-1", "node-2");
+    }
+
+    private static Template template()
+    {
+        Template template = EasyMock.createMock(Template.class);
+        expect(template.getOptions()).andStubReturn(new AbiquoTemplateOptions());
+        replay(template);
+        return template;
+    }
+
+    private static MonitoringService mockMonitoringService(final Type type,
+        final VirtualMachine... vms)
+    {
+        List<ListenableFuture<MonitorEvent<VirtualMachine>>> events = Lists.newArrayList();
+        for (VirtualMachine vm : vms)
+        {
+            events.add(Futures.immediateFuture(new MonitorEvent<VirtualMachine>(type, vm)));
+        }
+
+        VirtualMachineMonitor monitor = EasyMock.createMock(VirtualMachineMonitor.class);
+        expect(monitor.monitorDeployAsync(EasyMock.aryEq(vms))).andReturn(events);
+        replay(monitor);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        expect(monitoringService.getVirtualMachineMonitor()).andReturn(monitor);
+        replay(monitoringService);
+        return monitoringService;
+    }
+
+    public void testGetKnownNodeFetchesItByEditLink() throws IOException
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.links.put(5, editLink(5));
+
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(EasyMock.anyObject(RESTLink.class))).andReturn(virtualMachine(5));
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(http, cloudService);
+
+        VirtualMachine vm = adapter(context(http), cloudService, index).getNode("5");
+
+        // A single request, and the cloud is not searched
+        verify(http, cloudService);
+        assertEquals(vm.getId(), Integer.valueOf(5));
+        assertEquals(index.getEditLink(5).getHref(), editLink(5).getHref());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testGetKnownNodeSearchesItIfTheEditLinkIsNotFound()
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.links.put(5, editLink(5));
+
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(EasyMock.anyObject(RESTLink.class))).andReturn(null);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        expect(cloudService.findVirtualMachine(EasyMock.anyObject(Predicate.class))).andReturn(
+            null);
+        replay(http, cloudService);
+
+        assertNull(adapter(context(http), cloudService, index).getNode("5"));
+
+        verify(http, cloudService);
+        // The stale entry is evicted from the index
+        assertNull(index.getEditLink(5));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testGetUnknownNodeSearchesAndIndexesIt() throws IOException
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        RestContext<AbiquoClient, AbiquoAsyncClient> context = context(http);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        expect(cloudService.findVirtualMachine(EasyMock.anyObject(Predicate.class))).andReturn(
+            DomainWrapper.wrap(context, VirtualMachine.class, virtualMachineDto(5)));
+        replay(http, cloudService);
+
+        VirtualMachine vm = adapter(context, cloudService, index).getNode("5");
+
+        verify(http, cloudService);
+        assertEquals(vm.getId(), Integer.valueOf(5));
+        assertEquals(index.getEditLink(5).getHref(), editLink(5).getHref());
+    }
+
+    private static RESTLink editLink(final int id)
+    {
+        return new RESTLink("edit", "http://localhost/api/cloud/virtualdatacenters/1/"
+            + "virtualappliances/1/virtualmachines/" + id);
+    }
+
+    private static VirtualMachineDto virtualMachineDto(final int id)
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setId(id);
+        dto.setName("VM" + id);
+        dto.addLink(editLink(id));
+        return dto;
+    }
+
+    private static HttpResponse virtualMachine(final int id) throws IOException
+    {
+        return HttpResponse.builder().statusCode(200).message("OK")
+            .payload(Payloads.newStringPayload(XML.toXML(virtualMachineDto(id)))).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RestContext<AbiquoClient, AbiquoAsyncClient> context(
+        final AbiquoHttpClient http)
+    {
+        ExtendedUtils utils = EasyMock.createMock(ExtendedUtils.class);
+        expect(utils.getAbiquoHttpClient()).andStubReturn(http);
+        expect(utils.getXml()).andStubReturn(XML);
+        RestContext<AbiquoClient, AbiquoAsyncClient> context =
+            EasyMock.createMock(RestContext.class);
+        expect(context.getUtils()).andStubReturn(utils);
+        replay(utils, context);
+        return context;
+    }
+
+    private static AbiquoComputeServiceAdapter adapter(
+        final RestContext<AbiquoClient, AbiquoAsyncClient> context,
+        final CloudService cloudService, final VirtualMachineIndex index)
+    {
+        return new AbiquoComputeServiceAdapter(context,
+            EasyMock.createMock(AdministrationService.class), cloudService,
+            EasyMock.createMock(MonitoringService.class),
+            EasyMock.createMock(AbiquoComputeServiceHelper.class),
+            MoreExecutors.sameThreadExecutor(), index,
+            EasyMock.createMock(VirtualMachineTeardown.class), 0L);
+    }
+
+    private static AbiquoComputeServiceHelper mockHelper(final Capture<Resources> released)
+    {
+        AbiquoComputeServiceHelper helper = EasyMock.createMock(AbiquoComputeServiceHelper.class);
+        helper.releaseResources(EasyMock.<VirtualDatacenter> anyObject(),
+            EasyMock.capture(released));
+        replay(helper);
+        return helper;
+    }
+
+    private static AbiquoComputeServiceAdapter adapter(final MonitoringService monitoringService,
+        final VirtualAppliance vapp, final boolean newVirtualAppliance,
+        final Map<String, VirtualMachine> vms)
+    {
+        // No resources are released when all the nodes are created
+        AbiquoComputeServiceHelper helper = EasyMock.createMock(AbiquoComputeServiceHelper.class);
+        replay(helper);
+        return adapter(monitoringService, helper, vapp, newVirtualAppliance, vms);
+    }
+
+    private static AbiquoComputeServiceAdapter adapter(final MonitoringService monitoringService,
+        final AbiquoComputeServiceHelper helper, final VirtualAppliance vapp,
+        final boolean newVirtualAppliance, final Map<String, VirtualMachine> vms)
+    {
+        return adapter(monitoringService, helper, vapp, newVirtualAppliance, true, vms);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AbiquoComputeServiceAdapter adapter(final MonitoringService monitoringService,
+        final AbiquoComputeServiceHelper helper, final VirtualAppliance vapp,
+        final boolean newVirtualAppliance, final boolean reserved,
+        final Map<String, VirtualMachine> vms)
+    {
+        final GroupContext groupContext =
+            new GroupContext(EasyMock.createMock(VirtualDatacenter.class), vapp,
+                EasyMock.createMock(VirtualMachineTemplate.class), newVirtualAppliance,
+                new Resources(2, 1024, 10), reserved);
+
+        return new AbiquoComputeServiceAdapter(EasyMock.createMock(RestContext.class),
+            EasyMock.createMock(AdministrationService.class),
+            EasyMock.createMock(CloudService.class), monitoringService, helper,
+            MoreExecutors.sameThreadExecutor(), new VirtualMachineIndex(),
+            EasyMock.createMock(VirtualMachineTeardown.class), 0L)
+        {
+            @Override
+            GroupContext resolveGroup(final String tag, final Template template,
+                final AbiquoTemplateOptions options, final int count)
+            {
+                return groupContext;
+            }
+
+            @Override
+            VirtualMachine createVirtualMachine(final GroupContext group, final String name,
+                final Template template, final AbiquoTemplateOptions options)
+            {
+                VirtualMachine vm = vms.get(name);
+                if (vm == null)
+                {
+                    throw new IllegalStateException("could not create " + name);
+                }
+                return vm;
+            }
+        };
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.compute.strategy.VirtualDatacenterPlacement.Resources;
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.infrastructure.Datacenter;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.enumerator.DiskFormatType;
+import com.abiquo.model.enumerator.HypervisorType;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link VirtualDatacenterPlacement} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class VirtualDatacenterPlacementTest
+{
+    private static final long MB = 1024 * 1024;
+
+    public void testCompatibleVirtualDatacentersAreCached()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 0, 0, 0);
+        CloudService cloudService = mockCloudService(1, vdc);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+        DiskFormatType format = compatibleFormat(HypervisorType.KVM);
+
+        assertEquals(placement.listCompatibleVirtualDatacenters(datacenter, format),
+            ImmutableList.of(vdc));
+        assertEquals(placement.listCompatibleVirtualDatacenters(datacenter, format),
+            ImmutableList.of(vdc));
+
+        verify(cloudService);
+    }
+
+    public void testInvalidateReloadsCompatibleVirtualDatacenters()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 0, 0, 0);
+        CloudService cloudService = mockCloudService(2, vdc);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+        DiskFormatType format = compatibleFormat(HypervisorType.KVM);
+
+        placement.listCompatibleVirtualDatacenters(datacenter, format);
+        placement.invalidate(datacenter);
+        placement.listCompatibleVirtualDatacenters(datacenter, format);
+
+        verify(cloudService);
+    }
+
+    public void testDisabledCacheAlwaysLoads()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 1, 1, 1);
+        CloudService cloudService = mockCloudService(2, vdc);
+        Resources required = Resources.of(2, 2, 2 * MB);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 0L);
+
+        // Resources are not checked when the cache is disabled
+        assertSame(placement.select(datacenter, mockTemplate(), required), vdc);
+        assertSame(placement.select(datacenter, mockTemplate(), required), vdc);
+
+        verify(cloudService);
+    }
+
+    public void testSelectVirtualDatacenterWithEnoughResources()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualMachine vm = mockVirtualMachine(2, 1024, 0);
+        VirtualDatacenter full = mockVirtualDatacenter(1, 2, 0, 0, vm);
+        VirtualDatacenter empty = mockVirtualDatacenter(2, 2, 0, 0);
+        CloudService cloudService = mockCloudService(1, full, empty);
+        Resources required = Resources.of(1, 512, 0);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertSame(placement.select(datacenter, mockTemplate(), required), empty);
+        assertSame(placement.select(datacenter, mockTemplate(), required), empty);
+        assertNull(placement.select(datacenter, mockTemplate(), required));
+
+        verify(cloudService);
+    }
+
+    public void testNotAllocatedVirtualMachinesDoNotUseResources()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualMachine vm = mockVirtualMachine(2, 1024, 0, VirtualMachineState.NOT_ALLOCATED);
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 2, 0, 0, vm);
+        CloudService cloudService = mockCloudService(1, vdc);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertSame(placement.select(datacenter, mockTemplate(), Resources.of(2, 1024, 0)), vdc);
+
+        verify(cloudService);
+    }
+
+    public void testSelectVirtualDatacenterWithRoomForAllTheNodes()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        VirtualDatacenter small = mockVirtualDatacenter(1, 2, 0, 0);
+        VirtualDatacenter large = mockVirtualDatacenter(2, 8, 0, 0);
+        CloudService cloudService = mockCloudService(1, small, large);
+        Resources perNode = Resources.of(1, 512, 0);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertSame(placement.select(datacenter, mockTemplate(), perNode.times(5)), large);
+        assertSame(placement.select(datacenter, mockTemplate(), perNode.times(2)), small);
+        assertNull(placement.select(datacenter, mockTemplate(), perNode.times(4)));
+
+        verify(cloudService);
+    }
+
+    public void testReserveWithoutLimits()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 0, 0, 0);
+        Resources required = Resources.of(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(cloudService);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertTrue(placement.reserve(vdc, required));
+        assertTrue(placement.reserve(vdc, required));
+        placement.release(vdc.getId(), required);
+        assertTrue(placement.reserve(vdc, required));
+    }
+
+    public void testReleaseGivesBackReservedResources()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 4, 0, 0);
+        Resources required = Resources.of(1, 0, 0).times(4);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(cloudService);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertTrue(placement.reserve(vdc, required));
+        assertFalse(placement.reserve(vdc, required));
+        placement.release(vdc.getId(), required);
+        assertTrue(placement.reserve(vdc, required));
+    }
+
+    public void testRefreshComputesTheAvailableResourcesAgain()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter(1, 4, 0, 0);
+        Resources required = Resources.of(4, 0, 0);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(cloudService);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertTrue(placement.reserve(vdc, required));
+        placement.refresh(vdc.getId());
+        assertTrue(placement.reserve(vdc, required));
+    }
+
+    public void testHeadroom()
+    {
+        VirtualDatacenterPlacement.Headroom headroom =
+            new VirtualDatacenterPlacement.Headroom(4, 2048, 10);
+        headroom.allocate(new Resources(2, 1024, 5));
+
+        assertFalse(headroom.reserve(new Resources(3, 512, 1)));
+        assertFalse(headroom.reserve(new Resources(1, 2048, 1)));
+        assertFalse(headroom.reserve(new Resources(1, 512, 6)));
+        assertTrue(headroom.reserve(new Resources(2, 1024, 5)));
+        assertFalse(headroom.reserve(new Resources(1, 0, 0)));
+        headroom.release(new Resources(1, 0, 0));
+        assertTrue(headroom.reserve(new Resources(1, 0, 0)));
+    }
+
+    public void testUnavailableHypervisorsAreRemembered()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        Datacenter other = mockDatacenter(2);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(cloudService);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 60000L);
+
+        assertTrue(placement.isAvailable(datacenter, HypervisorType.KVM));
+        placement.markUnavailable(datacenter, HypervisorType.KVM);
+        assertFalse(placement.isAvailable(datacenter, HypervisorType.KVM));
+        assertTrue(placement.isAvailable(datacenter, HypervisorType.XENSERVER));
+        assertTrue(placement.isAvailable(other, HypervisorType.KVM));
+    }
+
+    public void testUnavailableHypervisorsAreNotRememberedIfCacheIsDisabled()
+    {
+        Datacenter datacenter = mockDatacenter(1);
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        replay(cloudService);
+
+        VirtualDatacenterPlacement placement = new VirtualDatacenterPlacement(cloudService, 0L);
+
+        placement.markUnavailable(datacenter, HypervisorType.KVM);
+        assertTrue(placement.isAvailable(datacenter, HypervisorType.KVM));
+    }
+
+    private static DiskFormatType compatibleFormat(final HypervisorType type)
+    {
+        for (DiskFormatType format : DiskFormatType.values())
+        {
+            if (type.isCompatible(format))
+            {
+                return format;
+            }
+        }
+        throw new IllegalStateException("No disk format compatible with " + type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CloudService mockCloudService(final int numCalls,
+        final VirtualDatacenter... vdcs)
+    {
+        CloudService cloudService = EasyMock.createMock(CloudService.class);
+        expect(cloudService.listVirtualDatacenters(anyObject(Predicate.class))).andReturn(
+            ImmutableList.copyOf(vdcs)).times(numCalls);
+        replay(cloudService);
+        return cloudService;
+    }
+
+    private static Datacenter mockDatacenter(final int id)
+    {
+        Datacenter datacenter = EasyMock.createMock(Datacenter.class);
+        expect(datacenter.getId()).andStubReturn(id);
+        replay(datacenter);
+        return datacenter;
+    }
+
+    private static VirtualDatacenter mockVirtualDatacenter(final int id, final int cpu,
+        final int ram, final long hd, final VirtualMachine... vms)
+    {
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        List<VirtualMachine> vmList = ImmutableList.copyOf(vms);
+        expect(vapp.listVirtualMachines()).andStubReturn(vmList);
+        replay(vapp);
+
+        VirtualDatacenter vdc = EasyMock.createMock(VirtualDatacenter.class);
+        List<VirtualAppliance> vapps = ImmutableList.of(vapp);
+        expect(vdc.getId()).andStubReturn(id);
+        expect(vdc.getName()).andStubReturn("vdc" + id);
+        expect(vdc.getHypervisorType()).andStubReturn(HypervisorType.KVM);
+        expect(vdc.getCpuCountHardLimit()).andStubReturn(cpu);
+        expect(vdc.getRamHardLimitInMb()).andStubReturn(ram);
+        expect(vdc.getHdHardLimitInMb()).andStubReturn(hd);
+        expect(vdc.listVirtualAppliances()).andStubReturn(vapps);
+        replay(vdc);
+        return vdc;
+    }
+
+    private static VirtualMachine mockVirtualMachine(final int cpu, final int ram, final long hd)
+    {
+        return mockVirtualMachine(cpu, ram, hd, VirtualMachineState.ON);
+    }
+
+    private static VirtualMachine mockVirtualMachine(final int cpu, final int ram, final long hd,
+        final VirtualMachineState state)
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setState(state);
+
+        VirtualMachine vm = EasyMock.createMock(VirtualMachine.class);
+        expect(vm.unwrap()).andStubReturn(dto);
+        expect(vm.getCpu()).andStubReturn(cpu);
+        expect(vm.getRam()).andStubReturn(ram);
+        expect(vm.getHdInBytes()).andStubReturn(hd);
+        replay(vm);
+        return vm;
+    }
+
+    private static VirtualMachineTemplate mockTemplate()
+    {
+        VirtualMachineTemplate template = EasyMock.createMock(VirtualMachineTemplate.class);
+        expect(template.getDiskFormatType()).andStubReturn(compatibleFormat(HypervisorType.KVM));
+        replay(template);
+        return template;
+    }
+}
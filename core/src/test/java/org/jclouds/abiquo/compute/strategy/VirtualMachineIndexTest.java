@@ -0,0 +1,88 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.rest.RestContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for the {@link VirtualMachineIndex} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class VirtualMachineIndexTest
+{
+    public void testPutAndGet()
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.put(vm(5));
+
+        assertEquals(index.getEditLink(5).getHref(), "http://localhost/api/vms/5");
+        assertNull(index.getEditLink(6));
+    }
+
+    public void testPutAll()
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.putAll(ImmutableList.of(vm(5), vm(6)));
+
+        assertEquals(index.links.size(), 2);
+        assertEquals(index.getEditLink(6).getHref(), "http://localhost/api/vms/6");
+    }
+
+    public void testDoNotIndexVirtualMachinesWithoutEditLink()
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setId(5);
+
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.put(wrap(EasyMock.createMock(RestContext.class), VirtualMachine.class, dto));
+
+        assertEquals(index.links.size(), 0);
+    }
+
+    public void testRemove()
+    {
+        VirtualMachineIndex index = new VirtualMachineIndex();
+        index.put(vm(5));
+        index.remove(5);
+
+        assertNull(index.getEditLink(5));
+    }
+
+    private static VirtualMachine vm(final int id)
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setId(id);
+        dto.addLink(new RESTLink("edit", "http://localhost/api/vms/" + id));
+        return wrap(EasyMock.createMock(RestContext.class), VirtualMachine.class, dto);
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.jclouds.abiquo.compute.strategy.VirtualMachineTeardown.VirtualMachineUnlockMonitor;
+import org.jclouds.abiquo.domain.cloud.VirtualAppliance;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.task.AsyncTask;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent.Type;
+import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
+import org.jclouds.abiquo.reference.rest.ParentLinkName;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualDatacenterDto;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.abiquo.server.core.cloud.VirtualMachineState;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link VirtualMachineTeardown} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class VirtualMachineTeardownTest
+{
+    public void testDeleteNotDeployedVirtualMachines()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualMachine vm1 = vm(1, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        VirtualMachine vm2 = vm(2, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        vm1.delete();
+        vm2.delete();
+        replay(vm1, vm2);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        replay(monitoringService);
+
+        teardown(monitoringService).destroy(ImmutableList.of(vm1, vm2));
+
+        verify(vm1, vm2, monitoringService);
+    }
+
+    public void testUndeployThenDelete()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm = vm(1, VirtualMachineState.ON, vdc, vapp);
+        expect(vm.undeploy()).andReturn(null);
+        vm.delete();
+        replay(vm, vapp);
+
+        MonitoringService monitoringService =
+            mockMonitoringService(ImmutableList.of(completed(vm)));
+
+        teardown(monitoringService).destroy(ImmutableList.of(vm));
+
+        verify(vm, vapp, monitoringService);
+    }
+
+    public void testUndeployWholeVirtualAppliance()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm1 = vm(1, VirtualMachineState.ON, vdc, vapp);
+        VirtualMachine vm2 = vm(2, VirtualMachineState.ON, vdc, vapp);
+        vm1.delete();
+        vm2.delete();
+
+        expect(vapp.getName()).andStubReturn("VAPP");
+        expect(vapp.listVirtualMachines()).andReturn(ImmutableList.of(vm1, vm2));
+        expect(vapp.undeploy()).andReturn(new AsyncTask[] {});
+        replay(vm1, vm2, vapp);
+
+        MonitoringService monitoringService =
+            mockMonitoringService(ImmutableList.of(completed(vm1), completed(vm2)));
+
+        teardown(monitoringService).destroy(ImmutableList.of(vm1, vm2));
+
+        // The virtual machines must not be undeployed one by one
+        verify(vm1, vm2, vapp, monitoringService);
+    }
+
+    public void testDoNotDeleteIfUndeployFails()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        VirtualMachine vm = vm(1, VirtualMachineState.ON, vdc, vapp);
+        expect(vm.undeploy()).andReturn(null);
+        replay(vm, vapp);
+
+        MonitoringService monitoringService =
+            mockMonitoringService(ImmutableList.of(Futures
+                .immediateFuture(new MonitorEvent<VirtualMachine>(Type.FAILED, vm))));
+
+        try
+        {
+            teardown(monitoringService).destroy(ImmutableList.of(vm));
+            fail("The teardown should have failed");
+        }
+        catch (IllegalStateException ex)
+        {
+            // Expected
+        }
+
+        verify(vm, vapp, monitoringService);
+    }
+
+    public void testWaitForLockedVirtualMachinesBeforeUndeploying()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualAppliance vapp = EasyMock.createMock(VirtualAppliance.class);
+        final VirtualMachine vm = vm(1, VirtualMachineState.LOCKED, vdc, vapp);
+        expect(vm.undeploy()).andReturn(null);
+        vm.delete();
+        replay(vm, vapp);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        monitoringService.awaitCompletion(EasyMock.isA(VirtualMachineUnlockMonitor.class),
+            EasyMock.aryEq(new VirtualMachine[] {vm}));
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Void>()
+        {
+            @Override
+            public Void answer() throws Throwable
+            {
+                // The deploy finishes while waiting
+                vm.unwrap().setState(VirtualMachineState.ON);
+                return null;
+            }
+        });
+        expect(monitoringService.getVirtualMachineMonitor()).andReturn(
+            mockVirtualMachineMonitor(ImmutableList.of(completed(vm))));
+        replay(monitoringService);
+
+        teardown(monitoringService).destroy(ImmutableList.of(vm));
+
+        verify(vm, vapp, monitoringService);
+    }
+
+    public void testDoNotUndeployNorDeleteVirtualMachinesThatAreStillLocked()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualMachine locked = vm(1, VirtualMachineState.LOCKED, vdc, null);
+        VirtualMachine vm = vm(2, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        vm.delete();
+        replay(locked, vm);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        monitoringService.awaitCompletion(EasyMock.isA(VirtualMachineUnlockMonitor.class),
+            EasyMock.aryEq(new VirtualMachine[] {locked}));
+        replay(monitoringService);
+
+        try
+        {
+            teardown(monitoringService).destroy(ImmutableList.of(locked, vm));
+            fail("The teardown should have failed");
+        }
+        catch (IllegalStateException ex)
+        {
+            // Expected
+        }
+
+        // The other virtual machines are destroyed anyway
+        verify(locked, vm, monitoringService);
+    }
+
+    public void testPermitsArePerDatacenter()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualMachine vm1 = vm(1, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        VirtualMachine vm2 = vm(2, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        replay(vm1, vm2);
+
+        VirtualMachineTeardown teardown = teardown(EasyMock.createMock(MonitoringService.class));
+
+        assertSame(teardown.permitsFor(vm1), teardown.permitsFor(vm2));
+        assertEquals(teardown.permits.size(), 1);
+        assertEquals(teardown.permitsFor(vm1).availablePermits(), 10);
+    }
+
+    @Test(timeOut = 10000)
+    public void testDeleteWithSinglePermitAndThreadPool()
+    {
+        VirtualDatacenter vdc = mockVirtualDatacenter();
+        VirtualMachine vm1 = vm(1, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        VirtualMachine vm2 = vm(2, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        VirtualMachine vm3 = vm(3, VirtualMachineState.NOT_ALLOCATED, vdc, null);
+        vm1.delete();
+        vm2.delete();
+        vm3.delete();
+        replay(vm1, vm2, vm3);
+
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        replay(monitoringService);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            VirtualMachineTeardown teardown =
+                new VirtualMachineTeardown(monitoringService, executor, 1);
+            teardown.destroy(ImmutableList.of(vm1, vm2, vm3));
+
+            assertEquals(teardown.permitsFor(vm1).availablePermits(), 1);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        verify(vm1, vm2, vm3, monitoringService);
+    }
+
+    private static VirtualMachineTeardown teardown(final MonitoringService monitoringService)
+    {
+        return new VirtualMachineTeardown(monitoringService, MoreExecutors.sameThreadExecutor(),
+            10);
+    }
+
+    private static VirtualDatacenter mockVirtualDatacenter()
+    {
+        VirtualDatacenterDto dto = new VirtualDatacenterDto();
+        dto.addLink(new RESTLink(ParentLinkName.DATACENTER, "http://foo/datacenters/1"));
+
+        VirtualDatacenter vdc = EasyMock.createMock(VirtualDatacenter.class);
+        expect(vdc.unwrap()).andStubReturn(dto);
+        replay(vdc);
+        return vdc;
+    }
+
+    private static VirtualMachine vm(final int id, final VirtualMachineState state,
+        final VirtualDatacenter vdc, final VirtualAppliance vapp)
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        dto.setId(id);
+        dto.setName("VM" + id);
+        dto.setState(state);
+        dto.addLink(new RESTLink(ParentLinkName.VIRTUAL_APPLIANCE, "http://foo/vapps/1"));
+
+        VirtualMachine vm = EasyMock.createMock(VirtualMachine.class);
+        expect(vm.getId()).andStubReturn(id);
+        expect(vm.getName()).andStubReturn(dto.getName());
+        expect(vm.unwrap()).andStubReturn(dto);
+        expect(vm.getVirtualDatacenter()).andStubReturn(vdc);
+        if (vapp != null)
+        {
+            expect(vm.getVirtualAppliance()).andStubReturn(vapp);
+        }
+        return vm;
+    }
+
+    private static ListenableFuture<MonitorEvent<VirtualMachine>> completed(
+        final VirtualMachine vm)
+    {
+        return Futures.immediateFuture(new MonitorEvent<VirtualMachine>(Type.COMPLETED, vm));
+    }
+
+    private static MonitoringService mockMonitoringService(
+        final List<ListenableFuture<MonitorEvent<VirtualMachine>>> futures)
+    {
+        MonitoringService monitoringService = EasyMock.createMock(MonitoringService.class);
+        expect(monitoringService.getVirtualMachineMonitor()).andReturn(
+            mockVirtualMachineMonitor(futures));
+        replay(monitoringService);
+        return monitoringService;
+    }
+
+    private static VirtualMachineMonitor mockVirtualMachineMonitor(
+        final List<ListenableFuture<MonitorEvent<VirtualMachine>>> futures)
+    {
+        VirtualMachineMonitor monitor = EasyMock.createMock(VirtualMachineMonitor.class);
+        expect(monitor.monitorUndeployAsync(EasyMock.<VirtualMachine[]> anyObject())).andReturn(
+            futures);
+        replay(monitor);
+        return monitor;
+    }
+}
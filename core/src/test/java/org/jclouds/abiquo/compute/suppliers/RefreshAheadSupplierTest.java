@@ -0,0 +1,170 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.compute.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link RefreshAheadSupplier} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class RefreshAheadSupplierTest
+{
+    public void testDisabledCacheAlwaysLoads()
+    {
+        CountingSupplier delegate = new CountingSupplier();
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 0L, MoreExecutors.sameThreadExecutor());
+
+        assertNull(supplier.cache);
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        assertEquals(supplier.get(), Integer.valueOf(2));
+    }
+
+    public void testValueIsCached()
+    {
+        CountingSupplier delegate = new CountingSupplier();
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 60000L, MoreExecutors.sameThreadExecutor());
+
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        assertEquals(delegate.numLoads, 1);
+    }
+
+    public void testInvalidate()
+    {
+        CountingSupplier delegate = new CountingSupplier();
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 60000L, MoreExecutors.sameThreadExecutor());
+
+        supplier.get();
+        supplier.invalidate();
+        assertEquals(supplier.get(), Integer.valueOf(2));
+    }
+
+    public void testReturnCachedValueWhileReloading() throws InterruptedException
+    {
+        CountingSupplier delegate = new CountingSupplier();
+        QueueingExecutor executor = new QueueingExecutor();
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 1L, executor);
+
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        Thread.sleep(10L);
+
+        // The reload has been submitted but not run yet
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        assertEquals(executor.tasks.size(), 1);
+
+        executor.runAll();
+        assertEquals(supplier.get(), Integer.valueOf(2));
+    }
+
+    public void testKeepCachedValueIfReloadFails() throws InterruptedException
+    {
+        FailingSupplier delegate = new FailingSupplier();
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 1L, MoreExecutors.sameThreadExecutor());
+
+        assertEquals(supplier.get(), Integer.valueOf(1));
+        Thread.sleep(10L);
+
+        delegate.fail = true;
+        assertEquals(supplier.get(), Integer.valueOf(1));
+    }
+
+    public void testPropagateInitialLoadFailure()
+    {
+        FailingSupplier delegate = new FailingSupplier();
+        delegate.fail = true;
+        RefreshAheadSupplier<Integer> supplier =
+            new RefreshAheadSupplier<Integer>(delegate, 60000L, MoreExecutors.sameThreadExecutor());
+
+        try
+        {
+            supplier.get();
+            fail("The initial load failure should have been propagated");
+        }
+        catch (IllegalStateException ex)
+        {
+            assertEquals(ex.getMessage(), "load failed");
+        }
+    }
+
+    private static class CountingSupplier implements Supplier<Integer>
+    {
+        public int numLoads = 0;
+
+        @Override
+        public Integer get()
+        {
+            return ++numLoads;
+        }
+    }
+
+    private static class FailingSupplier implements Supplier<Integer>
+    {
+        public boolean fail = false;
+
+        @Override
+        public Integer get()
+        {
+            if (fail)
+            {
+                throw new IllegalStateException("load failed");
+            }
+            return 1;
+        }
+    }
+
+    private static class QueueingExecutor implements Executor
+    {
+        public List<Runnable> tasks = Lists.newArrayList();
+
+        @Override
+        public void execute(final Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        public void runAll()
+        {
+            for (Runnable task : tasks)
+            {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.logging.Logger;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Unit tests for the {@link FutureStream} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class FutureStreamTest
+{
+    public void testEmptyStream()
+    {
+        FutureStream<String> stream = newStream();
+        assertFalse(stream.iterator().hasNext());
+    }
+
+    public void testElementsAvailableBeforeAllResponses()
+    {
+        FutureStream<String> stream = newStream();
+        SettableFuture<List<String>> first = SettableFuture.create();
+        SettableFuture<List<String>> second = SettableFuture.create();
+
+        stream.submit(first, identity());
+        stream.submit(second, identity());
+        first.set(ImmutableList.of("a", "b"));
+
+        Iterator<String> it = stream.iterator();
+        assertEquals(it.next(), "a");
+        assertEquals(it.next(), "b");
+        assertEquals(stream.getPending(), 1);
+
+        second.set(ImmutableList.of("c"));
+        assertEquals(it.next(), "c");
+        assertFalse(it.hasNext());
+    }
+
+    public void testPipelinedRequests()
+    {
+        final FutureStream<String> stream = newStream();
+        final SettableFuture<List<String>> nested = SettableFuture.create();
+        SettableFuture<List<String>> parent = SettableFuture.create();
+
+        stream.submit(parent, new Function<List<String>, Iterable<String>>()
+        {
+            @Override
+            public Iterable<String> apply(final List<String> input)
+            {
+                stream.submit(nested, identity());
+                return Collections.emptyList();
+            }
+        });
+
+        parent.set(ImmutableList.of("parent"));
+        assertEquals(stream.getPending(), 1);
+
+        nested.set(ImmutableList.of("child"));
+        assertEquals(Lists.newArrayList(stream), ImmutableList.of("child"));
+    }
+
+    public void testCancelStream()
+    {
+        FutureStream<String> stream = newStream();
+        SettableFuture<List<String>> pending = SettableFuture.create();
+        SettableFuture<List<String>> done = SettableFuture.create();
+
+        stream.submit(pending, identity());
+        stream.submit(done, identity());
+        done.set(ImmutableList.of("a"));
+
+        Iterator<String> it = stream.iterator();
+        assertEquals(it.next(), "a");
+
+        stream.cancel();
+        assertTrue(stream.isCancelled());
+        assertTrue(pending.isCancelled());
+        assertFalse(it.hasNext());
+    }
+
+    public void testFindCancelsOutstandingRequests()
+    {
+        FutureStream<String> stream = newStream();
+        SettableFuture<List<String>> pending = SettableFuture.create();
+        SettableFuture<List<String>> done = SettableFuture.create();
+
+        stream.submit(pending, identity());
+        stream.submit(done, identity());
+        done.set(ImmutableList.of("a", "b"));
+
+        assertEquals(stream.find(Predicates.equalTo("b")), "b");
+        assertTrue(pending.isCancelled());
+        assertEquals(stream.getPending(), 0);
+    }
+
+    public void testFindWithoutResults()
+    {
+        FutureStream<String> stream = newStream();
+        SettableFuture<List<String>> done = SettableFuture.create();
+
+        stream.submit(done, identity());
+        done.set(ImmutableList.of("a", "b"));
+
+        assertNull(stream.find(Predicates.equalTo("c")));
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testFailedRequestsArePropagated()
+    {
+        FutureStream<String> stream = newStream();
+        SettableFuture<List<String>> failed = SettableFuture.create();
+
+        stream.submit(failed, identity());
+        failed.setException(new IllegalStateException());
+
+        stream.iterator().hasNext();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testStreamCanBeConsumedOnce()
+    {
+        FutureStream<String> stream = newStream();
+        stream.iterator();
+        stream.iterator();
+    }
+
+    @Test(timeOut = 10000)
+    public void testMaxTimeBoundsTheWholeStream()
+    {
+        FutureStream<String> stream =
+            new FutureStream<String>(MoreExecutors.sameThreadExecutor(), 200L, Logger.NULL,
+                "test");
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        try
+        {
+            // Each element arrives before the max time, but not the whole stream
+            for (int i = 1; i <= 10; i++)
+            {
+                final SettableFuture<List<String>> future = SettableFuture.create();
+                stream.submit(future, identity());
+                scheduler.schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        future.set(ImmutableList.of("element"));
+                    }
+                }, i * 100L, TimeUnit.MILLISECONDS);
+            }
+
+            Lists.newArrayList(stream);
+            fail("The stream should have timed out");
+        }
+        catch (RuntimeException ex)
+        {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+            assertTrue(stream.isCancelled());
+        }
+        finally
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static FutureStream<String> newStream()
+    {
+        return new FutureStream<String>(MoreExecutors.sameThreadExecutor(), null, Logger.NULL,
+            "test");
+    }
+
+    private static Function<List<String>, Iterable<String>> identity()
+    {
+        return new Function<List<String>, Iterable<String>>()
+        {
+            @Override
+            public Iterable<String> apply(final List<String> input)
+            {
+                return input;
+            }
+        };
+    }
+}
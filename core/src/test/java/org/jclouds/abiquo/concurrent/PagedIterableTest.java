@@ -0,0 +1,157 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Unit tests for the {@link PagedIterable} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class PagedIterableTest
+{
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidPageSize()
+    {
+        new MockPagedIterable(10, 0, 0);
+    }
+
+    public void testEmptyListing()
+    {
+        MockPagedIterable pages = new MockPagedIterable(0, 10, 1);
+        assertFalse(pages.iterator().hasNext());
+        assertEquals(pages.requests, 1);
+    }
+
+    public void testIterateAllPages()
+    {
+        MockPagedIterable pages = new MockPagedIterable(25, 10, 0);
+        List<Integer> elements = Lists.newArrayList(pages);
+
+        assertEquals(elements.size(), 25);
+        assertEquals(elements.get(0).intValue(), 0);
+        assertEquals(elements.get(24).intValue(), 24);
+        // The last page is the first empty one
+        assertEquals(pages.requests, 4);
+    }
+
+    public void testIterateAllPagesIfTheServerLimitsThePageSize()
+    {
+        MockPagedIterable pages = new MockPagedIterable(25, 10, 2);
+        pages.maxPageSize = 4;
+
+        List<Integer> elements = Lists.newArrayList(pages);
+        assertEquals(elements.size(), 25);
+        for (int i = 0; i < elements.size(); i++)
+        {
+            assertEquals(elements.get(i).intValue(), i);
+        }
+    }
+
+    public void testIterateExactPages()
+    {
+        MockPagedIterable pages = new MockPagedIterable(20, 10, 0);
+        assertEquals(Iterables.size(pages), 20);
+        // The last page is empty
+        assertEquals(pages.requests, 3);
+    }
+
+    public void testPrefetchPages()
+    {
+        MockPagedIterable pages = new MockPagedIterable(100, 10, 2);
+        Iterator<Integer> it = pages.iterator();
+
+        it.next();
+        // The first page and the two following ones
+        assertEquals(pages.requests, 3);
+    }
+
+    public void testNoRequestsIfNotIterated()
+    {
+        MockPagedIterable pages = new MockPagedIterable(100, 10, 2);
+        pages.iterator();
+        assertEquals(pages.requests, 0);
+    }
+
+    public void testStopRequestingWhenConsumerStops()
+    {
+        MockPagedIterable pages = new MockPagedIterable(100, 10, 0);
+        Iterables.getFirst(pages, null);
+        assertEquals(pages.requests, 1);
+    }
+
+    public void testStartWith()
+    {
+        MockPagedIterable pages = new MockPagedIterable(100, 10, 0, 95);
+        assertEquals(Lists.newArrayList(pages), ImmutableList.of(95, 96, 97, 98, 99));
+    }
+
+    private static class MockPagedIterable extends PagedIterable<Integer>
+    {
+        private final int total;
+
+        private int requests = 0;
+
+        private int maxPageSize = Integer.MAX_VALUE;
+
+        public MockPagedIterable(final int total, final int pageSize, final int prefetch)
+        {
+            this(total, pageSize, prefetch, 0);
+        }
+
+        public MockPagedIterable(final int total, final int pageSize, final int prefetch,
+            final int startWith)
+        {
+            super(startWith, pageSize, prefetch, null);
+            this.total = total;
+        }
+
+        @Override
+        protected ListenableFuture<List<Integer>> fetch(final int startWith, final int limit)
+        {
+            requests++;
+            if (startWith >= total)
+            {
+                return Futures.<List<Integer>> immediateFuture(ImmutableList.<Integer> of());
+            }
+            List<Integer> page = Lists.newArrayList();
+            int end = Math.min(startWith + Math.min(limit, maxPageSize), total);
+            for (int i = startWith; i < end; i++)
+            {
+                page.add(i);
+            }
+            return Futures.immediateFuture(page);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.domain;
+
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrapLazily;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.AbiquoAsyncClient;
+import org.jclouds.abiquo.AbiquoClient;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.rest.RestContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Unit tests for the {@link DomainWrapper} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class DomainWrapperTest
+{
+    @SuppressWarnings("unchecked")
+    private RestContext<AbiquoClient, AbiquoAsyncClient> context = EasyMock
+        .createMock(RestContext.class);
+
+    public void testWrapNull()
+    {
+        assertNull(wrap(context, VirtualMachine.class, (VirtualMachineDto) null));
+        assertNull(wrap(context, VirtualMachine.class, (Iterable<VirtualMachineDto>) null));
+    }
+
+    public void testWrap()
+    {
+        VirtualMachineDto dto = new VirtualMachineDto();
+        VirtualMachine vm = wrap(context, VirtualMachine.class, dto);
+        assertSame(vm.unwrap(), dto);
+
+        // The second call uses the cached constructor
+        VirtualMachine other = wrap(context, VirtualMachine.class, dto);
+        assertSame(other.unwrap(), dto);
+    }
+
+    public void testWrapCollection()
+    {
+        List<VirtualMachineDto> dtos =
+            ImmutableList.of(new VirtualMachineDto(), new VirtualMachineDto());
+        List<VirtualMachine> vms = wrap(context, VirtualMachine.class, dtos);
+
+        assertTrue(vms instanceof ArrayList);
+        assertEquals(vms.size(), 2);
+        assertSame(vms.get(0).unwrap(), dtos.get(0));
+        assertSame(vms.get(1).unwrap(), dtos.get(1));
+    }
+
+    public void testWrapLazily()
+    {
+        List<VirtualMachineDto> dtos =
+            ImmutableList.of(new VirtualMachineDto(), new VirtualMachineDto());
+        Iterable<VirtualMachine> vms = wrapLazily(context, VirtualMachine.class, dtos);
+
+        assertEquals(Iterables.size(vms), 2);
+        assertSame(Iterables.get(vms, 1).unwrap(), dtos.get(1));
+    }
+
+    public void testUnwrap()
+    {
+        List<VirtualMachineDto> dtos =
+            ImmutableList.of(new VirtualMachineDto(), new VirtualMachineDto());
+        List<VirtualMachineDto> unwrapped =
+            DomainWrapper.unwrap(wrap(context, VirtualMachine.class, dtos));
+
+        assertEquals(unwrapped, dtos);
+    }
+}
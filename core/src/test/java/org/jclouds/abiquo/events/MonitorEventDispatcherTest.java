@@ -0,0 +1,143 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.events;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.jclouds.abiquo.events.handlers.AbstractEventHandler;
+import org.jclouds.abiquo.events.handlers.BlockingEventHandler;
+import org.jclouds.abiquo.events.monitor.CompletedEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Unit tests for the {@link MonitorEventDispatcher} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class MonitorEventDispatcherTest
+{
+    public void testRoutesEventsOnlyToInterestedHandlers()
+    {
+        MonitorEventDispatcher dispatcher = new MonitorEventDispatcher(new EventBus());
+
+        // Register a lot of waiters, each one interested in a different object
+        List<Object> targets = Lists.newArrayList();
+        List<CountingHandler> handlers = Lists.newArrayList();
+        for (int i = 0; i < 5000; i++)
+        {
+            Object target = new Object();
+            CountingHandler handler = new CountingHandler(target);
+            targets.add(target);
+            handlers.add(handler);
+            dispatcher.register(handler);
+        }
+
+        dispatcher.post(new CompletedEvent<Object>(targets.get(42)));
+
+        // The dispatch cost does not depend on the number of waiters: only the interested handler
+        // has been asked to handle the event
+        for (int i = 0; i < handlers.size(); i++)
+        {
+            assertEquals(handlers.get(i).numChecks, i == 42 ? 1 : 0);
+        }
+        assertTrue(handlers.get(42).getTargets().isEmpty());
+    }
+
+    public void testUnregisterRemovesIndexedHandlers()
+    {
+        MonitorEventDispatcher dispatcher = new MonitorEventDispatcher(new EventBus());
+
+        Object target = new Object();
+        CountingHandler handler = new CountingHandler(target);
+        dispatcher.register(handler);
+        dispatcher.post(new CompletedEvent<Object>(target));
+        dispatcher.unregister(handler);
+
+        assertTrue(dispatcher.handlersByTarget.isEmpty());
+        assertTrue(dispatcher.targetsByHandler.isEmpty());
+
+        dispatcher.post(new CompletedEvent<Object>(target));
+        assertEquals(handler.numChecks, 1);
+    }
+
+    public void testNonBlockingHandlersReceiveAllEvents()
+    {
+        MonitorEventDispatcher dispatcher = new MonitorEventDispatcher(new EventBus());
+
+        SubscriberHandler handler = new SubscriberHandler();
+        dispatcher.register(handler);
+        assertFalse(dispatcher.targetsByHandler.containsKey(handler));
+
+        dispatcher.post(new CompletedEvent<Object>(new Object()));
+        dispatcher.post(new CompletedEvent<Object>(new Object()));
+        assertEquals(handler.numEvents, 2);
+
+        dispatcher.unregister(handler);
+        dispatcher.post(new CompletedEvent<Object>(new Object()));
+        assertEquals(handler.numEvents, 2);
+    }
+
+    private static class CountingHandler extends BlockingEventHandler<Object>
+    {
+        public int numChecks = 0;
+
+        public CountingHandler(final Object... lockedObjects)
+        {
+            super(lockedObjects);
+        }
+
+        @Override
+        protected boolean handles(final MonitorEvent<Object> event)
+        {
+            numChecks++;
+            return super.handles(event);
+        }
+    }
+
+    private static class SubscriberHandler extends AbstractEventHandler<Object>
+    {
+        public int numEvents = 0;
+
+        @Override
+        protected boolean handles(final MonitorEvent<Object> event)
+        {
+            return true;
+        }
+
+        @Subscribe
+        public void handle(final MonitorEvent<Object> event)
+        {
+            if (handles(event))
+            {
+                numEvents++;
+            }
+        }
+    }
+}
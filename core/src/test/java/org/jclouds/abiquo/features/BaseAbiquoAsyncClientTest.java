@@ -28,6 +28,7 @@ import org.jclouds.abiquo.AbiquoApiMetadata;
 import org.jclouds.abiquo.config.AbiquoRestClientModule;
 import org.jclouds.abiquo.http.filters.AbiquoAuthentication;
 import org.jclouds.abiquo.http.filters.AppendApiVersionToMediaType;
+import org.jclouds.abiquo.http.filters.GzipCompression;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.providers.AnonymousProviderMetadata;
 import org.jclouds.providers.ProviderMetadata;
@@ -46,9 +47,10 @@ public abstract class BaseAbiquoAsyncClientTest<T> extends BaseAsyncClientTest<T
     @Override
     protected void checkFilters(final HttpRequest request)
     {
-        assertEquals(request.getFilters().size(), 2);
+        assertEquals(request.getFilters().size(), 3);
         assertEquals(request.getFilters().get(0).getClass(), AbiquoAuthentication.class);
         assertEquals(request.getFilters().get(1).getClass(), AppendApiVersionToMediaType.class);
+        assertEquals(request.getFilters().get(2).getClass(), GzipCompression.class);
     }
 
     @Override
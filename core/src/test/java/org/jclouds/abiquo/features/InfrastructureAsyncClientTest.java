@@ -34,8 +34,10 @@ import org.jclouds.abiquo.domain.infrastructure.options.StoragePoolOptions;
 import org.jclouds.abiquo.domain.network.options.IpOptions;
 import org.jclouds.abiquo.domain.network.options.NetworkOptions;
 import org.jclouds.abiquo.domain.options.search.FilterOptions;
+import org.jclouds.abiquo.functions.ParseIpStream;
 import org.jclouds.abiquo.functions.ReturnAbiquoExceptionOnNotFoundOr4xx;
 import org.jclouds.abiquo.functions.ReturnFalseIfNotAvailable;
+import org.jclouds.abiquo.functions.infrastructure.ParseMachineStream;
 import org.jclouds.http.functions.ParseXMLWithJAXB;
 import org.jclouds.http.functions.ReleasePayloadAndReturn;
 import org.jclouds.http.functions.ReturnStringIf2xx;
@@ -1057,6 +1059,24 @@ public class InfrastructureAsyncClientTest extends
         checkFilters(request);
     }
 
+    public void testStreamMachines() throws SecurityException, NoSuchMethodException, IOException
+    {
+        Method method = InfrastructureAsyncClient.class.getMethod("streamMachines", RackDto.class);
+        GeneratedHttpRequest<InfrastructureAsyncClient> request =
+            processor.createRequest(method, InfrastructureResources.rackPut());
+
+        assertRequestLineEquals(request,
+            "GET http://localhost/api/admin/datacenters/1/racks/1/machines HTTP/1.1");
+        assertNonPayloadHeadersEqual(request, "Accept: " + MachinesDto.BASE_MEDIA_TYPE + "\n");
+        assertPayloadEquals(request, null, null, false);
+
+        assertResponseParserClassEquals(method, request, ParseMachineStream.class);
+        assertSaxResponseParserClassEquals(method, null);
+        assertExceptionParserClassEquals(method, null);
+
+        checkFilters(request);
+    }
+
     public void testGetMachine() throws SecurityException, NoSuchMethodException, IOException
     {
         Method method =
@@ -1828,6 +1848,29 @@ public class InfrastructureAsyncClientTest extends
         checkFilters(request);
     }
 
+    public void testStreamNetworkIps() throws SecurityException, NoSuchMethodException,
+        IOException
+    {
+        IpOptions options = IpOptions.builder().startWith(10).build();
+        Method method =
+            InfrastructureAsyncClient.class.getMethod("streamNetworkIps", VLANNetworkDto.class,
+                IpOptions.class);
+        GeneratedHttpRequest<InfrastructureAsyncClient> request =
+            processor.createRequest(method, NetworkResources.publicNetworkPut(), options);
+
+        assertRequestLineEquals(request,
+            "GET http://localhost/api/admin/datacenters/1/network/1/ips?startwith=10 HTTP/1.1");
+        assertNonPayloadHeadersEqual(request, "Accept: " + IpsPoolManagementDto.BASE_MEDIA_TYPE
+            + "\n");
+        assertPayloadEquals(request, null, null, false);
+
+        assertResponseParserClassEquals(method, request, ParseIpStream.class);
+        assertSaxResponseParserClassEquals(method, null);
+        assertExceptionParserClassEquals(method, null);
+
+        checkFilters(request);
+    }
+
     @Override
     protected TypeLiteral<RestAnnotationProcessor<InfrastructureAsyncClient>> createTypeLiteral()
     {
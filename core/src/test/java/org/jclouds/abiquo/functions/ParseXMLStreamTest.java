@@ -0,0 +1,202 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.jclouds.abiquo.xml.internal.AbiquoJAXBParser;
+import org.jclouds.abiquo.xml.internal.AbiquoJSONParser;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.abiquo.server.core.cloud.VirtualMachinesDto;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link ParseXMLStream} function.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class ParseXMLStreamTest
+{
+    private AbiquoJAXBParser xml =
+        new AbiquoJAXBParser("false", "false", MoreExecutors.sameThreadExecutor());
+
+    private AbiquoJSONParser json = new AbiquoJSONParser(xml);
+
+    private ParseXMLStream<VirtualMachineDto> function = new ParseXMLStream<VirtualMachineDto>(xml,
+        json, VirtualMachineDto.class)
+    {
+    };
+
+    public void testEmptyPayload()
+    {
+        HttpResponse response = HttpResponse.builder().statusCode(200).message("OK").build();
+        assertFalse(function.apply(response).hasNext());
+    }
+
+    public void testParseElements() throws IOException
+    {
+        TrackingInputStream input =
+            new TrackingInputStream("<virtualMachines><link rel=\"first\" href=\"http://foo\"/>"
+                + vm(1) + vm(2) + vm(3) + "<totalSize>3</totalSize></virtualMachines>");
+
+        Iterator<VirtualMachineDto> vms = function.apply(response(input));
+
+        for (int i = 1; i <= 3; i++)
+        {
+            assertTrue(vms.hasNext());
+            VirtualMachineDto vm = vms.next();
+            assertEquals(vm.getId(), Integer.valueOf(i));
+            assertEquals(vm.getName(), "VM" + i);
+        }
+
+        assertFalse(vms.hasNext());
+        assertTrue(input.closed);
+    }
+
+    public void testElementsAreParsedOnDemand() throws IOException
+    {
+        TrackingInputStream input =
+            new TrackingInputStream("<virtualMachines>" + vm(1) + vm(2) + "<virtualMachine><id");
+
+        Iterator<VirtualMachineDto> vms = function.apply(response(input));
+
+        // The elements before the malformed one can be consumed
+        assertEquals(vms.next().getId(), Integer.valueOf(1));
+        assertEquals(vms.next().getId(), Integer.valueOf(2));
+        assertFalse(input.closed);
+
+        try
+        {
+            vms.next();
+            fail("The malformed element should not have been parsed");
+        }
+        catch (RuntimeException ex)
+        {
+            // Expected
+        }
+
+        assertTrue(input.closed);
+    }
+
+    public void testParseJSONElements() throws IOException
+    {
+        TrackingInputStream input =
+            new TrackingInputStream("{\"links\":[{\"rel\":\"first\",\"href\":\"http://foo\"}],"
+                + "\"collection\":[" + json(1) + "," + json(2) + "," + json(3)
+                + "],\"totalSize\":3}");
+
+        Iterator<VirtualMachineDto> vms = function.apply(jsonResponse(input));
+
+        for (int i = 1; i <= 3; i++)
+        {
+            assertTrue(vms.hasNext());
+            VirtualMachineDto vm = vms.next();
+            assertEquals(vm.getId(), Integer.valueOf(i));
+            assertEquals(vm.getName(), "VM" + i);
+        }
+
+        assertFalse(vms.hasNext());
+        assertTrue(input.closed);
+    }
+
+    public void testParseJSONWithoutCollection() throws IOException
+    {
+        TrackingInputStream input = new TrackingInputStream("{\"links\":[],\"totalSize\":0}");
+
+        Iterator<VirtualMachineDto> vms = function.apply(jsonResponse(input));
+
+        assertFalse(vms.hasNext());
+        assertTrue(input.closed);
+    }
+
+    public void testCloseReleasesTheStream() throws IOException
+    {
+        TrackingInputStream input =
+            new TrackingInputStream("<virtualMachines>" + vm(1) + vm(2) + "</virtualMachines>");
+
+        Iterator<VirtualMachineDto> vms = function.apply(response(input));
+        vms.next();
+        ((Closeable) vms).close();
+
+        assertTrue(input.closed);
+    }
+
+    private String vm(final int id) throws IOException
+    {
+        VirtualMachineDto vm = new VirtualMachineDto();
+        vm.setId(id);
+        vm.setName("VM" + id);
+        String serialized = xml.toXML(vm, VirtualMachineDto.class);
+        // Remove the XML declaration
+        return serialized.substring(serialized.indexOf("?>") + 2).trim();
+    }
+
+    private String json(final int id) throws IOException
+    {
+        VirtualMachineDto vm = new VirtualMachineDto();
+        vm.setId(id);
+        vm.setName("VM" + id);
+        return json.toXML(vm, VirtualMachineDto.class);
+    }
+
+    private static HttpResponse jsonResponse(final TrackingInputStream input)
+    {
+        HttpResponse response = response(input);
+        response.getPayload().getContentMetadata().setContentType(
+            VirtualMachinesDto.BASE_MEDIA_TYPE.replace("+xml", "+json"));
+        return response;
+    }
+
+    private static HttpResponse response(final TrackingInputStream input)
+    {
+        return HttpResponse.builder().statusCode(200).message("OK")
+            .payload(Payloads.newInputStreamPayload(input)).build();
+    }
+
+    private static class TrackingInputStream extends ByteArrayInputStream
+    {
+        public boolean closed = false;
+
+        public TrackingInputStream(final String content)
+        {
+            super(content.getBytes());
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            closed = true;
+            super.close();
+        }
+    }
+}
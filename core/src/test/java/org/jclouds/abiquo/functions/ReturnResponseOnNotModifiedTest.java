@@ -0,0 +1,71 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+
+/**
+ * Unit tests for the {@link ReturnResponseOnNotModified} function.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class ReturnResponseOnNotModifiedTest
+{
+    public void testReturnResponseIf304()
+    {
+        Function<Exception, Object> function = new ReturnResponseOnNotModified();
+        HttpResponse response = HttpResponse.builder().statusCode(304).build();
+
+        assertSame(function.apply(new HttpResponseException("not modified", null, response)),
+            response);
+    }
+
+    public void testReturnNullIfNotFound()
+    {
+        Function<Exception, Object> function = new ReturnResponseOnNotModified();
+        assertNull(function.apply(new ResourceNotFoundException()));
+    }
+
+    public void testReturnExceptionIfNot304()
+    {
+        Function<Exception, Object> function = new ReturnResponseOnNotModified();
+        HttpResponse response = HttpResponse.builder().statusCode(500).build();
+        HttpResponseException exception = new HttpResponseException("error", null, response);
+
+        try
+        {
+            function.apply(exception);
+        }
+        catch (Exception ex)
+        {
+            assertEquals(ex, exception);
+        }
+    }
+}
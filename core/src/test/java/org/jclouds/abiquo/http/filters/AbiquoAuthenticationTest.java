@@ -19,20 +19,45 @@
 
 package org.jclouds.abiquo.http.filters;
 
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import javax.inject.Provider;
 import javax.ws.rs.core.HttpHeaders;
 
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.jclouds.abiquo.http.internal.SameThreadJavaUrlHttpClient;
 import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.utils.ModifyRequest;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.AuthorizationException;
 import org.testng.annotations.Test;
 
+import com.abiquo.server.core.enterprise.UserDto;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Lists;
+import com.google.inject.util.Providers;
+
 /**
  * Unit tests for the {@link AbiquoAuthentication} filter.
  * 
@@ -41,6 +66,7 @@ import org.testng.annotations.Test;
 @Test(groups = "unit")
 public class AbiquoAuthenticationTest
 {
+    private static final String ENDPOINT = "http://localhost/api";
 
     public void testBasicAuthentication() throws UnsupportedEncodingException,
         NoSuchAlgorithmException, CertificateException
@@ -48,7 +74,9 @@ public class AbiquoAuthenticationTest
         HttpRequest request =
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
-        AbiquoAuthentication filter = new AbiquoAuthentication("identity", "credential", "false");
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "false", ENDPOINT,
+                Providers.of(EasyMock.createMock(SameThreadJavaUrlHttpClient.class)));
         HttpRequest filtered = filter.filter(request);
         HttpRequest expected =
             ModifyRequest.replaceHeader(request, HttpHeaders.AUTHORIZATION,
@@ -58,6 +86,26 @@ public class AbiquoAuthenticationTest
         assertEquals(filtered, expected);
     }
 
+    public void testLoginClientIsOnlyCreatedForSessionAuthentication()
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        Provider<SameThreadJavaUrlHttpClient> http = new Provider<SameThreadJavaUrlHttpClient>()
+        {
+            @Override
+            public SameThreadJavaUrlHttpClient get()
+            {
+                throw new AssertionError("The login client should not be created");
+            }
+        };
+
+        new AbiquoAuthentication("identity", "credential", "false", "false", ENDPOINT, http)
+            .filter(request);
+        new AbiquoAuthentication("token-identity", "token", "true", "true", ENDPOINT, http)
+            .filter(request);
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void testBasicAuthenticationWithoutIdentity() throws UnsupportedEncodingException,
         NoSuchAlgorithmException, CertificateException
@@ -65,7 +113,9 @@ public class AbiquoAuthenticationTest
         HttpRequest request =
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
-        AbiquoAuthentication filter = new AbiquoAuthentication(null, "credential", "false");
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication(null, "credential", "false", "false", ENDPOINT,
+                Providers.of(EasyMock.createMock(SameThreadJavaUrlHttpClient.class)));
         filter.filter(request);
     }
 
@@ -76,7 +126,9 @@ public class AbiquoAuthenticationTest
         HttpRequest request =
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
-        AbiquoAuthentication filter = new AbiquoAuthentication("identity", null, "false");
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", null, "false", "false", ENDPOINT,
+                Providers.of(EasyMock.createMock(SameThreadJavaUrlHttpClient.class)));
         filter.filter(request);
     }
 
@@ -86,7 +138,9 @@ public class AbiquoAuthenticationTest
         HttpRequest request =
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
-        AbiquoAuthentication filter = new AbiquoAuthentication("token-identity", "token", "true");
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("token-identity", "token", "true", "false", ENDPOINT,
+                Providers.of(EasyMock.createMock(SameThreadJavaUrlHttpClient.class)));
         HttpRequest filtered = filter.filter(request);
         HttpRequest expected =
             ModifyRequest.replaceHeader(request, HttpHeaders.COOKIE,
@@ -95,4 +149,239 @@ public class AbiquoAuthenticationTest
         assertFalse(filtered.getHeaders().containsKey(HttpHeaders.AUTHORIZATION));
         assertEquals(filtered, expected);
     }
+
+    public void testSessionAuthenticationLogsInOnce() throws UnsupportedEncodingException
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "credential"))).andReturn(
+            loginResponse("session-token"));
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "true", ENDPOINT,
+                Providers.of(http));
+        HttpRequest first = filter.filter(request);
+        HttpRequest second = filter.filter(request);
+
+        verify(http);
+        HttpRequest expected =
+            ModifyRequest.replaceHeader(request, HttpHeaders.COOKIE,
+                AbiquoAuthentication.tokenAuth("session-token"));
+        assertFalse(first.getHeaders().containsKey(HttpHeaders.AUTHORIZATION));
+        assertEquals(first, expected);
+        assertEquals(second, expected);
+    }
+
+    public void testInvalidateSessionLogsInAgain() throws UnsupportedEncodingException
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "credential"))).andReturn(
+            loginResponse("expired-token"));
+        expect(http.execute(loginRequest("identity", "credential"))).andReturn(
+            loginResponse("session-token"));
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "true", ENDPOINT,
+                Providers.of(http));
+        HttpRequest rejected = filter.filter(request);
+
+        assertTrue(filter.invalidateSession(rejected));
+        assertNull(filter.sessionToken.get());
+        // Requests without a session token must not be retried
+        assertFalse(filter.invalidateSession(request));
+
+        HttpRequest retried = filter.filter(rejected);
+
+        verify(http);
+        assertEquals(retried.getFirstHeaderOrNull(HttpHeaders.COOKIE),
+            AbiquoAuthentication.tokenAuth("session-token"));
+    }
+
+    @Test(timeOut = 10000)
+    public void testConcurrentSessionRenewalLogsInOnce() throws Exception
+    {
+        final HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "credential"))).andAnswer(
+            new IAnswer<HttpResponse>()
+            {
+                @Override
+                public HttpResponse answer() throws Throwable
+                {
+                    // Give the other threads time to wait for the session
+                    Thread.sleep(100L);
+                    return loginResponse("session-token");
+                }
+            });
+        replay(http);
+
+        final AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "true", ENDPOINT,
+                Providers.of(http));
+
+        // More requests than threads, as when all the io worker threads are busy
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            List<Future<HttpRequest>> filtered = Lists.newArrayList();
+            for (int i = 0; i < 6; i++)
+            {
+                filtered.add(executor.submit(new Callable<HttpRequest>()
+                {
+                    @Override
+                    public HttpRequest call() throws Exception
+                    {
+                        return filter.filter(request);
+                    }
+                }));
+            }
+
+            for (Future<HttpRequest> future : filtered)
+            {
+                assertEquals(future.get(5, TimeUnit.SECONDS).getFirstHeaderOrNull(
+                    HttpHeaders.COOKIE), AbiquoAuthentication.tokenAuth("session-token"));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        verify(http);
+    }
+
+    @Test(expectedExceptions = AuthorizationException.class)
+    public void testSessionAuthenticationWithoutSessionToken() throws UnsupportedEncodingException
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "credential"))).andReturn(
+            HttpResponse.builder().statusCode(200).message("OK").build());
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "true", ENDPOINT,
+                Providers.of(http));
+        filter.filter(request);
+    }
+
+    public void testSessionAuthenticationWithWrongCredentials() throws UnsupportedEncodingException
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "wrong"))).andReturn(
+            HttpResponse.builder().statusCode(401).message("Unauthorized")
+                .payload(Payloads.newStringPayload("Bad credentials")).build());
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "wrong", "false", "true", ENDPOINT,
+                Providers.of(http));
+        try
+        {
+            filter.filter(request);
+            fail("The login should have failed");
+        }
+        catch (AuthorizationException ex)
+        {
+            assertTrue(ex.getMessage().contains("Bad credentials"));
+            assertTrue(ex.getCause() instanceof HttpResponseException);
+        }
+
+        verify(http);
+    }
+
+    public void testSessionAuthenticationWithServerError() throws UnsupportedEncodingException
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        expect(http.execute(loginRequest("identity", "credential"))).andReturn(
+            HttpResponse.builder().statusCode(502).message("Bad Gateway").build());
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("identity", "credential", "false", "true", ENDPOINT,
+                Providers.of(http));
+        try
+        {
+            filter.filter(request);
+            fail("The login should have failed");
+        }
+        catch (HttpResponseException ex)
+        {
+            assertEquals(ex.getResponse().getStatusCode(), 502);
+        }
+
+        verify(http);
+        assertNull(filter.sessionToken.get());
+    }
+
+    public void testTokenAuthenticationIgnoresSessionAuthentication()
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        SameThreadJavaUrlHttpClient http = EasyMock.createMock(SameThreadJavaUrlHttpClient.class);
+        replay(http);
+
+        AbiquoAuthentication filter =
+            new AbiquoAuthentication("token-identity", "token", "true", "true", ENDPOINT,
+                Providers.of(http));
+        HttpRequest filtered = filter.filter(request);
+
+        verify(http);
+        assertFalse(filter.isSessionAuthentication());
+        assertEquals(filtered.getFirstHeaderOrNull(HttpHeaders.COOKIE),
+            AbiquoAuthentication.tokenAuth("token"));
+        assertFalse(filter.invalidateSession(filtered));
+    }
+
+    public void testSessionTokenFrom()
+    {
+        HttpResponse response =
+            HttpResponse
+                .builder()
+                .statusCode(200)
+                .message("OK")
+                .headers(
+                    ImmutableMultimap.of("Set-Cookie", "JSESSIONID=1234; Path=/api", "Set-Cookie",
+                        "auth=c2Vzc2lvbg==; Path=/api; HttpOnly")).build();
+
+        assertEquals(AbiquoAuthentication.sessionTokenFrom(response), "c2Vzc2lvbg==");
+    }
+
+    private static HttpRequest loginRequest(final String user, final String password)
+        throws UnsupportedEncodingException
+    {
+        return HttpRequest
+            .builder()
+            .method("GET")
+            .endpoint(URI.create(ENDPOINT + AbiquoAuthentication.LOGIN_PATH))
+            .headers(
+                ImmutableMultimap.of(HttpHeaders.AUTHORIZATION,
+                    AbiquoAuthentication.basicAuth(user, password), HttpHeaders.ACCEPT,
+                    UserDto.BASE_MEDIA_TYPE)).build();
+    }
+
+    private static HttpResponse loginResponse(final String token)
+    {
+        return HttpResponse.builder().statusCode(200).message("OK")
+            .headers(ImmutableMultimap.of(HttpHeaders.SET_COOKIE, "auth=" + token + "; Path=/api"))
+            .build();
+    }
 }
@@ -53,7 +53,7 @@ public class AppendApiVersionToMediaTypeTest
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToNonPayloadHeaders(request);
 
@@ -70,7 +70,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToNonPayloadHeaders(request);
 
@@ -89,7 +89,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToNonPayloadHeaders(request);
 
@@ -109,7 +109,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToNonPayloadHeaders(request);
 
@@ -125,7 +125,7 @@ public class AppendApiVersionToMediaTypeTest
             HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToPayloadHeaders(request);
 
@@ -142,7 +142,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToPayloadHeaders(request);
 
@@ -158,7 +158,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToPayloadHeaders(request);
 
@@ -177,7 +177,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToPayloadHeaders(request);
 
@@ -195,7 +195,7 @@ public class AppendApiVersionToMediaTypeTest
                 .build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.appendVersionToPayloadHeaders(request);
 
@@ -217,7 +217,7 @@ public class AppendApiVersionToMediaTypeTest
                 .payload(payload).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.filter(request);
 
@@ -243,7 +243,7 @@ public class AppendApiVersionToMediaTypeTest
                 .payload(payload).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.filter(request);
 
@@ -269,7 +269,7 @@ public class AppendApiVersionToMediaTypeTest
                 .payload(payload).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.filter(request);
 
@@ -295,7 +295,7 @@ public class AppendApiVersionToMediaTypeTest
                 .payload(payload).build();
 
         AppendApiVersionToMediaType filter =
-            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION));
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "xml");
 
         HttpRequest filtered = filter.filter(request);
 
@@ -307,4 +307,49 @@ public class AppendApiVersionToMediaTypeTest
         assertEquals(filtered.getPayload().getContentMetadata().getContentType(),
             "application/vnd.abiquo.racks+xml;version=1.8.5");
     }
+
+    public void testFilterWithJSONWireFormat()
+    {
+        Payload payload = Payloads.newByteArrayPayload(new byte[] {});
+        payload.getContentMetadata().setContentType("application/vnd.abiquo.racks+xml");
+
+        Multimap<String, String> headers = LinkedHashMultimap.<String, String> create();
+        headers.put(HttpHeaders.ACCEPT, "application/vnd.abiquo.racks+xml");
+
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).headers(headers)
+                .payload(payload).build();
+
+        AppendApiVersionToMediaType filter =
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "json");
+
+        HttpRequest filtered = filter.filter(request);
+
+        Collection<String> accept = filtered.getHeaders().get(HttpHeaders.ACCEPT);
+        assertEquals(accept.size(), 1);
+        assertEquals(accept.iterator().next(), "application/vnd.abiquo.racks+json;version="
+            + AbiquoAsyncClient.API_VERSION);
+
+        assertEquals(filtered.getPayload().getContentMetadata().getContentType(),
+            "application/vnd.abiquo.racks+json;version=" + AbiquoAsyncClient.API_VERSION);
+    }
+
+    public void testFilterWithJSONWireFormatAndStandardMediaType()
+    {
+        Multimap<String, String> headers = LinkedHashMultimap.<String, String> create();
+        headers.put(HttpHeaders.ACCEPT, "application/xml");
+
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).headers(headers)
+                .build();
+
+        AppendApiVersionToMediaType filter =
+            new AppendApiVersionToMediaType(new AppendApiVersionToAbiquoMimeType(AbiquoAsyncClient.API_VERSION), "json");
+
+        HttpRequest filtered = filter.filter(request);
+
+        Collection<String> accept = filtered.getHeaders().get(HttpHeaders.ACCEPT);
+        assertEquals(accept.size(), 1);
+        assertEquals(accept.iterator().next(), "application/xml");
+    }
 }
@@ -0,0 +1,143 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.http.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.http.internal.AbiquoJavaUrlHttpCommandExecutorService;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Unit tests for the {@link GzipCompression} filter.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class GzipCompressionTest
+{
+    private static final String CONTENT_TYPE = "application/vnd.abiquo.racks+xml";
+
+    public void testAcceptGzip()
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        HttpRequest filtered = filter(true, 0L).filter(request);
+
+        assertEquals(filtered.getFirstHeaderOrNull(HttpHeaders.ACCEPT_ENCODING),
+            GzipCompression.GZIP);
+    }
+
+    public void testDoNotAcceptGzip()
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+
+        HttpRequest filtered = filter(false, 0L).filter(request);
+
+        assertNull(filtered.getFirstHeaderOrNull(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    public void testDoNotAcceptGzipIfTheExecutorDoesNotDecompress()
+    {
+        HttpRequest request =
+            HttpRequest.builder().method("GET").endpoint(URI.create("http://foo")).build();
+        HttpCommandExecutorService executor =
+            EasyMock.createMock(HttpCommandExecutorService.class);
+
+        HttpRequest filtered = new GzipCompression(true, 0L, executor).filter(request);
+
+        assertNull(filtered.getFirstHeaderOrNull(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    public void testPayloadCompressionDisabled()
+    {
+        Payload payload = payload(Strings.repeat("a", 2048));
+        HttpRequest request = request(payload);
+
+        HttpRequest filtered = filter(true, 0L).compressPayload(request);
+
+        assertSame(filtered.getPayload(), payload);
+    }
+
+    public void testDoNotCompressSmallPayloads()
+    {
+        Payload payload = payload("small");
+        HttpRequest request = request(payload);
+
+        HttpRequest filtered = filter(true, 1024L).compressPayload(request);
+
+        assertSame(filtered.getPayload(), payload);
+    }
+
+    public void testCompressLargePayloads() throws IOException
+    {
+        String content = Strings.repeat("a", 2048);
+        HttpRequest request = request(payload(content));
+
+        HttpRequest filtered = filter(true, 1024L).compressPayload(request);
+
+        Payload compressed = filtered.getPayload();
+        assertEquals(compressed.getContentMetadata().getContentEncoding(), GzipCompression.GZIP);
+        assertEquals(compressed.getContentMetadata().getContentType(), CONTENT_TYPE);
+        assertTrue(compressed.getContentMetadata().getContentLength() < content.length());
+
+        byte[] decompressed =
+            ByteStreams.toByteArray(new GZIPInputStream(compressed.getInput()));
+        assertEquals(new String(decompressed), content);
+    }
+
+    private static GzipCompression filter(final boolean acceptGzip, final long payloadThreshold)
+    {
+        HttpCommandExecutorService executor =
+            EasyMock.createMock(AbiquoJavaUrlHttpCommandExecutorService.class);
+        return new GzipCompression(acceptGzip, payloadThreshold, executor);
+    }
+
+    private static Payload payload(final String content)
+    {
+        Payload payload = Payloads.newStringPayload(content);
+        payload.getContentMetadata().setContentType(CONTENT_TYPE);
+        return payload;
+    }
+
+    private static HttpRequest request(final Payload payload)
+    {
+        return HttpRequest.builder().method("PUT").endpoint(URI.create("http://foo"))
+            .payload(payload).build();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.http.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.jclouds.abiquo.http.filters.GzipCompression;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link AbiquoJavaUrlHttpCommandExecutorService} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class AbiquoJavaUrlHttpCommandExecutorServiceTest
+{
+    private static final String CONTENT_TYPE = "application/vnd.abiquo.racks+xml";
+
+    public void testDecompressGzipResponses() throws IOException
+    {
+        Payload payload = Payloads.newByteArrayPayload(gzip("<racks/>"));
+        payload.getContentMetadata().setContentType(CONTENT_TYPE);
+        payload.getContentMetadata().setContentEncoding(GzipCompression.GZIP);
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(payload));
+
+        assertEquals(response.getPayload().getContentMetadata().getContentType(), CONTENT_TYPE);
+        assertEquals(Strings2.toStringAndClose(response.getPayload().getInput()), "<racks/>");
+    }
+
+    public void testDoNotDecompressPlainResponses() throws IOException
+    {
+        Payload payload = Payloads.newStringPayload("<racks/>");
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(payload));
+
+        assertSame(response.getPayload(), payload);
+    }
+
+    public void testDoNotDecompressEmptyResponses() throws IOException
+    {
+        Payload payload = Payloads.newByteArrayPayload(new byte[] {});
+        payload.getContentMetadata().setContentEncoding(GzipCompression.GZIP);
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(payload));
+
+        assertSame(response.getPayload(), payload);
+    }
+
+    public void testDoNotDecompressNotModifiedResponses() throws IOException
+    {
+        Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(new byte[] {}));
+        payload.getContentMetadata().setContentEncoding(GzipCompression.GZIP);
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(304, payload));
+
+        assertSame(response.getPayload(), payload);
+    }
+
+    public void testDecompressEmptyResponsesOfUnknownLength() throws IOException
+    {
+        Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(new byte[] {}));
+        payload.getContentMetadata().setContentEncoding(GzipCompression.GZIP);
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(payload));
+
+        assertEquals(Strings2.toStringAndClose(response.getPayload().getInput()), "");
+    }
+
+    public void testDecompressResponsesOfUnknownLength() throws IOException
+    {
+        Payload payload =
+            Payloads.newInputStreamPayload(new ByteArrayInputStream(gzip("<racks/>")));
+        payload.getContentMetadata().setContentEncoding(GzipCompression.GZIP);
+
+        HttpResponse response =
+            AbiquoJavaUrlHttpCommandExecutorService.decompress(response(payload));
+
+        assertEquals(Strings2.toStringAndClose(response.getPayload().getInput()), "<racks/>");
+    }
+
+    private static HttpResponse response(final Payload payload)
+    {
+        return response(200, payload);
+    }
+
+    private static HttpResponse response(final int statusCode, final Payload payload)
+    {
+        return HttpResponse.builder().statusCode(statusCode).message("OK").payload(payload)
+            .build();
+    }
+
+    private static byte[] gzip(final String content) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream output = new GZIPOutputStream(bytes);
+        output.write(content.getBytes());
+        output.close();
+        return bytes.toByteArray();
+    }
+}
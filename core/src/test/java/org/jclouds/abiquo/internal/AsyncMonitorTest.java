@@ -30,18 +30,26 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.easymock.EasyMock;
+import org.jclouds.abiquo.events.MonitorEventDispatcher;
 import org.jclouds.abiquo.events.monitor.MonitorEvent;
 import org.jclouds.abiquo.internal.BaseMonitoringService.AsyncMonitor;
+import org.jclouds.abiquo.monitor.GroupRefresher;
 import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.abiquo.monitor.PollingPolicies;
+import org.jclouds.abiquo.monitor.internal.TimeoutWheel;
 import org.jclouds.rest.RestContext;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Maps;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
@@ -60,7 +68,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -77,6 +85,7 @@ public class AsyncMonitorTest
 
         assertNotNull(monitor.getFuture());
         assertNull(monitor.getTimeout());
+        assertNull(monitor.getTimeoutHandle());
 
         verify(mockFuture);
         verify(schedulerMock);
@@ -89,7 +98,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -106,6 +115,7 @@ public class AsyncMonitorTest
 
         assertNotNull(monitor.getFuture());
         assertNotNull(monitor.getTimeout());
+        assertNotNull(monitor.getTimeoutHandle());
         assertTrue(monitor.getTimeout() > 100L);
 
         verify(mockFuture);
@@ -119,7 +129,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -148,7 +158,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -177,7 +187,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -209,7 +219,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -242,7 +252,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -276,7 +286,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -308,7 +318,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -346,7 +356,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -382,8 +392,8 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
-                anyObject(TimeUnit.class))).andReturn(mockFuture);
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
+                anyObject(TimeUnit.class))).andReturn(mockFuture).times(2);
 
         replay(mockFuture);
         replay(schedulerMock);
@@ -420,7 +430,7 @@ public class AsyncMonitorTest
         ScheduledExecutorService schedulerMock =
             EasyMock.createMock(ScheduledExecutorService.class);
         expect(
-            schedulerMock.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
                 anyObject(TimeUnit.class))).andReturn(mockFuture);
 
         replay(mockFuture);
@@ -450,6 +460,62 @@ public class AsyncMonitorTest
         verify(schedulerMock);
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void testMonitorRefreshesEachGroupOnce()
+    {
+        ScheduledFuture mockFuture = EasyMock.createMock(ScheduledFuture.class);
+        expect(mockFuture.isCancelled()).andReturn(true);
+
+        ScheduledExecutorService schedulerMock =
+            EasyMock.createMock(ScheduledExecutorService.class);
+        expect(
+            schedulerMock.schedule(anyObject(Runnable.class), anyLong(),
+                anyObject(TimeUnit.class))).andReturn(mockFuture);
+
+        replay(mockFuture);
+        replay(schedulerMock);
+
+        CoutingEventHandler handler = new CoutingEventHandler();
+        EventBus eventBus = new EventBus();
+        eventBus.register(handler);
+
+        CountingRefresher refresher = new CountingRefresher();
+        BaseMonitoringService monitorService =
+            new BaseMonitoringService(EasyMock.createMock(RestContext.class),
+                schedulerMock,
+                PollingPolicies.fixedDelay(100L),
+                new TimeoutWheel(EasyMock.createNiceMock(ScheduledExecutorService.class), 100L),
+                new MonitorEventDispatcher(eventBus));
+
+        // Only the refreshed objects are done. The ungrouped one is evaluated directly.
+        Function<String, MonitorStatus> function = new Function<String, MonitorStatus>()
+        {
+            @Override
+            public MonitorStatus apply(final String input)
+            {
+                return input.startsWith("refreshed") ? MonitorStatus.DONE : MonitorStatus.FAILED;
+            }
+        };
+
+        AsyncMonitor<String> monitor =
+            monitorService.new AsyncMonitor<String>(Arrays.asList("a1", "a2", "b1", "c"),
+                function,
+                refresher,
+                PollingPolicies.fixedDelay(100L));
+
+        monitor.startMonitoring(null);
+        monitor.run();
+
+        assertEquals(refresher.numRefreshes, 2);
+        assertEquals(handler.numCompletes, 3);
+        assertEquals(handler.numFailures, 1);
+        assertEquals(handler.numTimeouts, 0);
+        assertTrue(monitor.getMonitoredObjects().isEmpty());
+
+        verify(mockFuture);
+        verify(schedulerMock);
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void testCreateMonitorWithNullObject()
     {
@@ -476,8 +542,9 @@ public class AsyncMonitorTest
         BaseMonitoringService monitorService =
             new BaseMonitoringService(EasyMock.createMock(RestContext.class),
                 scheduler,
-                100L,
-                eventBus);
+                PollingPolicies.fixedDelay(100L),
+                new TimeoutWheel(EasyMock.createNiceMock(ScheduledExecutorService.class), 100L),
+                new MonitorEventDispatcher(eventBus));
 
         return monitorService.new AsyncMonitor<Object>(object, function);
     }
@@ -494,6 +561,30 @@ public class AsyncMonitorTest
         };
     }
 
+    private static class CountingRefresher implements GroupRefresher<String>
+    {
+        public int numRefreshes = 0;
+
+        @Override
+        public Object groupOf(final String object)
+        {
+            // Group objects by their first letter, and do not group the "c" object
+            return object.startsWith("c") ? null : object.substring(0, 1);
+        }
+
+        @Override
+        public Map<String, String> refresh(final Object group, final Collection<String> objects)
+        {
+            numRefreshes++;
+            Map<String, String> refreshed = Maps.newHashMap();
+            for (String object : objects)
+            {
+                refreshed.put(object, "refreshed-" + object);
+            }
+            return refreshed;
+        }
+    }
+
     private static class CoutingEventHandler
     {
         public int numCompletes = 0;
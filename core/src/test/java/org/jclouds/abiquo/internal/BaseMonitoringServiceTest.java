@@ -22,17 +22,22 @@ package org.jclouds.abiquo.internal;
 import static org.jclouds.abiquo.reference.AbiquoConstants.ASYNC_TASK_MONITOR_DELAY;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.abiquo.events.handlers.BlockingEventHandler;
 import org.jclouds.abiquo.events.monitor.MonitorEvent;
 import org.jclouds.abiquo.features.services.MonitoringService;
+import org.jclouds.abiquo.monitor.MonitorFutures;
 import org.jclouds.abiquo.monitor.MonitorStatus;
+import org.jclouds.abiquo.monitor.PollingPolicies;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * Unit tests for the {@link BaseMonitoringService} class.
@@ -62,8 +67,9 @@ public class BaseMonitoringServiceTest extends BaseInjectionTest
 
         assertNotNull(service.context);
         assertNotNull(service.scheduler);
-        assertNotNull(service.pollingDelay);
-        assertNotNull(service.eventBus);
+        assertNotNull(service.pollingPolicy);
+        assertNotNull(service.timeouts);
+        assertNotNull(service.dispatcher);
     }
 
     @Test(expectedExceptions = NullPointerException.class)
@@ -181,6 +187,56 @@ public class BaseMonitoringServiceTest extends BaseInjectionTest
         assertEquals(handler.numTimeouts, 2);
     }
 
+    public void testMonitorAsync() throws Exception
+    {
+        BaseMonitoringService service = monitoringService();
+
+        Object monitoredObject1 = new Object();
+        Object monitoredObject2 = new Object();
+        List<ListenableFuture<MonitorEvent<Object>>> futures =
+            service.monitorAsync(new MockMonitor(), monitoredObject1, monitoredObject2);
+
+        List<MonitorEvent<Object>> events = MonitorFutures.allOf(futures).get();
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0).getType(), MonitorEvent.Type.COMPLETED);
+        assertEquals(events.get(0).getTarget(), monitoredObject1);
+        assertEquals(events.get(1).getType(), MonitorEvent.Type.COMPLETED);
+        assertEquals(events.get(1).getTarget(), monitoredObject2);
+    }
+
+    public void testMonitorAsyncReachesTimeout() throws Exception
+    {
+        BaseMonitoringService service = monitoringService();
+
+        Object monitoredObject = new Object();
+        List<ListenableFuture<MonitorEvent<Object>>> futures =
+            service.monitorAsync(TEST_MONITOR_POLLING + 10L, TimeUnit.MILLISECONDS,
+                new MockInfiniteMonitor(), monitoredObject);
+
+        assertEquals(futures.size(), 1);
+        assertEquals(futures.get(0).get().getType(), MonitorEvent.Type.TIMEOUT);
+    }
+
+    public void testTimeoutDoesNotWaitForTheNextPoll() throws Exception
+    {
+        BaseMonitoringService service = monitoringService();
+
+        // The timeout must be fired by the timeout wheel long before the object is polled again
+        Object monitoredObject = new Object();
+        List<ListenableFuture<MonitorEvent<Object>>> futures =
+            service.monitorAsync(PollingPolicies.fixedDelay(60000L), TEST_MONITOR_POLLING,
+                TimeUnit.MILLISECONDS, new MockInfiniteMonitor(), monitoredObject);
+
+        assertEquals(futures.get(0).get(5, TimeUnit.SECONDS).getType(),
+            MonitorEvent.Type.TIMEOUT);
+    }
+
+    public void testMonitorAsyncWithoutObjects()
+    {
+        assertTrue(monitoringService().monitorAsync(new MockMonitor()).isEmpty());
+    }
+
     public void testDelegateToVirtualMachineMonitor()
     {
         assertNotNull(monitoringService().getVirtualMachineMonitor());
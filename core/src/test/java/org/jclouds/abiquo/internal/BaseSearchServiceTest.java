@@ -38,5 +38,7 @@ public class BaseSearchServiceTest extends BaseInjectionTest
         BaseSearchService service = (BaseSearchService) injector.getInstance(SearchService.class);
 
         assertNotNull(service.context);
+        assertNotNull(service.pageSize);
+        assertNotNull(service.prefetch);
     }
 }
@@ -0,0 +1,77 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.abiquo.events.monitor.CompletedEvent;
+import org.jclouds.abiquo.events.monitor.FailedEvent;
+import org.jclouds.abiquo.events.monitor.MonitorEvent;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Unit tests for the {@link MonitorFutures} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class MonitorFuturesTest
+{
+    public void testAllOf() throws Exception
+    {
+        List<MonitorEvent<String>> events =
+            MonitorFutures.allOf(ImmutableList.of(completed("a"), failed("b"))).get();
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0).getType(), MonitorEvent.Type.COMPLETED);
+        assertEquals(events.get(1).getType(), MonitorEvent.Type.FAILED);
+    }
+
+    public void testAllCompleted() throws Exception
+    {
+        List<String> targets =
+            MonitorFutures.allCompleted(ImmutableList.of(completed("a"), completed("b"))).get();
+
+        assertEquals(targets, ImmutableList.of("a", "b"));
+    }
+
+    @Test(expectedExceptions = ExecutionException.class)
+    public void testAllCompletedFailsIfAnyMonitorFails() throws Exception
+    {
+        MonitorFutures.allCompleted(ImmutableList.of(completed("a"), failed("b"))).get();
+    }
+
+    private static ListenableFuture<MonitorEvent<String>> completed(final String target)
+    {
+        return Futures.<MonitorEvent<String>> immediateFuture(new CompletedEvent<String>(target));
+    }
+
+    private static ListenableFuture<MonitorEvent<String>> failed(final String target)
+    {
+        return Futures.<MonitorEvent<String>> immediateFuture(new FailedEvent<String>(target));
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.abiquo.monitor.PollingPolicies;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the {@link BackoffPollingPolicy} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class BackoffPollingPolicyTest
+{
+    public void testFixedDelay()
+    {
+        BackoffPollingPolicy policy = (BackoffPollingPolicy) PollingPolicies.fixedDelay(100L);
+
+        for (int i = 1; i <= 10; i++)
+        {
+            assertEquals(policy.getDelay(i), 100L);
+        }
+    }
+
+    public void testExponentialBackoffIsBounded()
+    {
+        BackoffPollingPolicy policy = new BackoffPollingPolicy(100L, 1000L, 2.0, 0.0);
+
+        assertEquals(policy.getDelay(1), 100L);
+        assertEquals(policy.getDelay(2), 200L);
+        assertEquals(policy.getDelay(3), 400L);
+        assertEquals(policy.getDelay(4), 800L);
+        assertEquals(policy.getDelay(5), 1000L);
+        assertEquals(policy.getDelay(Integer.MAX_VALUE), 1000L);
+    }
+
+    public void testJitterIsBounded()
+    {
+        BackoffPollingPolicy policy = new BackoffPollingPolicy(1000L, 1000L, 1.0, 0.2);
+
+        for (int i = 0; i < 100; i++)
+        {
+            long delay = policy.getDelay(1);
+            assertTrue(delay >= 800L && delay <= 1200L, "unexpected delay " + delay);
+        }
+    }
+
+    public void testWithExpectedDuration()
+    {
+        BackoffPollingPolicy policy = new BackoffPollingPolicy(100L, 10000L, 2.0, 0.0);
+
+        assertEquals(((BackoffPollingPolicy) policy.withExpectedDuration(5000L)).minDelay, 500L);
+        assertEquals(((BackoffPollingPolicy) policy.withExpectedDuration(10L)).minDelay, 100L);
+        assertEquals(((BackoffPollingPolicy) policy.withExpectedDuration(1000000L)).minDelay,
+            10000L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBounds()
+    {
+        new BackoffPollingPolicy(1000L, 100L, 1.0, 0.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMultiplier()
+    {
+        new BackoffPollingPolicy(100L, 1000L, 0.5, 0.0);
+    }
+}
@@ -19,12 +19,18 @@
 
 package org.jclouds.abiquo.monitor.internal;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
 
 import org.jclouds.abiquo.internal.BaseInjectionTest;
 import org.jclouds.abiquo.monitor.AsyncTaskMonitor;
 import org.testng.annotations.Test;
 
+import com.abiquo.server.core.task.enums.TaskType;
+
 /**
  * Unit tests for the {@link BaseAsyncTaskMonitor} class.
  * 
@@ -40,5 +46,28 @@ public class BaseAsyncTaskMonitorTest extends BaseInjectionTest
             (BaseAsyncTaskMonitor) injector.getInstance(AsyncTaskMonitor.class);
 
         assertNotNull(monitor.taskMonitor);
+        assertNotNull(monitor.refresher);
+        assertNotNull(monitor.expectedDurations);
+    }
+
+    public void testParseEmptyExpectedDurations()
+    {
+        assertTrue(BaseAsyncTaskMonitor.parseExpectedDurations("").isEmpty());
+    }
+
+    public void testParseExpectedDurations()
+    {
+        TaskType type = TaskType.values()[0];
+        Map<TaskType, Long> durations =
+            BaseAsyncTaskMonitor.parseExpectedDurations(" " + type.name() + " = 60000 ");
+
+        assertEquals(durations.size(), 1);
+        assertEquals(durations.get(type), Long.valueOf(60000L));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseInvalidExpectedDurations()
+    {
+        BaseAsyncTaskMonitor.parseExpectedDurations("UNEXISTING=1000");
     }
 }
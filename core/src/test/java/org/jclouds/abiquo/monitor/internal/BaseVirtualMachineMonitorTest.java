@@ -41,5 +41,6 @@ public class BaseVirtualMachineMonitorTest extends BaseInjectionTest
 
         assertNotNull(monitor.deployMonitor);
         assertNotNull(monitor.undeployMonitor);
+        assertNotNull(monitor.refresher);
     }
 }
@@ -0,0 +1,186 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.monitor.internal;
+
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.monitor.internal.TimeoutWheel.Timeout;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Unit tests for the {@link TimeoutWheel} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class TimeoutWheelTest
+{
+    public void testTimeoutsExpireInBulk()
+    {
+        ManualTicker ticker = new ManualTicker();
+        TimeoutWheel wheel = new TimeoutWheel(mockScheduler(1, 1), 100L, ticker);
+
+        CountingTask task = new CountingTask();
+        for (int i = 0; i < 10000; i++)
+        {
+            wheel.newTimeout(task, 1000L, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(wheel.pending, 10000);
+
+        ticker.advance(999L);
+        wheel.tick();
+        assertEquals(task.numRuns, 0);
+
+        ticker.advance(1L);
+        wheel.tick();
+        assertEquals(task.numRuns, 10000);
+        assertEquals(wheel.pending, 0);
+    }
+
+    public void testTimeoutsLongerThanTheWheel()
+    {
+        ManualTicker ticker = new ManualTicker();
+        TimeoutWheel wheel = new TimeoutWheel(mockScheduler(1, 1), 100L, ticker);
+
+        // The timeout falls in the first bucket, but several turns later
+        long delay = 3 * TimeoutWheel.WHEEL_SIZE * 100L;
+        CountingTask task = new CountingTask();
+        wheel.newTimeout(task, delay, TimeUnit.MILLISECONDS);
+
+        ticker.advance(delay - 100L);
+        wheel.tick();
+        assertEquals(task.numRuns, 0);
+
+        ticker.advance(100L);
+        wheel.tick();
+        assertEquals(task.numRuns, 1);
+    }
+
+    public void testCancelTimeout()
+    {
+        ManualTicker ticker = new ManualTicker();
+        TimeoutWheel wheel = new TimeoutWheel(mockScheduler(1, 1), 100L, ticker);
+
+        CountingTask task = new CountingTask();
+        Timeout timeout = wheel.newTimeout(task, 100L, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertEquals(wheel.pending, 0);
+
+        ticker.advance(100L);
+        wheel.tick();
+        assertEquals(task.numRuns, 0);
+    }
+
+    public void testWheelRestartsWhenNewTimeoutsAreAdded()
+    {
+        ManualTicker ticker = new ManualTicker();
+        TimeoutWheel wheel = new TimeoutWheel(mockScheduler(2, 2), 100L, ticker);
+
+        CountingTask task = new CountingTask();
+        wheel.newTimeout(task, 100L, TimeUnit.MILLISECONDS);
+        ticker.advance(100L);
+        wheel.tick();
+
+        wheel.newTimeout(task, 100L, TimeUnit.MILLISECONDS);
+        ticker.advance(100L);
+        wheel.tick();
+
+        assertEquals(task.numRuns, 2);
+    }
+
+    public void testFailingTaskDoesNotStopOtherTimeouts()
+    {
+        ManualTicker ticker = new ManualTicker();
+        TimeoutWheel wheel = new TimeoutWheel(mockScheduler(1, 1), 100L, ticker);
+
+        CountingTask task = new CountingTask();
+        wheel.newTimeout(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw new RuntimeException();
+            }
+        }, 100L, TimeUnit.MILLISECONDS);
+        wheel.newTimeout(task, 100L, TimeUnit.MILLISECONDS);
+
+        ticker.advance(100L);
+        wheel.tick();
+        assertEquals(task.numRuns, 1);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static ScheduledExecutorService mockScheduler(final int starts, final int stops)
+    {
+        ScheduledFuture job = EasyMock.createMock(ScheduledFuture.class);
+        expect(job.cancel(false)).andReturn(true).times(stops);
+
+        ScheduledExecutorService scheduler = EasyMock.createMock(ScheduledExecutorService.class);
+        expect(
+            scheduler.scheduleWithFixedDelay(anyObject(Runnable.class), anyLong(), anyLong(),
+                eq(TimeUnit.MILLISECONDS))).andReturn(job).times(starts);
+
+        replay(job);
+        replay(scheduler);
+        return scheduler;
+    }
+
+    private static class ManualTicker extends Ticker
+    {
+        private long nanos = 0;
+
+        @Override
+        public long read()
+        {
+            return nanos;
+        }
+
+        public void advance(final long millis)
+        {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    private static class CountingTask implements Runnable
+    {
+        public int numRuns = 0;
+
+        @Override
+        public void run()
+        {
+            numRuns++;
+        }
+    }
+}
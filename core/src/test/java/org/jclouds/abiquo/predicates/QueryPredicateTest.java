@@ -0,0 +1,89 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.predicates;
+
+import static org.jclouds.abiquo.predicates.QueryPredicate.optionsOf;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.abiquo.domain.enterprise.options.EnterpriseOptions;
+import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.abiquo.predicates.enterprise.EnterprisePredicates;
+import org.jclouds.abiquo.predicates.network.IpPredicates;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+/**
+ * Unit tests for the {@link QueryPredicate} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class QueryPredicateTest
+{
+    public void testApplyDelegates()
+    {
+        Predicate<Object> predicate =
+            new QueryPredicate<Object>(Predicates.alwaysFalse(), IpOptions.builder().build());
+        assertFalse(predicate.apply(new Object()));
+
+        predicate =
+            new QueryPredicate<Object>(Predicates.alwaysTrue(), IpOptions.builder().build());
+        assertTrue(predicate.apply(new Object()));
+    }
+
+    public void testOptionsOfPlainPredicate()
+    {
+        assertNull(optionsOf(Predicates.alwaysTrue(), IpOptions.class));
+    }
+
+    public void testOptionsOfDifferentType()
+    {
+        Predicate<Object> predicate =
+            new QueryPredicate<Object>(Predicates.alwaysTrue(), IpOptions.builder().build());
+        assertNull(optionsOf(predicate, EnterpriseOptions.class));
+    }
+
+    public void testEnterpriseNameIsPushedDown()
+    {
+        EnterpriseOptions options =
+            optionsOf(EnterprisePredicates.name("Abiquo"), EnterpriseOptions.class);
+        assertNotNull(options);
+        assertEquals(options.getOptions().get("filter").iterator().next(), "Abiquo");
+    }
+
+    public void testMultipleEnterpriseNamesAreNotPushedDown()
+    {
+        assertNull(optionsOf(EnterprisePredicates.name("Abiquo", "jclouds"),
+            EnterpriseOptions.class));
+    }
+
+    public void testAvailableIpsArePushedDown()
+    {
+        IpOptions options = optionsOf(IpPredicates.available(), IpOptions.class);
+        assertNotNull(options);
+        assertEquals(options.getOptions().get("free").iterator().next(), "true");
+    }
+}
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 
 import org.jclouds.abiquo.features.BaseAbiquoAsyncClientTest;
+import org.jclouds.abiquo.functions.ReturnResponseOnNotModified;
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
 import org.jclouds.functions.IdentityFunction;
 import org.jclouds.rest.functions.ReturnNullOnNotFoundOr404;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
@@ -60,6 +62,30 @@ public class AbiquoHttpAsyncClientTest extends BaseAbiquoAsyncClientTest<AbiquoH
         checkFilters(request);
     }
 
+    public void testGetIfModified() throws SecurityException, NoSuchMethodException, IOException
+    {
+        RESTLink link = new RESTLink("edit", "http://foo/bar");
+        link.setType(DatacentersDto.BASE_MEDIA_TYPE);
+        CachedResponse cached = new CachedResponse("<rack/>", "\"1\"", null);
+
+        Method method =
+            AbiquoHttpAsyncClient.class.getMethod("getIfModified", RESTLink.class,
+                CachedResponse.class);
+        GeneratedHttpRequest<AbiquoHttpAsyncClient> request =
+            processor.createRequest(method, link, cached);
+
+        assertRequestLineEquals(request, "GET http://foo/bar HTTP/1.1");
+        assertNonPayloadHeadersEqual(request, "Accept: " + DatacentersDto.BASE_MEDIA_TYPE
+            + "\nIf-None-Match: \"1\"\n");
+        assertPayloadEquals(request, null, null, false);
+
+        assertResponseParserClassEquals(method, request, IdentityFunction.class);
+        assertSaxResponseParserClassEquals(method, null);
+        assertExceptionParserClassEquals(method, ReturnResponseOnNotModified.class);
+
+        checkFilters(request);
+    }
+
     @Override
     protected TypeLiteral<RestAnnotationProcessor<AbiquoHttpAsyncClient>> createTypeLiteral()
     {
@@ -0,0 +1,143 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+import org.jclouds.xml.XMLParser;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.infrastructure.DatacenterDto;
+import com.abiquo.server.core.infrastructure.RackDto;
+import com.google.common.base.Supplier;
+
+/**
+ * Unit tests for the {@link ParentCache} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class ParentCacheTest
+{
+    private static final String HREF = "http://localhost/api/cloud/virtualdatacenters/1";
+
+    private XMLParser xml = new JAXBParser("false");
+
+    public void testDisabledCacheAlwaysLoads()
+    {
+        ParentCache cache = new ParentCache(xml, 0L, 10);
+        CountingLoader loader = new CountingLoader();
+
+        assertFalse(cache.isEnabled());
+        cache.get(HREF, RackDto.class, loader);
+        cache.get(HREF, RackDto.class, loader);
+        assertEquals(loader.numLoads, 2);
+    }
+
+    public void testReturnCopiesOfTheCachedParent()
+    {
+        ParentCache cache = new ParentCache(xml, 60000L, 10);
+        CountingLoader loader = new CountingLoader();
+
+        RackDto first = cache.get(HREF, RackDto.class, loader);
+        first.setName("modified");
+        RackDto second = cache.get(HREF, RackDto.class, loader);
+
+        assertNotSame(first, second);
+        assertEquals(second.getName(), "rack");
+        assertEquals(loader.numLoads, 1);
+    }
+
+    public void testInvalidate()
+    {
+        ParentCache cache = new ParentCache(xml, 60000L, 10);
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(HREF, RackDto.class, loader);
+        cache.invalidate(HREF);
+        cache.get(HREF, RackDto.class, loader);
+        assertEquals(loader.numLoads, 2);
+    }
+
+    public void testEntriesExpire() throws InterruptedException
+    {
+        ParentCache cache = new ParentCache(xml, 1L, 10);
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(HREF, RackDto.class, loader);
+        Thread.sleep(10L);
+        cache.get(HREF, RackDto.class, loader);
+        assertEquals(loader.numLoads, 2);
+    }
+
+    public void testDoNotCacheMissingParents()
+    {
+        ParentCache cache = new ParentCache(xml, 60000L, 10);
+        Supplier<RackDto> loader = new Supplier<RackDto>()
+        {
+            @Override
+            public RackDto get()
+            {
+                return null;
+            }
+        };
+
+        assertNull(cache.get(HREF, RackDto.class, loader));
+        assertEquals(cache.cache.size(), 0L);
+    }
+
+    public void testReloadIfCachedObjectHasDifferentType()
+    {
+        ParentCache cache = new ParentCache(xml, 60000L, 10);
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(HREF, RackDto.class, loader);
+        Supplier<DatacenterDto> datacenterLoader = new Supplier<DatacenterDto>()
+        {
+            @Override
+            public DatacenterDto get()
+            {
+                DatacenterDto datacenter = new DatacenterDto();
+                datacenter.setName("datacenter");
+                return datacenter;
+            }
+        };
+        assertEquals(cache.get(HREF, DatacenterDto.class, datacenterLoader).getName(),
+            "datacenter");
+    }
+
+    private static class CountingLoader implements Supplier<RackDto>
+    {
+        public int numLoads = 0;
+
+        @Override
+        public RackDto get()
+        {
+            numLoads++;
+            RackDto rack = new RackDto();
+            rack.setName("rack");
+            return rack;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.xml.XMLParser;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.infrastructure.DatacenterDto;
+import com.abiquo.server.core.infrastructure.RackDto;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Unit tests for the {@link RequestCoalescer} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class RequestCoalescerTest
+{
+    private static final String RACK_URI = "http://localhost/api/admin/datacenters/1/racks/1";
+
+    private XMLParser xml = new JAXBParser("false");
+
+    public void testDisabledCoalescerAlwaysIssues()
+    {
+        RequestCoalescer coalescer = coalescer(false);
+        CountingRequest request = new CountingRequest();
+
+        assertFalse(coalescer.isEnabled());
+        coalescer.get(RACK_URI, RackDto.class, request);
+        coalescer.get(RACK_URI, RackDto.class, request);
+        assertEquals(request.numRequests.get(), 2);
+        assertEquals(coalescer.getIssuedCount(), 2L);
+        assertEquals(coalescer.getCoalescedCount(), 0L);
+    }
+
+    public void testUriIsRelativeToTheEndpoint()
+    {
+        assertEquals(coalescer(true).uri("/admin/datacenters/1/racks/1"), RACK_URI);
+    }
+
+    public void testUriWithTrailingSlashInTheEndpoint()
+    {
+        RequestCoalescer coalescer =
+            new RequestCoalescer(Suppliers.ofInstance(URI.create("http://localhost/api/")), xml,
+                true);
+        assertEquals(coalescer.uri("/admin/datacenters/1/racks/1"), RACK_URI);
+    }
+
+    public void testCompletedRequestsAreNotReused()
+    {
+        RequestCoalescer coalescer = coalescer(true);
+        CountingRequest request = new CountingRequest();
+
+        RackDto first = coalescer.get(RACK_URI, RackDto.class, request);
+        RackDto second = coalescer.get(RACK_URI, RackDto.class, request);
+        assertNotSame(first, second);
+        assertEquals(request.numRequests.get(), 2);
+        assertEquals(coalescer.getIssuedCount(), 2L);
+        assertTrue(coalescer.inFlight.isEmpty());
+    }
+
+    public void testConcurrentRequestsAreCoalesced() throws Exception
+    {
+        final RequestCoalescer coalescer = coalescer(true);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger numRequests = new AtomicInteger();
+
+        Callable<RackDto> call = new Callable<RackDto>()
+        {
+            @Override
+            public RackDto call() throws Exception
+            {
+                return coalescer.get(RACK_URI, RackDto.class, new Supplier<RackDto>()
+                {
+                    @Override
+                    public RackDto get()
+                    {
+                        numRequests.incrementAndGet();
+                        started.countDown();
+                        try
+                        {
+                            release.await();
+                        }
+                        catch (InterruptedException ex)
+                        {
+                            throw new IllegalStateException(ex);
+                        }
+                        return rack();
+                    }
+                });
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<RackDto> first = executor.submit(call);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<RackDto> second = executor.submit(call);
+            while (coalescer.getCoalescedCount() == 0)
+            {
+                Thread.sleep(10L);
+            }
+            release.countDown();
+
+            // Each caller gets its own copy of the response
+            RackDto firstRack = first.get(5, TimeUnit.SECONDS);
+            RackDto secondRack = second.get(5, TimeUnit.SECONDS);
+            assertNotSame(firstRack, secondRack);
+            assertEquals(secondRack.getName(), firstRack.getName());
+            assertEquals(numRequests.get(), 1);
+            assertEquals(coalescer.getIssuedCount(), 1L);
+            assertEquals(coalescer.getCoalescedCount(), 1L);
+            assertTrue(coalescer.inFlight.isEmpty());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testDifferentTypesAreNotCoalesced()
+    {
+        RequestCoalescer coalescer = coalescer(true);
+
+        coalescer.submit(RACK_URI, RackDto.class, supplierOf(SettableFuture.<RackDto> create()));
+        coalescer.submit(RACK_URI, DatacenterDto.class,
+            new Supplier<ListenableFuture<DatacenterDto>>()
+            {
+                @Override
+                public ListenableFuture<DatacenterDto> get()
+                {
+                    return SettableFuture.create();
+                }
+            });
+
+        assertEquals(coalescer.getIssuedCount(), 2L);
+        assertEquals(coalescer.getCoalescedCount(), 0L);
+    }
+
+    public void testSubmitReturnsCopiesOfTheInFlightResponse() throws Exception
+    {
+        RequestCoalescer coalescer = coalescer(true);
+        SettableFuture<RackDto> response = SettableFuture.create();
+
+        ListenableFuture<RackDto> first =
+            coalescer.submit(RACK_URI, RackDto.class, supplierOf(response));
+        ListenableFuture<RackDto> second =
+            coalescer.submit(RACK_URI, RackDto.class,
+                supplierOf(SettableFuture.<RackDto> create()));
+
+        assertNotSame(first, second);
+        assertEquals(coalescer.getIssuedCount(), 1L);
+        assertEquals(coalescer.getCoalescedCount(), 1L);
+
+        RackDto result = rack();
+        response.set(result);
+        assertSame(first.get(), result);
+        assertNotSame(second.get(), result);
+        assertEquals(second.get().getName(), result.getName());
+        assertTrue(coalescer.inFlight.isEmpty());
+    }
+
+    public void testCancellingACallerDoesNotCancelTheRequest() throws Exception
+    {
+        RequestCoalescer coalescer = coalescer(true);
+        SettableFuture<RackDto> response = SettableFuture.create();
+
+        ListenableFuture<RackDto> first =
+            coalescer.submit(RACK_URI, RackDto.class, supplierOf(response));
+        ListenableFuture<RackDto> second =
+            coalescer.submit(RACK_URI, RackDto.class,
+                supplierOf(SettableFuture.<RackDto> create()));
+
+        assertTrue(first.cancel(true));
+        assertFalse(response.isCancelled());
+
+        response.set(rack());
+        assertTrue(first.isCancelled());
+        assertEquals(second.get().getName(), "rack");
+    }
+
+    public void testFailuresArePropagatedAndNotReused()
+    {
+        RequestCoalescer coalescer = coalescer(true);
+        Supplier<RackDto> failing = new Supplier<RackDto>()
+        {
+            @Override
+            public RackDto get()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        try
+        {
+            coalescer.get(RACK_URI, RackDto.class, failing);
+            fail("The request should have failed");
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            // Expected
+        }
+
+        assertTrue(coalescer.inFlight.isEmpty());
+    }
+
+    private RequestCoalescer coalescer(final boolean enabled)
+    {
+        return new RequestCoalescer(Suppliers.ofInstance(URI.create("http://localhost/api")),
+            xml, enabled);
+    }
+
+    private static RackDto rack()
+    {
+        RackDto rack = new RackDto();
+        rack.setName("rack");
+        return rack;
+    }
+
+    private static Supplier<ListenableFuture<RackDto>> supplierOf(
+        final ListenableFuture<RackDto> future)
+    {
+        return new Supplier<ListenableFuture<RackDto>>()
+        {
+            @Override
+            public ListenableFuture<RackDto> get()
+            {
+                return future;
+            }
+        };
+    }
+
+    private static class CountingRequest implements Supplier<RackDto>
+    {
+        public AtomicInteger numRequests = new AtomicInteger();
+
+        @Override
+        public RackDto get()
+        {
+            numRequests.incrementAndGet();
+            return rack();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.rest.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.same;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.easymock.EasyMock;
+import org.jclouds.abiquo.rest.internal.ResponseCache.CachedResponse;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.xml.XMLParser;
+import org.jclouds.xml.internal.JAXBParser;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.infrastructure.RackDto;
+import com.google.common.collect.ImmutableMultimap;
+
+/**
+ * Unit tests for the {@link ResponseCache} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class ResponseCacheTest
+{
+    private XMLParser xml = new JAXBParser("false");
+
+    public void testDisabledCacheAlwaysGets() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(ok("\"1\"")).times(2);
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 0);
+        assertFalse(cache.isEnabled());
+        assertEquals(cache.get(link, RackDto.class).getName(), "rack");
+        assertEquals(cache.get(link, RackDto.class).getName(), "rack");
+
+        verify(http);
+    }
+
+    public void testReturnCachedObjectIfNotModified() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(ok("\"1\""));
+        expect(http.getIfModified(same(link), anyObject(CachedResponse.class))).andReturn(
+            notModified());
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 10);
+        RackDto first = cache.get(link, RackDto.class);
+        first.setName("modified");
+        RackDto second = cache.get(link, RackDto.class);
+
+        // Each caller gets its own copy of the cached object
+        assertNotSame(first, second);
+        assertEquals(second.getName(), "rack");
+        assertEquals(cache.getHitCount(), 1L);
+        assertEquals(cache.getMissCount(), 1L);
+
+        verify(http);
+    }
+
+    public void testParseResponseIfModified() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(ok("\"1\""));
+        expect(http.getIfModified(same(link), anyObject(CachedResponse.class))).andReturn(
+            ok("\"2\""));
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 10);
+        RackDto first = cache.get(link, RackDto.class);
+        RackDto second = cache.get(link, RackDto.class);
+
+        assertNotSame(first, second);
+        assertEquals(cache.cache.getIfPresent(link.getHref() + " " + link.getType()).getETag(),
+            "\"2\"");
+        assertEquals(cache.getHitCount(), 0L);
+        assertEquals(cache.getMissCount(), 2L);
+
+        verify(http);
+    }
+
+    public void testDoNotCacheResponsesWithoutValidators() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(ok(null)).times(2);
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 10);
+        cache.get(link, RackDto.class);
+        cache.get(link, RackDto.class);
+        assertEquals(cache.cache.size(), 0L);
+
+        verify(http);
+    }
+
+    public void testInvalidate() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(ok("\"1\"")).times(2);
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 10);
+        cache.get(link, RackDto.class);
+        cache.invalidate(link.getHref());
+        assertEquals(cache.cache.size(), 0L);
+        cache.get(link, RackDto.class);
+
+        verify(http);
+    }
+
+    public void testNotFoundReturnsNull() throws IOException
+    {
+        RESTLink link = rackLink();
+        AbiquoHttpClient http = EasyMock.createMock(AbiquoHttpClient.class);
+        expect(http.get(link)).andReturn(null);
+        replay(http);
+
+        ResponseCache cache = new ResponseCache(http, xml, 10);
+        assertNull(cache.get(link, RackDto.class));
+        assertTrue(cache.cache.asMap().isEmpty());
+
+        verify(http);
+    }
+
+    private static RESTLink rackLink()
+    {
+        RESTLink link = new RESTLink("rack", "http://localhost/api/admin/datacenters/1/racks/1");
+        link.setType(RackDto.BASE_MEDIA_TYPE);
+        return link;
+    }
+
+    private HttpResponse ok(final String etag) throws IOException
+    {
+        RackDto rack = new RackDto();
+        rack.setName("rack");
+
+        HttpResponse.Builder< ? > builder =
+            HttpResponse.builder().statusCode(200).message("OK")
+                .payload(Payloads.newStringPayload(xml.toXML(rack)));
+        if (etag != null)
+        {
+            builder.headers(ImmutableMultimap.of(HttpHeaders.ETAG, etag));
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse notModified()
+    {
+        return HttpResponse.builder().statusCode(304).message("Not Modified").build();
+    }
+}
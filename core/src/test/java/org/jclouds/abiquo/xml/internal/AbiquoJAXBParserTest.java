@@ -0,0 +1,130 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.xml.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Set;
+
+import javax.xml.bind.JAXBContext;
+
+import org.jclouds.abiquo.features.CloudAsyncClient;
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualDatacenterDto;
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link AbiquoJAXBParser} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class AbiquoJAXBParserTest
+{
+    public void testMarshallAndUnmarshall() throws IOException
+    {
+        AbiquoJAXBParser parser = parser();
+
+        VirtualMachineDto vm = new VirtualMachineDto();
+        vm.setId(5);
+        vm.setName("VM");
+
+        VirtualMachineDto parsed =
+            parser.fromXML(parser.toXML(vm, VirtualMachineDto.class), VirtualMachineDto.class);
+
+        assertEquals(parsed.getId(), vm.getId());
+        assertEquals(parsed.getName(), vm.getName());
+    }
+
+    public void testReuseContextsAndUnmarshallers() throws IOException
+    {
+        AbiquoJAXBParser parser = parser();
+        String xml = parser.toXML(new VirtualMachineDto(), VirtualMachineDto.class);
+
+        parser.fromXML(xml, VirtualMachineDto.class);
+        JAXBContext context = parser.contexts.get(VirtualMachineDto.class);
+        parser.fromXML(xml, VirtualMachineDto.class);
+
+        assertSame(parser.contexts.get(VirtualMachineDto.class), context);
+        assertEquals(parser.contexts.size(), 1);
+        assertEquals(parser.unmarshallers.get(VirtualMachineDto.class).size(), 1);
+        assertEquals(parser.marshallers.get(VirtualMachineDto.class).size(), 1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testUnmarshallInvalidDocument() throws IOException
+    {
+        parser().fromXML("<virtualMachine>", VirtualMachineDto.class);
+    }
+
+    public void testFailedUnmarshallersAreDiscarded()
+    {
+        AbiquoJAXBParser parser = parser();
+        try
+        {
+            parser.fromXML("<virtualMachine>", VirtualMachineDto.class);
+        }
+        catch (IOException ex)
+        {
+            // Expected
+        }
+
+        assertTrue(parser.unmarshallers.get(VirtualMachineDto.class).isEmpty());
+    }
+
+    public void testWarmUp()
+    {
+        AbiquoJAXBParser parser = parser();
+        parser.warmUp(ImmutableSet.<Class< ? >> of(VirtualMachineDto.class,
+            VirtualDatacenterDto.class));
+
+        assertTrue(parser.contexts.containsKey(VirtualMachineDto.class));
+        assertTrue(parser.contexts.containsKey(VirtualDatacenterDto.class));
+    }
+
+    public void testWarmUpInTheBackground()
+    {
+        AbiquoJAXBParser parser =
+            new AbiquoJAXBParser("false", "true", MoreExecutors.sameThreadExecutor());
+        assertTrue(parser.contexts.containsKey(VirtualDatacenterDto.class));
+    }
+
+    public void testTransportTypes()
+    {
+        Set<Class< ? >> types =
+            AbiquoJAXBParser.transportTypes(ImmutableSet.<Class< ? >> of(CloudAsyncClient.class));
+
+        assertTrue(types.contains(VirtualDatacenterDto.class));
+        assertTrue(types.contains(VirtualMachineDto.class));
+        assertFalse(types.contains(Integer.class));
+    }
+
+    private static AbiquoJAXBParser parser()
+    {
+        return new AbiquoJAXBParser("false", "false", MoreExecutors.sameThreadExecutor());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to jclouds, Inc. (jclouds) under one or more
+ * contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  jclouds licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.jclouds.abiquo.xml.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.testng.annotations.Test;
+
+import com.abiquo.server.core.cloud.VirtualMachineDto;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link AbiquoJSONParser} class.
+ * 
+ * @author Ignasi Barrera
+ */
+@Test(groups = "unit")
+public class AbiquoJSONParserTest
+{
+    public void testMarshallAndUnmarshall() throws IOException
+    {
+        AbiquoJSONParser parser = parser();
+
+        VirtualMachineDto vm = new VirtualMachineDto();
+        vm.setId(5);
+        vm.setName("VM");
+
+        String json = parser.toXML(vm, VirtualMachineDto.class);
+        assertTrue(json.startsWith("{"));
+        assertFalse(json.contains("null"));
+
+        VirtualMachineDto parsed = parser.fromXML(json, VirtualMachineDto.class);
+        assertEquals(parsed.getId(), vm.getId());
+        assertEquals(parsed.getName(), vm.getName());
+    }
+
+    public void testIgnoreUnknownProperties() throws IOException
+    {
+        VirtualMachineDto parsed =
+            parser().fromXML("{\"id\":5,\"unknown\":\"value\"}", VirtualMachineDto.class);
+        assertEquals(parsed.getId(), Integer.valueOf(5));
+    }
+
+    public void testUnmarshallXMLDocuments() throws IOException
+    {
+        AbiquoJAXBParser xml = jaxbParser();
+
+        VirtualMachineDto vm = new VirtualMachineDto();
+        vm.setId(5);
+
+        VirtualMachineDto parsed =
+            parser().fromXML(xml.toXML(vm, VirtualMachineDto.class), VirtualMachineDto.class);
+        assertEquals(parsed.getId(), vm.getId());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testUnmarshallInvalidDocument() throws IOException
+    {
+        parser().fromXML("{\"id\":", VirtualMachineDto.class);
+    }
+
+    private static AbiquoJSONParser parser()
+    {
+        return new AbiquoJSONParser(jaxbParser());
+    }
+
+    private static AbiquoJAXBParser jaxbParser()
+    {
+        return new AbiquoJAXBParser("false", "false", MoreExecutors.sameThreadExecutor());
+    }
+}